@@ -0,0 +1,33 @@
+package com.project.HR.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.project.HR.model.LeaveStatus;
+import com.project.HR.model.LeaveType;
+import com.project.HR.repository.LeaveStatusRepository;
+import com.project.HR.repository.LeaveTypeRepository;
+import com.project.core.cache.ReferenceDataCache;
+
+/**
+ * Reference-data caches for leave types and leave statuses.
+ */
+@Configuration
+public class LeaveReferenceDataConfig {
+
+    /**
+     * Leave types keyed by id.
+     */
+    @Bean
+    public ReferenceDataCache<Integer, LeaveType> leaveTypeCache(LeaveTypeRepository leaveTypeRepository) {
+        return new ReferenceDataCache<>("leaveTypes", leaveTypeRepository::findAll, LeaveType::getId);
+    }
+
+    /**
+     * Leave statuses keyed by code (e.g. "PENDING", "APPROVED").
+     */
+    @Bean
+    public ReferenceDataCache<String, LeaveStatus> leaveStatusCache(LeaveStatusRepository leaveStatusRepository) {
+        return new ReferenceDataCache<>("leaveStatuses", leaveStatusRepository::findAll, LeaveStatus::getCode);
+    }
+}
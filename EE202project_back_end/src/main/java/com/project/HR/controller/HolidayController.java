@@ -37,27 +37,29 @@ public class HolidayController {
         return ResponseEntity.ok(holidays);
     }
 
-    @Operation(summary = "從 ICS 匯入年度假日", description = "【需 HOLIDAY_ADMIN 權限】提供 ICS 的 URL 來匯入整年度的假日資料")
+    @Operation(summary = "從 ICS 匯入年度假日", description = "【需 HOLIDAY_ADMIN 權限】提供伺服器上 holiday.ics.import-dir 目錄內的 .ics 檔案 (file 或 url 欄位) 來匯入整年度的假日資料")
     @PostMapping("/admin/holidays/import/ics")
     @PreAuthorize("hasAuthority('HOLIDAY_ADMIN')")
     public ResponseEntity<String> importHolidays(
             @RequestBody Map<String, String> payload,
             @AuthenticationPrincipal EmployeeUserDetails userDetails) {
         
-        String icsUrl = payload.get("url");
+        String icsLocation = payload.getOrDefault("file", payload.get("url"));
         String yearStr = payload.get("year");
 
-        if (icsUrl == null || yearStr == null) {
-            return ResponseEntity.badRequest().body("Request must include 'url' and 'year'.");
+        if (icsLocation == null || yearStr == null) {
+            return ResponseEntity.badRequest().body("Request must include 'file' (or 'url') and 'year'.");
         }
 
         try {
             int year = Integer.parseInt(yearStr);
             String operator = userDetails.getUsername();
-            holidayService.importHolidaysFromIcs(icsUrl, year, operator);
-            return ResponseEntity.ok("Holiday import process started for year " + year);
+            int imported = holidayService.importHolidaysFromIcs(icsLocation, year, operator);
+            return ResponseEntity.ok("Imported " + imported + " holidays for year " + year);
         } catch (NumberFormatException e) {
             return ResponseEntity.badRequest().body("Invalid 'year' format.");
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
             // In a real application, log the exception
             return ResponseEntity.internalServerError().body("An error occurred during import: " + e.getMessage());
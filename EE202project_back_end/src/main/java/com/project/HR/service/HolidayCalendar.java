@@ -0,0 +1,110 @@
+package com.project.HR.service;
+
+import com.project.HR.model.NationalHoliday;
+import com.project.HR.repository.NationalHolidayRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory national holiday calendar.
+ * Each year's {@link NationalHoliday} rows are loaded once and folded into a day-of-year
+ * {@link BitSet} of working days (weekdays minus holidays, plus makeup workdays), so
+ * {@link #isWorkingDay(LocalDate)} never touches the database after the first call for that year.
+ * <p>
+ * A year is dropped from the cache when a {@link HolidaysChangedEvent} for it is committed
+ * (published by the ICS import for the imported year).
+ */
+@Component
+public class HolidayCalendar {
+
+    private static final Logger logger = LoggerFactory.getLogger(HolidayCalendar.class);
+
+    private static final String MAKEUP_WORKDAY = "MAKEUP_WORKDAY";
+
+    private final NationalHolidayRepository holidayRepository;
+    private final Map<Integer, BitSet> workingDaysByYear = new ConcurrentHashMap<>();
+
+    public HolidayCalendar(NationalHolidayRepository holidayRepository) {
+        this.holidayRepository = holidayRepository;
+    }
+
+    /**
+     * Returns whether the given date is a working day.
+     */
+    public boolean isWorkingDay(LocalDate date) {
+        return workingDays(date.getYear()).get(date.getDayOfYear() - 1);
+    }
+
+    /**
+     * Counts the working days in [from, to], both inclusive.
+     */
+    public long countWorkingDays(LocalDate from, LocalDate to) {
+        long count = 0;
+        for (int year = from.getYear(); year <= to.getYear(); year++) {
+            int fromIndex = year == from.getYear() ? from.getDayOfYear() - 1 : 0;
+            int toIndex = year == to.getYear() ? to.getDayOfYear() : LocalDate.ofYearDay(year, 1).lengthOfYear();
+            if (fromIndex < toIndex) {
+                count += workingDays(year).get(fromIndex, toIndex).cardinality();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Drops the cached calendar of a year so that it is rebuilt from the database on next use.
+     * A load that is in progress for the same year completes first and is then discarded.
+     */
+    public void invalidate(int year) {
+        if (workingDaysByYear.remove(year) != null) {
+            logger.info("Holiday calendar of {} invalidated", year);
+        }
+    }
+
+    /**
+     * Evicts the changed year once the change is committed, so a reload cannot see the old rows.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHolidaysChanged(HolidaysChangedEvent event) {
+        invalidate(event.year());
+    }
+
+    private BitSet workingDays(int year) {
+        return workingDaysByYear.computeIfAbsent(year, this::loadYear);
+    }
+
+    private BitSet loadYear(int year) {
+        LocalDate first = LocalDate.ofYearDay(year, 1);
+        int length = first.lengthOfYear();
+        BitSet bits = new BitSet(length);
+        DayOfWeek dayOfWeek = first.getDayOfWeek();
+        for (int i = 0; i < length; i++) {
+            if (dayOfWeek != DayOfWeek.SATURDAY && dayOfWeek != DayOfWeek.SUNDAY) {
+                bits.set(i);
+            }
+            dayOfWeek = dayOfWeek.plus(1);
+        }
+        // Makeup workdays win over holidays on the same date
+        List<NationalHoliday> holidays = holidayRepository.findByDateBetween(first, first.plusDays(length - 1));
+        for (NationalHoliday holiday : holidays) {
+            if (!MAKEUP_WORKDAY.equals(holiday.getType())) {
+                bits.clear(holiday.getDate().getDayOfYear() - 1);
+            }
+        }
+        for (NationalHoliday holiday : holidays) {
+            if (MAKEUP_WORKDAY.equals(holiday.getType())) {
+                bits.set(holiday.getDate().getDayOfYear() - 1);
+            }
+        }
+        logger.debug("Holiday calendar of {} loaded with {} entries", year, holidays.size());
+        return bits;
+    }
+}
@@ -2,28 +2,56 @@ package com.project.HR.service;
 
 import com.project.HR.model.NationalHoliday;
 import com.project.HR.repository.NationalHolidayRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.time.DayOfWeek;
-import java.time.Duration;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 @Service
 public class HolidayService {
 
+    private static final Logger logger = LoggerFactory.getLogger(HolidayService.class);
+
     private final NationalHolidayRepository holidayRepository;
+    private final WorkCalendar workCalendar;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Directory that local .ics files are imported from.
+     */
+    @Value("${holiday.ics.import-dir:holidays}")
+    private String icsImportDir = "holidays";
 
     @Autowired
-    public HolidayService(NationalHolidayRepository holidayRepository) {
+    public HolidayService(NationalHolidayRepository holidayRepository, WorkCalendar workCalendar,
+            ApplicationEventPublisher eventPublisher) {
         this.holidayRepository = holidayRepository;
+        this.workCalendar = workCalendar;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional(readOnly = true)
@@ -39,63 +67,92 @@ public class HolidayService {
      * @return The calculated hours as a BigDecimal.
      */
     public BigDecimal calculateLeaveHours(LocalDateTime start, LocalDateTime end) {
-        if (start == null || end == null || !start.isBefore(end)) {
-            return BigDecimal.ZERO;
-        }
-
-        List<NationalHoliday> holidays = findHolidaysBetween(start.toLocalDate(), end.toLocalDate());
-        Set<LocalDate> holidayDates = holidays.stream()
-            .filter(h -> !"MAKEUP_WORKDAY".equals(h.getType()))
-            .map(NationalHoliday::getDate)
-            .collect(Collectors.toSet());
-        Set<LocalDate> makeupWorkdays = holidays.stream()
-            .filter(h -> "MAKEUP_WORKDAY".equals(h.getType()))
-            .map(NationalHoliday::getDate)
-            .collect(Collectors.toSet());
-
-        double totalMinutes = 0;
-        LocalDate loopDate = start.toLocalDate();
-
-        while (!loopDate.isAfter(end.toLocalDate())) {
-            DayOfWeek dayOfWeek = loopDate.getDayOfWeek();
-            boolean isWorkingDay = makeupWorkdays.contains(loopDate) || 
-                                   (dayOfWeek != DayOfWeek.SATURDAY && dayOfWeek != DayOfWeek.SUNDAY && !holidayDates.contains(loopDate));
-
-            if (isWorkingDay) {
-                LocalDateTime workDayStart = loopDate.atTime(9, 0);
-                LocalDateTime workDayEnd = loopDate.atTime(18, 0);
-                LocalDateTime lunchStart = loopDate.atTime(12, 0);
-                LocalDateTime lunchEnd = loopDate.atTime(13, 0);
-
-                LocalDateTime effectiveStart = loopDate.isEqual(start.toLocalDate()) ? start : workDayStart;
-                LocalDateTime effectiveEnd = loopDate.isEqual(end.toLocalDate()) ? end : workDayEnd;
-                
-                if (effectiveStart.isBefore(workDayStart)) effectiveStart = workDayStart;
-                if (effectiveEnd.isAfter(workDayEnd)) effectiveEnd = workDayEnd;
+        double totalHours = workCalendar.workingMinutes(start, end) / 60.0;
+        return BigDecimal.valueOf(totalHours).setScale(2, RoundingMode.HALF_UP);
+    }
 
-                if (effectiveStart.isBefore(effectiveEnd)) {
-                    long minutesInDay = Duration.between(effectiveStart, effectiveEnd).toMinutes();
+    /**
+     * Replaces the ICS-sourced holidays of a year with the entries of a local .ics file.
+     * Dates that already exist from another source (e.g. MANUAL) with the same type are kept as is.
+     * The holiday calendar of the year is rebuilt after the import commits.
+     * @param icsLocation Path or file: URI of the .ics file, relative to {@code holiday.ics.import-dir}.
+     * @param year The year to import; events outside this year are ignored.
+     * @param operator The user performing the import.
+     * @return The number of holiday rows imported.
+     */
+    @Transactional
+    public int importHolidaysFromIcs(String icsLocation, int year, String operator) {
+        Path file = resolveIcsFile(icsLocation);
+        byte[] content;
+        List<IcsHolidayParser.IcsHoliday> parsed;
+        try {
+            content = Files.readAllBytes(file);
+            parsed = IcsHolidayParser.parse(
+                    new InputStreamReader(new ByteArrayInputStream(content), StandardCharsets.UTF_8), year);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read ICS file: " + file.getFileName(), e);
+        }
+        String sourceVersion = sha256(content);
 
-                    LocalDateTime lunchOverlapStart = effectiveStart.isAfter(lunchStart) ? effectiveStart : lunchStart;
-                    LocalDateTime lunchOverlapEnd = effectiveEnd.isBefore(lunchEnd) ? effectiveEnd : lunchEnd;
+        holidayRepository.deleteBySourceAndYear("ICS", year);
+        Set<String> existing = new HashSet<>();
+        for (NationalHoliday holiday : holidayRepository.findByDateBetween(LocalDate.of(year, 1, 1),
+                LocalDate.of(year, 12, 31))) {
+            existing.add(holiday.getDate() + "|" + holiday.getType());
+        }
 
-                    if (lunchOverlapStart.isBefore(lunchOverlapEnd)) {
-                        minutesInDay -= Duration.between(lunchOverlapStart, lunchOverlapEnd).toMinutes();
-                    }
-                    totalMinutes += minutesInDay;
-                }
+        List<NationalHoliday> holidays = new ArrayList<>();
+        for (IcsHolidayParser.IcsHoliday entry : parsed) {
+            if (existing.contains(entry.date() + "|" + entry.type())) {
+                continue;
             }
-            loopDate = loopDate.plusDays(1);
+            NationalHoliday holiday = new NationalHoliday();
+            holiday.setDate(entry.date());
+            holiday.setName(entry.name());
+            holiday.setType(entry.type());
+            holiday.setAllDay(true);
+            holiday.setSource("ICS");
+            holiday.setSourceYear(year);
+            holiday.setSourceVersion(sourceVersion);
+            holiday.setCreatedBy(operator);
+            holidays.add(holiday);
         }
+        holidayRepository.saveAll(holidays);
+        eventPublisher.publishEvent(new HolidaysChangedEvent(year));
+        logger.info("Imported {} holidays of {} from {} by {}", holidays.size(), year, file.getFileName(), operator);
+        return holidays.size();
+    }
 
-        double totalHours = totalMinutes / 60.0;
-        return BigDecimal.valueOf(totalHours).setScale(2, RoundingMode.HALF_UP);
+    /**
+     * Resolves the ICS location inside the configured import directory, rejecting remote URLs and
+     * paths that escape the directory.
+     */
+    private Path resolveIcsFile(String icsLocation) {
+        if (icsLocation == null || icsLocation.isBlank()) {
+            throw new IllegalArgumentException("ICS file location is required.");
+        }
+        String location = icsLocation.trim();
+        if (location.regionMatches(true, 0, "file:", 0, 5)) {
+            location = Paths.get(URI.create(location)).toString();
+        } else if (location.contains("://")) {
+            throw new IllegalArgumentException("Only local .ics files are supported.");
+        }
+        Path baseDir = Paths.get(icsImportDir).toAbsolutePath().normalize();
+        Path file = baseDir.resolve(location).normalize();
+        if (!file.startsWith(baseDir) || !file.getFileName().toString().toLowerCase().endsWith(".ics")) {
+            throw new IllegalArgumentException("ICS file must be a .ics file under " + baseDir);
+        }
+        if (!Files.isRegularFile(file)) {
+            throw new IllegalArgumentException("ICS file not found: " + file.getFileName());
+        }
+        return file;
     }
 
-    @Transactional
-    public void importHolidaysFromIcs(String icsUrl, int year, String operator) {
-        holidayRepository.deleteBySourceAndYear("ICS", year);
-        // Full implementation requires ical4j library and HTTP client.
-        System.out.println("Placeholder: Importing holidays from " + icsUrl + " for year " + year);
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 }
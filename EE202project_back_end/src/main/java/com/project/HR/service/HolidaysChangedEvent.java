@@ -0,0 +1,10 @@
+package com.project.HR.service;
+
+/**
+ * Published after the {@code NationalHoliday} rows of a year are inserted, replaced or removed,
+ * so that cached calendars of that year can be rebuilt.
+ *
+ * @param year The affected year.
+ */
+public record HolidaysChangedEvent(int year) {
+}
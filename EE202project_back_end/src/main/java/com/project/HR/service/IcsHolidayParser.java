@@ -0,0 +1,117 @@
+package com.project.HR.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal iCalendar (RFC 5545) reader for government holiday calendars.
+ * Only VEVENT blocks with DTSTART / DTEND / SUMMARY are used; multi-day events are expanded
+ * to one entry per day (DTEND is exclusive). Events whose summary mentions a makeup workday
+ * ("補班" / "補行上班") become MAKEUP_WORKDAY, all others NATIONAL_HOLIDAY.
+ */
+final class IcsHolidayParser {
+
+    /**
+     * One holiday date parsed from the calendar.
+     */
+    record IcsHoliday(LocalDate date, String name, String type) {
+    }
+
+    private static final DateTimeFormatter BASIC_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private IcsHolidayParser() {
+    }
+
+    /**
+     * Parses the calendar and returns the entries of the given year, one per (date, type).
+     */
+    static List<IcsHoliday> parse(Reader source, int year) throws IOException {
+        Map<String, IcsHoliday> result = new LinkedHashMap<>();
+        LocalDate start = null;
+        LocalDate end = null;
+        String summary = null;
+        boolean inEvent = false;
+
+        for (String line : unfold(source)) {
+            String name = propertyName(line);
+            String value = line.substring(line.indexOf(':') + 1).trim();
+            if (line.equals("BEGIN:VEVENT")) {
+                inEvent = true;
+                start = null;
+                end = null;
+                summary = null;
+            } else if (line.equals("END:VEVENT")) {
+                if (inEvent && start != null) {
+                    String title = summary != null ? unescape(summary) : "";
+                    String type = title.contains("補班") || title.contains("補行上班") ? "MAKEUP_WORKDAY"
+                            : "NATIONAL_HOLIDAY";
+                    LocalDate last = end != null && end.isAfter(start) ? end.minusDays(1) : start;
+                    for (LocalDate d = start; !d.isAfter(last); d = d.plusDays(1)) {
+                        if (d.getYear() == year) {
+                            // 名稱欄位長度上限 80
+                            String holidayName = title.length() > 80 ? title.substring(0, 80) : title;
+                            result.putIfAbsent(d + "|" + type, new IcsHoliday(d, holidayName, type));
+                        }
+                    }
+                }
+                inEvent = false;
+            } else if (inEvent && "DTSTART".equals(name)) {
+                start = parseDate(value);
+            } else if (inEvent && "DTEND".equals(name)) {
+                end = parseDate(value);
+            } else if (inEvent && "SUMMARY".equals(name)) {
+                summary = value;
+            }
+        }
+        return new ArrayList<>(result.values());
+    }
+
+    /**
+     * Joins folded lines (continuation lines start with a space or tab).
+     */
+    private static List<String> unfold(Reader source) throws IOException {
+        List<String> lines = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(source);
+        String raw;
+        while ((raw = reader.readLine()) != null) {
+            if (!raw.isEmpty() && (raw.charAt(0) == ' ' || raw.charAt(0) == '\t') && !lines.isEmpty()) {
+                lines.set(lines.size() - 1, lines.get(lines.size() - 1) + raw.substring(1));
+            } else if (!raw.isEmpty()) {
+                lines.add(raw.charAt(0) == '\uFEFF' ? raw.substring(1) : raw);
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Property name without parameters, e.g. "DTSTART" for "DTSTART;VALUE=DATE:20250101".
+     */
+    private static String propertyName(String line) {
+        int colon = line.indexOf(':');
+        int semicolon = line.indexOf(';');
+        int endIndex = semicolon >= 0 && (colon < 0 || semicolon < colon) ? semicolon : colon;
+        return endIndex >= 0 ? line.substring(0, endIndex).toUpperCase() : line.toUpperCase();
+    }
+
+    /**
+     * Accepts both DATE (20250101) and DATE-TIME (20250101T000000Z) values.
+     */
+    private static LocalDate parseDate(String value) {
+        if (value.length() < 8) {
+            throw new IllegalArgumentException("Invalid ICS date: " + value);
+        }
+        return LocalDate.parse(value.substring(0, 8), BASIC_DATE);
+    }
+
+    private static String unescape(String text) {
+        return text.replace("\\n", " ").replace("\\N", " ").replace("\\,", ",").replace("\\;", ";")
+                .replace("\\\\", "\\").trim();
+    }
+}
@@ -1,9 +1,6 @@
 package com.project.HR.service;
 
 import java.math.BigDecimal;
-import java.time.DayOfWeek;
-import java.time.Duration;
-import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
@@ -11,7 +8,6 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -37,14 +33,11 @@ import com.project.HR.model.LeaveRecord;
 import com.project.HR.model.LeaveRecordDto;
 import com.project.HR.model.LeaveStatus;
 import com.project.HR.model.LeaveType;
-import com.project.HR.model.NationalHoliday;
 import com.project.HR.model.UpdateLeaveRecordRequest;
 import com.project.HR.model.UpdateLeaveRequestWithAttachments;
 import com.project.HR.repository.LeaveAttachmentRepository;
 import com.project.HR.repository.LeaveRecordRepository;
-import com.project.HR.repository.LeaveStatusRepository;
-import com.project.HR.repository.LeaveTypeRepository;
-import com.project.HR.repository.NationalHolidayRepository;
+import com.project.core.cache.ReferenceDataCache;
 import com.project.core.security.EmployeeUserDetails;
 import com.project.employeeuser.dao.EmployeeUserDAO;
 import com.project.employeeuser.model.EmployeeUser;
@@ -63,10 +56,10 @@ public class LeaveRecordServiceImpl implements LeaveRecordService {
     private static final Logger logger = LoggerFactory.getLogger(LeaveRecordServiceImpl.class);
 
     private final LeaveRecordRepository leaveRecordRepository;
-    private final LeaveTypeRepository leaveTypeRepository;
+    private final ReferenceDataCache<Integer, LeaveType> leaveTypeCache;
     private final EmployeeUserDAO employeeUserDAO;
-    private final LeaveStatusRepository leaveStatusRepository;
-    private final NationalHolidayRepository nationalHolidayRepository;
+    private final ReferenceDataCache<String, LeaveStatus> leaveStatusCache;
+    private final WorkCalendar workCalendar;
     private final AnnualLeaveService annualLeaveService;
     private final FileStorageService fileStorageService;
     private final LeaveAttachmentRepository leaveAttachmentRepository;
@@ -138,7 +131,7 @@ public class LeaveRecordServiceImpl implements LeaveRecordService {
         LeaveRecord newRecord = new LeaveRecord();
         newRecord.setEmployee(currentUser);
 
-        LeaveType leaveType = leaveTypeRepository.findById(request.getLeaveTypeId())
+        LeaveType leaveType = leaveTypeCache.get(request.getLeaveTypeId())
                 .orElseThrow(() -> new RuntimeException("LeaveType not found with id: " + request.getLeaveTypeId()));
         newRecord.setLeaveType(leaveType);
 
@@ -156,7 +149,7 @@ public class LeaveRecordServiceImpl implements LeaveRecordService {
         newRecord.setHours(BigDecimal.valueOf(calculatedHours));
 
         newRecord.setUuid(UUID.randomUUID().toString());
-        LeaveStatus pendingStatus = leaveStatusRepository.findByCode("PENDING")
+        LeaveStatus pendingStatus = leaveStatusCache.get("PENDING")
                 .orElseThrow(() -> new RuntimeException("LeaveStatus PENDING not found"));
         newRecord.setStatus(pendingStatus);
 
@@ -283,53 +276,8 @@ public class LeaveRecordServiceImpl implements LeaveRecordService {
             return 0.0;
         }
 
-        // 取得指定日期範圍內的所有國定假日與補班日
-        List<NationalHoliday> holidays = nationalHolidayRepository.findByDateBetween(start.toLocalDate(),
-                end.toLocalDate());
-        Set<LocalDate> holidayDates = holidays.stream()
-                .filter(h -> !"MAKEUP_WORKDAY".equals(h.getType()))
-                .map(NationalHoliday::getDate)
-                .collect(Collectors.toSet());
-        Set<LocalDate> makeupWorkdays = holidays.stream()
-                .filter(h -> "MAKEUP_WORKDAY".equals(h.getType()))
-                .map(NationalHoliday::getDate)
-                .collect(Collectors.toSet());
-
-        double totalMinutes = 0;
-        LocalDateTime loopDateTime = start;
-
-        // 逐分鐘檢查是否為工作時間
-        while (loopDateTime.isBefore(end)) {
-            LocalDate loopDate = loopDateTime.toLocalDate();
-            // 例假日判斷
-            DayOfWeek dayOfWeek = loopDate.getDayOfWeek();
-            boolean isWorkingDay = makeupWorkdays.contains(loopDate) ||
-                    (dayOfWeek != DayOfWeek.SATURDAY && dayOfWeek != DayOfWeek.SUNDAY
-                            && !holidayDates.contains(loopDate));
-
-            // 設定上下班時間與午休時間
-            if (isWorkingDay) {
-                LocalDateTime workDayStart = loopDate.atTime(9, 0);
-                LocalDateTime workDayEnd = loopDate.atTime(18, 0);
-                LocalDateTime lunchStart = loopDate.atTime(12, 0);
-                LocalDateTime lunchEnd = loopDate.atTime(13, 0);
-
-                LocalDateTime nextMinute = loopDateTime.plusMinutes(1);
-                LocalDateTime effectiveEnd = nextMinute.isAfter(end) ? end : nextMinute;
-
-                if (loopDateTime.isBefore(workDayStart))
-                    loopDateTime = workDayStart;
-                if (effectiveEnd.isAfter(workDayEnd))
-                    effectiveEnd = workDayEnd;
-
-                if (!(loopDateTime.isBefore(lunchEnd) && effectiveEnd.isAfter(lunchStart))) {
-                    if (loopDateTime.isBefore(effectiveEnd)) {
-                        totalMinutes += Duration.between(loopDateTime, effectiveEnd).toMinutes();
-                    }
-                }
-            }
-            loopDateTime = loopDateTime.plusMinutes(1);
-        }
+        // 以工作日曆直接計算每日工作時段 (09:00-12:00、13:00-18:00) 的重疊分鐘數
+        long totalMinutes = workCalendar.workingMinutes(start, end);
 
         double totalHours = totalMinutes / 60.0;
         return Math.round(totalHours * 2) / 2.0; // 四捨五入到0.5小時
@@ -340,9 +288,9 @@ public class LeaveRecordServiceImpl implements LeaveRecordService {
         double totalEntitlementDays = annualLeaveService.calculateAnnualLeaveEntitlementDays(currentUser.getHireDate());
         double totalEntitlementHours = annualLeaveService.convertDaysToHours(totalEntitlementDays);
 
-        LeaveType annualLeaveType = leaveTypeRepository.findByName("特休")
+        LeaveType annualLeaveType = leaveTypeCache.find(type -> "特休".equals(type.getName()))
                 .orElseThrow(() -> new RuntimeException("LeaveType '特休' not found in database."));
-        LeaveStatus approvedStatus = leaveStatusRepository.findByCode("APPROVED")
+        LeaveStatus approvedStatus = leaveStatusCache.get("APPROVED")
                 .orElseThrow(() -> new RuntimeException("LeaveStatus 'APPROVED' not found in database."));
 
         List<LeaveRecord> approvedAnnualLeaves = leaveRecordRepository
@@ -359,7 +307,7 @@ public class LeaveRecordServiceImpl implements LeaveRecordService {
     public Optional<LeaveRecordDto> updateLeaveStatus(String uuid, String status, String reason) {
         return leaveRecordRepository.findByUuid(uuid)
                 .map(existingRecord -> {
-                    LeaveStatus newStatus = leaveStatusRepository.findByCode(status)
+                    LeaveStatus newStatus = leaveStatusCache.get(status)
                             .orElseThrow(() -> new RuntimeException("LeaveStatus " + status + " not found"));
                     existingRecord.setStatus(newStatus);
 
@@ -402,7 +350,7 @@ public class LeaveRecordServiceImpl implements LeaveRecordService {
     }
 
     public List<LeaveType> getAllLeaveTypes() {
-        return leaveTypeRepository.findAll();
+        return leaveTypeCache.values();
     }
 
     public Optional<LeaveRecord> getByUuid(String uuid) {
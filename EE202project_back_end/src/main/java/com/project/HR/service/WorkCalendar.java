@@ -0,0 +1,86 @@
+package com.project.HR.service;
+
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Shared working-time engine for leave calculations.
+ * Working hours are 09:00-12:00 and 13:00-18:00 on working days. A working day is a
+ * weekday that is not a holiday, or any day marked as MAKEUP_WORKDAY.
+ * <p>
+ * A range is computed in closed form: the partial first and last days are clipped against
+ * the working windows, and the full days in between are counted from the per-year working-day
+ * bitsets of {@link HolidayCalendar}.
+ */
+@Component
+public class WorkCalendar {
+
+    static final int WORK_START_SECOND = 9 * 3600;
+    static final int LUNCH_START_SECOND = 12 * 3600;
+    static final int LUNCH_END_SECOND = 13 * 3600;
+    static final int WORK_END_SECOND = 18 * 3600;
+    static final long WORKDAY_SECONDS = (LUNCH_START_SECOND - WORK_START_SECOND)
+            + (WORK_END_SECOND - LUNCH_END_SECOND);
+
+    private final HolidayCalendar holidayCalendar;
+
+    public WorkCalendar(HolidayCalendar holidayCalendar) {
+        this.holidayCalendar = holidayCalendar;
+    }
+
+    /**
+     * Returns whether the given date is a working day.
+     */
+    public boolean isWorkingDay(LocalDate date) {
+        return holidayCalendar.isWorkingDay(date);
+    }
+
+    /**
+     * Calculates the working minutes in [start, end), excluding non-working days,
+     * time outside 09:00-18:00 and the 12:00-13:00 lunch break.
+     *
+     * @param start The start datetime (inclusive).
+     * @param end   The end datetime (exclusive).
+     * @return The working minutes, truncated to whole minutes; 0 if the range is empty.
+     */
+    public long workingMinutes(LocalDateTime start, LocalDateTime end) {
+        if (start == null || end == null || !start.isBefore(end)) {
+            return 0;
+        }
+        LocalDate startDate = start.toLocalDate();
+        LocalDate endDate = end.toLocalDate();
+        int startSecond = start.toLocalTime().toSecondOfDay();
+        int endSecond = end.toLocalTime().toSecondOfDay();
+
+        long seconds;
+        if (startDate.equals(endDate)) {
+            seconds = isWorkingDay(startDate) ? workingSecondsWithin(startSecond, endSecond) : 0;
+        } else {
+            seconds = isWorkingDay(startDate) ? workingSecondsWithin(startSecond, WORK_END_SECOND) : 0;
+            seconds += isWorkingDay(endDate) ? workingSecondsWithin(WORK_START_SECOND, endSecond) : 0;
+            seconds += countWorkingDays(startDate.plusDays(1), endDate.minusDays(1)) * WORKDAY_SECONDS;
+        }
+        return seconds / 60;
+    }
+
+    /**
+     * Counts the working days in [from, to], both inclusive.
+     */
+    public long countWorkingDays(LocalDate from, LocalDate to) {
+        return holidayCalendar.countWorkingDays(from, to);
+    }
+
+    /**
+     * Overlap of [from, to) (seconds of day) with the two working windows of a day.
+     */
+    static long workingSecondsWithin(int from, int to) {
+        return overlap(from, to, WORK_START_SECOND, LUNCH_START_SECOND)
+                + overlap(from, to, LUNCH_END_SECOND, WORK_END_SECOND);
+    }
+
+    private static long overlap(int from, int to, int windowStart, int windowEnd) {
+        return Math.max(0, Math.min(to, windowEnd) - Math.max(from, windowStart));
+    }
+}
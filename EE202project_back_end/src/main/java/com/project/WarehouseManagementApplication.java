@@ -5,6 +5,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.context.annotation.Bean;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
@@ -28,6 +29,7 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 // ▼▼▼ 這裡保持上次的修改 ▼▼▼
 @EntityScan(basePackages = { "com.project" })
 @EnableScheduling // 啟用 Spring 排程功能
+@EnableAsync // 啟用 @Async 非同步處理 (例如低庫存通知推播)
 public class WarehouseManagementApplication {
     /**
      * 應用程式的主方法，用於啟動 Spring Boot 應用程式。
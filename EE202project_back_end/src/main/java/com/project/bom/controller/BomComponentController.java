@@ -1,11 +1,17 @@
 package com.project.bom.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
+import com.project.bom.dto.BomExplosionDto;
 import com.project.bom.model.BomComponent;
 import com.project.bom.service.BomComponentService;
+import com.project.bom.service.BomExplosionService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -23,6 +29,9 @@ public class BomComponentController {
     @Autowired
     private BomComponentService bomComponentService;
 
+    @Autowired
+    private BomExplosionService bomExplosionService;
+
     /**
      * 新增一個 BOM 組件。
      * @param bomComponent 包含 BOM 組件資訊的實體。
@@ -46,16 +55,43 @@ public class BomComponentController {
     }
 
     /**
-     * 根據父物料ID獲取其所有 BOM 組件。
+     * 根據父物料ID獲取其 BOM 組件。
      * @param materialId 父物料ID。
-     * @return 該父物料的所有 BOM 組件列表。
+     * @param asOf 生效時間點；未指定時回傳所有生效區間的組件。
+     * @return 該父物料的 BOM 組件列表。
      */
-    @Operation(summary = "根據父物料ID獲取BOM組件", description = "根據父物料ID查詢其所有相關的BOM組件")
+    @Operation(summary = "根據父物料ID獲取BOM組件", description = "根據父物料ID查詢其BOM組件，指定asOf時只回傳該時間點有效的組件")
     @GetMapping("/material/{materialId}")
-    public List<BomComponent> getBomComponentsByMaterial(@Parameter(description = "父物料ID", required = true) @PathVariable Long materialId) {
+    public List<BomComponent> getBomComponentsByMaterial(
+            @Parameter(description = "父物料ID", required = true) @PathVariable Long materialId,
+            @Parameter(description = "BOM生效時間點 (ISO格式)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf) {
+        if (asOf != null) {
+            return bomComponentService.getEffectiveBomComponents(materialId, asOf);
+        }
         return bomComponentService.getBomComponentsByParentMaterialId(materialId);
     }
 
+    /**
+     * 展開成品的多階 BOM，計算各物料毛需求。
+     * @param materialId 成品 (根物料) ID。
+     * @param quantity 成品數量，預設 1。
+     * @param asOf BOM 生效時間點，預設為現在。
+     * @return 展開結果；參數錯誤回傳 400，BOM 有循環參照回傳 409。
+     */
+    @Operation(summary = "多階BOM展開", description = "展開成品的完整BOM樹，回傳各物料依數量相乘後的毛需求與低階碼")
+    @GetMapping("/material/{materialId}/explosion")
+    public ResponseEntity<?> explodeBom(
+            @Parameter(description = "成品物料ID", required = true) @PathVariable Long materialId,
+            @Parameter(description = "成品數量") @RequestParam(defaultValue = "1") BigDecimal quantity,
+            @Parameter(description = "BOM生效時間點 (ISO格式)，預設為現在") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf) {
+        try {
+            BomExplosionDto result = bomExplosionService.explode(materialId, quantity, asOf);
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     /**
      * 更新一個現有的 BOM 組件。
      * @param bomComponent 包含更新資訊的 BOM 組件實體。
@@ -4,6 +4,7 @@ import org.springframework.stereotype.Repository;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.util.Collection;
 import java.util.List;
 import com.project.bom.model.BomComponent;
 
@@ -34,6 +35,14 @@ public interface BomComponentDAO {
      */
     List<BomComponent> getBomComponentsByParentMaterialId(@Param("parentMaterialId") Long parentMaterialId);
 
+    /**
+     * 批次獲取多個父物料的所有 BOM 組件 (含各生效區間，不含 componentMaterialId 為 null 的組件)。
+     * @param parentMaterialIds 父物料ID集合，不可為空集合。
+     * @return 相關的 BomComponent 實體列表，依父物料ID、BOM 組件ID排序。
+     */
+    List<BomComponent> getBomComponentsByParentMaterialIds(
+            @Param("parentMaterialIds") Collection<Long> parentMaterialIds);
+
     /**
      * 更新一個現有的 BOM 組件。
      * @param bomComponent 要更新的 BomComponent 實體，必須包含有效的 bomComponentId。
@@ -0,0 +1,43 @@
+package com.project.bom.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 多階 BOM 展開結果 (DTO)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BomExplosionDto {
+
+    /**
+     * 展開的成品 (根物料) ID
+     */
+    private Long rootMaterialId;
+
+    /**
+     * 成品數量
+     */
+    private BigDecimal quantity;
+
+    /**
+     * BOM 生效時間點
+     */
+    private LocalDateTime asOf;
+
+    /**
+     * BOM 最大層數 (沒有組件時為 0)
+     */
+    private int maxLevel;
+
+    /**
+     * 各物料毛需求，依低階碼、物料ID排序 (不含根物料)
+     */
+    private List<BomRequirementDto> requirements;
+}
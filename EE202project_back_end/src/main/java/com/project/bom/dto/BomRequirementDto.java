@@ -0,0 +1,41 @@
+package com.project.bom.dto;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * BOM 展開後單一物料的毛需求 (DTO)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BomRequirementDto {
+
+    /**
+     * 物料ID
+     */
+    private Long materialId;
+
+    /**
+     * 物料名稱
+     */
+    private String materialName;
+
+    /**
+     * 毛需求數量 (各層組成數量相乘後，依所有出現位置加總)
+     */
+    private BigDecimal grossQuantity;
+
+    /**
+     * 低階碼: 物料在 BOM 中出現的最深層級 (1 為直接組件)
+     */
+    private int level;
+
+    /**
+     * 是否為最底層物料 (本身沒有組件，需採購或領料)
+     */
+    private boolean leaf;
+}
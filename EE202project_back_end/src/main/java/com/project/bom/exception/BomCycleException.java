@@ -0,0 +1,28 @@
+package com.project.bom.exception;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * BOM 結構出現循環參照 (物料直接或間接成為自己的組件) 時拋出。
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class BomCycleException extends RuntimeException {
+
+    /**
+     * 循環路徑，第一個與最後一個物料ID相同
+     */
+    private final List<Long> cycle;
+
+    public BomCycleException(List<Long> cycle) {
+        super("BOM 循環參照: " + cycle.stream().map(String::valueOf).collect(Collectors.joining(" -> ")));
+        this.cycle = List.copyOf(cycle);
+    }
+
+    public List<Long> getCycle() {
+        return cycle;
+    }
+}
@@ -0,0 +1,9 @@
+package com.project.bom.service;
+
+/**
+ * 某父物料的 BOM 組件已新增、修改或刪除 (於交易提交後清除 BOM 快取)
+ *
+ * @param parentMaterialId 父物料ID
+ */
+public record BomChangedEvent(Long parentMaterialId) {
+}
@@ -1,5 +1,6 @@
 package com.project.bom.service;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import com.project.bom.model.BomComponent;
 
@@ -32,6 +33,15 @@ public interface BomComponentService {
      */
     List<BomComponent> getBomComponentsByParentMaterialId(Long parentMaterialId);
 
+    /**
+     * 根據父物料ID獲取在指定時間點有效的 BOM 組件。
+     * 
+     * @param parentMaterialId 父物料的唯一識別ID。
+     * @param asOf 生效時間點，生效開始日期 &lt;= asOf &lt; 生效結束日期 (日期為 null 視為不限)。
+     * @return 在該時間點有效的 BomComponent 實體列表。
+     */
+    List<BomComponent> getEffectiveBomComponents(Long parentMaterialId, LocalDateTime asOf);
+
     /**
      * 更新一個現有的 BOM 組件。
      * 
@@ -3,6 +3,7 @@ package com.project.bom.service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -24,6 +25,12 @@ public class BomComponentServiceImpl implements BomComponentService {
     @Autowired
     private BomComponentDAO bomComponentDAO;
 
+    @Autowired
+    private BomVersionCache bomVersionCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     /**
      * 插入一個新的 BOM 組件。
      * 設定生效開始日期為當前時間，生效結束日期為 null。
@@ -36,6 +43,7 @@ public class BomComponentServiceImpl implements BomComponentService {
         bomComponent.setEffectiveStartDate(LocalDateTime.now());
         bomComponent.setEffectiveEndDate(null);
         bomComponentDAO.insertBomComponent(bomComponent);
+        eventPublisher.publishEvent(new BomChangedEvent(bomComponent.getParentMaterialId()));
         return bomComponent;
     }
 
@@ -51,22 +59,28 @@ public class BomComponentServiceImpl implements BomComponentService {
     }
 
     /**
-     * 根據父物料ID獲取所有相關的 BOM 組件。
-     * 過濾掉 componentMaterialId 為 null 的組件。
+     * 根據父物料ID獲取所有相關的 BOM 組件 (不論生效區間)。
+     * 由 BOM 快取取得，不含 componentMaterialId 為 null 的組件。
      * 
      * @param parentMaterialId 父物料的唯一識別ID。
      * @return 相關的 BomComponent 實體列表。
      */
     @Override
     public List<BomComponent> getBomComponentsByParentMaterialId(Long parentMaterialId) {
-        List<BomComponent> bomComponents = bomComponentDAO.getBomComponentsByParentMaterialId(parentMaterialId);
-        System.out.println("BomComponentServiceImpl: Raw BOM components from DAO: " + bomComponents);
-        // Filter out components where componentMaterialId is null
-        List<BomComponent> filteredBomComponents = bomComponents.stream()
-                .filter(component -> component.getComponentMaterialId() != null)
-                .collect(java.util.stream.Collectors.toList());
-        System.out.println("BomComponentServiceImpl: Filtered BOM components: " + filteredBomComponents);
-        return filteredBomComponents;
+        return bomVersionCache.get(parentMaterialId).allComponents();
+    }
+
+    /**
+     * 根據父物料ID獲取在指定時間點有效的 BOM 組件。
+     * 由 BOM 快取取得，不含 componentMaterialId 為 null 的組件。
+     * 
+     * @param parentMaterialId 父物料的唯一識別ID。
+     * @param asOf 生效時間點。
+     * @return 在該時間點有效的 BomComponent 實體列表。
+     */
+    @Override
+    public List<BomComponent> getEffectiveBomComponents(Long parentMaterialId, LocalDateTime asOf) {
+        return bomVersionCache.get(parentMaterialId).resolve(asOf);
     }
 
     /**
@@ -94,6 +108,7 @@ public class BomComponentServiceImpl implements BomComponentService {
 
             logger.info("Component state before calling DAO update: {}", existingComponent);
             bomComponentDAO.updateBomComponent(existingComponent);
+            eventPublisher.publishEvent(new BomChangedEvent(existingComponent.getParentMaterialId()));
             logger.info("Successfully called DAO to update component with ID: {}",
                     existingComponent.getBomComponentId());
         } else {
@@ -109,6 +124,10 @@ public class BomComponentServiceImpl implements BomComponentService {
      */
     @Override
     public void deleteBomComponent(Long bomComponentId) {
+        BomComponent existingComponent = bomComponentDAO.getBomComponentById(bomComponentId);
         bomComponentDAO.deleteBomComponent(bomComponentId);
+        // 找不到原組件時無法得知父物料，清除整個快取
+        eventPublisher.publishEvent(new BomChangedEvent(
+                existingComponent != null ? existingComponent.getParentMaterialId() : null));
     }
 }
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.project.bom.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import com.project.bom.dto.BomExplosionDto;
+
+/**
+ * 多階 BOM 展開服務介面
+ * 將成品的完整 BOM 樹展開為各物料的毛需求。
+ */
+public interface BomExplosionService {
+
+    /**
+     * 展開成品在指定時間點有效的多階 BOM，計算各物料的毛需求。
+     * 同一個半成品出現在多個位置時只展開一次，需求數量合併計算。
+     *
+     * @param rootMaterialId 成品 (根物料) ID。
+     * @param quantity       成品數量，必須大於 0。
+     * @param asOf           BOM 生效時間點，null 表示現在。
+     * @return 展開結果，包含各物料毛需求與低階碼。
+     * @throws IllegalArgumentException                   參數不正確。
+     * @throws com.project.bom.exception.BomCycleException BOM 結構有循環參照。
+     */
+    BomExplosionDto explode(Long rootMaterialId, BigDecimal quantity, LocalDateTime asOf);
+
+    /**
+     * 計算每 1 單位成品對各物料的毛需求，不查詢物料名稱與層級，供 MRP 等批次計算使用。
+     *
+     * @param rootMaterialId 成品 (根物料) ID。
+     * @param asOf           BOM 生效時間點，null 表示現在。
+     * @return 物料ID -> 每單位成品的毛需求 (不含成品本身)；沒有 BOM 的物料回傳空 Map。
+     * @throws com.project.bom.exception.BomCycleException BOM 結構有循環參照。
+     */
+    Map<Long, BigDecimal> unitRequirements(Long rootMaterialId, LocalDateTime asOf);
+}
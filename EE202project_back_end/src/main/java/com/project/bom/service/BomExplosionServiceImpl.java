@@ -0,0 +1,197 @@
+package com.project.bom.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.project.bom.dto.BomExplosionDto;
+import com.project.bom.dto.BomRequirementDto;
+import com.project.bom.exception.BomCycleException;
+import com.project.bom.model.BomComponent;
+import com.project.core.utils.SqlInClause;
+import com.project.depot.dao.MaterialRepository;
+import com.project.depot.model.Material;
+
+/**
+ * 多階 BOM 展開服務實作類別
+ * <p>
+ * 1. 逐層批次載入: 每一層的所有父物料一次向 {@link BomVersionCache} 取得，未快取的以一次 IN 查詢載入，
+ * 已載入的物料不再查詢，因此共用的半成品只載入一次，查詢次數最多等於 BOM 層數。
+ * 2. 以深度優先搜尋排出拓撲順序，同時偵測循環參照。
+ * 3. 依拓撲順序由上往下傳遞數量: 每個物料的需求在所有上層都累計完成後才往下展開一次，
+ * 相當於將共用半成品的展開結果記憶化。
+ */
+@Service
+public class BomExplosionServiceImpl implements BomExplosionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BomExplosionServiceImpl.class);
+
+    private final BomVersionCache bomVersionCache;
+    private final MaterialRepository materialRepository;
+
+    public BomExplosionServiceImpl(BomVersionCache bomVersionCache, MaterialRepository materialRepository) {
+        this.bomVersionCache = bomVersionCache;
+        this.materialRepository = materialRepository;
+    }
+
+    @Override
+    public BomExplosionDto explode(Long rootMaterialId, BigDecimal quantity, LocalDateTime asOf) {
+        if (rootMaterialId == null) {
+            throw new IllegalArgumentException("成品物料ID不可為空");
+        }
+        if (quantity == null || quantity.signum() <= 0) {
+            throw new IllegalArgumentException("成品數量必須大於 0");
+        }
+        LocalDateTime effectiveAt = asOf != null ? asOf : LocalDateTime.now();
+
+        Map<Long, Map<Long, BigDecimal>> structure = loadStructure(rootMaterialId, effectiveAt);
+        List<Long> order = topologicalOrder(rootMaterialId, structure);
+        Map<Long, BigDecimal> gross = new HashMap<>();
+        Map<Long, Integer> levels = new HashMap<>();
+        propagate(rootMaterialId, quantity, structure, order, gross, levels);
+
+        order.remove(rootMaterialId);
+        Map<Long, String> names = findMaterialNames(order);
+        List<BomRequirementDto> requirements = new ArrayList<>(order.size());
+        int maxLevel = 0;
+        for (Long materialId : order) {
+            int level = levels.get(materialId);
+            maxLevel = Math.max(maxLevel, level);
+            requirements.add(new BomRequirementDto(materialId, names.get(materialId),
+                    gross.get(materialId).stripTrailingZeros(), level, !structure.containsKey(materialId)));
+        }
+        requirements.sort(Comparator.comparingInt(BomRequirementDto::getLevel)
+                .thenComparing(BomRequirementDto::getMaterialId));
+
+        return new BomExplosionDto(rootMaterialId, quantity, effectiveAt, maxLevel, requirements);
+    }
+
+    @Override
+    public Map<Long, BigDecimal> unitRequirements(Long rootMaterialId, LocalDateTime asOf) {
+        if (rootMaterialId == null) {
+            throw new IllegalArgumentException("成品物料ID不可為空");
+        }
+        LocalDateTime effectiveAt = asOf != null ? asOf : LocalDateTime.now();
+
+        Map<Long, Map<Long, BigDecimal>> structure = loadStructure(rootMaterialId, effectiveAt);
+        if (structure.isEmpty()) {
+            return Map.of();
+        }
+        List<Long> order = topologicalOrder(rootMaterialId, structure);
+        Map<Long, BigDecimal> gross = new HashMap<>();
+        propagate(rootMaterialId, BigDecimal.ONE, structure, order, gross, new HashMap<>());
+        gross.remove(rootMaterialId);
+        return gross;
+    }
+
+    /**
+     * 依拓撲順序傳遞毛需求與層級: 處理到某物料時，它的所有上層都已處理完
+     */
+    private void propagate(Long rootMaterialId, BigDecimal quantity, Map<Long, Map<Long, BigDecimal>> structure,
+            List<Long> order, Map<Long, BigDecimal> gross, Map<Long, Integer> levels) {
+        gross.put(rootMaterialId, quantity);
+        levels.put(rootMaterialId, 0);
+        for (Long parentId : order) {
+            BigDecimal parentQuantity = gross.get(parentId);
+            int childLevel = levels.get(parentId) + 1;
+            for (Map.Entry<Long, BigDecimal> child : structure.getOrDefault(parentId, Map.of()).entrySet()) {
+                gross.merge(child.getKey(), parentQuantity.multiply(child.getValue()), BigDecimal::add);
+                levels.merge(child.getKey(), childLevel, Math::max);
+            }
+        }
+    }
+
+    /**
+     * 逐層批次載入 BOM 結構
+     *
+     * @return 父物料ID -> (子物料ID -> 每單位父物料的組成數量)，沒有組件的物料不會出現在 key 中
+     */
+    private Map<Long, Map<Long, BigDecimal>> loadStructure(Long rootMaterialId, LocalDateTime asOf) {
+        Map<Long, Map<Long, BigDecimal>> structure = new HashMap<>();
+        Set<Long> loaded = new HashSet<>();
+        Set<Long> frontier = new LinkedHashSet<>(List.of(rootMaterialId));
+        int levels = 0;
+
+        while (!frontier.isEmpty()) {
+            loaded.addAll(frontier);
+            Set<Long> next = new LinkedHashSet<>();
+            for (BomVersion bom : bomVersionCache.getAll(frontier).values()) {
+                for (BomComponent component : bom.resolve(asOf)) {
+                    Long childId = component.getComponentMaterialId();
+                    BigDecimal perParent = component.getQuantity() != null ? component.getQuantity() : BigDecimal.ZERO;
+                    // 同一父物料重複列出相同組件時數量相加
+                    structure.computeIfAbsent(bom.parentMaterialId(), k -> new LinkedHashMap<>())
+                            .merge(childId, perParent, BigDecimal::add);
+                    if (!loaded.contains(childId)) {
+                        next.add(childId);
+                    }
+                }
+            }
+            frontier = next;
+            levels++;
+        }
+        logger.debug("BOM 展開 material={} 共 {} 個物料，{} 層", rootMaterialId, loaded.size(), levels);
+        return structure;
+    }
+
+    /**
+     * 以深度優先搜尋排出拓撲順序 (上層在前)，遇到回邊即為循環參照
+     */
+    private List<Long> topologicalOrder(Long rootMaterialId, Map<Long, Map<Long, BigDecimal>> structure) {
+        List<Long> postOrder = new ArrayList<>();
+        visit(rootMaterialId, structure, new HashSet<>(), new LinkedHashSet<>(), postOrder);
+        List<Long> order = new ArrayList<>(postOrder.size());
+        for (int i = postOrder.size() - 1; i >= 0; i--) {
+            order.add(postOrder.get(i));
+        }
+        return order;
+    }
+
+    private void visit(Long materialId, Map<Long, Map<Long, BigDecimal>> structure, Set<Long> done,
+            LinkedHashSet<Long> path, List<Long> postOrder) {
+        if (done.contains(materialId)) {
+            return;
+        }
+        if (!path.add(materialId)) {
+            List<Long> cycle = new ArrayList<>();
+            boolean inCycle = false;
+            for (Long id : path) {
+                inCycle |= id.equals(materialId);
+                if (inCycle) {
+                    cycle.add(id);
+                }
+            }
+            cycle.add(materialId);
+            throw new BomCycleException(cycle);
+        }
+        for (Long childId : structure.getOrDefault(materialId, Map.of()).keySet()) {
+            visit(childId, structure, done, path, postOrder);
+        }
+        path.remove(materialId);
+        done.add(materialId);
+        postOrder.add(materialId);
+    }
+
+    private Map<Long, String> findMaterialNames(Collection<Long> materialIds) {
+        Map<Long, String> names = new HashMap<>();
+        for (List<Long> batch : SqlInClause.chunks(materialIds)) {
+            for (Material material : materialRepository.findAllById(batch)) {
+                names.put(material.getMaterialId(), material.getMaterialName());
+            }
+        }
+        return names;
+    }
+}
@@ -0,0 +1,60 @@
+package com.project.bom.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.project.bom.model.BomComponent;
+
+/**
+ * 某父物料 BOM 的不可變快照，包含所有生效區間的組件。
+ * 取出的組件皆為複本，呼叫端修改不會影響快取內容。
+ *
+ * @param parentMaterialId 父物料ID
+ * @param version          載入時的快取版本 (每次 BOM 異動遞增)
+ * @param components       依 BOM 組件ID排序的組件
+ */
+public record BomVersion(Long parentMaterialId, long version, List<BomComponent> components) {
+
+    public BomVersion {
+        components = components.stream().map(BomVersion::copy).toList();
+    }
+
+    /**
+     * 全部組件 (不論生效區間)
+     */
+    public List<BomComponent> allComponents() {
+        return components.stream().map(BomVersion::copy).toList();
+    }
+
+    /**
+     * 在指定時間點有效的組件: 生效開始日期 &lt;= asOf &lt; 生效結束日期 (日期為 null 視為不限)
+     */
+    public List<BomComponent> resolve(LocalDateTime asOf) {
+        List<BomComponent> effective = new ArrayList<>(components.size());
+        for (BomComponent component : components) {
+            if (isEffective(component, asOf)) {
+                effective.add(copy(component));
+            }
+        }
+        return effective;
+    }
+
+    /**
+     * 沒有任何組件 (最底層物料)
+     */
+    public boolean isEmpty() {
+        return components.isEmpty();
+    }
+
+    static boolean isEffective(BomComponent component, LocalDateTime asOf) {
+        return (component.getEffectiveStartDate() == null || !component.getEffectiveStartDate().isAfter(asOf))
+                && (component.getEffectiveEndDate() == null || component.getEffectiveEndDate().isAfter(asOf));
+    }
+
+    private static BomComponent copy(BomComponent c) {
+        return new BomComponent(c.getBomComponentId(), c.getParentMaterialId(), c.getComponentMaterialId(),
+                c.getQuantity(), c.getPositionNumber(), c.getNotes(), c.getEffectiveStartDate(),
+                c.getEffectiveEndDate(), c.getCreatedAt(), c.getUpdatedAt());
+    }
+}
@@ -0,0 +1,171 @@
+package com.project.bom.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.project.bom.dao.BomComponentDAO;
+import com.project.bom.model.BomComponent;
+import com.project.core.cache.CacheStatistics;
+import com.project.core.cache.MonitoredCache;
+import com.project.core.utils.SqlInClause;
+
+/**
+ * 以父物料ID為鍵的 BOM 快取
+ * 每筆為該父物料所有生效區間組件的不可變快照 ({@link BomVersion})，查詢時再依時間點篩選，
+ * 因此同一份快照可回答任何時間點的 BOM。
+ * 容量有上限 (超過時移除最久未使用的項目)；BOM 異動時以 {@link BomChangedEvent} 清除該父物料。
+ */
+@Component
+public class BomVersionCache implements MonitoredCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(BomVersionCache.class);
+
+    private final BomComponentDAO bomComponentDAO;
+    private final int maxSize;
+    private final LinkedHashMap<Long, BomVersion> entries;
+
+    /**
+     * 每次清除都遞增；載入前記下版本，放入時若版本已變則捨棄，避免把異動前讀到的舊資料放回快取
+     */
+    private final AtomicLong version = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+
+    public BomVersionCache(BomComponentDAO bomComponentDAO,
+            @Value("${bom.cache.max-size:20000}") int maxSize) {
+        this.bomComponentDAO = bomComponentDAO;
+        this.maxSize = maxSize;
+        // accessOrder = true：依最近存取排序，超過容量時移除最舊的項目
+        this.entries = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, BomVersion> eldest) {
+                if (size() > BomVersionCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * 取得父物料的 BOM，未快取時由資料庫載入
+     */
+    public BomVersion get(Long parentMaterialId) {
+        return getAll(List.of(parentMaterialId)).get(parentMaterialId);
+    }
+
+    /**
+     * 批次取得多個父物料的 BOM，未快取的以批次查詢一次載入
+     *
+     * @return 父物料ID -> BOM (沒有組件的物料也會有一筆空的 BOM)
+     */
+    public Map<Long, BomVersion> getAll(Collection<Long> parentMaterialIds) {
+        Map<Long, BomVersion> result = new HashMap<>();
+        Set<Long> missing = new LinkedHashSet<>();
+        synchronized (entries) {
+            for (Long id : parentMaterialIds) {
+                BomVersion cached = entries.get(id);
+                if (cached != null) {
+                    result.put(id, cached);
+                } else {
+                    missing.add(id);
+                }
+            }
+        }
+        hits.add(result.size());
+        misses.add(missing.size());
+        if (!missing.isEmpty()) {
+            result.putAll(load(missing));
+        }
+        return result;
+    }
+
+    private Map<Long, BomVersion> load(Set<Long> parentMaterialIds) {
+        long loadVersion = version.get();
+        long start = System.nanoTime();
+
+        Map<Long, List<BomComponent>> byParent = new HashMap<>();
+        for (Long id : parentMaterialIds) {
+            byParent.put(id, new ArrayList<>());
+        }
+        for (List<Long> batch : SqlInClause.chunks(parentMaterialIds)) {
+            for (BomComponent component : bomComponentDAO.getBomComponentsByParentMaterialIds(batch)) {
+                byParent.get(component.getParentMaterialId()).add(component);
+            }
+        }
+
+        Map<Long, BomVersion> loaded = new HashMap<>();
+        byParent.forEach((id, components) -> loaded.put(id, new BomVersion(id, loadVersion, components)));
+        loads.increment();
+        loadNanos.add(System.nanoTime() - start);
+
+        synchronized (entries) {
+            if (version.get() == loadVersion) {
+                entries.putAll(loaded);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * 清除某父物料的 BOM
+     */
+    public void invalidate(Long parentMaterialId) {
+        synchronized (entries) {
+            version.incrementAndGet();
+            entries.remove(parentMaterialId);
+        }
+    }
+
+    /**
+     * 清除所有項目
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            version.incrementAndGet();
+            entries.clear();
+        }
+    }
+
+    /**
+     * 異動交易提交後才清除，避免並行請求在提交前重新載入舊資料並放回快取。
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBomChanged(BomChangedEvent event) {
+        if (event.parentMaterialId() == null) {
+            invalidateAll();
+        } else {
+            invalidate(event.parentMaterialId());
+        }
+        logger.debug("BOM 快取已清除 parentMaterialId={}", event.parentMaterialId());
+    }
+
+    @Override
+    public CacheStatistics statistics() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return CacheStatistics.withLoadTime("bom", hits.sum(), misses.sum(), evictions.sum(), size,
+                loads.sum(), loadNanos.sum());
+    }
+}
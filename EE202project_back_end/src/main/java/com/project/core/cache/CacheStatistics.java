@@ -0,0 +1,40 @@
+package com.project.core.cache;
+
+/**
+ * 快取統計資料 (DTO)
+ *
+ * @param name              快取名稱
+ * @param hits              命中次數
+ * @param misses            未命中次數
+ * @param evictions         因容量或過期而移除的筆數
+ * @param size              目前筆數
+ * @param loads             由資料庫載入的次數 (不適用時為 0)
+ * @param averageLoadMillis 平均每次載入耗時 (毫秒，尚未載入時為 0)
+ */
+public record CacheStatistics(String name, long hits, long misses, long evictions, long size,
+        long loads, double averageLoadMillis) {
+
+    /**
+     * 不記錄載入耗時的快取
+     */
+    public CacheStatistics(String name, long hits, long misses, long evictions, long size) {
+        this(name, hits, misses, evictions, size, 0, 0.0);
+    }
+
+    /**
+     * 以載入次數與總耗時 (奈秒) 計算平均載入耗時
+     */
+    public static CacheStatistics withLoadTime(String name, long hits, long misses, long evictions, long size,
+            long loads, long totalLoadNanos) {
+        return new CacheStatistics(name, hits, misses, evictions, size, loads,
+                loads == 0 ? 0.0 : totalLoadNanos / 1_000_000.0 / loads);
+    }
+
+    /**
+     * 命中率 (0 ~ 1)，尚無查詢時為 0
+     */
+    public double hitRatio() {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+}
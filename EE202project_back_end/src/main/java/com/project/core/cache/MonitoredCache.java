@@ -0,0 +1,13 @@
+package com.project.core.cache;
+
+/**
+ * 可回報統計資料的記憶體快取。
+ * 實作此介面的 Spring Bean 會自動列在 GET /api/system/caches。
+ */
+public interface MonitoredCache {
+
+    /**
+     * 取得目前的快取統計資料
+     */
+    CacheStatistics statistics();
+}
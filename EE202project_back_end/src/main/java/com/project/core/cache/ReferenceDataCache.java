@@ -0,0 +1,141 @@
+package com.project.core.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * 參考資料 (代碼表) 的唯讀記憶體快取。
+ * 啟動後由 {@link ReferenceDataWarmer} 整批載入，之後只在呼叫 {@link #refresh()} 時重新載入；
+ * 每次載入都建立新的不可變快照再整個替換，讀取端不需加鎖。
+ * <p>
+ * 快取的物件為已脫離 (detached) 的實體，可直接設定為其他實體的關聯，但不可修改其內容。
+ *
+ * @param <K> 鍵值型別
+ * @param <V> 參考資料型別
+ */
+public class ReferenceDataCache<K, V> implements MonitoredCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReferenceDataCache.class);
+
+    private record Snapshot<K, V>(Map<K, V> byKey, List<V> values) {
+    }
+
+    private final String name;
+    private final Supplier<List<V>> loader;
+    private final Function<V, K> keyExtractor;
+
+    private volatile Snapshot<K, V> snapshot;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder reloads = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+
+    /**
+     * @param name         快取名稱 (顯示於 GET /api/system/caches)
+     * @param loader       載入全部資料，例如 repository::findAll
+     * @param keyExtractor 取出每筆資料的鍵值
+     */
+    public ReferenceDataCache(String name, Supplier<List<V>> loader, Function<V, K> keyExtractor) {
+        this.name = name;
+        this.loader = loader;
+        this.keyExtractor = keyExtractor;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 重新從資料庫載入全部資料
+     *
+     * @return 載入筆數
+     */
+    public int refresh() {
+        long start = System.nanoTime();
+        List<V> loaded = loader.get();
+        Map<K, V> byKey = new LinkedHashMap<>(loaded.size() * 2);
+        for (V value : loaded) {
+            byKey.put(keyExtractor.apply(value), value);
+        }
+        snapshot = new Snapshot<>(Collections.unmodifiableMap(byKey), List.copyOf(byKey.values()));
+        reloads.increment();
+        loadNanos.add(System.nanoTime() - start);
+        logger.info("參考資料快取 {} 已載入 {} 筆", name, loaded.size());
+        return loaded.size();
+    }
+
+    /**
+     * 依鍵值查詢
+     */
+    public Optional<V> get(K key) {
+        V value = key == null ? null : current().byKey().get(key);
+        record(value != null);
+        return Optional.ofNullable(value);
+    }
+
+    /**
+     * 依條件查詢第一筆 (用於鍵值以外的唯一欄位，資料量小，直接逐筆比對)
+     */
+    public Optional<V> find(Predicate<V> condition) {
+        for (V value : current().values()) {
+            if (condition.test(value)) {
+                record(true);
+                return Optional.of(value);
+            }
+        }
+        record(false);
+        return Optional.empty();
+    }
+
+    /**
+     * 取得全部資料 (依載入順序，不可修改)
+     */
+    public List<V> values() {
+        List<V> values = current().values();
+        record(true);
+        return values;
+    }
+
+    @Override
+    public CacheStatistics statistics() {
+        Snapshot<K, V> current = snapshot;
+        // 參考資料只在重新載入時整批替換，以替換次數作為移除次數
+        long loads = reloads.sum();
+        long replaced = Math.max(0, loads - 1);
+        return CacheStatistics.withLoadTime(name, hits.sum(), misses.sum(), replaced,
+                current == null ? 0 : current.values().size(), loads, loadNanos.sum());
+    }
+
+    private Snapshot<K, V> current() {
+        Snapshot<K, V> current = snapshot;
+        if (current == null) {
+            // 尚未預熱 (例如啟動時資料庫暫時無法連線)，於第一次使用時載入
+            synchronized (this) {
+                if (snapshot == null) {
+                    refresh();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    private void record(boolean hit) {
+        if (hit) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+    }
+}
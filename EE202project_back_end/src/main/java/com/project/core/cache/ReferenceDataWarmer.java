@@ -0,0 +1,64 @@
+package com.project.core.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 啟動完成後預先載入所有參考資料快取，並提供手動重新載入
+ */
+@Component
+public class ReferenceDataWarmer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReferenceDataWarmer.class);
+
+    private final List<ReferenceDataCache<?, ?>> caches;
+
+    public ReferenceDataWarmer(List<ReferenceDataCache<?, ?>> caches) {
+        this.caches = caches;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        for (ReferenceDataCache<?, ?> cache : caches) {
+            try {
+                cache.refresh();
+            } catch (RuntimeException e) {
+                // 預熱失敗不影響啟動，第一次使用時會再載入
+                logger.warn("參考資料快取 {} 預熱失敗: {}", cache.getName(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 重新載入全部參考資料快取
+     *
+     * @return 各快取名稱與載入筆數
+     */
+    public Map<String, Integer> refreshAll() {
+        Map<String, Integer> result = new LinkedHashMap<>();
+        for (ReferenceDataCache<?, ?> cache : caches) {
+            result.put(cache.getName(), cache.refresh());
+        }
+        return result;
+    }
+
+    /**
+     * 重新載入指定的參考資料快取
+     *
+     * @throws IllegalArgumentException 找不到此名稱的快取
+     */
+    public int refresh(String name) {
+        return caches.stream()
+                .filter(cache -> cache.getName().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("找不到參考資料快取: " + name))
+                .refresh();
+    }
+}
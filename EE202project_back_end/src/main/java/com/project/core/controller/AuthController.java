@@ -5,12 +5,15 @@ import com.project.core.dto.response.JwtResponse;
 import com.project.employeeuser.model.EmployeeUser;
 import com.project.core.security.EmployeeUserDetails;
 import com.project.core.security.EmployeeUserDetailsService;
+import com.project.core.security.TokenRevocationService;
 import com.project.core.security.jwt.JwtUtils;
+import io.jsonwebtoken.Claims;
 import com.project.core.service.SystemLogService;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -42,6 +45,9 @@ public class AuthController {
         @Autowired
         SystemLogService systemLogService;
 
+        @Autowired
+        TokenRevocationService tokenRevocationService;
+
         @Operation(summary = "使用者登入流程第一站", description = "透過使用者名稱和密碼進行登入，並返回JWT")
         @PostMapping("/login")
         public ResponseEntity<?> authenticateUser(
@@ -130,4 +136,26 @@ public class AuthController {
                         throw e;
                 }
         }
-}
\ No newline at end of file
+
+        @Operation(summary = "登出", description = "撤銷目前請求所帶的 JWT，之後以此 token 呼叫 API 將視為未登入")
+        @PostMapping("/logout")
+        public ResponseEntity<Void> logout(HttpServletRequest request) {
+                String headerAuth = request.getHeader("Authorization");
+                if (headerAuth != null && headerAuth.startsWith("Bearer ")) {
+                        Claims claims = jwtUtils.parseValidClaims(headerAuth.substring(7));
+                        if (claims != null) {
+                                tokenRevocationService.revokeToken(claims.getId(), claims.getExpiration());
+                        }
+                }
+                return ResponseEntity.noContent().build();
+        }
+
+        @Operation(summary = "強制登出使用者", description = "【需 EMPLOYEE_MANAGE 權限】讓指定使用者目前已簽發的所有 token 失效")
+        @PostMapping("/force-logout/{username}")
+        @PreAuthorize("hasAuthority('EMPLOYEE_MANAGE')")
+        public ResponseEntity<Void> forceLogout(
+                        @Parameter(description = "使用者名稱", required = true) @PathVariable String username) {
+                tokenRevocationService.revokeAllTokens(username);
+                return ResponseEntity.noContent().build();
+        }
+}
@@ -0,0 +1,60 @@
+package com.project.core.controller;
+
+import com.project.core.cache.CacheStatistics;
+import com.project.core.cache.MonitoredCache;
+import com.project.core.cache.ReferenceDataWarmer;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 系統快取監控 API
+ */
+@Tag(name = "系統監控", description = "查詢記憶體快取的命中率等統計資料")
+@RestController
+@RequestMapping("/api/system")
+public class CacheStatsController {
+
+    private final List<MonitoredCache> caches;
+    private final ReferenceDataWarmer referenceDataWarmer;
+
+    public CacheStatsController(List<MonitoredCache> caches, ReferenceDataWarmer referenceDataWarmer) {
+        this.caches = caches;
+        this.referenceDataWarmer = referenceDataWarmer;
+    }
+
+    @Operation(summary = "查詢快取統計", description = "列出所有記憶體快取的命中、未命中、移除次數與目前筆數")
+    @GetMapping("/caches")
+    public ResponseEntity<List<CacheStatistics>> getCacheStatistics() {
+        return ResponseEntity.ok(caches.stream()
+                .map(MonitoredCache::statistics)
+                .sorted(Comparator.comparing(CacheStatistics::name))
+                .toList());
+    }
+
+    @Operation(summary = "重新載入參考資料快取", description = "代碼表於資料庫直接修改後，重新載入全部參考資料快取，回傳各快取載入筆數")
+    @PostMapping("/caches/reference-data/refresh")
+    public ResponseEntity<Map<String, Integer>> refreshReferenceData() {
+        return ResponseEntity.ok(referenceDataWarmer.refreshAll());
+    }
+
+    @Operation(summary = "重新載入指定參考資料快取", description = "依快取名稱重新載入單一參考資料快取")
+    @PostMapping("/caches/reference-data/{name}/refresh")
+    public ResponseEntity<?> refreshReferenceData(@PathVariable String name) {
+        try {
+            return ResponseEntity.ok(Map.of(name, referenceDataWarmer.refresh(name)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        }
+    }
+}
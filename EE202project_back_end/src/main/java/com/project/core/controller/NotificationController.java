@@ -1,15 +1,20 @@
 package com.project.core.controller;
 
-import com.project.core.dao.EmployeeRepository;
 import com.project.core.dao.NotificationRepository;
+import com.project.core.dto.response.NotificationPageDto;
 import com.project.core.model.Notification;
+import com.project.core.service.NotificationUnreadCounter;
 import lombok.RequiredArgsConstructor;
 
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.List;
 
 @RestController
@@ -18,33 +23,86 @@ import java.util.List;
 public class NotificationController {
 
     private final NotificationRepository notificationRepository;
-    private final EmployeeRepository employeeRepository;
+    private final NotificationUnreadCounter unreadCounter;
 
-    // 從目前登入者取 employeeId（以 username 反查）
+    /** 每頁筆數上限 (舊的列表 API 也只回這麼多筆) */
+    static final int MAX_PAGE_SIZE = 200;
+
+    // 從目前登入者取 employeeId（以 username 反查，結果由未讀計數器快取）
     private Integer currentUserId(Authentication auth) {
-        String username = auth.getName();
-        return employeeRepository.findByUsername(username)
-                .orElseThrow(() -> new IllegalStateException("User not found: " + username))
-                .getEmployeeId();
+        return unreadCounter.userId(auth.getName());
     }
 
-    /** 未讀數量（紅點用） */
+    /** 未讀數量（紅點用；變化時已由 WebSocket 推播，這裡供初次載入或斷線時使用） */
     @GetMapping("/unread-count")
     public long unreadCount(Authentication auth) {
-        return notificationRepository.countByUserIdAndReadFalse(currentUserId(auth));
+        return unreadCounter.unreadCount(auth.getName());
     }
 
-    /** 通知列表（預設只回未讀；?status=all 回全部） */
+    /** 通知列表（預設只回未讀；?status=read 回已讀），只回最新 MAX_PAGE_SIZE 筆，更多請用 /page */
     @GetMapping
     public List<Notification> list(@RequestParam(defaultValue = "unread") String status,
                                    Authentication auth) {
-        Integer uid = currentUserId(auth);
-        // 根據 status 參數決定查詢條件
-        return switch (status.toLowerCase()) {
-            case "read"   -> notificationRepository.findByUserIdAndReadTrueOrderByCreatedAtDesc(uid);
-            case "unread" -> notificationRepository.findByUserIdAndReadFalseOrderByCreatedAtDesc(uid);
-            default       -> notificationRepository.findByUserIdAndReadFalseOrderByCreatedAtDesc(uid);
-        };
+        return page(currentUserId(auth), isRead(status), null, MAX_PAGE_SIZE).getItems();
+    }
+
+    /**
+     * 游標分頁（由新到舊）
+     * 第一頁不帶 cursor，之後帶上一頁回傳的 nextCursor，直到 hasMore = false
+     */
+    @GetMapping("/page")
+    public NotificationPageDto page(@RequestParam(defaultValue = "unread") String status,
+                                    @RequestParam(required = false) String cursor,
+                                    @RequestParam(defaultValue = "20") int limit,
+                                    Authentication auth) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit 必須介於 1 到 " + MAX_PAGE_SIZE);
+        }
+        return page(currentUserId(auth), isRead(status), cursor, limit);
+    }
+
+    // 根據 status 參數決定查詢條件，未指定或其他值都視為未讀
+    private static boolean isRead(String status) {
+        return "read".equalsIgnoreCase(status);
+    }
+
+    // 多查一筆判斷是否還有下一頁
+    private NotificationPageDto page(Integer uid, boolean read, String cursor, int limit) {
+        PageRequest pageable = PageRequest.of(0, limit + 1);
+        List<Notification> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = notificationRepository.findFirstPage(uid, read, pageable);
+        } else {
+            Cursor after = Cursor.decode(cursor);
+            rows = notificationRepository.findPageAfter(uid, read, after.createdAt(), after.id(), pageable);
+        }
+        boolean hasMore = rows.size() > limit;
+        List<Notification> items = hasMore ? rows.subList(0, limit) : rows;
+        String nextCursor = hasMore ? Cursor.of(items.get(items.size() - 1)).encode() : null;
+        return new NotificationPageDto(List.copyOf(items), nextCursor, hasMore);
+    }
+
+    /** 游標：上一頁最後一筆的建立時間與ID，以 Base64 (URL safe) 編碼後交給前端 */
+    record Cursor(LocalDateTime createdAt, Integer id) {
+
+        static Cursor of(Notification n) {
+            return new Cursor(n.getCreatedAt(), n.getId());
+        }
+
+        String encode() {
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString((createdAt + "|" + id).getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String cursor) {
+            try {
+                String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                String[] parts = decoded.split("\\|");
+                return new Cursor(LocalDateTime.parse(parts[0]), Integer.valueOf(parts[1]));
+            } catch (RuntimeException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "無效的 cursor");
+            }
+        }
     }
 
     /** 單筆標記已讀 */
@@ -56,24 +114,38 @@ public class NotificationController {
         if (!n.getUserId().equals(uid)) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Forbidden");
         }
+        if (n.isRead()) {
+            return;
+        }
         n.setRead(true);
         notificationRepository.save(n);
+        unreadCounter.adjust(uid, -1);
     }
 
     /** 全部標記已讀 */
     @PostMapping("/read-all")
     public int markAllRead(Authentication auth) {
         Integer uid = currentUserId(auth);
-        return notificationRepository.markAllRead(uid);
+        int updated = notificationRepository.markAllRead(uid);
+        unreadCounter.adjust(uid, -updated);
+        return updated;
     }
     //單筆刪除
     @DeleteMapping("/{id}")
     public void deleteOne(@PathVariable Integer id, Authentication auth) {
         Integer uid = currentUserId(auth);
+        // 先查出是否未讀，刪除未讀通知才需要調整未讀數量
+        boolean unread = notificationRepository.findById(id)
+                .filter(n -> n.getUserId().equals(uid))
+                .map(n -> !n.isRead())
+                .orElse(false);
         int affected = notificationRepository.deleteOne(id, uid);
         if (affected == 0) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Notification not found");
         }
+        if (unread) {
+            unreadCounter.adjust(uid, -1);
+        }
     }
     //全部刪除
     @DeleteMapping("/read")
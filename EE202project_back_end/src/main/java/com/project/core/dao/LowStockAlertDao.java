@@ -0,0 +1,147 @@
+package com.project.core.dao;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.project.core.utils.SqlInClause;
+
+/**
+ * 低庫存通知 DAO
+ * 對應資料表: low_stock_alert_states、notifications
+ * low_stock_alert_states 記錄上次通知時各低庫存物料的庫存與安全庫存，數值沒變的物料不再處理；
+ * 通知以 (user_id, dedupe_key) 判斷是否已有未讀，不比對訊息文字。
+ */
+@Repository
+public class LowStockAlertDao {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public LowStockAlertDao(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * 低於安全庫存的物料
+     */
+    public record LowStockMaterial(Long materialId, String materialName, BigDecimal stockCurrent,
+            BigDecimal safetyStock) {
+    }
+
+    /**
+     * 某使用者對某去重鍵的通知
+     */
+    public record NotificationKey(Integer userId, String dedupeKey) {
+    }
+
+    /**
+     * 要新增的通知
+     */
+    public record NewNotification(Integer userId, String dedupeKey, String title, String message, String link) {
+    }
+
+    /**
+     * 移除已恢復 (不再低於安全庫存) 的物料狀態，之後再次低於安全庫存時會重新通知
+     *
+     * @return 移除筆數
+     */
+    public int deleteRecoveredStates() {
+        return jdbcTemplate.update("DELETE FROM low_stock_alert_states WHERE NOT EXISTS ("
+                + "SELECT 1 FROM core_materials m WHERE m.material_id = low_stock_alert_states.material_id "
+                + "AND m.stock_current < m.safety_stock)");
+    }
+
+    /**
+     * 查詢低於安全庫存、且庫存或安全庫存與上次通知時不同 (或尚未通知過) 的物料
+     */
+    public List<LowStockMaterial> findChangedLowStockMaterials() {
+        return jdbcTemplate.query("SELECT m.material_id, m.material_name, m.stock_current, m.safety_stock "
+                + "FROM core_materials m LEFT JOIN low_stock_alert_states s ON s.material_id = m.material_id "
+                + "WHERE m.stock_current < m.safety_stock AND (s.material_id IS NULL "
+                + "OR s.stock_current <> m.stock_current OR s.safety_stock <> m.safety_stock) "
+                + "ORDER BY m.material_id",
+                (rs, rowNum) -> new LowStockMaterial(rs.getLong("material_id"), rs.getString("material_name"),
+                        rs.getBigDecimal("stock_current"), rs.getBigDecimal("safety_stock")));
+    }
+
+    /**
+     * 記錄本次通知時的物料數值
+     */
+    public void saveStates(List<LowStockMaterial> materials, LocalDateTime now) {
+        List<Long> ids = materials.stream().map(LowStockMaterial::materialId).toList();
+        for (List<Long> chunk : SqlInClause.chunks(ids)) {
+            jdbcTemplate.update("DELETE FROM low_stock_alert_states WHERE material_id IN ("
+                    + SqlInClause.placeholders(chunk) + ")", chunk.toArray());
+        }
+        Timestamp notifiedAt = Timestamp.valueOf(now);
+        jdbcTemplate.batchUpdate("INSERT INTO low_stock_alert_states (material_id, stock_current, safety_stock, "
+                + "notified_at) VALUES (?, ?, ?, ?)", materials, SqlInClause.BATCH_SIZE, (ps, material) -> {
+                    ps.setLong(1, material.materialId());
+                    ps.setBigDecimal(2, material.stockCurrent());
+                    ps.setBigDecimal(3, material.safetyStock());
+                    ps.setTimestamp(4, notifiedAt);
+                });
+    }
+
+    /**
+     * 一次查出指定去重鍵中已有未讀通知的 (使用者, 鍵)
+     */
+    public Set<NotificationKey> findUnreadKeys(String type, Collection<String> dedupeKeys) {
+        Set<NotificationKey> keys = new HashSet<>();
+        for (List<String> chunk : SqlInClause.chunks(dedupeKeys)) {
+            List<Object> args = new ArrayList<>(chunk.size() + 1);
+            args.add(type);
+            args.addAll(chunk);
+            jdbcTemplate.query("SELECT user_id, dedupe_key FROM notifications WHERE type = ? AND is_read = 0 "
+                    + "AND dedupe_key IN (" + SqlInClause.placeholders(chunk) + ")",
+                    rs -> {
+                        keys.add(new NotificationKey(rs.getInt("user_id"), rs.getString("dedupe_key")));
+                    }, args.toArray());
+        }
+        return keys;
+    }
+
+    /**
+     * 以最新內容更新仍未讀的通知 (每個去重鍵一筆更新，批次送出)
+     *
+     * @param messageByKey 去重鍵 -> 新訊息
+     */
+    public void refreshUnreadMessages(String type, Map<String, String> messageByKey, LocalDateTime now) {
+        Timestamp createdAt = Timestamp.valueOf(now);
+        jdbcTemplate.batchUpdate("UPDATE notifications SET message = ?, created_at = ? "
+                + "WHERE type = ? AND dedupe_key = ? AND is_read = 0", new ArrayList<>(messageByKey.entrySet()),
+                SqlInClause.BATCH_SIZE, (ps, entry) -> {
+                    ps.setString(1, entry.getValue());
+                    ps.setTimestamp(2, createdAt);
+                    ps.setString(3, type);
+                    ps.setString(4, entry.getKey());
+                });
+    }
+
+    /**
+     * 批次新增未讀通知
+     */
+    public void insertNotifications(String type, List<NewNotification> notifications, LocalDateTime now) {
+        Timestamp createdAt = Timestamp.valueOf(now);
+        jdbcTemplate.batchUpdate("INSERT INTO notifications (user_id, type, title, message, link, is_read, "
+                + "created_at, dedupe_key) VALUES (?, ?, ?, ?, ?, 0, ?, ?)", notifications, SqlInClause.BATCH_SIZE,
+                (ps, n) -> {
+                    ps.setInt(1, n.userId());
+                    ps.setString(2, type);
+                    ps.setString(3, n.title());
+                    ps.setString(4, n.message());
+                    ps.setString(5, n.link());
+                    ps.setTimestamp(6, createdAt);
+                    ps.setString(7, n.dedupeKey());
+                });
+    }
+}
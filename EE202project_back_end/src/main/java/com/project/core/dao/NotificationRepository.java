@@ -4,11 +4,13 @@ import com.project.core.model.Notification;
 
 import jakarta.transaction.Transactional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -20,6 +22,19 @@ public interface NotificationRepository extends JpaRepository<Notification, Inte
     // 判斷是否已存在相同「未讀」通知（用來避免重複插入） //
     boolean existsByUserIdAndTypeAndMessageAndReadFalse(Integer userId, String type, String message);
 
+//游標分頁 (依 createdAt、id 由新到舊，筆數由 Pageable 的 size 決定)，走 ix_notifications_user_read_created
+//第一頁
+@Query("SELECT n FROM Notification n WHERE n.userId = :uid AND n.read = :read "
+        + "ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findFirstPage(@Param("uid") Integer uid, @Param("read") boolean read, Pageable pageable);
+
+//游標 (上一頁最後一筆的 createdAt、id) 之後的下一頁
+@Query("SELECT n FROM Notification n WHERE n.userId = :uid AND n.read = :read "
+        + "AND (n.createdAt < :createdAt OR (n.createdAt = :createdAt AND n.id < :id)) "
+        + "ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findPageAfter(@Param("uid") Integer uid, @Param("read") boolean read,
+            @Param("createdAt") LocalDateTime createdAt, @Param("id") Integer id, Pageable pageable);
+
 //操作
 //單筆刪除
 @Modifying
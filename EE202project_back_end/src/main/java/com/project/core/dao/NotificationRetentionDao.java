@@ -0,0 +1,65 @@
+package com.project.core.dao;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.project.core.utils.SqlInClause;
+
+/**
+ * 通知保留期限 DAO
+ * 對應資料表: notifications、notifications_archive
+ * 以批次 (每批固定筆數) 把過期的已讀通知搬到封存表或直接刪除，避免單一語句鎖住大量資料列。
+ */
+@Repository
+public class NotificationRetentionDao {
+
+    private static final String COLUMNS = "id, user_id, type, title, message, link, created_at, dedupe_key";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public NotificationRetentionDao(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * 查詢一批建立時間早於 cutoff 的已讀通知ID (由舊到新)，走 ix_notifications_read_created
+     *
+     * @param limit 每批筆數，之後以單一 IN (...) 封存與刪除，不可超過 {@link SqlInClause#LIMIT}
+     */
+    public List<Integer> findReadIdsOlderThan(LocalDateTime cutoff, int limit) {
+        return jdbcTemplate.queryForList("SELECT id FROM notifications WHERE is_read = 1 AND created_at < ? "
+                + "ORDER BY created_at, id OFFSET 0 ROWS FETCH NEXT ? ROWS ONLY", Integer.class,
+                Timestamp.valueOf(cutoff), limit);
+    }
+
+    /**
+     * 複製到封存表
+     *
+     * @return 封存筆數
+     */
+    public int archive(List<Integer> ids, LocalDateTime archivedAt) {
+        if (ids.isEmpty()) return 0;
+        Object[] args = new Object[ids.size() + 1];
+        args[0] = Timestamp.valueOf(archivedAt);
+        for (int i = 0; i < ids.size(); i++) {
+            args[i + 1] = ids.get(i);
+        }
+        return jdbcTemplate.update("INSERT INTO notifications_archive (" + COLUMNS + ", archived_at) "
+                + "SELECT " + COLUMNS + ", ? FROM notifications WHERE id IN (" + SqlInClause.placeholders(ids) + ")", args);
+    }
+
+    /**
+     * 刪除指定通知 (只刪仍為已讀者)
+     *
+     * @return 刪除筆數
+     */
+    public int delete(List<Integer> ids) {
+        if (ids.isEmpty()) return 0;
+        return jdbcTemplate.update("DELETE FROM notifications WHERE is_read = 1 AND id IN ("
+                + SqlInClause.placeholders(ids) + ")", ids.toArray());
+    }
+}
@@ -0,0 +1,65 @@
+package com.project.core.dao;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.UUID;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * 排程鎖 DAO
+ * 對應資料表: scheduler_locks
+ * 多個節點執行同一排程時，只有取得鎖的節點會執行；鎖以租約方式持有，
+ * 節點當機時租約到期即可由其他節點接手。時間一律使用資料庫時鐘，避免節點時鐘誤差。
+ */
+@Repository
+public class SchedulerLockDao {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * 本節點識別 (主機/程序 + 隨機碼)，只有持有者能釋放鎖
+     */
+    private final String owner = ManagementFactory.getRuntimeMXBean().getName() + "/"
+            + UUID.randomUUID().toString().substring(0, 8);
+
+    public SchedulerLockDao(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * 嘗試取得鎖，不等待。
+     * 鎖已被持有 (含本節點的另一次執行) 且租約未到期時回傳 false。
+     *
+     * @param name  鎖名稱
+     * @param lease 租約長度，應大於工作的最長執行時間
+     * @return 是否取得
+     */
+    public boolean tryLock(String name, Duration lease) {
+        long seconds = Math.max(1, lease.toSeconds());
+        int updated = jdbcTemplate.update("UPDATE scheduler_locks SET locked_by = ?, locked_at = CURRENT_TIMESTAMP, "
+                + "locked_until = DATEADD(SECOND, ?, CURRENT_TIMESTAMP) "
+                + "WHERE lock_name = ? AND locked_until <= CURRENT_TIMESTAMP", owner, seconds, name);
+        if (updated == 1) {
+            return true;
+        }
+        try {
+            jdbcTemplate.update("INSERT INTO scheduler_locks (lock_name, locked_by, locked_at, locked_until) "
+                    + "VALUES (?, ?, CURRENT_TIMESTAMP, DATEADD(SECOND, ?, CURRENT_TIMESTAMP))", name, owner, seconds);
+            return true;
+        } catch (DuplicateKeyException e) {
+            // 鎖已存在且租約未到期
+            return false;
+        }
+    }
+
+    /**
+     * 釋放本節點持有的鎖 (租約立即到期)
+     */
+    public void unlock(String name) {
+        jdbcTemplate.update("UPDATE scheduler_locks SET locked_until = CURRENT_TIMESTAMP "
+                + "WHERE lock_name = ? AND locked_by = ?", name, owner);
+    }
+}
@@ -0,0 +1,51 @@
+package com.project.core.dao;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.project.core.service.SystemLogEvent;
+
+/**
+ * 系統日誌批次寫入 DAO
+ * 對應資料表: system_logs
+ * 由非同步寫入器一次送出一批，不經過 JPA (每筆 IDENTITY 主鍵都要單獨 INSERT 才能取回)。
+ */
+@Repository
+public class SystemLogBatchDao {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SystemLogBatchDao(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * 批次新增 (整批一次 JDBC batch)
+     */
+    public void insert(List<SystemLogEvent> events) {
+        if (events.isEmpty()) return;
+        jdbcTemplate.batchUpdate("INSERT INTO system_logs (log_type, operation, operator_employee_id, "
+                + "operator_username, target_type, target_id, target_name, old_value, new_value, description, "
+                + "ip_address, user_agent, module, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                events, events.size(), (ps, e) -> {
+                    ps.setString(1, e.logType());
+                    ps.setString(2, e.operation());
+                    ps.setObject(3, e.operatorEmployeeId(), Types.INTEGER);
+                    ps.setString(4, e.operatorUsername());
+                    ps.setString(5, e.targetType());
+                    ps.setString(6, e.targetId());
+                    ps.setString(7, e.targetName());
+                    ps.setString(8, e.oldValue());
+                    ps.setString(9, e.newValue());
+                    ps.setString(10, e.description());
+                    ps.setString(11, e.ipAddress());
+                    ps.setString(12, e.userAgent());
+                    ps.setString(13, e.module());
+                    ps.setTimestamp(14, Timestamp.valueOf(e.createdAt()));
+                });
+    }
+}
@@ -54,4 +54,24 @@ public interface UserRoleRepository extends JpaRepository<UserRole, Integer> {
            """)
     List<Integer> findEmployeeIdsByRoleNames(@Param("roleNames") List<String> roleNames);
 
-}
\ No newline at end of file
+    /**
+     * 員工的角色ID與權限代碼 (一列一組)，角色沒有任何權限時 permissionCode 為 null
+     */
+    interface RolePermissionRow {
+        Integer getRoleId();
+
+        String getPermissionCode();
+    }
+
+    /**
+     * 一次查出員工所有角色與其權限 (UserRoles ⋈ RolePermissions)，取代逐角色查詢權限
+     */
+    @Query("""
+           SELECT ur.roleId AS roleId, rp.permissionCode AS permissionCode
+           FROM UserRole ur
+           LEFT JOIN RolePermission rp ON rp.roleId = ur.roleId
+           WHERE ur.employeeId = :employeeId
+           """)
+    List<RolePermissionRow> findRolePermissionsByEmployeeId(@Param("employeeId") Integer employeeId);
+
+}
@@ -0,0 +1,175 @@
+package com.project.core.dao;
+
+import java.util.List;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * WebSocket 叢集 DAO
+ * 對應資料表: websocket_outbox、websocket_nodes、websocket_presence
+ * 節點之間的訊息寫入 outbox 由各節點輪詢；在線用戶記錄其連線所在的節點，
+ * 節點以心跳維持存活，逾時未更新的節點視為已停止。時間一律使用資料庫時鐘，避免節點時鐘誤差。
+ */
+@Repository
+public class WebSocketClusterDao {
+
+    /**
+     * outbox 的一筆訊息
+     *
+     * @param deliverable 是否要送給查詢的節點；不需要時只帶ID (payload 為 null)，供輪詢判斷ID是否連續
+     */
+    public record OutboxRow(long id, boolean deliverable, String kind, String target, String payload) {
+    }
+
+    private static final String OUTBOX_COLUMNS = "SELECT id, "
+            + "CASE WHEN source_node <> ? AND (target_node IS NULL OR target_node = ?) THEN 1 ELSE 0 END AS deliverable, "
+            + "kind, target, "
+            + "CASE WHEN source_node <> ? AND (target_node IS NULL OR target_node = ?) THEN payload END AS payload "
+            + "FROM websocket_outbox ";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public WebSocketClusterDao(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * 目前 outbox 的最大ID (節點啟動時由此開始接收)
+     */
+    public long maxOutboxId() {
+        Long max = jdbcTemplate.queryForObject("SELECT MAX(id) FROM websocket_outbox", Long.class);
+        return max == null ? 0 : max;
+    }
+
+    /**
+     * 寫入一筆訊息
+     *
+     * @param targetNode 目標節點；null 表示送給其他所有節點
+     */
+    public void insert(String sourceNode, String targetNode, String kind, String target, String payload) {
+        jdbcTemplate.update("INSERT INTO websocket_outbox (source_node, target_node, kind, target, payload, created_at) "
+                + "VALUES (?, ?, ?, ?, ?, CURRENT_TIMESTAMP)", sourceNode, targetNode, kind, target, payload);
+    }
+
+    /**
+     * 查詢ID大於 afterId 的訊息 (由小到大)，走主鍵
+     */
+    public List<OutboxRow> findAfter(long afterId, String nodeId, int limit) {
+        return jdbcTemplate.query(OUTBOX_COLUMNS + "WHERE id > ? ORDER BY id OFFSET 0 ROWS FETCH NEXT ? ROWS ONLY",
+                (rs, i) -> new OutboxRow(rs.getLong("id"), rs.getInt("deliverable") == 1, rs.getString("kind"),
+                        rs.getString("target"), rs.getString("payload")),
+                nodeId, nodeId, nodeId, nodeId, afterId, limit);
+    }
+
+    /**
+     * 查詢ID介於 (fromId, toId] 的訊息 (由小到大)，用來補收較晚提交的訊息
+     */
+    public List<OutboxRow> findBetween(long fromId, long toId, String nodeId) {
+        return jdbcTemplate.query(OUTBOX_COLUMNS + "WHERE id > ? AND id <= ? ORDER BY id",
+                (rs, i) -> new OutboxRow(rs.getLong("id"), rs.getInt("deliverable") == 1, rs.getString("kind"),
+                        rs.getString("target"), rs.getString("payload")),
+                nodeId, nodeId, nodeId, nodeId, fromId, toId);
+    }
+
+    /**
+     * 刪除建立超過保留秒數的訊息
+     *
+     * @return 刪除筆數
+     */
+    public int purgeOutbox(int retentionSeconds) {
+        return jdbcTemplate.update("DELETE FROM websocket_outbox WHERE created_at < DATEADD(SECOND, ?, CURRENT_TIMESTAMP)",
+                -retentionSeconds);
+    }
+
+    /**
+     * 更新節點心跳 (節點不存在時新增)
+     */
+    public void heartbeat(String nodeId) {
+        int updated = jdbcTemplate.update("UPDATE websocket_nodes SET heartbeat_at = CURRENT_TIMESTAMP WHERE node_id = ?",
+                nodeId);
+        if (updated == 1) {
+            return;
+        }
+        try {
+            jdbcTemplate.update("INSERT INTO websocket_nodes (node_id, heartbeat_at) VALUES (?, CURRENT_TIMESTAMP)",
+                    nodeId);
+        } catch (DuplicateKeyException e) {
+            // 同時新增，已存在即可
+        }
+    }
+
+    /**
+     * 移除節點與其在線用戶 (節點停止時)
+     */
+    public void removeNode(String nodeId) {
+        jdbcTemplate.update("DELETE FROM websocket_presence WHERE node_id = ?", nodeId);
+        jdbcTemplate.update("DELETE FROM websocket_nodes WHERE node_id = ?", nodeId);
+    }
+
+    /**
+     * 移除心跳逾時的節點與其在線用戶 (節點當機時)
+     *
+     * @return 移除的節點數
+     */
+    public int reapDeadNodes(int timeoutSeconds) {
+        jdbcTemplate.update("DELETE FROM websocket_presence WHERE node_id IN (SELECT node_id FROM websocket_nodes "
+                + "WHERE heartbeat_at < DATEADD(SECOND, ?, CURRENT_TIMESTAMP))", -timeoutSeconds);
+        return jdbcTemplate.update("DELETE FROM websocket_nodes WHERE heartbeat_at < DATEADD(SECOND, ?, CURRENT_TIMESTAMP)",
+                -timeoutSeconds);
+    }
+
+    /**
+     * 登記用戶連線在指定節點
+     *
+     * @return 原本持有該用戶的節點，沒有時為 null
+     */
+    public String claimUser(String userId, String nodeId) {
+        List<String> previous = jdbcTemplate.queryForList("SELECT node_id FROM websocket_presence WHERE user_id = ?",
+                String.class, userId);
+        String sql = "UPDATE websocket_presence SET node_id = ?, connected_at = CURRENT_TIMESTAMP WHERE user_id = ?";
+        if (jdbcTemplate.update(sql, nodeId, userId) == 0) {
+            try {
+                jdbcTemplate.update("INSERT INTO websocket_presence (user_id, node_id, connected_at) "
+                        + "VALUES (?, ?, CURRENT_TIMESTAMP)", userId, nodeId);
+            } catch (DuplicateKeyException e) {
+                // 另一個節點同時登記，後登記者為準
+                jdbcTemplate.update(sql, nodeId, userId);
+            }
+        }
+        return previous.isEmpty() ? null : previous.get(0);
+    }
+
+    /**
+     * 用戶仍登記在指定節點時移除
+     *
+     * @return 是否移除 (已由其他節點登記時為 false)
+     */
+    public boolean releaseUser(String userId, String nodeId) {
+        return jdbcTemplate.update("DELETE FROM websocket_presence WHERE user_id = ? AND node_id = ?", userId,
+                nodeId) == 1;
+    }
+
+    /**
+     * 查詢用戶連線所在的存活節點
+     *
+     * @return 節點ID，用戶不在線或節點心跳逾時為 null
+     */
+    public String findOwner(String userId, int timeoutSeconds) {
+        List<String> owners = jdbcTemplate.queryForList("SELECT p.node_id FROM websocket_presence p "
+                + "JOIN websocket_nodes n ON n.node_id = p.node_id "
+                + "WHERE p.user_id = ? AND n.heartbeat_at >= DATEADD(SECOND, ?, CURRENT_TIMESTAMP)",
+                String.class, userId, -timeoutSeconds);
+        return owners.isEmpty() ? null : owners.get(0);
+    }
+
+    /**
+     * 查詢所有存活節點上的在線用戶
+     */
+    public List<String> findOnlineUsers(int timeoutSeconds) {
+        return jdbcTemplate.queryForList("SELECT p.user_id FROM websocket_presence p "
+                + "JOIN websocket_nodes n ON n.node_id = p.node_id "
+                + "WHERE n.heartbeat_at >= DATEADD(SECOND, ?, CURRENT_TIMESTAMP)", String.class, -timeoutSeconds);
+    }
+}
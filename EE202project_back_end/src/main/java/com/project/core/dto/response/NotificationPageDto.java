@@ -0,0 +1,33 @@
+package com.project.core.dto.response;
+
+import java.util.List;
+
+import com.project.core.model.Notification;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 通知游標分頁結果
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationPageDto {
+
+    /**
+     * 本頁通知 (由新到舊)
+     */
+    private List<Notification> items;
+
+    /**
+     * 下一頁的游標，沒有下一頁時為 null
+     */
+    private String nextCursor;
+
+    /**
+     * 是否還有下一頁
+     */
+    private boolean hasMore;
+}
@@ -0,0 +1,39 @@
+package com.project.core.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 即時推播的通知內容 (WebSocket type = "notification")
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationPushDto {
+
+    /**
+     * 通知類型 (例如 LOW_STOCK)
+     */
+    private String type;
+
+    /**
+     * 標題
+     */
+    private String title;
+
+    /**
+     * 內容
+     */
+    private String message;
+
+    /**
+     * 點選後跳轉的頁面
+     */
+    private String link;
+
+    /**
+     * 去重鍵，同一鍵的新推播取代前端已顯示的舊通知
+     */
+    private String dedupeKey;
+}
@@ -0,0 +1,24 @@
+package com.project.core.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 即時推播的未讀數量變化 (WebSocket type = "unread-count")
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UnreadCountDeltaDto {
+
+    /**
+     * 本次變化量 (新增通知為正，已讀或刪除為負)
+     */
+    private long delta;
+
+    /**
+     * 變化後的未讀數量，前端可直接覆蓋紅點數字
+     */
+    private long unreadCount;
+}
@@ -29,6 +29,9 @@ public class Notification {
 
     private String link; //跳轉到哪個頁面
 
+    @Column(name = "dedupe_key", length = 100) //去重用的固定鍵 ex: LOW_STOCK:12，同一人同一鍵只保留一筆未讀
+    private String dedupeKey;
+
     @Column(name = "is_read", nullable=false)  //鈴鐺已讀跟未讀
     private boolean read = false;
 
@@ -13,16 +13,11 @@ import lombok.extern.slf4j.Slf4j;
 public class LowStockScheduler {
     private final InventoryAlertService alertService;
 
+    //庫存異動穿越安全庫存時已由事件即時通知，這裡只做補掃
     //代表每天的9點跟下午3點會各掃描一次
     @Scheduled(cron = "0 0 9,15 * * ?")//秒 分 時 日 月 星期(?)代表不關心這欄位
     public void runTwiceDaily(){
         log.info("低庫存通知觸發");
         alertService.checkAndNotifyLowStock(); 
     }
-
-    @Scheduled(cron = "0 */1 * * * ?")// *代表全部 */10代表每10分鐘掃描一次
-    public void run10minDaily(){
-        log.info("低庫存通知觸發");
-        alertService.checkAndNotifyLowStock();
-    }
 }
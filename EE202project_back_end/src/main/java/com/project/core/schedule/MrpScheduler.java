@@ -0,0 +1,28 @@
+package com.project.core.schedule;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.project.workorder.service.MrpService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MrpScheduler {
+    private final MrpService mrpService;
+
+    //每隔一段時間重算有異動的工單，並以最新庫存重建淨需求
+    @Scheduled(fixedDelayString = "${mrp.incremental-delay-ms:60000}", initialDelayString = "${mrp.incremental-delay-ms:60000}")
+    public void runIncremental(){
+        mrpService.processPendingChanges();
+    }
+
+    //每天凌晨2點30分全部重算一次，校正增量重算可能遺漏的異動 (例如直接修改資料庫)
+    @Scheduled(cron = "0 30 2 * * ?")
+    public void runNightly(){
+        log.info("MRP 全部重算觸發");
+        mrpService.recomputeAll();
+    }
+}
@@ -0,0 +1,22 @@
+package com.project.core.schedule;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.project.core.service.NotificationRetentionService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NotificationRetentionScheduler {
+    private final NotificationRetentionService retentionService;
+
+    //每天凌晨3點把過期的已讀通知移出 notifications
+    @Scheduled(cron = "0 0 3 * * ?")
+    public void runNightly(){
+        log.info("通知清理觸發");
+        retentionService.purgeReadNotifications();
+    }
+}
@@ -0,0 +1,22 @@
+package com.project.core.schedule;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.project.depot.service.StockSnapshotService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StockSnapshotScheduler {
+    private final StockSnapshotService stockSnapshotService;
+
+    //每小時第10分鐘把新交易併入每日庫存快照，讓查詢時需要補算的交易保持很少
+    @Scheduled(cron = "0 10 * * * ?")
+    public void runHourly(){
+        log.info("庫存快照更新觸發");
+        stockSnapshotService.refreshSnapshots();
+    }
+}
@@ -2,10 +2,7 @@ package com.project.core.security;
 
 import com.project.employeeuser.dao.EmployeeUserDAO;
 import com.project.employeeuser.model.EmployeeUser;
-import com.project.core.dao.RolePermissionRepository;
 import com.project.core.dao.UserRoleRepository;
-import com.project.core.model.RolePermission;
-import com.project.core.model.UserRole;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -15,6 +12,7 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class EmployeeUserDetailsService implements UserDetailsService {
@@ -25,8 +23,10 @@ public class EmployeeUserDetailsService implements UserDetailsService {
     @Autowired
     private UserRoleRepository userRoleRepository;
 
-    @Autowired
-    private RolePermissionRepository rolePermissionRepository;
+    /**
+     * 共用的 GrantedAuthority 實例：權限與角色種類有限，所有使用者共用同一個物件即可
+     */
+    private static final Map<String, GrantedAuthority> INTERNED_AUTHORITIES = new ConcurrentHashMap<>();
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
@@ -35,50 +35,30 @@ public class EmployeeUserDetailsService implements UserDetailsService {
 
         Integer employeeId = employeeUser.getEmployeeUserId().intValue();
 
-        // 1. 先準備 GrantedAuthority 列表 (Spring Security 授權只認得這個GrantedAuthority介面)
-        List<GrantedAuthority> authorities = new ArrayList<>();
-
-        // 2. 查角色權限 -> 以權限授權 (支援以權限讓Spring授權)
-        Set<String> rolePermissions = loadRolePermissions(employeeId);
+        // 1. 一次查出員工的角色與權限 (員工 -> 角色 -> 權限)
+        List<UserRoleRepository.RolePermissionRow> rows = userRoleRepository.findRolePermissionsByEmployeeId(employeeId);
 
-        for (String permission : rolePermissions) {
-            GrantedAuthority authority = new SimpleGrantedAuthority(permission);
-            authorities.add(authority);
+        // 2. 先準備 GrantedAuthority 列表 (Spring Security 授權只認得這個GrantedAuthority介面)
+        //    權限在前 (以權限授權)，角色在後 (以角色授權-Spring預設，保持向後相容性)，並去除重複
+        Set<GrantedAuthority> permissions = new LinkedHashSet<>();
+        Set<GrantedAuthority> roles = new LinkedHashSet<>();
+        for (UserRoleRepository.RolePermissionRow row : rows) {
+            if (row.getPermissionCode() != null) {
+                permissions.add(intern(row.getPermissionCode()));
+            }
+            roles.add(intern("ROLE_" + row.getRoleId()));
         }
 
-        // 3. 查用戶角色 -> 以角色授權 (支援以角色讓Spring授權-Spring預設) (保持向後相容性)
-        List<UserRole> userRoles = userRoleRepository.findByEmployeeId(employeeId);
-
-        for (UserRole userRole : userRoles) {
-            String role = userRole.getRoleId().toString();
-            GrantedAuthority authority = new SimpleGrantedAuthority("ROLE_" + role);
-            authorities.add(authority);
-        }
+        List<GrantedAuthority> authorities = new ArrayList<>(permissions.size() + roles.size());
+        authorities.addAll(permissions);
+        authorities.addAll(roles);
 
         // 傳回自訂的UserDetails實作 (loadUserByUsername的回傳型態由UserDetails介面定義)
         return new EmployeeUserDetails(employeeUser, authorities);
     }
 
-    /**
-     * 載入員工的角色權限: 員工 -> 角色 -> 權限
-     */
-    private Set<String> loadRolePermissions(Integer employeeId) {
-        // 1. 查員工角色
-        List<UserRole> userRoles = userRoleRepository.findByEmployeeId(employeeId);
-
-        // 2. 查角色權限並彙總
-        Set<String> rolePermissions = new HashSet<>();
-
-        // 3. 迭代每個角色以獲取其權限
-        for (UserRole userRole : userRoles) {
-            List<RolePermission> permissions = rolePermissionRepository.findByRoleId(userRole.getRoleId());
-
-            for (RolePermission permission : permissions) {
-                rolePermissions.add(permission.getPermissionCode());
-            }
-        }
-        // 4. 回傳去重後的權限
-        return rolePermissions;
+    private static GrantedAuthority intern(String authority) {
+        return INTERNED_AUTHORITIES.computeIfAbsent(authority, SimpleGrantedAuthority::new);
     }
 
 }
@@ -0,0 +1,138 @@
+package com.project.core.security;
+
+import com.project.core.cache.CacheStatistics;
+import com.project.core.cache.MonitoredCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 已驗證使用者 (UserDetails) 的記憶體快取
+ * 以「使用者名稱 + JWT token ID」為鍵，避免 AuthTokenFilter 每個請求都查詢使用者、角色與權限。
+ * 容量有上限 (超過時移除最久未使用的項目)，每筆在 TTL 到期後失效；
+ * 角色或密碼異動時以 {@link PrincipalChangedEvent} 清除該使用者的所有項目。
+ */
+@Component
+public class PrincipalCache implements MonitoredCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(PrincipalCache.class);
+
+    private record Entry(UserDetails userDetails, long expiresAtNanos) {
+    }
+
+    private final long ttlNanos;
+    private final int maxSize;
+    private final LinkedHashMap<String, Entry> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public PrincipalCache(@Value("${project.app.principalCacheTtlMs:60000}") long ttlMs,
+            @Value("${project.app.principalCacheMaxSize:10000}") int maxSize) {
+        this.ttlNanos = ttlMs * 1_000_000L;
+        this.maxSize = maxSize;
+        // accessOrder = true：依最近存取排序，超過容量時移除最舊的項目
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > PrincipalCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * 取得快取的使用者資料，不存在或已過期時回傳 null。
+     */
+    public UserDetails get(String username, String tokenId) {
+        String key = key(username, tokenId);
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.expiresAtNanos() - System.nanoTime() > 0) {
+                hits.increment();
+                return entry.userDetails();
+            }
+            if (entry != null) {
+                entries.remove(key);
+                evictions.increment();
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * 放入使用者資料。
+     */
+    public void put(String username, String tokenId, UserDetails userDetails) {
+        Entry entry = new Entry(userDetails, System.nanoTime() + ttlNanos);
+        synchronized (entries) {
+            entries.put(key(username, tokenId), entry);
+        }
+    }
+
+    /**
+     * 清除某使用者的所有 token 項目。
+     */
+    public void invalidateUser(String username) {
+        if (username == null) {
+            return;
+        }
+        String prefix = username + '\u0000';
+        int removed = 0;
+        synchronized (entries) {
+            Iterator<String> it = entries.keySet().iterator();
+            while (it.hasNext()) {
+                if (it.next().startsWith(prefix)) {
+                    it.remove();
+                    removed++;
+                }
+            }
+        }
+        if (removed > 0) {
+            logger.info("已清除使用者 {} 的 {} 筆登入快取", username, removed);
+        }
+    }
+
+    /**
+     * 清除所有項目。
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * 異動交易提交後才清除，避免並行請求在提交前重新載入舊資料並放回快取。
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPrincipalChanged(PrincipalChangedEvent event) {
+        invalidateUser(event.username());
+    }
+
+    @Override
+    public CacheStatistics statistics() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new CacheStatistics("principal", hits.sum(), misses.sum(), evictions.sum(), size);
+    }
+
+    private static String key(String username, String tokenId) {
+        return username + '\u0000' + tokenId;
+    }
+}
@@ -0,0 +1,9 @@
+package com.project.core.security;
+
+/**
+ * 使用者的角色、密碼或帳號資料異動後發布，讓已快取的登入身分失效。
+ *
+ * @param username 異動的使用者名稱
+ */
+public record PrincipalChangedEvent(String username) {
+}
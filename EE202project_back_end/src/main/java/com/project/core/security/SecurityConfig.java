@@ -152,6 +152,11 @@ public class SecurityConfig {
                     .hasAnyAuthority("SYSTEM_LOG_VIEW", "SYSTEM_LOG_MANAGE")
                     .requestMatchers("/api/system-logs/**").hasAuthority("SYSTEM_LOG_MANAGE")
 
+                    // 系統快取監控
+                    .requestMatchers(HttpMethod.GET, "/api/system/**")
+                    .hasAnyAuthority("SYSTEM_LOG_VIEW", "SYSTEM_LOG_MANAGE")
+                    .requestMatchers("/api/system/**").hasAuthority("SYSTEM_LOG_MANAGE")
+
                     // 物料管理權限
                     .requestMatchers(HttpMethod.GET, "/api/depot/materials", "/api/depot/materials/**")
                     .hasAuthority("INVENTORY_VIEW")
@@ -160,9 +165,12 @@ public class SecurityConfig {
                     .requestMatchers(HttpMethod.DELETE, "/api/depot/materials/**").hasAuthority("INVENTORY_MANAGE")
 
                     // 庫存異動紀錄權限
-                    .requestMatchers(HttpMethod.GET, "/api/depot/transactions")
+                    .requestMatchers(HttpMethod.GET, "/api/depot/transactions", "/api/depot/transactions/**")
                     .hasAuthority("INVENTORY_HISTORY_VIEW")
 
+                    // 每日庫存快照
+                    .requestMatchers(HttpMethod.POST, "/api/depot/stock-snapshots/**").hasAuthority("INVENTORY_MANAGE")
+
                     // 入庫單權限
                     .requestMatchers(HttpMethod.GET, "/api/depot/inbound-receipts",
                             "/api/depot/inbound-receipts/**")
@@ -190,7 +198,8 @@ public class SecurityConfig {
                     .requestMatchers(HttpMethod.GET, "/api/workorder", "/api/workorder/**",
                             "/api/workorder/{woId}/materials")
                     .hasAnyAuthority("WORKORDER_VIEW", "WORKORDER_MANAGE")
-                    .requestMatchers(HttpMethod.POST, "/api/workorder", "/api/workorder/picking")
+                    .requestMatchers(HttpMethod.POST, "/api/workorder", "/api/workorder/picking",
+                            "/api/workorder/mrp/recompute")
                     .hasAuthority("WORKORDER_MANAGE")
                     .requestMatchers(HttpMethod.PUT, "/api/workorder/**").hasAuthority("WORKORDER_MANAGE")
                     .requestMatchers(HttpMethod.DELETE, "/api/workorder/**").hasAuthority("WORKORDER_MANAGE")
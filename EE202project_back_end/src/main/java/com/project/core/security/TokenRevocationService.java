@@ -0,0 +1,104 @@
+package com.project.core.security;
+
+import io.jsonwebtoken.Claims;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * JWT 撤銷服務 (記憶體)
+ * 1. 撤銷清單：登出時記錄該 token 的 jti，直到 token 原本的到期時間為止。
+ * 2. 使用者版本號：強制登出或角色、密碼異動時遞增，無狀態 token 內的 ver 小於目前版本即視為失效。
+ * 3. 強制登出時間：強制登出前簽發的 token (不論是否為無狀態) 一律失效。
+ * 三者都只存在本節點記憶體中，不會寫入資料庫：重新啟動後清空，已撤銷的無狀態 token 在原本的到期時間前會再次有效。
+ * 多節點部署或無法接受此風險時請勿開啟無狀態模式 (project.app.jwtStateless)。
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    /**
+     * 無狀態 token 中記錄使用者版本號的 claim 名稱
+     */
+    public static final String VERSION_CLAIM = "ver";
+
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+    private final Map<String, Long> userVersions = new ConcurrentHashMap<>();
+    private final Map<String, Long> forcedLogoutAtSeconds = new ConcurrentHashMap<>();
+
+    /**
+     * 撤銷單一 token (登出)。
+     *
+     * @param tokenId   token 的 jti
+     * @param expiresAt token 原本的到期時間，之後即可從清單移除
+     */
+    public void revokeToken(String tokenId, Date expiresAt) {
+        if (tokenId == null) {
+            return;
+        }
+        long expiry = expiresAt != null ? expiresAt.getTime() : Long.MAX_VALUE;
+        revokedTokens.put(tokenId, expiry);
+    }
+
+    /**
+     * 讓使用者目前所有的無狀態 token 失效 (強制登出)。
+     */
+    public void revokeAllTokens(String username) {
+        forcedLogoutAtSeconds.put(username, System.currentTimeMillis() / 1000);
+        bumpVersion(username);
+    }
+
+    /**
+     * 取得使用者目前的 token 版本號，簽發無狀態 token 時寫入 claims。
+     */
+    public long currentVersion(String username) {
+        return userVersions.getOrDefault(username, 0L);
+    }
+
+    /**
+     * 判斷 token 是否已被撤銷。
+     */
+    public boolean isRevoked(Claims claims) {
+        if (claims.getId() != null && revokedTokens.containsKey(claims.getId())) {
+            return true;
+        }
+        Long forcedAt = forcedLogoutAtSeconds.get(claims.getSubject());
+        if (forcedAt != null && claims.getIssuedAt() != null
+                && claims.getIssuedAt().getTime() / 1000 < forcedAt) {
+            return true;
+        }
+        Number version = claims.get(VERSION_CLAIM, Number.class);
+        return version != null && version.longValue() < currentVersion(claims.getSubject());
+    }
+
+    /**
+     * 角色或密碼異動後，無狀態 token 內的權限已過時，強制重新登入。
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPrincipalChanged(PrincipalChangedEvent event) {
+        if (event.username() != null) {
+            bumpVersion(event.username());
+        }
+    }
+
+    private void bumpVersion(String username) {
+        long version = userVersions.merge(username, 1L, Long::sum);
+        logger.info("使用者 {} 的 token 版本號遞增為 {}", username, version);
+    }
+
+    /**
+     * 定期移除已過期的撤銷紀錄 (token 本身已過期，不需要再記錄)。
+     */
+    @Scheduled(fixedDelay = 600_000)
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        revokedTokens.values().removeIf(expiry -> expiry < now);
+    }
+}
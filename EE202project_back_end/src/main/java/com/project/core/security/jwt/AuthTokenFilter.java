@@ -5,6 +5,9 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import com.project.core.security.EmployeeUserDetailsService;
+import com.project.core.security.PrincipalCache;
+import com.project.core.security.TokenRevocationService;
+import io.jsonwebtoken.Claims;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -24,6 +27,12 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     @Autowired
     private EmployeeUserDetailsService userDetailsService;
 
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
     private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
 
     @Override
@@ -40,8 +49,9 @@ public class AuthTokenFilter extends OncePerRequestFilter {
         try {
             // 1. AuthTokenFilter 自己從請求中解析出 JWT 字串
             String jwt = parseJwt(request);
-            // 2. AuthTokenFilter 直接使用它自己的 jwtUtils 工具來驗證 JWT
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
+            // 2. AuthTokenFilter 直接使用它自己的 jwtUtils 工具來驗證 JWT (只解析一次)，並檢查是否已被撤銷
+            Claims claims = jwt != null ? jwtUtils.parseValidClaims(jwt) : null;
+            if (claims != null && !tokenRevocationService.isRevoked(claims)) {
 
                 /**
                  * JWT 驗證成功:
@@ -52,8 +62,20 @@ public class AuthTokenFilter extends OncePerRequestFilter {
                  */
                 
                 // 3. 收集所需資料(已經可以放回認證中心了)
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                String username = claims.getSubject();
+                UserDetails userDetails;
+                if (jwtUtils.isStatelessToken(claims)) {
+                    // 無狀態模式：權限已簽在 token 內，不需查詢資料庫
+                    userDetails = jwtUtils.getUserDetailsFromClaims(claims);
+                } else {
+                    // 先查登入快取，未命中才查詢資料庫 (使用者、角色、權限)
+                    String tokenId = jwtUtils.getTokenId(claims);
+                    userDetails = principalCache.get(username, tokenId);
+                    if (userDetails == null) {
+                        userDetails = userDetailsService.loadUserByUsername(username);
+                        principalCache.put(username, tokenId, userDetails);
+                    }
+                }
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                         userDetails, null, userDetails.getAuthorities());
 
@@ -1,48 +1,138 @@
 package com.project.core.security.jwt;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 import javax.crypto.SecretKey;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import com.project.core.security.EmployeeUserDetails;
+import com.project.core.security.TokenRevocationService;
+import com.project.employeeuser.model.EmployeeType;
+import com.project.employeeuser.model.EmployeeUser;
+
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import jakarta.annotation.PostConstruct;
 
 @Component
 public class JwtUtils {
     private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
+    /**
+     * 無狀態模式下寫入 token 的 claim 名稱
+     */
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String PERMISSIONS_CLAIM = "perms";
+    private static final String ROLES_CLAIM = "roles";
+    private static final String PROFILE_CLAIM = "emp";
+    private static final String ROLE_PREFIX = "ROLE_";
+
     @Value("${project.app.jwtSecret}")
     private String jwtSecret;
 
     @Value("${project.app.jwtExpirationMs}")
     private int jwtExpirationMs;
 
+    /**
+     * 是否啟用無狀態模式：權限與角色簽入 token，驗證時不需查詢資料庫
+     */
+    @Value("${project.app.jwtStateless:false}")
+    private boolean statelessEnabled;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    /**
+     * 簽章金鑰與解析器只建立一次，之後每次驗證共用 (兩者皆為執行緒安全)
+     */
+    private SecretKey signingKey;
+    private JwtParser jwtParser;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        jwtParser = Jwts.parser().verifyWith(signingKey).build();
+    }
+
     /**
      * 生成 JWT 字串 
      * 利用Jwts.builder()並搭配JWT Claims寫法來撰寫JWT的payload(主體)
+     * 無狀態模式下另外簽入使用者ID、權限、角色ID、員工基本資料與使用者版本號
      * 
      * @param authentication
      * @return String JWT 字串
      */
     public String generateJwtToken(Authentication authentication) {
         UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
+                .id(UUID.randomUUID().toString())
                 .subject((userPrincipal.getUsername()))
                 .issuedAt(new Date())
-                .expiration(new Date(System.currentTimeMillis() + jwtExpirationMs))
-                .signWith(key())
-                .compact();
+                .expiration(new Date(System.currentTimeMillis() + jwtExpirationMs));
+
+        if (statelessEnabled && userPrincipal instanceof EmployeeUserDetails employeeUserDetails) {
+            List<String> permissions = new ArrayList<>();
+            List<Integer> roleIds = new ArrayList<>();
+            for (GrantedAuthority authority : userPrincipal.getAuthorities()) {
+                String name = authority.getAuthority();
+                if (name.startsWith(ROLE_PREFIX)) {
+                    roleIds.add(Integer.valueOf(name.substring(ROLE_PREFIX.length())));
+                } else {
+                    permissions.add(name);
+                }
+            }
+            builder.claim(USER_ID_CLAIM, employeeUserDetails.getEmployeeUser().getEmployeeUserId())
+                    .claim(PERMISSIONS_CLAIM, permissions)
+                    .claim(ROLES_CLAIM, roleIds)
+                    .claim(PROFILE_CLAIM, profileClaims(employeeUserDetails.getEmployeeUser()))
+                    .claim(TokenRevocationService.VERSION_CLAIM,
+                            tokenRevocationService.currentVersion(userPrincipal.getUsername()));
+        }
+        return builder.signWith(signingKey).compact();
+    }
+
+    /**
+     * 服務層會從登入身分讀取的員工欄位 (姓名、部門、主管、到職日等)，無狀態模式下簽入 token
+     * 這些欄位異動時 EmployeeUserService 會發布 PrincipalChangedEvent，舊 token 即因版本號失效
+     * 
+     * @param user
+     * @return Map 欄位名稱 -> 值 (日期為 ISO 字串)
+     */
+    private static Map<String, Object> profileClaims(EmployeeUser user) {
+        Map<String, Object> profile = new LinkedHashMap<>();
+        profile.put("employeeNumber", user.getEmployeeNumber());
+        profile.put("firstName", user.getFirstName());
+        profile.put("lastName", user.getLastName());
+        profile.put("email", user.getEmail());
+        profile.put("employeeType", user.getEmployeeType() != null ? user.getEmployeeType().name() : null);
+        profile.put("hireDate", user.getHireDate() != null ? user.getHireDate().toString() : null);
+        profile.put("departmentId", user.getEmployeeDepartmentId());
+        profile.put("positionId", user.getEmployeePositionId());
+        profile.put("managerId", user.getManagerEmployeeUserId());
+        return profile;
     }
 
     /**
@@ -52,40 +142,122 @@ public class JwtUtils {
      * @return String JWT 字串
      */
     public String getUserNameFromJwtToken(String token) {
-        return Jwts.parser()
-                .verifyWith(key())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload()
-                .getSubject();
+        return getClaimsFromJwtToken(token).getSubject();
     }
 
     /**
-     * 透過加密演算法製造key
-     * @return SecretKey
+     * 解析 JWT 字串並取得全部 claims (subject、token ID、簽發時間等)
+     * 
+     * @param token
+     * @return Claims
      */
-    private SecretKey key() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+    public Claims getClaimsFromJwtToken(String token) {
+        return jwtParser.parseSignedClaims(token).getPayload();
     }
 
     /**
-     * 驗證 JWT 字串
-     * @param authToken
-     * @return boolean
+     * 驗證並解析 JWT 字串，只做一次簽章驗證
+     * 
+     * @param token
+     * @return Claims，驗證失敗時為 null
      */
-    public boolean validateJwtToken(String authToken) {
+    public Claims parseValidClaims(String token) {
         try {
-            Jwts.parser().verifyWith(key()).build().parse(authToken);
-            return true;
+            return getClaimsFromJwtToken(token);
         } catch (MalformedJwtException e) {
             logger.error("錯誤的 JWT token: {}", e.getMessage());
         } catch (ExpiredJwtException e) {
             logger.error("JWT token 過期: {}", e.getMessage());
         } catch (UnsupportedJwtException e) {
             logger.error("JWT token 不被支援: {}", e.getMessage());
+        } catch (SignatureException e) {
+            logger.error("JWT 簽章錯誤: {}", e.getMessage());
         } catch (IllegalArgumentException e) {
             logger.error("JWT claims 字串為空: {}", e.getMessage());
         }
-        return false;
+        return null;
+    }
+
+    /**
+     * 取得 token ID (jti)；舊版 token 沒有 jti 時以簽發時間代替
+     * 
+     * @param claims
+     * @return String token ID
+     */
+    public String getTokenId(Claims claims) {
+        if (claims.getId() != null) {
+            return claims.getId();
+        }
+        return claims.getIssuedAt() != null ? String.valueOf(claims.getIssuedAt().getTime()) : "";
+    }
+
+    /**
+     * 是否為可直接使用的無狀態 token (模式已啟用且 token 內含權限與員工資料)
+     * 舊版只含權限的無狀態 token 回到快取/資料庫查詢，避免登入身分缺少欄位
+     * 
+     * @param claims
+     * @return boolean
+     */
+    public boolean isStatelessToken(Claims claims) {
+        return statelessEnabled && claims.containsKey(PERMISSIONS_CLAIM) && claims.containsKey(USER_ID_CLAIM)
+                && claims.containsKey(PROFILE_CLAIM);
+    }
+
+    /**
+     * 直接以 token 內的 claims 建立登入身分，不查詢資料庫
+     * 帶有使用者ID、帳號與 {@link #profileClaims} 的欄位；電話、照片、生日等其他欄位為 null，需要時須自行查詢
+     * 
+     * @param claims
+     * @return EmployeeUserDetails
+     */
+    public EmployeeUserDetails getUserDetailsFromClaims(Claims claims) {
+        EmployeeUser employeeUser = new EmployeeUser();
+        employeeUser.setEmployeeUserId(claims.get(USER_ID_CLAIM, Number.class).longValue());
+        employeeUser.setUsername(claims.getSubject());
+        employeeUser.setIsActive(true);
+        Map<?, ?> profile = claims.get(PROFILE_CLAIM, Map.class);
+        if (profile != null) {
+            employeeUser.setEmployeeNumber(stringOf(profile.get("employeeNumber")));
+            employeeUser.setFirstName(stringOf(profile.get("firstName")));
+            employeeUser.setLastName(stringOf(profile.get("lastName")));
+            employeeUser.setEmail(stringOf(profile.get("email")));
+            String employeeType = stringOf(profile.get("employeeType"));
+            employeeUser.setEmployeeType(employeeType != null ? EmployeeType.valueOf(employeeType) : null);
+            String hireDate = stringOf(profile.get("hireDate"));
+            employeeUser.setHireDate(hireDate != null ? LocalDate.parse(hireDate) : null);
+            employeeUser.setEmployeeDepartmentId(longOf(profile.get("departmentId")));
+            employeeUser.setEmployeePositionId(longOf(profile.get("positionId")));
+            employeeUser.setManagerEmployeeUserId(longOf(profile.get("managerId")));
+        }
+
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        List<?> permissions = claims.get(PERMISSIONS_CLAIM, List.class);
+        for (Object permission : permissions) {
+            authorities.add(new SimpleGrantedAuthority(permission.toString()));
+        }
+        List<?> roleIds = claims.get(ROLES_CLAIM, List.class);
+        if (roleIds != null) {
+            for (Object roleId : roleIds) {
+                authorities.add(new SimpleGrantedAuthority(ROLE_PREFIX + roleId));
+            }
+        }
+        return new EmployeeUserDetails(employeeUser, authorities);
+    }
+
+    private static String stringOf(Object value) {
+        return value != null ? value.toString() : null;
+    }
+
+    private static Long longOf(Object value) {
+        return value instanceof Number number ? number.longValue() : null;
+    }
+
+    /**
+     * 驗證 JWT 字串
+     * @param authToken
+     * @return boolean
+     */
+    public boolean validateJwtToken(String authToken) {
+        return parseValidClaims(authToken) != null;
     }
 }
@@ -0,0 +1,372 @@
+package com.project.core.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.project.core.dao.SystemLogBatchDao;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 系統日誌非同步批次寫入器
+ * 呼叫端只把 {@link SystemLogEvent} 放進有上限的無鎖佇列 (呼叫端在交易中時於提交後才放入，回滾的操作不記錄)，
+ * 背景執行緒每隔 flush-interval-ms 或累積 batch-size 筆時以 JDBC batch 寫入，稽核不再增加業務請求的延遲。
+ * 佇列滿時依 overflow-policy 處理：BLOCK 等待空位、DROP_OLDEST 丟棄最舊一筆、SPILL 寫到本機檔案
+ * (JSON lines)；寫入資料庫失敗的批次也寫到本機檔案，之後佇列清空時重新寫入資料庫
+ * (補寫失敗時以指數退避延後下一次補寫，資料庫故障期間不會反覆讀寫整個檔案)。
+ * 應用程式關閉時 (Web 伺服器停止之後) 先把佇列寫完，逾時未完成的部分寫到本機檔案。
+ */
+@Slf4j
+@Component
+public class AsyncSystemLogWriter implements SmartLifecycle {
+
+    /**
+     * 佇列滿時的處理方式
+     */
+    public enum OverflowPolicy {
+        BLOCK, DROP_OLDEST, SPILL
+    }
+
+    private enum State {
+        NEW, RUNNING, STOPPED
+    }
+
+    /** BLOCK 時每次等待的時間 */
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+    /** 補寫失敗後第一次重試前的等待時間，之後每次失敗加倍 */
+    private static final long REPLAY_BACKOFF_INITIAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    /** 補寫重試等待時間的上限 */
+    private static final long REPLAY_BACKOFF_MAX_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final SystemLogBatchDao batchDao;
+    private final TransactionTemplate transactionTemplate;
+    private final int capacity;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final OverflowPolicy overflowPolicy;
+    private final Path spillFile;
+    private final long shutdownTimeoutMillis;
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private final ConcurrentLinkedQueue<SystemLogEvent> queue = new ConcurrentLinkedQueue<>();
+    /** 佇列筆數 (ConcurrentLinkedQueue.size() 需走訪整個佇列，另外以原子計數控制上限) */
+    private final AtomicInteger size = new AtomicInteger();
+    private final Object spillLock = new Object();
+    private volatile boolean spillPending;
+    private volatile State state = State.NEW;
+    private volatile Thread writer;
+    /** 以下兩個欄位只由寫入執行緒存取 */
+    private long replayBackoffNanos = REPLAY_BACKOFF_INITIAL_NANOS;
+    private long nextReplayNanos = System.nanoTime();
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder spilled = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+
+    /**
+     * 寫入器統計資料
+     *
+     * @param enqueued      放入佇列的筆數
+     * @param written       已寫入資料庫的筆數 (含由本機檔案補寫)
+     * @param dropped       因佇列滿 (DROP_OLDEST) 或資料本身無法寫入而丟棄的筆數
+     * @param spilled       寫到本機檔案的筆數
+     * @param failedBatches 寫入資料庫失敗的批次數
+     * @param queueSize     目前佇列筆數
+     */
+    public record Stats(long enqueued, long written, long dropped, long spilled, long failedBatches,
+            int queueSize) {
+    }
+
+    public AsyncSystemLogWriter(SystemLogBatchDao batchDao, TransactionTemplate transactionTemplate,
+            @Value("${system-log.async.capacity:10000}") int capacity,
+            @Value("${system-log.async.batch-size:200}") int batchSize,
+            @Value("${system-log.async.flush-interval-ms:500}") long flushIntervalMs,
+            @Value("${system-log.async.overflow-policy:SPILL}") OverflowPolicy overflowPolicy,
+            @Value("${system-log.async.spill-file:logs/system-log-spill.jsonl}") Path spillFile,
+            @Value("${system-log.async.shutdown-timeout-ms:10000}") long shutdownTimeoutMillis) {
+        if (capacity < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("system-log.async.capacity 與 batch-size 必須大於 0");
+        }
+        this.batchDao = batchDao;
+        this.transactionTemplate = transactionTemplate;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.overflowPolicy = overflowPolicy;
+        this.spillFile = spillFile;
+        this.shutdownTimeoutMillis = shutdownTimeoutMillis;
+        this.spillPending = Files.exists(spillFile);
+    }
+
+    /**
+     * 放入一筆稽核紀錄；呼叫端在交易中時，於交易提交後才放入
+     */
+    public void enqueue(SystemLogEvent event) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    offer(event);
+                }
+            });
+        } else {
+            offer(event);
+        }
+    }
+
+    private void offer(SystemLogEvent event) {
+        while (true) {
+            if (state == State.STOPPED) {
+                // 寫入器已停止 (應用程式關閉中)，留到下次啟動時補寫
+                spill(List.of(event));
+                return;
+            }
+            int current = size.get();
+            if (current < capacity) {
+                if (size.compareAndSet(current, current + 1)) {
+                    queue.offer(event);
+                    enqueued.increment();
+                    if (current + 1 >= batchSize) {
+                        wakeWriter();
+                    }
+                    return;
+                }
+                continue;
+            }
+            switch (overflowPolicy) {
+                case DROP_OLDEST -> {
+                    if (queue.poll() != null) {
+                        size.decrementAndGet();
+                        dropped.increment();
+                    }
+                }
+                case SPILL -> {
+                    spill(List.of(event));
+                    return;
+                }
+                case BLOCK -> {
+                    wakeWriter();
+                    LockSupport.parkNanos(BLOCK_PARK_NANOS);
+                }
+            }
+        }
+    }
+
+    private void wakeWriter() {
+        Thread thread = writer;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    private void runWriter() {
+        while (state == State.RUNNING) {
+            if (size.get() < batchSize) {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+            }
+            flush();
+            if (spillPending && size.get() == 0 && state == State.RUNNING
+                    && System.nanoTime() - nextReplayNanos >= 0) {
+                replaySpillFile();
+            }
+        }
+        // 關閉時把剩下的寫完
+        flush();
+    }
+
+    private void flush() {
+        List<SystemLogEvent> batch = new ArrayList<>(batchSize);
+        SystemLogEvent event;
+        while ((event = queue.poll()) != null) {
+            size.decrementAndGet();
+            batch.add(event);
+            if (batch.size() == batchSize) {
+                write(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        write(batch);
+    }
+
+    private void write(List<SystemLogEvent> batch) {
+        if (!tryWrite(batch)) {
+            spill(batch);
+        }
+    }
+
+    /**
+     * 寫入一批紀錄
+     *
+     * @return false 表示資料庫無法寫入 (整批未寫入，由呼叫端決定如何保留)
+     */
+    private boolean tryWrite(List<SystemLogEvent> batch) {
+        if (batch.isEmpty()) return true;
+        try {
+            // 整批一個交易，失敗時不會留下部分寫入的資料列
+            transactionTemplate.executeWithoutResult(status -> batchDao.insert(batch));
+            written.add(batch.size());
+        } catch (DataIntegrityViolationException e) {
+            // 批次中有資料本身無法寫入 (例如必填欄位為空)，逐筆寫入並丟棄有問題的那幾筆，避免整批一直重試
+            failedBatches.increment();
+            for (SystemLogEvent single : batch) {
+                try {
+                    batchDao.insert(List.of(single));
+                    written.increment();
+                } catch (DataIntegrityViolationException invalid) {
+                    dropped.increment();
+                    log.error("系統日誌無法寫入，已丟棄: {} ({})", single, invalid.getMessage());
+                } catch (RuntimeException other) {
+                    spill(List.of(single));
+                }
+            }
+        } catch (RuntimeException e) {
+            failedBatches.increment();
+            log.error("系統日誌批次寫入失敗，{} 筆改寫到本機檔案: {}", batch.size(), e.getMessage());
+            return false;
+        }
+        return true;
+    }
+
+    private void spill(List<SystemLogEvent> events) {
+        if (events.isEmpty()) return;
+        synchronized (spillLock) {
+            try {
+                Path parent = spillFile.toAbsolutePath().getParent();
+                if (parent != null) {
+                    Files.createDirectories(parent);
+                }
+                try (BufferedWriter out = Files.newBufferedWriter(spillFile, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                    for (SystemLogEvent event : events) {
+                        out.write(objectMapper.writeValueAsString(event));
+                        out.newLine();
+                    }
+                }
+                spilled.add(events.size());
+                spillPending = true;
+            } catch (IOException e) {
+                dropped.add(events.size());
+                log.error("系統日誌寫入本機檔案失敗，已丟棄 {} 筆: {}", events.size(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 把本機檔案中的紀錄補寫到資料庫
+     * 遇到第一個寫入失敗的批次就停止 (資料庫多半仍無法連線)，該批與之後尚未補寫的紀錄一次寫回檔案，
+     * 並以指數退避延後下一次補寫；全部補寫成功時退避時間重設。
+     */
+    private void replaySpillFile() {
+        List<SystemLogEvent> events = new ArrayList<>();
+        synchronized (spillLock) {
+            spillPending = false;
+            if (!Files.exists(spillFile)) return;
+            try {
+                for (String line : Files.readAllLines(spillFile, StandardCharsets.UTF_8)) {
+                    if (!line.isBlank()) {
+                        events.add(objectMapper.readValue(line, SystemLogEvent.class));
+                    }
+                }
+                Files.delete(spillFile);
+            } catch (IOException | RuntimeException e) {
+                // 檔案保留，下次佇列清空時再試
+                spillPending = true;
+                log.error("讀取系統日誌暫存檔 {} 失敗: {}", spillFile, e.getMessage());
+                return;
+            }
+        }
+        log.info("由本機檔案補寫系統日誌 {} 筆", events.size());
+        for (int from = 0; from < events.size(); from += batchSize) {
+            if (!tryWrite(events.subList(from, Math.min(from + batchSize, events.size())))) {
+                spill(events.subList(from, events.size()));
+                nextReplayNanos = System.nanoTime() + replayBackoffNanos;
+                log.warn("系統日誌補寫中斷，剩餘 {} 筆寫回本機檔案，{} ms 後重試", events.size() - from,
+                        TimeUnit.NANOSECONDS.toMillis(replayBackoffNanos));
+                replayBackoffNanos = Math.min(replayBackoffNanos * 2, REPLAY_BACKOFF_MAX_NANOS);
+                return;
+            }
+        }
+        replayBackoffNanos = REPLAY_BACKOFF_INITIAL_NANOS;
+    }
+
+    /**
+     * 目前的統計資料
+     */
+    public Stats stats() {
+        return new Stats(enqueued.sum(), written.sum(), dropped.sum(), spilled.sum(), failedBatches.sum(),
+                size.get());
+    }
+
+    @Override
+    public void start() {
+        if (state != State.NEW) return;
+        state = State.RUNNING;
+        writer = Thread.ofPlatform().name("system-log-writer").daemon().start(() -> {
+            if (spillPending) {
+                replaySpillFile(); // 上次關閉或資料庫故障時留下的紀錄
+            }
+            runWriter();
+        });
+    }
+
+    @Override
+    public void stop() {
+        if (state != State.RUNNING) return;
+        state = State.STOPPED;
+        Thread thread = writer;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(shutdownTimeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // 資料庫沒有回應而逾時，或停止瞬間才放入佇列的紀錄，寫到本機檔案，下次啟動時補寫
+        List<SystemLogEvent> rest = new ArrayList<>();
+        SystemLogEvent event;
+        while ((event = queue.poll()) != null) {
+            size.decrementAndGet();
+            rest.add(event);
+        }
+        spill(rest);
+        if (thread.isAlive()) {
+            log.warn("系統日誌寫入器未在 {} ms 內完成，{} 筆改寫到本機檔案", shutdownTimeoutMillis, rest.size());
+        }
+        log.info("系統日誌寫入器已停止: {}", stats());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return state == State.RUNNING;
+    }
+
+    /**
+     * 比 Web 伺服器晚停止，停止前已處理中的請求所記錄的日誌仍會寫入
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+}
@@ -9,6 +9,7 @@ import com.project.core.exception.DuplicateEmailException;
 import com.project.core.exception.DuplicateEmployeeNumberException;
 import com.project.core.exception.DuplicateUsernameException;
 import com.project.core.model.Employee;
+import com.project.core.security.PrincipalChangedEvent;
 // ===== 新增：角色管理功能開始 =====
 import com.project.core.dao.UserRoleRepository;
 import com.project.core.dao.RoleRepository;
@@ -19,6 +20,7 @@ import com.project.core.service.SystemLogService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -41,6 +43,9 @@ public class EmployeeUserServiceImpl implements EmployeeUserService {
 
     @Autowired
     private SystemLogService systemLogService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
     
     // ===== 新增：角色管理功能開始 =====
     @Autowired
@@ -142,6 +147,7 @@ public class EmployeeUserServiceImpl implements EmployeeUserService {
         return employeeRepository.findById(id)
                 .map(existingEmployee -> {
                     String oldEmployeeData = existingEmployee.toString(); // Capture old data for logging
+                    String oldUsername = existingEmployee.getUsername();
 
                     // 檢查使用者名稱是否被修改且已存在
                     if (!existingEmployee.getUsername().equals(request.getUsername()) &&
@@ -180,6 +186,8 @@ public class EmployeeUserServiceImpl implements EmployeeUserService {
                     existingEmployee.setIsActive(request.getIsActive());
 
                     Employee updatedEmployee = employeeRepository.save(existingEmployee);
+                    // 密碼、帳號或啟用狀態可能已變更，清除登入快取
+                    eventPublisher.publishEvent(new PrincipalChangedEvent(oldUsername));
                     logger.info("EmployeeUserServiceImpl - 保存到資料庫後 updatedEmployee.getIsActive(): {}", updatedEmployee.getIsActive());
 
                     systemLogService.log(
@@ -209,6 +217,7 @@ public class EmployeeUserServiceImpl implements EmployeeUserService {
         logger.info("根據ID刪除員工使用者: {}", id);
         employeeRepository.findById(id).ifPresent(employee -> {
             employeeRepository.deleteById(id);
+            eventPublisher.publishEvent(new PrincipalChangedEvent(employee.getUsername()));
             systemLogService.log(
                     "DELETE",
                     "刪除員工使用者",
@@ -289,9 +298,8 @@ public class EmployeeUserServiceImpl implements EmployeeUserService {
         Integer empId = employeeId.intValue();
         
         // 檢查員工是否存在
-        if (!employeeRepository.existsById(empId)) {
-            throw new RuntimeException("找不到員工ID: " + employeeId);
-        }
+        Employee employee = employeeRepository.findById(empId)
+                .orElseThrow(() -> new RuntimeException("找不到員工ID: " + employeeId));
         
         try {
             // 1. 刪除員工所有現有角色
@@ -324,6 +332,9 @@ public class EmployeeUserServiceImpl implements EmployeeUserService {
                 
                 logger.info("已為員工 {} 新增 {} 個角色", employeeId, roles.size());
             }
+
+            // 角色已變更，清除該員工的登入快取
+            eventPublisher.publishEvent(new PrincipalChangedEvent(employee.getUsername()));
             
             // 記錄系統日誌
             systemLogService.log(
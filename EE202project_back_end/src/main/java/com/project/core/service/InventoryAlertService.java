@@ -1,74 +1,174 @@
 package com.project.core.service;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.project.core.dao.LowStockAlertDao;
+import com.project.core.dao.LowStockAlertDao.LowStockMaterial;
+import com.project.core.dao.LowStockAlertDao.NewNotification;
+import com.project.core.dao.LowStockAlertDao.NotificationKey;
+import com.project.core.dao.SchedulerLockDao;
 import com.project.core.dao.EmployeeRepository;
-import com.project.core.dao.NotificationRepository;
 import com.project.core.dao.UserRoleRepository;
+import com.project.core.dto.response.NotificationPushDto;
 import com.project.core.model.Employee;
-import com.project.core.model.Notification;
-import com.project.depot.dao.MaterialRepository;
-import com.project.depot.model.Material;
+import com.project.depot.service.StockThresholdCrossedEvent;
+import com.project.employeeuser.handler.SimpleWebSocketHandler;
 
-import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class InventoryAlertService {
 
-    private final MaterialRepository materialRepo;
-    private final EmployeeRepository employeeRepo;
+    static final String LOW_STOCK = "LOW_STOCK";
+    private static final String TITLE = "庫存不足提醒";
+    //當點選訊息內容跳轉
+    private static final String LINK = "/materials";
+
+    /** 多節點同時排程時只有一個節點執行 */
+    static final String LOCK_NAME = "low-stock-alert";
+    private static final Duration LOCK_LEASE = Duration.ofMinutes(5);
+
     private final UserRoleRepository userRoleRepo;
-    private final NotificationRepository notificationRepo;
+    private final EmployeeRepository employeeRepo;
+    private final LowStockAlertDao alertDao;
+    private final SchedulerLockDao lockDao;
+    private final TransactionTemplate transactionTemplate;
+    private final SimpleWebSocketHandler webSocketHandler;
+    private final NotificationUnreadCounter unreadCounter;
 
-   /** 只抓角色為 PURCHASE_MANAGER 的並且是啟用中的帳號 */
-    private List<Employee> purchaseEmployees() {
+   /** 只抓角色為 PURCHASE_MANAGER 或 ADMIN 的員工ID */
+    private List<Integer> purchaseEmployeeIds() {
         //找出哪些員工的角色是 PURCHASE_MANAGER。
         List<Integer> ids = userRoleRepo.findEmployeeIdsByRoleNames(List.of("PURCHASE_MANAGER" , "ADMIN"));
-        if (ids == null || ids.isEmpty()) return List.of();//回傳 空的 List
-        // 直接撈 Employee；如需過濾 isActive，可在這裡 .stream() 過濾，或寫成自訂查詢
-
-        List<Employee> emps = employeeRepo.findAllById(ids);
-        // 底下是只抓啟用的
-        // emps = emps.stream().filter(Employee::getIsActive).toList();
-        return emps;
-    } 
-
-//掃描低庫存並發通知（寫 DB)
- public void checkAndNotifyLowStock() {
-    List<Material> lows = materialRepo.findByStockCurrentLessThanSafeStock();
-        if(lows.isEmpty()) return; //如果沒有低於庫存則直接結束
-
-    List<Employee> buyers = purchaseEmployees();//取出採購負責人
-        if(buyers.isEmpty()) return;
-
-    for(Material m : lows){
-        //通知訊息內容
-        String msg = m.getMaterialName() + ": 剩餘 " + m.getStockCurrent().intValue() +" 個"+" < 安全庫存"+m.getSafetyStock().intValue();
-        //當點選訊息內容跳轉
-        String link = "/materials";
-        //對每一個採購人員發通知
-        for(Employee u : buyers){ 
-
-        if (notificationRepo.existsByUserIdAndTypeAndMessageAndReadFalse(
-            u.getEmployeeId(), "LOW_STOCK", msg)) {
-            continue; // 已有同類型、同訊息的未讀 → 跳過
+        return ids == null ? List.of() : ids;
+    }
+
+    /** 同一物料的低庫存通知共用一個去重鍵，訊息內容變動不影響去重 */
+    static String dedupeKey(Long materialId) {
+        return LOW_STOCK + ":" + materialId;
+    }
+
+    private static String message(LowStockMaterial m) {
+        return m.materialName() + ": 剩餘 " + m.stockCurrent().intValue() + " 個" + " < 安全庫存"
+                + m.safetyStock().intValue();
+    }
+
+    /**
+     * 掃描低庫存並發通知（寫 DB）。
+     * 一般情況由 {@link #onStockThresholdCrossed} 即時通知，這裡補上未經庫存異動服務的變更 (例如直接修改資料庫)。
+     * 只處理庫存或安全庫存與上次通知時不同的低庫存物料：
+     * 已有未讀通知的人更新訊息內容，沒有的人新增一筆；查詢與寫入都是集合式批次，次數與物料數、人數無關。
+     *
+     * @return 新增的通知筆數 (其他節點正在執行時為 0)
+     */
+    public int checkAndNotifyLowStock() {
+        if (!lockDao.tryLock(LOCK_NAME, LOCK_LEASE)) {
+            log.debug("低庫存通知正在其他節點執行，本次略過");
+            return 0;
+        }
+        try {
+            List<NewNotification> created = transactionTemplate.execute(status -> notifyChangedMaterials());
+            if (created == null) return 0;
+            unreadCounter.created(created.stream().map(NewNotification::userId).toList());
+            return created.size();
+        } finally {
+            lockDao.unlock(LOCK_NAME);
+        }
+    }
+
+    private List<NewNotification> notifyChangedMaterials() {
+        alertDao.deleteRecoveredStates();
+        List<LowStockMaterial> changed = alertDao.findChangedLowStockMaterials();
+        if (changed.isEmpty()) return List.of(); //沒有新的或數量有變動的低庫存物料則直接結束
+
+        List<Integer> buyers = purchaseEmployeeIds();//取出採購負責人
+        if (buyers.isEmpty()) return List.of(); //不記錄狀態，指派採購人員後仍會通知
+
+        return writeNotifications(changed, buyers, LocalDateTime.now());
+    }
+
+    /**
+     * 庫存異動往下穿越安全庫存時 (交易提交後，非同步) 立即通知採購人員，並推播給在線的人。
+     */
+    @Async
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockThresholdCrossed(StockThresholdCrossedEvent event) {
+        List<Integer> buyers = purchaseEmployeeIds();
+        if (buyers.isEmpty()) return;
+
+        List<LowStockMaterial> materials = event.materials().stream()
+                .map(c -> new LowStockMaterial(c.materialId(), c.materialName(), c.stockCurrent(), c.safetyStock()))
+                .toList();
+        try {
+            List<NewNotification> created = transactionTemplate.execute(
+                    status -> writeNotifications(materials, buyers, LocalDateTime.now()));
+            if (created != null) {
+                unreadCounter.created(created.stream().map(NewNotification::userId).toList());
+            }
+        } catch (DataIntegrityViolationException e) {
+            // 與定時補掃同時寫入同一則未讀通知，由唯一索引擋下，補掃已建立通知
+            log.debug("低庫存通知已由其他流程建立: {}", e.getMessage());
+        }
+        push(materials, buyers);
+    }
+
+    /**
+     * 已有未讀通知的人更新訊息內容，沒有的人新增一筆，並記錄物料目前數值
+     *
+     * @return 新增的通知
+     */
+    private List<NewNotification> writeNotifications(List<LowStockMaterial> materials, List<Integer> buyers, LocalDateTime now) {
+        Map<String, String> messageByKey = new LinkedHashMap<>();
+        for (LowStockMaterial m : materials) {
+            messageByKey.put(dedupeKey(m.materialId()), message(m));
+        }
+
+        Set<NotificationKey> unread = alertDao.findUnreadKeys(LOW_STOCK, messageByKey.keySet());
+        Map<String, String> refreshed = new LinkedHashMap<>();
+        List<NewNotification> created = new ArrayList<>();
+        messageByKey.forEach((key, msg) -> {
+            for (Integer buyer : buyers) {
+                if (unread.contains(new NotificationKey(buyer, key))) {
+                    refreshed.put(key, msg); // 已有未讀 → 更新為最新數量
+                } else {
+                    created.add(new NewNotification(buyer, key, TITLE, msg, LINK));
+                }
             }
-            try{
-                Notification n = new Notification();
-                n.setUserId(u.getEmployeeId()); // Integer
-                n.setType("LOW_STOCK");
-                n.setTitle("庫存不足提醒");
-                n.setMessage(msg);
-                n.setLink(link);
-                notificationRepo.save(n);
-            }catch(DataIntegrityViolationException ignore){ //同樣的未讀通知不會一直插入
+        });
+
+        alertDao.refreshUnreadMessages(LOW_STOCK, refreshed, now);
+        alertDao.insertNotifications(LOW_STOCK, created, now);
+        alertDao.saveStates(materials, now);
+        log.info("低庫存通知: 物料 {} 筆，新增通知 {} 筆，更新未讀 {} 筆", materials.size(), created.size(),
+                refreshed.size());
+        return created;
+    }
+
+    /** 推播給在線的採購人員 (WebSocket 以登入帳號識別) */
+    private void push(List<LowStockMaterial> materials, List<Integer> buyers) {
+        Set<String> online = webSocketHandler.getOnlineUsers();
+        if (online.isEmpty()) return;
+        for (Employee buyer : employeeRepo.findAllById(buyers)) {
+            if (buyer.getUsername() == null || !online.contains(buyer.getUsername())) continue;
+            for (LowStockMaterial m : materials) {
+                webSocketHandler.sendToUser(buyer.getUsername(), "notification",
+                        new NotificationPushDto(LOW_STOCK, TITLE, message(m), LINK, dedupeKey(m.materialId())));
             }
         }
     }
- }
-}
\ No newline at end of file
+}
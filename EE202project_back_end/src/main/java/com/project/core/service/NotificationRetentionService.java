@@ -0,0 +1,87 @@
+package com.project.core.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.project.core.dao.NotificationRetentionDao;
+import com.project.core.dao.SchedulerLockDao;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 通知保留期限
+ * 已讀且超過保留天數的通知搬到 notifications_archive (或直接刪除)，讓 notifications 只留近期資料。
+ * 每批一個交易，每次執行的批數有上限，剩下的留到下次執行。
+ */
+@Slf4j
+@Service
+public class NotificationRetentionService {
+
+    /** 多節點同時排程時只有一個節點執行 */
+    static final String LOCK_NAME = "notification-retention";
+    private static final Duration LOCK_LEASE = Duration.ofMinutes(30);
+
+    private final NotificationRetentionDao retentionDao;
+    private final SchedulerLockDao lockDao;
+    private final TransactionTemplate transactionTemplate;
+    private final int retentionDays;
+    private final int batchSize;
+    private final int maxBatches;
+    private final boolean archive;
+
+    public NotificationRetentionService(NotificationRetentionDao retentionDao, SchedulerLockDao lockDao,
+            TransactionTemplate transactionTemplate,
+            @Value("${notification.retention.days:90}") int retentionDays,
+            @Value("${notification.retention.batch-size:1000}") int batchSize,
+            @Value("${notification.retention.max-batches:200}") int maxBatches,
+            @Value("${notification.retention.archive:true}") boolean archive) {
+        if (batchSize < 1 || batchSize > 2000) {
+            throw new IllegalArgumentException("notification.retention.batch-size 必須介於 1 到 2000");
+        }
+        this.retentionDao = retentionDao;
+        this.lockDao = lockDao;
+        this.transactionTemplate = transactionTemplate;
+        this.retentionDays = retentionDays;
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+        this.archive = archive;
+    }
+
+    /**
+     * 清理過期的已讀通知
+     *
+     * @return 移出 notifications 的筆數 (其他節點正在執行時為 0)
+     */
+    public int purgeReadNotifications() {
+        if (!lockDao.tryLock(LOCK_NAME, LOCK_LEASE)) {
+            log.debug("通知清理正在其他節點執行，本次略過");
+            return 0;
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime cutoff = now.minusDays(retentionDays);
+            int total = 0;
+            for (int batch = 0; batch < maxBatches; batch++) {
+                List<Integer> ids = retentionDao.findReadIdsOlderThan(cutoff, batchSize);
+                if (ids.isEmpty()) break;
+                Integer removed = transactionTemplate.execute(status -> {
+                    if (archive) {
+                        retentionDao.archive(ids, now);
+                    }
+                    return retentionDao.delete(ids);
+                });
+                total += removed != null ? removed : 0;
+                if (ids.size() < batchSize) break;
+            }
+            log.info("通知清理: {} 天前的已讀通知{} {} 筆", retentionDays, archive ? "封存" : "刪除", total);
+            return total;
+        } finally {
+            lockDao.unlock(LOCK_NAME);
+        }
+    }
+}
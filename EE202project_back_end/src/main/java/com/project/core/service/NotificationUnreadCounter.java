@@ -0,0 +1,145 @@
+package com.project.core.service;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.project.core.cache.CacheStatistics;
+import com.project.core.cache.MonitoredCache;
+import com.project.core.dao.EmployeeRepository;
+import com.project.core.dao.NotificationRepository;
+import com.project.core.dto.response.UnreadCountDeltaDto;
+import com.project.core.model.Employee;
+import com.project.employeeuser.handler.SimpleWebSocketHandler;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 每位使用者的未讀通知數量 (記憶體計數器)
+ * 第一次查詢時才由資料庫載入 (員工ID + 未讀數)，之後新增、已讀、刪除通知都只調整計數，
+ * 並經 {@link SimpleWebSocketHandler} 推播變化量 (type = "unread-count") 給該使用者，前端不必輪詢。
+ * 調整須在異動交易提交後呼叫；尚未載入的使用者不調整，下次查詢時由資料庫載入的數量已包含該異動。
+ * 載入與提交後調整同時發生時可能差一，因此每筆超過重新同步間隔後會在下次查詢時重新載入。
+ */
+@Slf4j
+@Component
+public class NotificationUnreadCounter implements MonitoredCache {
+
+    /** WebSocket 推播的訊息類型 */
+    static final String PUSH_TYPE = "unread-count";
+
+    private record Entry(Integer userId, AtomicLong unread, long loadedAtNanos) {
+    }
+
+    private final NotificationRepository notificationRepository;
+    private final EmployeeRepository employeeRepository;
+    private final SimpleWebSocketHandler webSocketHandler;
+    private final long resyncNanos;
+
+    /** 登入帳號 -> 計數 (WebSocket 也以登入帳號識別使用者) */
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /** 員工ID -> 登入帳號，通知以員工ID異動時用來找到計數 */
+    private final Map<Integer, String> usernameById = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder resyncs = new LongAdder();
+
+    public NotificationUnreadCounter(NotificationRepository notificationRepository,
+            EmployeeRepository employeeRepository, SimpleWebSocketHandler webSocketHandler,
+            @Value("${notification.unread-counter.resync-ms:600000}") long resyncMs) {
+        this.notificationRepository = notificationRepository;
+        this.employeeRepository = employeeRepository;
+        this.webSocketHandler = webSocketHandler;
+        this.resyncNanos = resyncMs * 1_000_000L;
+    }
+
+    /**
+     * 登入帳號對應的員工ID (通知的 user_id)
+     *
+     * @throws IllegalStateException 找不到員工
+     */
+    public Integer userId(String username) {
+        return entry(username).userId();
+    }
+
+    /**
+     * 未讀數量
+     *
+     * @throws IllegalStateException 找不到員工
+     */
+    public long unreadCount(String username) {
+        return entry(username).unread().get();
+    }
+
+    /**
+     * 新增通知後呼叫 (交易提交後)
+     *
+     * @param userIds 每筆新通知的接收者 (同一人多筆會重複出現)
+     */
+    public void created(Collection<Integer> userIds) {
+        Map<Integer, Long> deltaByUser = new LinkedHashMap<>();
+        for (Integer userId : userIds) {
+            deltaByUser.merge(userId, 1L, Long::sum);
+        }
+        deltaByUser.forEach(this::adjust);
+    }
+
+    /**
+     * 未讀數量增減 (交易提交後呼叫)，尚未載入的使用者略過
+     */
+    public void adjust(Integer userId, long delta) {
+        String username = userId == null ? null : usernameById.get(userId);
+        if (username == null || delta == 0) return;
+
+        long[] after = new long[1];
+        Entry entry = entries.computeIfPresent(username, (key, e) -> {
+            after[0] = e.unread().updateAndGet(v -> Math.max(0, v + delta));
+            return e;
+        });
+        if (entry != null) {
+            webSocketHandler.sendToUser(username, PUSH_TYPE, new UnreadCountDeltaDto(delta, after[0]));
+        }
+    }
+
+    private Entry entry(String username) {
+        Entry entry = entries.get(username);
+        if (entry != null && fresh(entry)) {
+            hits.increment();
+            return entry;
+        }
+        misses.increment();
+        if (entry != null) {
+            resyncs.increment();
+        }
+        // 在 compute 內載入，同一使用者提交後的調整會等載入完成後才套用
+        return entries.compute(username, (key, old) -> old != null && fresh(old) ? old : load(key));
+    }
+
+    private boolean fresh(Entry entry) {
+        return System.nanoTime() - entry.loadedAtNanos() < resyncNanos;
+    }
+
+    private Entry load(String username) {
+        Employee employee = employeeRepository.findByUsername(username)
+                .orElseThrow(() -> new IllegalStateException("User not found: " + username));
+        Integer userId = employee.getEmployeeId();
+        long unread = notificationRepository.countByUserIdAndReadFalse(userId);
+        usernameById.put(userId, username);
+        log.debug("載入未讀通知數量 username={} unread={}", username, unread);
+        return new Entry(userId, new AtomicLong(unread), System.nanoTime());
+    }
+
+    @Override
+    public CacheStatistics statistics() {
+        return new CacheStatistics("notification-unread", hits.sum(), misses.sum(), resyncs.sum(),
+                entries.size());
+    }
+}
@@ -0,0 +1,48 @@
+package com.project.core.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.project.depot.service.StockThresholdCrossedEvent;
+import com.project.employeeuser.handler.SimpleWebSocketHandler;
+import com.project.machine.Service.machine.MachineStatusChangedEvent;
+import com.project.workorder.service.WorkOrderCompletedEvent;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 將業務事件轉發到 WebSocket 主題，只有訂閱該主題的看板會收到 (交易提交後才推播)
+ *
+ * 主題:
+ * /topic/machines/{machineId}/status      機台狀態變更 (type = "machine-status")
+ * /topic/workorders/{woId}/completed      工單完工 (type = "work-order-completed")
+ * /topic/inventory/low-stock/{materialId} 物料低於安全庫存 (type = "low-stock")
+ *
+ * 前端可用萬用前綴一次訂閱整類，例如 "/topic/machines/**"。
+ */
+@Component
+@RequiredArgsConstructor
+public class RealtimeTopicRelay {
+
+    static final String MACHINES = SimpleWebSocketHandler.TOPIC_PREFIX + "machines/";
+    static final String WORK_ORDERS = SimpleWebSocketHandler.TOPIC_PREFIX + "workorders/";
+    static final String LOW_STOCK = SimpleWebSocketHandler.TOPIC_PREFIX + "inventory/low-stock/";
+
+    private final SimpleWebSocketHandler webSocketHandler;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMachineStatusChanged(MachineStatusChangedEvent event) {
+        webSocketHandler.publish(MACHINES + event.machineId() + "/status", "machine-status", event);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onWorkOrderCompleted(WorkOrderCompletedEvent event) {
+        webSocketHandler.publish(WORK_ORDERS + event.woId() + "/completed", "work-order-completed", event);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockThresholdCrossed(StockThresholdCrossedEvent event) {
+        event.materials().forEach(crossing ->
+                webSocketHandler.publish(LOW_STOCK + crossing.materialId(), "low-stock", crossing));
+    }
+}
@@ -0,0 +1,12 @@
+package com.project.core.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * 一筆待寫入 system_logs 的稽核紀錄 (不可變，放入非同步佇列後不會再被修改)
+ */
+public record SystemLogEvent(String logType, String operation, Integer operatorEmployeeId,
+        String operatorUsername, String targetType, String targetId, String targetName, String oldValue,
+        String newValue, String description, String ipAddress, String userAgent, String module,
+        LocalDateTime createdAt) {
+}
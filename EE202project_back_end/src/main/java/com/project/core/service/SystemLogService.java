@@ -1,37 +1,27 @@
 package com.project.core.service;
 
-import com.project.core.dao.SystemLogRepository;
-import com.project.core.model.SystemLog;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 
+/**
+ * 系統日誌 (稽核紀錄)
+ * 只把紀錄交給 {@link AsyncSystemLogWriter} 排入佇列，由背景執行緒批次寫入 system_logs，
+ * 不在呼叫端的交易或請求中等待資料庫。呼叫端的交易回滾時不會記錄。
+ */
 @Service
 public class SystemLogService {
 
     @Autowired
-    private SystemLogRepository systemLogRepository;
+    private AsyncSystemLogWriter systemLogWriter;
 
     // [FIXED] Changed operatorEmployeeId type from Long to Integer
     public void log(String logType, String operation, Integer operatorEmployeeId, String operatorUsername,
                     String targetType, String targetId, String targetName, String oldValue, String newValue,
                     String description, String ipAddress, String userAgent, String module) {
-        SystemLog log = new SystemLog();
-        log.setLogType(logType);
-        log.setOperation(operation);
-        log.setOperatorEmployeeId(operatorEmployeeId); // Now the types match
-        log.setOperatorUsername(operatorUsername);
-        log.setTargetType(targetType);
-        log.setTargetId(targetId);
-        log.setTargetName(targetName);
-        log.setOldValue(oldValue);
-        log.setNewValue(newValue);
-        log.setDescription(description);
-        log.setIpAddress(ipAddress);
-        log.setUserAgent(userAgent);
-        log.setModule(module);
-        log.setCreatedAt(LocalDateTime.now());
-        systemLogRepository.save(log);
+        systemLogWriter.enqueue(new SystemLogEvent(logType, operation, operatorEmployeeId, operatorUsername,
+                targetType, targetId, targetName, oldValue, newValue, description, ipAddress, userAgent, module,
+                LocalDateTime.now()));
     }
 }
@@ -0,0 +1,46 @@
+package com.project.core.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 以 JdbcTemplate 組 IN (...) 查詢與批次寫入時共用的分段工具。
+ * SQL Server 單一語句最多 2100 個參數，ID 數量不固定的 IN 查詢須先以 {@link #chunks(Collection)} 分段，
+ * 再以 {@link #placeholders(Collection)} 產生對應數量的 ?。
+ */
+public final class SqlInClause {
+
+    /**
+     * 單一 IN (...) 查詢的參數上限 (保留空間給同一語句的其他參數)
+     */
+    public static final int LIMIT = 1000;
+
+    /**
+     * JDBC 批次寫入 (batchUpdate) 時每批的筆數
+     */
+    public static final int BATCH_SIZE = 500;
+
+    private SqlInClause() {
+    }
+
+    /**
+     * 依 {@link #LIMIT} 將值分段，每段可放進一個 IN (...)
+     */
+    public static <T> List<List<T>> chunks(Collection<T> values) {
+        List<T> list = values instanceof List<T> l ? l : new ArrayList<>(values);
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < list.size(); from += LIMIT) {
+            chunks.add(list.subList(from, Math.min(from + LIMIT, list.size())));
+        }
+        return chunks;
+    }
+
+    /**
+     * 產生與值數量相同的參數佔位符，例如 3 筆為 "?, ?, ?"
+     */
+    public static String placeholders(Collection<?> values) {
+        return String.join(", ", Collections.nCopies(values.size(), "?"));
+    }
+}
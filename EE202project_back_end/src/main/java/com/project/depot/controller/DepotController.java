@@ -1,22 +1,38 @@
 package com.project.depot.controller;
 
 import com.project.depot.dto.request.InboundReceiptCreateRequest;
+import com.project.depot.dto.request.InventoryTransactionFilter;
+import com.project.depot.dto.response.InventoryTransactionPageResponse;
+import com.project.depot.dto.response.StockAtResponse;
+import com.project.depot.dto.response.StockSnapshotRefreshResponse;
 import com.project.depot.dto.response.InboundReceiptResponse;
 import com.project.depot.model.InventoryTransaction;
 import com.project.depot.dto.MaterialDto;
 import com.project.depot.pickingorder.model.PickingOrder;
 import com.project.depot.service.DepotService;
+import com.project.depot.service.InventoryLedgerService;
+import com.project.depot.service.StockSnapshotService;
 import com.project.depot.service.MaterialService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import io.swagger.v3.oas.annotations.Operation;
+import jakarta.servlet.http.HttpServletResponse;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
@@ -36,6 +52,14 @@ public class DepotController {
     private DepotService depotService;
     @Autowired
     private MaterialService materialService;
+    @Autowired
+    private InventoryLedgerService inventoryLedgerService;
+    @Autowired
+    private StockSnapshotService stockSnapshotService;
+
+    // 串流匯出的非同步逾時時間 (其他非同步請求維持預設值)
+    @Value("${inventory.ledger.export-timeout-ms:600000}")
+    private long exportTimeoutMs;
 
     /**
      * 獲取所有物料 (庫存) 列表。
@@ -190,6 +214,83 @@ public class DepotController {
         return ResponseEntity.ok(transactions);
     }
 
+    /**
+     * 以 keyset 分頁查詢庫存交易紀錄。
+     * 第一頁不帶 afterDate / afterId，之後將回應中的 nextAfterDate / nextAfterId 帶回即可取得下一頁。
+     * @return 一頁交易紀錄與下一頁游標。
+     */
+    @Operation(summary = "分頁查詢庫存交易紀錄", description = "以 (交易日期, 交易ID) 為游標由新到舊分頁查詢庫存交易紀錄")
+    @GetMapping("/transactions/page")
+    public ResponseEntity<InventoryTransactionPageResponse> getInventoryTransactionPage(
+            @Parameter(description = "物料ID") @RequestParam(required = false) Long materialId,
+            @Parameter(description = "交易類型") @RequestParam(required = false) String transactionType,
+            @Parameter(description = "來源表名") @RequestParam(required = false) String referenceTable,
+            @Parameter(description = "游標：上一頁最後一筆的交易日期") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterDate,
+            @Parameter(description = "游標：上一頁最後一筆的交易ID") @RequestParam(required = false) Long afterId,
+            @Parameter(description = "每頁筆數 (上限 500)") @RequestParam(defaultValue = "50") int size) {
+        logger.info("請求分頁查詢庫存交易紀錄，物料ID: {}，游標: {}/{}，筆數: {}", materialId, afterDate, afterId, size);
+        InventoryTransactionFilter filter = new InventoryTransactionFilter(materialId, transactionType, referenceTable);
+        return ResponseEntity.ok(inventoryLedgerService.findPage(filter, afterDate, afterId, size));
+    }
+
+    /**
+     * 串流匯出庫存交易紀錄。
+     * 資料以資料庫游標逐筆讀出並直接寫入回應，不會整批載入記憶體。
+     * 匯出可能比一般非同步請求久，逾時時間只對此端點放寬 (inventory.ledger.export-timeout-ms)。
+     * @return 以附件形式下載的 CSV 或 NDJSON 檔案。
+     */
+    @Operation(summary = "匯出庫存交易紀錄", description = "依時間順序串流匯出庫存交易紀錄，格式為 csv 或 ndjson")
+    @GetMapping("/transactions/export")
+    public WebAsyncTask<Void> exportInventoryTransactions(
+            @Parameter(description = "物料ID") @RequestParam(required = false) Long materialId,
+            @Parameter(description = "交易類型") @RequestParam(required = false) String transactionType,
+            @Parameter(description = "來源表名") @RequestParam(required = false) String referenceTable,
+            @Parameter(description = "匯出格式 (csv 或 ndjson)") @RequestParam(defaultValue = "ndjson") String format,
+            HttpServletResponse response) {
+        logger.info("請求匯出庫存交易紀錄，格式: {}", format);
+        boolean csv = "csv".equalsIgnoreCase(format);
+        if (!csv && !"ndjson".equalsIgnoreCase(format)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "format 必須為 csv 或 ndjson");
+        }
+        InventoryTransactionFilter filter = new InventoryTransactionFilter(materialId, transactionType, referenceTable);
+        return new WebAsyncTask<>(exportTimeoutMs, () -> {
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                    "attachment; filename=\"inventory-transactions." + (csv ? "csv" : "ndjson") + "\"");
+            response.setContentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8).toString()
+                    : "application/x-ndjson");
+            inventoryLedgerService.export(filter, format, response.getOutputStream());
+            response.flushBuffer();
+            return null;
+        });
+    }
+
+    /**
+     * 查詢物料在指定日期結束時的庫存。
+     * 以該日 (含) 之前最近的每日快照為起點，只補算尚未併入快照的交易。
+     * @param id 物料ID。
+     * @param date 查詢日期。
+     * @return 該日結束時的庫存。
+     */
+    @Operation(summary = "查詢指定日期庫存", description = "以每日庫存快照加上之後的交易，計算物料在指定日期結束時的庫存")
+    @GetMapping("/materials/{id}/stock-at")
+    public ResponseEntity<StockAtResponse> getMaterialStockAt(
+            @Parameter(description = "物料ID", required = true) @PathVariable Long id,
+            @Parameter(description = "查詢日期 (yyyy-MM-dd)", required = true) @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        logger.info("請求查詢物料 {} 於 {} 的庫存", id, date);
+        return ResponseEntity.ok(stockSnapshotService.getStockAt(id, date));
+    }
+
+    /**
+     * 立即將新交易併入每日庫存快照 (排程之外的手動觸發)。
+     * @return 本次處理的交易範圍。
+     */
+    @Operation(summary = "更新每日庫存快照", description = "將水位線之後的庫存交易併入每日庫存快照")
+    @PostMapping("/stock-snapshots/refresh")
+    public ResponseEntity<StockSnapshotRefreshResponse> refreshStockSnapshots() {
+        logger.info("請求更新每日庫存快照");
+        return ResponseEntity.ok(stockSnapshotService.refreshSnapshots());
+    }
+
     /**
      * 根據ID刪除入庫單。
      * @param id 入庫單ID。
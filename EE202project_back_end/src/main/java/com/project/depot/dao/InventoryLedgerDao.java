@@ -0,0 +1,120 @@
+package com.project.depot.dao;
+
+import com.project.depot.dto.request.InventoryTransactionFilter;
+import com.project.depot.dto.response.InventoryTransactionResponse;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 倉庫 - 庫存交易流水帳 DAO
+ * 以 JDBC 直接查詢 inventory_transactions，提供 keyset 分頁與唯讀游標串流兩種讀取方式，
+ * 兩者都不會把整張交易表載入記憶體。
+ * 對應索引見 InventoryTransaction 實體上的 @Table(indexes = ...)。
+ */
+@Repository
+public class InventoryLedgerDao {
+
+    /**
+     * 串流匯出時每次從資料庫抓取的筆數
+     */
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    private static final String SELECT_COLUMNS = "SELECT t.transaction_id, t.material_id, m.material_name, "
+            + "t.transaction_type, t.quantity, t.transaction_date, t.reference_table, t.reference_id, t.notes "
+            + "FROM inventory_transactions t JOIN core_materials m ON m.material_id = t.material_id";
+
+    private static final RowMapper<InventoryTransactionResponse> ROW_MAPPER = (rs, rowNum) -> {
+        Timestamp transactionDate = rs.getTimestamp("transaction_date");
+        long referenceId = rs.getLong("reference_id");
+        return new InventoryTransactionResponse(
+                rs.getLong("transaction_id"),
+                rs.getLong("material_id"),
+                rs.getString("material_name"),
+                rs.getString("transaction_type"),
+                rs.getBigDecimal("quantity"),
+                transactionDate != null ? transactionDate.toLocalDateTime() : null,
+                rs.getString("reference_table"),
+                rs.wasNull() ? null : referenceId,
+                rs.getString("notes"));
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+
+    public InventoryLedgerDao(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        // 只進不退的游標，分批抓取資料列，避免驅動程式一次緩衝整個結果集
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(STREAM_FETCH_SIZE);
+    }
+
+    /**
+     * 以 keyset 方式查詢一頁交易紀錄，依 (transaction_date, transaction_id) 由新到舊排序。
+     *
+     * @param filter    查詢條件
+     * @param afterDate 游標：上一頁最後一筆的交易日期，第一頁為 null
+     * @param afterId   游標：上一頁最後一筆的交易ID，第一頁為 null
+     * @param limit     最多回傳筆數
+     * @return 交易紀錄列表
+     */
+    public List<InventoryTransactionResponse> findPage(InventoryTransactionFilter filter, LocalDateTime afterDate,
+            Long afterId, int limit) {
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder(SELECT_COLUMNS);
+        appendFilter(sql, args, filter);
+        if (afterDate != null && afterId != null) {
+            Timestamp cursor = Timestamp.valueOf(afterDate);
+            sql.append(" AND (t.transaction_date < ? OR (t.transaction_date = ? AND t.transaction_id < ?))");
+            args.add(cursor);
+            args.add(cursor);
+            args.add(afterId);
+        }
+        sql.append(" ORDER BY t.transaction_date DESC, t.transaction_id DESC OFFSET 0 ROWS FETCH NEXT ? ROWS ONLY");
+        args.add(limit);
+        return jdbcTemplate.query(sql.toString(), ROW_MAPPER, args.toArray());
+    }
+
+    /**
+     * 以唯讀、只進不退的游標依時間順序逐筆讀取符合條件的交易紀錄。
+     * 每筆資料讀出後立即交給 consumer 處理，不會累積在記憶體中。
+     *
+     * @param filter   查詢條件
+     * @param consumer 逐筆處理交易紀錄的回呼
+     */
+    public void stream(InventoryTransactionFilter filter, Consumer<InventoryTransactionResponse> consumer) {
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder(SELECT_COLUMNS);
+        appendFilter(sql, args, filter);
+        sql.append(" ORDER BY t.transaction_date, t.transaction_id");
+        RowCallbackHandler handler = rs -> consumer.accept(ROW_MAPPER.mapRow(rs, rs.getRow()));
+        streamingJdbcTemplate.query(sql.toString(), handler, args.toArray());
+    }
+
+    private void appendFilter(StringBuilder sql, List<Object> args, InventoryTransactionFilter filter) {
+        sql.append(" WHERE 1 = 1");
+        if (filter == null) {
+            return;
+        }
+        if (filter.getMaterialId() != null) {
+            sql.append(" AND t.material_id = ?");
+            args.add(filter.getMaterialId());
+        }
+        if (filter.getTransactionType() != null && !filter.getTransactionType().isEmpty()) {
+            sql.append(" AND t.transaction_type = ?");
+            args.add(filter.getTransactionType());
+        }
+        if (filter.getReferenceTable() != null && !filter.getReferenceTable().isEmpty()) {
+            sql.append(" AND t.reference_table = ?");
+            args.add(filter.getReferenceTable());
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.project.depot.dao;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 倉庫 - 每日庫存快照 DAO
+ * 對應資料表: inventory_stock_snapshots、inventory_snapshot_watermarks
+ * 快照以集合式 SQL 從 inventory_transactions 增量累加，不經過 JPA 實體。
+ * 出庫交易 (transaction_type 含 OUTBOUND，例如 PRODUCTION_OUTBOUND) 的 quantity 以正數記錄，累加時改為扣除。
+ * 快照結存只是交易累計淨額，不含物料建立時的期初庫存；換算實際庫存見 StockSnapshotServiceImpl#getStockAt。
+ */
+@Repository
+public class StockSnapshotDao {
+
+    private static final String LATEST_SNAPSHOT_BEFORE = "SELECT closing_balance FROM inventory_stock_snapshots p "
+            + "WHERE p.material_id = ? AND p.snapshot_date < ? "
+            + "ORDER BY p.snapshot_date DESC OFFSET 0 ROWS FETCH NEXT 1 ROWS ONLY";
+
+    // 依交易類型帶正負號的異動數量 (與前端 InventoryLogView 判斷出入庫的方式相同)
+    private static final String SIGNED_QUANTITY = "CASE WHEN transaction_type LIKE '%OUTBOUND%' THEN -quantity ELSE quantity END";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public StockSnapshotDao(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * 某物料某日的交易淨額
+     */
+    public record DailyDelta(Long materialId, LocalDate date, BigDecimal delta) {
+    }
+
+    /**
+     * 某物料在某日之前最近的一筆快照
+     */
+    public record SnapshotPoint(LocalDate snapshotDate, BigDecimal closingBalance) {
+    }
+
+    /**
+     * 取得並鎖定水位線，水位線不存在時先建立 (從 0 開始)。
+     * 以 UPDATE 取得列鎖，同一時間只有一個交易能推進同一條水位線。
+     *
+     * @param name 水位線名稱
+     * @param now  目前時間
+     * @return 已處理的最後一筆交易ID
+     */
+    public long lockWatermark(String name, LocalDateTime now) {
+        int updated = jdbcTemplate.update(
+                "UPDATE inventory_snapshot_watermarks SET updated_at = ? WHERE watermark_name = ?",
+                Timestamp.valueOf(now), name);
+        if (updated == 0) {
+            try {
+                jdbcTemplate.update("INSERT INTO inventory_snapshot_watermarks (watermark_name, last_transaction_id, "
+                        + "updated_at) VALUES (?, 0, ?)", name, Timestamp.valueOf(now));
+            } catch (DuplicateKeyException e) {
+                // 其他節點同時建立了水位線，改為等待其列鎖
+                jdbcTemplate.update("UPDATE inventory_snapshot_watermarks SET updated_at = ? WHERE watermark_name = ?",
+                        Timestamp.valueOf(now), name);
+            }
+        }
+        return readWatermark(name);
+    }
+
+    /**
+     * 讀取水位線，尚未建立時回傳 0。
+     */
+    public long readWatermark(String name) {
+        List<Long> values = jdbcTemplate.queryForList(
+                "SELECT last_transaction_id FROM inventory_snapshot_watermarks WHERE watermark_name = ?",
+                Long.class, name);
+        return values.isEmpty() || values.get(0) == null ? 0L : values.get(0);
+    }
+
+    /**
+     * 更新水位線。
+     */
+    public void updateWatermark(String name, long lastTransactionId, LocalDateTime now) {
+        jdbcTemplate.update("UPDATE inventory_snapshot_watermarks SET last_transaction_id = ?, updated_at = ? "
+                + "WHERE watermark_name = ?", lastTransactionId, Timestamp.valueOf(now), name);
+    }
+
+    /**
+     * 查詢水位線之後、交易時間早於 cutoff 的最大交易ID。
+     *
+     * @return 最大交易ID，沒有新交易時為 null
+     */
+    public Long findMaxTransactionId(long afterId, LocalDateTime cutoff) {
+        return jdbcTemplate.queryForObject("SELECT MAX(transaction_id) FROM inventory_transactions "
+                + "WHERE transaction_id > ? AND transaction_date < ?", Long.class, afterId, Timestamp.valueOf(cutoff));
+    }
+
+    /**
+     * 依物料與日期彙總 (afterId, upToId] 區間內的交易淨額，依物料、日期遞增排序。
+     */
+    public List<DailyDelta> findDailyDeltas(long afterId, long upToId) {
+        return jdbcTemplate.query("SELECT material_id, CAST(transaction_date AS DATE) AS tx_day, "
+                + "SUM(" + SIGNED_QUANTITY + ") AS delta "
+                + "FROM inventory_transactions WHERE transaction_id > ? AND transaction_id <= ? "
+                + "GROUP BY material_id, CAST(transaction_date AS DATE) ORDER BY material_id, tx_day",
+                (rs, rowNum) -> new DailyDelta(rs.getLong("material_id"), rs.getDate("tx_day").toLocalDate(),
+                        rs.getBigDecimal("delta")),
+                afterId, upToId);
+    }
+
+    /**
+     * 將交易淨額累加到該物料在指定日期 (含) 之後的所有快照。
+     *
+     * @return 受影響的快照筆數
+     */
+    public int addToSnapshotsFrom(Long materialId, LocalDate date, BigDecimal delta) {
+        return jdbcTemplate.update("UPDATE inventory_stock_snapshots SET closing_balance = closing_balance + ? "
+                + "WHERE material_id = ? AND snapshot_date >= ?", delta, materialId, Date.valueOf(date));
+    }
+
+    /**
+     * 判斷某物料某日是否已有快照。
+     */
+    public boolean existsSnapshot(Long materialId, LocalDate date) {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM inventory_stock_snapshots "
+                + "WHERE material_id = ? AND snapshot_date = ?", Integer.class, materialId, Date.valueOf(date));
+        return count != null && count > 0;
+    }
+
+    /**
+     * 新增某物料某日的快照，結存 = 前一筆快照結存 (沒有則為 0) + 當日淨額。
+     */
+    public void insertSnapshot(Long materialId, LocalDate date, BigDecimal delta) {
+        jdbcTemplate.update("INSERT INTO inventory_stock_snapshots (material_id, snapshot_date, closing_balance) "
+                + "SELECT ?, ?, COALESCE((" + LATEST_SNAPSHOT_BEFORE + "), 0) + ?",
+                materialId, Date.valueOf(date), materialId, Date.valueOf(date), delta);
+    }
+
+    /**
+     * 查詢某物料在指定日期 (含) 之前最近的一筆快照。
+     *
+     * @return 快照，沒有時為 null
+     */
+    public SnapshotPoint findLatestSnapshotOnOrBefore(Long materialId, LocalDate date) {
+        List<SnapshotPoint> rows = jdbcTemplate.query("SELECT snapshot_date, closing_balance "
+                + "FROM inventory_stock_snapshots WHERE material_id = ? AND snapshot_date <= ? "
+                + "ORDER BY snapshot_date DESC OFFSET 0 ROWS FETCH NEXT 1 ROWS ONLY",
+                (rs, rowNum) -> new SnapshotPoint(rs.getDate("snapshot_date").toLocalDate(),
+                        rs.getBigDecimal("closing_balance")),
+                materialId, Date.valueOf(date));
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    /**
+     * 查詢某物料最新的一筆快照 (不限日期)。
+     *
+     * @return 快照，沒有時為 null
+     */
+    public SnapshotPoint findLatestSnapshot(Long materialId) {
+        List<SnapshotPoint> rows = jdbcTemplate.query("SELECT snapshot_date, closing_balance "
+                + "FROM inventory_stock_snapshots WHERE material_id = ? "
+                + "ORDER BY snapshot_date DESC OFFSET 0 ROWS FETCH NEXT 1 ROWS ONLY",
+                (rs, rowNum) -> new SnapshotPoint(rs.getDate("snapshot_date").toLocalDate(),
+                        rs.getBigDecimal("closing_balance")),
+                materialId);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    /**
+     * 查詢物料目前的庫存 (core_materials.stock_current)。
+     *
+     * @return 目前庫存，物料不存在時為 null
+     */
+    public BigDecimal findStockCurrent(Long materialId) {
+        List<BigDecimal> rows = jdbcTemplate.queryForList(
+                "SELECT stock_current FROM core_materials WHERE material_id = ?", BigDecimal.class, materialId);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    /**
+     * 加總水位線之後的所有交易數量 (不限交易時間)。
+     */
+    public BigDecimal sumPendingQuantity(Long materialId, long afterId) {
+        BigDecimal sum = jdbcTemplate.queryForObject("SELECT COALESCE(SUM(" + SIGNED_QUANTITY + "), 0) "
+                + "FROM inventory_transactions WHERE material_id = ? AND transaction_id > ?",
+                BigDecimal.class, materialId, afterId);
+        return sum != null ? sum : BigDecimal.ZERO;
+    }
+
+    /**
+     * 加總水位線之後、交易時間早於 before 的交易數量，即尚未併入快照的部分。
+     */
+    public BigDecimal sumPendingQuantity(Long materialId, long afterId, LocalDateTime before) {
+        BigDecimal sum = jdbcTemplate.queryForObject("SELECT COALESCE(SUM(" + SIGNED_QUANTITY + "), 0) "
+                + "FROM inventory_transactions "
+                + "WHERE material_id = ? AND transaction_id > ? AND transaction_date < ?",
+                BigDecimal.class, materialId, afterId, Timestamp.valueOf(before));
+        return sum != null ? sum : BigDecimal.ZERO;
+    }
+}
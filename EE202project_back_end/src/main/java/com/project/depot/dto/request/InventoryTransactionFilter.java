@@ -0,0 +1,27 @@
+package com.project.depot.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 庫存交易紀錄查詢條件 (DTO)
+ * 所有欄位皆為選填，為 null 時不套用該條件。
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryTransactionFilter {
+    /**
+     * 物料ID
+     */
+    private Long materialId;
+    /**
+     * 交易類型 (例如: PURCHASE_INBOUND, PRODUCTION_OUTBOUND)
+     */
+    private String transactionType;
+    /**
+     * 來源表名 (例如: work_orders, inbound_receipts)
+     */
+    private String referenceTable;
+}
@@ -0,0 +1,35 @@
+package com.project.depot.dto.response;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 庫存交易紀錄分頁回應物件 (DTO)
+ * 以 (transaction_date, transaction_id) 為游標的 keyset 分頁；
+ * 取下一頁時將 nextAfterDate / nextAfterId 原樣帶回查詢參數即可。
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryTransactionPageResponse {
+    /**
+     * 本頁交易紀錄 (依交易日期、交易ID由新到舊)
+     */
+    private List<InventoryTransactionResponse> items;
+    /**
+     * 下一頁游標：本頁最後一筆的交易日期，沒有下一頁時為 null
+     */
+    private LocalDateTime nextAfterDate;
+    /**
+     * 下一頁游標：本頁最後一筆的交易ID，沒有下一頁時為 null
+     */
+    private Long nextAfterId;
+    /**
+     * 是否還有下一頁
+     */
+    private boolean hasMore;
+}
@@ -0,0 +1,27 @@
+package com.project.depot.dto.response;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 庫存交易紀錄回應物件 (DTO)
+ * 扁平化的交易紀錄，只帶出物料ID與名稱，不序列化整個 Material 實體。
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryTransactionResponse {
+    private Long transactionId;
+    private Long materialId;
+    private String materialName;
+    private String transactionType;
+    private BigDecimal quantity;
+    private LocalDateTime transactionDate;
+    private String referenceTable;
+    private Long referenceId;
+    private String notes;
+}
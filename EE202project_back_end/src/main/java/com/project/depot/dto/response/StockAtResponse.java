@@ -0,0 +1,33 @@
+package com.project.depot.dto.response;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 指定日期庫存查詢回應物件 (DTO)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAtResponse {
+    /**
+     * 物料ID
+     */
+    private Long materialId;
+    /**
+     * 查詢日期 (回傳該日結束時的庫存)
+     */
+    private LocalDate asOfDate;
+    /**
+     * 該日結束時的庫存數量
+     */
+    private BigDecimal stock;
+    /**
+     * 作為起點的快照日期，沒有可用快照時為 null
+     */
+    private LocalDate snapshotDate;
+}
@@ -0,0 +1,26 @@
+package com.project.depot.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 庫存快照更新結果 (DTO)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockSnapshotRefreshResponse {
+    /**
+     * 本次處理前的水位線 (交易ID)
+     */
+    private Long fromTransactionId;
+    /**
+     * 本次處理後的水位線 (交易ID)
+     */
+    private Long toTransactionId;
+    /**
+     * 本次處理的 (物料, 日期) 組數
+     */
+    private int affectedDays;
+}
@@ -10,7 +10,11 @@ import java.time.LocalDateTime;
  * 對應資料表: inventory_transactions
  */
 @Entity
-@Table(name = "inventory_transactions")
+@Table(name = "inventory_transactions", indexes = {
+        // 流水帳 keyset 分頁與串流匯出使用的排序索引
+        @Index(name = "ix_inventory_transactions_date_id", columnList = "transaction_date, transaction_id"),
+        @Index(name = "ix_inventory_transactions_material_date_id", columnList = "material_id, transaction_date, transaction_id")
+})
 public class InventoryTransaction {
 
     /**
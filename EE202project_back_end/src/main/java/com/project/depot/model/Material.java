@@ -63,8 +63,9 @@ public class Material {
 
     /**
      * 現有庫存
+     * 只在新增時由 JPA 寫入；之後只經由 StockMutationService 以差量更新，整筆儲存物料不會覆蓋同時發生的異動
      */
-    @Column(name = "stock_current", precision = 18, scale = 4)
+    @Column(name = "stock_current", precision = 18, scale = 4, updatable = false)
     private BigDecimal stockCurrent = BigDecimal.ZERO; 
 
     /**
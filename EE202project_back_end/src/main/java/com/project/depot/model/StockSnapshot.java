@@ -0,0 +1,77 @@
+package com.project.depot.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * 倉庫 - 每日庫存快照實體類別
+ * 對應資料表: inventory_stock_snapshots
+ * 每筆代表某物料在某日結束時的庫存結存，只在該物料當天有交易時才會產生。
+ */
+@Entity
+@Table(name = "inventory_stock_snapshots", uniqueConstraints = {
+        @UniqueConstraint(name = "uq_inventory_stock_snapshots_material_date", columnNames = { "material_id", "snapshot_date" })
+})
+public class StockSnapshot {
+
+    /**
+     * 快照ID (主鍵)
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "snapshot_id")
+    private Long snapshotId;
+
+    /**
+     * 物料 (關聯至 Material 實體)
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "material_id", nullable = false)
+    private Material material;
+
+    /**
+     * 快照日期
+     */
+    @Column(name = "snapshot_date", nullable = false)
+    private LocalDate snapshotDate;
+
+    /**
+     * 當日結存數量 (累計至該日為止的所有交易)
+     */
+    @Column(name = "closing_balance", nullable = false, precision = 18, scale = 4)
+    private BigDecimal closingBalance;
+
+    // Getters and Setters
+    public Long getSnapshotId() {
+        return snapshotId;
+    }
+
+    public void setSnapshotId(Long snapshotId) {
+        this.snapshotId = snapshotId;
+    }
+
+    public Material getMaterial() {
+        return material;
+    }
+
+    public void setMaterial(Material material) {
+        this.material = material;
+    }
+
+    public LocalDate getSnapshotDate() {
+        return snapshotDate;
+    }
+
+    public void setSnapshotDate(LocalDate snapshotDate) {
+        this.snapshotDate = snapshotDate;
+    }
+
+    public BigDecimal getClosingBalance() {
+        return closingBalance;
+    }
+
+    public void setClosingBalance(BigDecimal closingBalance) {
+        this.closingBalance = closingBalance;
+    }
+}
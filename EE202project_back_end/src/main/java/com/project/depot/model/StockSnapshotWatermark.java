@@ -0,0 +1,58 @@
+package com.project.depot.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 倉庫 - 庫存快照水位線實體類別
+ * 對應資料表: inventory_snapshot_watermarks
+ * 記錄快照已處理到的最後一筆交易ID，下次只需處理比它新的交易。
+ */
+@Entity
+@Table(name = "inventory_snapshot_watermarks")
+public class StockSnapshotWatermark {
+
+    /**
+     * 水位線名稱 (主鍵)
+     */
+    @Id
+    @Column(name = "watermark_name", length = 50)
+    private String watermarkName;
+
+    /**
+     * 已併入快照的最後一筆交易ID
+     */
+    @Column(name = "last_transaction_id", nullable = false)
+    private Long lastTransactionId;
+
+    /**
+     * 最後更新時間
+     */
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Getters and Setters
+    public String getWatermarkName() {
+        return watermarkName;
+    }
+
+    public void setWatermarkName(String watermarkName) {
+        this.watermarkName = watermarkName;
+    }
+
+    public Long getLastTransactionId() {
+        return lastTransactionId;
+    }
+
+    public void setLastTransactionId(Long lastTransactionId) {
+        this.lastTransactionId = lastTransactionId;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -61,11 +61,13 @@ public class DepotServiceImpl implements DepotService {
 
     private final EmployeeUserRepository employeeUserRepository; // 注入 EmployeeUserRepository
     private final PickingOrderService pickingOrderService; // 注入 PickingOrderService
+    private final StockMutationService stockMutationService; // 注入 StockMutationService
 
     public DepotServiceImpl(MaterialRepository materialRepository, InboundReceiptRepository inboundReceiptRepository,
             InventoryTransactionRepository inventoryTransactionRepository,
             EmployeeUserRepository employeeUserRepository, PickingOrderService pickingOrderService,
-            OrderRepository orderRepository, com.project.supplier.dao.OrderItemRepository orderItemRepository) {
+            OrderRepository orderRepository, com.project.supplier.dao.OrderItemRepository orderItemRepository,
+            StockMutationService stockMutationService) {
         this.materialRepository = materialRepository;
         this.inboundReceiptRepository = inboundReceiptRepository;
         this.inventoryTransactionRepository = inventoryTransactionRepository;
@@ -73,6 +75,7 @@ public class DepotServiceImpl implements DepotService {
         this.pickingOrderService = pickingOrderService;
         this.orderRepository = orderRepository;
         this.orderItemRepository = orderItemRepository;
+        this.stockMutationService = stockMutationService;
     }
 
     /**
@@ -233,12 +236,11 @@ public class DepotServiceImpl implements DepotService {
 
         for (InboundReceiptItem item : savedReceipt.getItems()) {
             Material material = item.getMaterial();
-            BigDecimal currentStock = material.getStockCurrent();
             BigDecimal receivedQuantity = item.getReceivedQuantity();
-            material.setStockCurrent(currentStock.add(receivedQuantity));
-            materialRepository.save(material);
-            logger.info("物料 {} 庫存已更新，增加: {}，現有: {}", material.getMaterialName(), receivedQuantity,
-                    material.getStockCurrent());
+            if (!stockMutationService.applyDelta(material.getMaterialId(), receivedQuantity)) {
+                throw new IllegalStateException("物料 " + material.getMaterialName() + " 庫存更新失敗");
+            }
+            logger.info("物料 {} 庫存已更新，增加: {}", material.getMaterialName(), receivedQuantity);
 
             InventoryTransaction transaction = new InventoryTransaction();
             transaction.setMaterial(material);
@@ -447,12 +449,16 @@ public class DepotServiceImpl implements DepotService {
     @Transactional
     public Material adjustMaterialStock(Long materialId, BigDecimal quantity, String transactionType,
             String referenceTable, Long referenceId) {
-        Material material = materialRepository.findById(materialId)
+        if (!materialRepository.existsById(materialId)) {
+            throw new EntityNotFoundException("Material not found with ID: " + materialId);
+        }
+        if (!stockMutationService.applyDelta(materialId, quantity)) {
+            throw new IllegalStateException("Insufficient stock for material ID: " + materialId);
+        }
+        // 庫存已於資料庫端更新，重新讀取以回傳最新數量
+        Material updatedMaterial = materialRepository.findById(materialId)
                 .orElseThrow(() -> new EntityNotFoundException("Material not found with ID: " + materialId));
 
-        material.setStockCurrent(material.getStockCurrent().add(quantity));
-        Material updatedMaterial = materialRepository.save(material);
-
         InventoryTransaction transaction = new InventoryTransaction();
         transaction.setMaterial(updatedMaterial);
         transaction.setTransactionType(transactionType);
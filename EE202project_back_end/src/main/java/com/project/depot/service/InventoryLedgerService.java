@@ -0,0 +1,37 @@
+package com.project.depot.service;
+
+import com.project.depot.dto.request.InventoryTransactionFilter;
+import com.project.depot.dto.response.InventoryTransactionPageResponse;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+
+/**
+ * 庫存交易流水帳服務介面
+ * 提供大量交易紀錄的分頁查詢與串流匯出。
+ */
+public interface InventoryLedgerService {
+
+    /**
+     * 以 keyset 分頁查詢庫存交易紀錄。
+     *
+     * @param filter    查詢條件
+     * @param afterDate 游標：上一頁最後一筆的交易日期，第一頁為 null
+     * @param afterId   游標：上一頁最後一筆的交易ID，第一頁為 null
+     * @param size      每頁筆數
+     * @return 分頁結果與下一頁游標
+     */
+    InventoryTransactionPageResponse findPage(InventoryTransactionFilter filter, LocalDateTime afterDate,
+            Long afterId, int size);
+
+    /**
+     * 將符合條件的交易紀錄依時間順序串流寫出。
+     *
+     * @param filter 查詢條件
+     * @param format 輸出格式 (ndjson 或 csv)
+     * @param out    輸出串流
+     * @throws IOException 寫出失敗時拋出
+     */
+    void export(InventoryTransactionFilter filter, String format, OutputStream out) throws IOException;
+}
@@ -0,0 +1,127 @@
+package com.project.depot.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.depot.dao.InventoryLedgerDao;
+import com.project.depot.dto.request.InventoryTransactionFilter;
+import com.project.depot.dto.response.InventoryTransactionPageResponse;
+import com.project.depot.dto.response.InventoryTransactionResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 庫存交易流水帳服務實作類別
+ */
+@Service
+public class InventoryLedgerServiceImpl implements InventoryLedgerService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryLedgerServiceImpl.class);
+
+    /**
+     * 每頁筆數上限
+     */
+    public static final int MAX_PAGE_SIZE = 500;
+
+    private static final String CSV_HEADER = "transaction_id,material_id,material_name,transaction_type,quantity,"
+            + "transaction_date,reference_table,reference_id,notes";
+
+    private final InventoryLedgerDao inventoryLedgerDao;
+    private final ObjectMapper objectMapper;
+
+    public InventoryLedgerServiceImpl(InventoryLedgerDao inventoryLedgerDao, ObjectMapper objectMapper) {
+        this.inventoryLedgerDao = inventoryLedgerDao;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public InventoryTransactionPageResponse findPage(InventoryTransactionFilter filter, LocalDateTime afterDate,
+            Long afterId, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        // 多抓一筆用來判斷是否還有下一頁
+        List<InventoryTransactionResponse> rows = inventoryLedgerDao.findPage(filter, afterDate, afterId,
+                pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        List<InventoryTransactionResponse> items = hasMore ? rows.subList(0, pageSize) : rows;
+        InventoryTransactionResponse last = hasMore ? items.get(items.size() - 1) : null;
+        return new InventoryTransactionPageResponse(items,
+                last != null ? last.getTransactionDate() : null,
+                last != null ? last.getTransactionId() : null,
+                hasMore);
+    }
+
+    @Override
+    public void export(InventoryTransactionFilter filter, String format, OutputStream out) throws IOException {
+        boolean csv = "csv".equalsIgnoreCase(format);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (csv) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+        long[] count = { 0 };
+        try {
+            inventoryLedgerDao.stream(filter, row -> {
+                try {
+                    if (csv) {
+                        writeCsvLine(writer, row);
+                    } else {
+                        writer.write(objectMapper.writeValueAsString(row));
+                        writer.write('\n');
+                    }
+                    count[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            // 用戶端中斷下載時結束串流，游標會隨 JdbcTemplate 關閉
+            throw e.getCause();
+        }
+        writer.flush();
+        logger.info("庫存交易紀錄匯出完成，格式: {}，筆數: {}", csv ? "csv" : "ndjson", count[0]);
+    }
+
+    private void writeCsvLine(Writer writer, InventoryTransactionResponse row) throws IOException {
+        writer.write(String.valueOf(row.getTransactionId()));
+        writer.write(',');
+        writer.write(String.valueOf(row.getMaterialId()));
+        writer.write(',');
+        writer.write(csvField(row.getMaterialName()));
+        writer.write(',');
+        writer.write(csvField(row.getTransactionType()));
+        writer.write(',');
+        writer.write(row.getQuantity() != null ? row.getQuantity().toPlainString() : "");
+        writer.write(',');
+        writer.write(row.getTransactionDate() != null ? row.getTransactionDate().toString() : "");
+        writer.write(',');
+        writer.write(csvField(row.getReferenceTable()));
+        writer.write(',');
+        writer.write(row.getReferenceId() != null ? String.valueOf(row.getReferenceId()) : "");
+        writer.write(',');
+        writer.write(csvField(row.getNotes()));
+        writer.write('\n');
+    }
+
+    /**
+     * 依 RFC 4180 處理含逗號、雙引號或換行的欄位。
+     */
+    private String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0
+                || value.indexOf('\r') >= 0) {
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+        return value;
+    }
+}
@@ -5,6 +5,7 @@ import com.project.depot.dto.MaterialDto;
 import com.project.depot.model.Material;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,16 +26,23 @@ public class MaterialServiceImpl implements MaterialService {
 
     private final MaterialRepository materialRepository;
     private final BomComponentService bomComponentService; // 注入 BomComponentService
+    private final StockMutationService stockMutationService;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * 建構子注入依賴。
      * @param materialRepository 物料資料庫操作介面
      * @param bomComponentService BOM 組件服務
+     * @param stockMutationService 庫存異動服務
+     * @param eventPublisher 事件發布器 (手動調整使庫存低於安全庫存時通知)
      */
     @Autowired
-    public MaterialServiceImpl(MaterialRepository materialRepository, BomComponentService bomComponentService) {
+    public MaterialServiceImpl(MaterialRepository materialRepository, BomComponentService bomComponentService,
+            StockMutationService stockMutationService, ApplicationEventPublisher eventPublisher) {
         this.materialRepository = materialRepository;
         this.bomComponentService = bomComponentService;
+        this.stockMutationService = stockMutationService;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -95,10 +103,11 @@ public class MaterialServiceImpl implements MaterialService {
     public MaterialDto updateMaterial(Long id, MaterialDto materialDto) {
         Material existingMaterial = materialRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Material not found with ID: " + id));
+        boolean wasBelowSafety = isBelowSafetyStock(existingMaterial);
 
         existingMaterial.setMaterialName(materialDto.getMaterialName());
         existingMaterial.setMaterialType(materialDto.getMaterialType()); // Set materialType
-        existingMaterial.setStockCurrent(materialDto.getStockCurrent());
+        // 庫存數量不從編輯介面修改，只經由 StockMutationService 的差量更新 (入庫/出庫交易)
         existingMaterial.setUnit(materialDto.getUnit());
         existingMaterial.setMaterialDescription(materialDto.getMaterialDescription());
         existingMaterial.setLocation(materialDto.getLocation());
@@ -107,9 +116,19 @@ public class MaterialServiceImpl implements MaterialService {
         existingMaterial.setActive(materialDto.getActive());
 
         Material updatedMaterial = materialRepository.save(existingMaterial);
+        if (!wasBelowSafety && isBelowSafetyStock(updatedMaterial)) {
+            eventPublisher.publishEvent(new StockThresholdCrossedEvent(List.of(new StockThresholdCrossedEvent.Crossing(
+                    updatedMaterial.getMaterialId(), updatedMaterial.getMaterialName(),
+                    updatedMaterial.getStockCurrent(), updatedMaterial.getSafetyStock()))));
+        }
         return convertToDto(updatedMaterial);
     }
 
+    private static boolean isBelowSafetyStock(Material material) {
+        return material.getStockCurrent() != null && material.getSafetyStock() != null
+                && material.getStockCurrent().compareTo(material.getSafetyStock()) < 0;
+    }
+
     /**
      * 根據ID刪除物料。
      * @param id 物料ID
@@ -148,13 +167,10 @@ public class MaterialServiceImpl implements MaterialService {
         Material material = materialRepository.findById(materialId)
                 .orElseThrow(() -> new EntityNotFoundException("Material not found with ID: " + materialId));
 
-        if (material.getStockCurrent().compareTo(quantity) < 0) {
+        if (!stockMutationService.applyDelta(materialId, quantity.negate())) {
             throw new IllegalArgumentException("Insufficient stock for material ID: " + materialId + ". Available: "
                     + material.getStockCurrent() + ", Requested: " + quantity);
         }
-
-        material.setStockCurrent(material.getStockCurrent().subtract(quantity));
-        materialRepository.save(material);
     }
 
     /**
@@ -0,0 +1,11 @@
+package com.project.depot.service;
+
+import java.util.List;
+
+/**
+ * 物料現有庫存已由 {@link StockMutationService} 異動 (於交易提交後處理，例如標記 MRP 淨需求需重建)
+ *
+ * @param materialIds 本次已套用異動的物料ID
+ */
+public record StockChangedEvent(List<Long> materialIds) {
+}
@@ -0,0 +1,33 @@
+package com.project.depot.service;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 庫存異動服務介面
+ * 所有變更 core_materials.stock_current 的流程 (入庫、領料、生產扣料、完工入庫) 都必須經由此介面，
+ * 以資料庫端的原子差量更新取代「讀取 → 計算 → 寫回」，避免多人同時操作時遺失更新。
+ */
+public interface StockMutationService {
+
+    /**
+     * 以差量原子性地調整單一物料庫存。
+     * 若調整後庫存會小於 0，則不做任何更新並回傳 false。
+     *
+     * @param materialId 物料ID
+     * @param delta      調整數量 (正數為增加，負數為減少)
+     * @return 是否成功套用
+     */
+    boolean applyDelta(Long materialId, BigDecimal delta);
+
+    /**
+     * 以 JDBC 批次原子性地調整多筆物料庫存。
+     * 每筆各自檢查調整後庫存不可小於 0；未能套用的物料ID會被回傳，
+     * 呼叫端應在交易中拋出例外，使已套用的部分一併回滾。
+     *
+     * @param deltas 物料ID對應的調整數量
+     * @return 因庫存不足而未套用的物料ID列表，全部成功時為空列表
+     */
+    List<Long> applyDeltas(Map<Long, BigDecimal> deltas);
+}
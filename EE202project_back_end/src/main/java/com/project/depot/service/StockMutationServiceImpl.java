@@ -0,0 +1,129 @@
+package com.project.depot.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.project.core.utils.SqlInClause;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 庫存異動服務實作類別
+ * 使用 UPDATE ... SET stock_current = stock_current + ? WHERE ... AND stock_current + ? >= 0
+ * 在資料庫端完成加減與庫存檢查，更新期間由資料列鎖保證同一物料的異動依序套用。
+ * <p>
+ * 扣減庫存後查詢異動後低於安全庫存的物料，「異動前不低於安全庫存」的才發布 {@link StockThresholdCrossedEvent}。
+ * 呼叫端在交易中時 UPDATE 取得的列鎖到提交才釋放，讀到的就是本次異動後的值；
+ * 非交易呼叫在併發下可能漏發，由 LowStockScheduler 的定時補掃補上。
+ * <p>
+ * 有套用任何異動時發布 {@link StockChangedEvent}。
+ */
+@Service
+public class StockMutationServiceImpl implements StockMutationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockMutationServiceImpl.class);
+
+    private static final String APPLY_DELTA_SQL = "UPDATE core_materials "
+            + "SET stock_current = COALESCE(stock_current, 0) + ? "
+            + "WHERE material_id = ? AND COALESCE(stock_current, 0) + ? >= 0";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public StockMutationServiceImpl(JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public boolean applyDelta(Long materialId, BigDecimal delta) {
+        int updated = jdbcTemplate.update(APPLY_DELTA_SQL, delta, materialId, delta);
+        if (updated == 0) {
+            logger.warn("物料 {} 庫存異動未套用，調整量: {}", materialId, delta);
+            return false;
+        }
+        if (delta.signum() < 0) {
+            publishThresholdCrossings(Map.of(materialId, delta));
+        }
+        eventPublisher.publishEvent(new StockChangedEvent(List.of(materialId)));
+        return true;
+    }
+
+    @Override
+    public List<Long> applyDeltas(Map<Long, BigDecimal> deltas) {
+        List<Long> rejected = new ArrayList<>();
+        if (deltas.isEmpty()) {
+            return rejected;
+        }
+        List<Map.Entry<Long, BigDecimal>> rows = new ArrayList<>(deltas.entrySet());
+        int[][] updated = jdbcTemplate.batchUpdate(APPLY_DELTA_SQL, rows, SqlInClause.BATCH_SIZE, (ps, row) -> {
+            ps.setBigDecimal(1, row.getValue());
+            ps.setLong(2, row.getKey());
+            ps.setBigDecimal(3, row.getValue());
+        });
+        Map<Long, BigDecimal> decreases = new HashMap<>();
+        List<Long> applied = new ArrayList<>();
+        int index = 0;
+        for (int[] batch : updated) {
+            for (int count : batch) {
+                Map.Entry<Long, BigDecimal> row = rows.get(index);
+                if (count == 0) {
+                    rejected.add(row.getKey());
+                    index++;
+                    continue;
+                }
+                applied.add(row.getKey());
+                if (row.getValue().signum() < 0) {
+                    decreases.put(row.getKey(), row.getValue());
+                }
+                index++;
+            }
+        }
+        if (!rejected.isEmpty()) {
+            logger.warn("批次庫存異動有 {} 筆未套用: {}", rejected.size(), rejected);
+        }
+        publishThresholdCrossings(decreases);
+        if (!applied.isEmpty()) {
+            eventPublisher.publishEvent(new StockChangedEvent(applied));
+        }
+        return rejected;
+    }
+
+    /**
+     * 找出本次扣減後往下穿越安全庫存的物料並發布事件
+     *
+     * @param decreases 已套用的扣減 (物料ID -> 負的調整數量)
+     */
+    private void publishThresholdCrossings(Map<Long, BigDecimal> decreases) {
+        if (decreases.isEmpty()) {
+            return;
+        }
+        List<StockThresholdCrossedEvent.Crossing> crossings = new ArrayList<>();
+        for (List<Long> chunk : SqlInClause.chunks(decreases.keySet())) {
+            jdbcTemplate.query("SELECT material_id, material_name, stock_current, safety_stock FROM core_materials "
+                    + "WHERE material_id IN (" + SqlInClause.placeholders(chunk) + ") "
+                    + "AND stock_current < safety_stock", rs -> {
+                        long materialId = rs.getLong("material_id");
+                        BigDecimal after = rs.getBigDecimal("stock_current");
+                        BigDecimal safety = rs.getBigDecimal("safety_stock");
+                        // 異動前 = 異動後 - 調整量；異動前已低於安全庫存的不重複通知
+                        if (after.subtract(decreases.get(materialId)).compareTo(safety) >= 0) {
+                            crossings.add(new StockThresholdCrossedEvent.Crossing(materialId,
+                                    rs.getString("material_name"), after, safety));
+                        }
+                    }, chunk.toArray());
+        }
+        if (!crossings.isEmpty()) {
+            logger.info("庫存低於安全庫存: {}", crossings.stream().map(StockThresholdCrossedEvent.Crossing::materialId)
+                    .toList());
+            eventPublisher.publishEvent(new StockThresholdCrossedEvent(crossings));
+        }
+    }
+}
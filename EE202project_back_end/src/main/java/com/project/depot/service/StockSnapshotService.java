@@ -0,0 +1,29 @@
+package com.project.depot.service;
+
+import com.project.depot.dto.response.StockAtResponse;
+import com.project.depot.dto.response.StockSnapshotRefreshResponse;
+
+import java.time.LocalDate;
+
+/**
+ * 每日庫存快照服務介面
+ * 維護各物料的每日結存，並以「最近快照 + 尚未併入的交易」回答任一日期的庫存。
+ */
+public interface StockSnapshotService {
+
+    /**
+     * 將水位線之後的新交易併入每日快照，並推進水位線。
+     *
+     * @return 本次處理的範圍與筆數
+     */
+    StockSnapshotRefreshResponse refreshSnapshots();
+
+    /**
+     * 查詢物料在指定日期結束時的庫存。
+     *
+     * @param materialId 物料ID
+     * @param date       查詢日期
+     * @return 該日結束時的庫存
+     */
+    StockAtResponse getStockAt(Long materialId, LocalDate date);
+}
@@ -0,0 +1,95 @@
+package com.project.depot.service;
+
+import com.project.depot.dao.StockSnapshotDao;
+import com.project.depot.dao.StockSnapshotDao.DailyDelta;
+import com.project.depot.dao.StockSnapshotDao.SnapshotPoint;
+import com.project.depot.dto.response.StockAtResponse;
+import com.project.depot.dto.response.StockSnapshotRefreshResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 每日庫存快照服務實作類別
+ */
+@Service
+public class StockSnapshotServiceImpl implements StockSnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockSnapshotServiceImpl.class);
+
+    /**
+     * 每日結存快照使用的水位線名稱
+     */
+    static final String DAILY_CLOSING = "DAILY_CLOSING";
+
+    private final StockSnapshotDao stockSnapshotDao;
+
+    /**
+     * 只併入交易時間早於「現在 - 此秒數」的交易，
+     * 讓仍在進行中的交易先提交，避免較小的交易ID在水位線推進後才出現而被略過。
+     */
+    @Value("${inventory.snapshot.settle-lag-seconds:300}")
+    private long settleLagSeconds = 300;
+
+    public StockSnapshotServiceImpl(StockSnapshotDao stockSnapshotDao) {
+        this.stockSnapshotDao = stockSnapshotDao;
+    }
+
+    @Override
+    @Transactional
+    public StockSnapshotRefreshResponse refreshSnapshots() {
+        LocalDateTime now = LocalDateTime.now();
+        long from = stockSnapshotDao.lockWatermark(DAILY_CLOSING, now);
+        Long to = stockSnapshotDao.findMaxTransactionId(from, now.minusSeconds(settleLagSeconds));
+        if (to == null) {
+            logger.debug("庫存快照無新交易，水位線: {}", from);
+            return new StockSnapshotRefreshResponse(from, from, 0);
+        }
+
+        List<DailyDelta> deltas = stockSnapshotDao.findDailyDeltas(from, to);
+        for (DailyDelta delta : deltas) {
+            // 先把淨額累加到當日與之後已存在的快照 (補登的交易會落在既有快照之前)
+            stockSnapshotDao.addToSnapshotsFrom(delta.materialId(), delta.date(), delta.delta());
+            if (!stockSnapshotDao.existsSnapshot(delta.materialId(), delta.date())) {
+                stockSnapshotDao.insertSnapshot(delta.materialId(), delta.date(), delta.delta());
+            }
+        }
+        stockSnapshotDao.updateWatermark(DAILY_CLOSING, to, now);
+        logger.info("庫存快照已更新，交易ID範圍: ({}, {}]，物料日數: {}", from, to, deltas.size());
+        return new StockSnapshotRefreshResponse(from, to, deltas.size());
+    }
+
+    /**
+     * 物料建立時的期初庫存沒有交易紀錄，因此以目前庫存往回推：
+     * 當日庫存 = stock_current - (全部交易淨額 - 截至當日的交易淨額)，兩個淨額都以「快照 + 補算」取得。
+     * <p>
+     * 先讀水位線再讀快照；在 REPEATABLE READ 下水位線的共享鎖會保留到交易結束，
+     * 更新中的快照必須等查詢完成 (反之亦然)，因此快照與待補交易不會重複或遺漏。
+     */
+    @Override
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public StockAtResponse getStockAt(Long materialId, LocalDate date) {
+        long watermark = stockSnapshotDao.readWatermark(DAILY_CLOSING);
+        SnapshotPoint snapshot = stockSnapshotDao.findLatestSnapshotOnOrBefore(materialId, date);
+        BigDecimal netUpToDate = balanceOf(snapshot).add(stockSnapshotDao.sumPendingQuantity(materialId, watermark,
+                date.plusDays(1).atStartOfDay()));
+        BigDecimal netTotal = balanceOf(stockSnapshotDao.findLatestSnapshot(materialId))
+                .add(stockSnapshotDao.sumPendingQuantity(materialId, watermark));
+        BigDecimal stockCurrent = stockSnapshotDao.findStockCurrent(materialId);
+        BigDecimal stock = (stockCurrent != null ? stockCurrent : BigDecimal.ZERO)
+                .subtract(netTotal.subtract(netUpToDate));
+        return new StockAtResponse(materialId, date, stock, snapshot != null ? snapshot.snapshotDate() : null);
+    }
+
+    private static BigDecimal balanceOf(SnapshotPoint snapshot) {
+        return snapshot != null ? snapshot.closingBalance() : BigDecimal.ZERO;
+    }
+}
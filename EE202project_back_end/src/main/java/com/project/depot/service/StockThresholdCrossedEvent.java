@@ -0,0 +1,21 @@
+package com.project.depot.service;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 物料庫存由「不低於安全庫存」降到「低於安全庫存」 (只在往下穿越時發布，於交易提交後處理)
+ *
+ * @param materials 本次異動中往下穿越安全庫存的物料
+ */
+public record StockThresholdCrossedEvent(List<Crossing> materials) {
+
+    /**
+     * @param materialId   物料ID
+     * @param materialName 物料名稱
+     * @param stockCurrent 異動後庫存
+     * @param safetyStock  安全庫存
+     */
+    public record Crossing(Long materialId, String materialName, BigDecimal stockCurrent, BigDecimal safetyStock) {
+    }
+}
@@ -0,0 +1,62 @@
+package com.project.employeeuser.cluster;
+
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * WebSocket 叢集匯流排
+ * 多個節點在負載平衡器後面時，連線只存在於其中一個節點；
+ * 匯流排負責記錄用戶連在哪個節點 (在線狀態)，並把訊息轉送到其他節點。
+ *
+ * 實作:
+ * LocalClusterBus    單一節點 (預設)，不轉送
+ * DbOutboxClusterBus 以資料表 outbox 轉送、各節點輪詢，不需要外部訊息代理
+ */
+public interface ClusterBus {
+
+    /**
+     * 本節點ID
+     */
+    String nodeId();
+
+    /**
+     * 註冊接收其他節點轉送訊息的處理器 (由 SimpleWebSocketHandler 註冊)
+     */
+    void onMessage(Consumer<ClusterMessage> listener);
+
+    /**
+     * 登記用戶連線在本節點
+     *
+     * @return 原本持有該用戶連線的其他節點，沒有時為 null
+     */
+    String claim(String userId);
+
+    /**
+     * 用戶連線關閉時移除登記
+     *
+     * @return 是否移除 (用戶已在其他節點重新登入時為 false)
+     */
+    boolean release(String userId);
+
+    /**
+     * 用戶連線所在的其他節點
+     *
+     * @return 節點ID，用戶不在線或連在本節點時為 null
+     */
+    String ownerOf(String userId);
+
+    /**
+     * 所有節點的在線用戶
+     */
+    Set<String> onlineUsers();
+
+    /**
+     * 送給指定節點
+     */
+    void send(String nodeId, ClusterMessage message);
+
+    /**
+     * 送給其他所有節點
+     */
+    void broadcast(ClusterMessage message);
+}
@@ -0,0 +1,38 @@
+package com.project.employeeuser.cluster;
+
+/**
+ * 節點之間轉送的 WebSocket 訊息
+ *
+ * @param kind    訊息種類
+ * @param target  USER、KICK 為用戶ID；TOPIC 為主題；BROADCAST 不使用
+ * @param payload 已序列化好的 WebSocket 訊息 (JSON)，收到的節點直接送出，不再序列化
+ */
+public record ClusterMessage(Kind kind, String target, String payload) {
+
+    public enum Kind {
+        /** 送給連在該節點的指定用戶 */
+        USER,
+        /** 送給該節點所有在線用戶 */
+        BROADCAST,
+        /** 送給該節點訂閱主題的連線 */
+        TOPIC,
+        /** 用戶已在其他節點登入，關閉該節點的舊連線 */
+        KICK
+    }
+
+    public static ClusterMessage user(String userId, String payload) {
+        return new ClusterMessage(Kind.USER, userId, payload);
+    }
+
+    public static ClusterMessage broadcast(String payload) {
+        return new ClusterMessage(Kind.BROADCAST, null, payload);
+    }
+
+    public static ClusterMessage topic(String topic, String payload) {
+        return new ClusterMessage(Kind.TOPIC, topic, payload);
+    }
+
+    public static ClusterMessage kick(String userId) {
+        return new ClusterMessage(Kind.KICK, userId, "");
+    }
+}
@@ -0,0 +1,250 @@
+package com.project.employeeuser.cluster;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import com.project.core.dao.WebSocketClusterDao;
+import com.project.core.dao.WebSocketClusterDao.OutboxRow;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 以資料表 outbox 實作的叢集匯流排 (websocket.cluster.mode=db)
+ *
+ * 送出時寫入 websocket_outbox 一筆 (指定目標節點或所有節點)，各節點每 poll-interval-ms 依ID接續查詢新訊息。
+ * 私人訊息依 websocket_presence 直接寫給持有該用戶連線的節點，其他節點不會收到內容。
+ *
+ * ID 在寫入時配發，但交易較晚提交的訊息可能比它之後的ID更晚出現。
+ * 因此游標只前進到「已看到超過 settle-ms」的ID，視窗內的空號在之後的輪詢補收；超過視窗仍未出現的ID視為不存在。
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "websocket.cluster.mode", havingValue = "db")
+public class DbOutboxClusterBus implements ClusterBus, SmartLifecycle {
+
+    private final WebSocketClusterDao clusterDao;
+    private final String nodeId;
+    private final long pollIntervalMs;
+    private final int batchSize;
+    private final int nodeTimeoutSeconds;
+    private final int outboxRetentionSeconds;
+    private final long settleNanos;
+
+    private volatile Consumer<ClusterMessage> listener = message -> {
+    };
+    private volatile ScheduledExecutorService executor;
+
+    // 以下只在 poll() 內存取 (poll 為 synchronized)
+    // 已確定不會再出現新訊息的ID (不含)
+    private long cursor;
+    // 已看到的最大ID
+    private long highest;
+    // cursor 之後已看到的ID -> 第一次看到的時間 (nanoTime)
+    private final TreeMap<Long, Long> seen = new TreeMap<>();
+
+    public DbOutboxClusterBus(WebSocketClusterDao clusterDao,
+            @Value("${websocket.cluster.node-id:}") String nodeId,
+            @Value("${websocket.cluster.poll-interval-ms:200}") long pollIntervalMs,
+            @Value("${websocket.cluster.batch-size:500}") int batchSize,
+            @Value("${websocket.cluster.node-timeout-seconds:30}") int nodeTimeoutSeconds,
+            @Value("${websocket.cluster.outbox-retention-seconds:300}") int outboxRetentionSeconds,
+            @Value("${websocket.cluster.settle-ms:2000}") long settleMs) {
+        if (pollIntervalMs < 1 || batchSize < 1 || nodeTimeoutSeconds < 3) {
+            throw new IllegalArgumentException("websocket.cluster.poll-interval-ms、batch-size 必須大於 0，"
+                    + "node-timeout-seconds 不可小於 3");
+        }
+        this.clusterDao = clusterDao;
+        this.nodeId = nodeId == null || nodeId.isBlank()
+                ? ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID().toString().substring(0, 8)
+                : nodeId;
+        this.pollIntervalMs = pollIntervalMs;
+        this.batchSize = batchSize;
+        this.nodeTimeoutSeconds = nodeTimeoutSeconds;
+        this.outboxRetentionSeconds = outboxRetentionSeconds;
+        this.settleNanos = TimeUnit.MILLISECONDS.toNanos(settleMs);
+    }
+
+    @Override
+    public String nodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public void onMessage(Consumer<ClusterMessage> listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public String claim(String userId) {
+        String previous = clusterDao.claimUser(userId, nodeId);
+        return previous != null && !previous.equals(nodeId) ? previous : null;
+    }
+
+    @Override
+    public boolean release(String userId) {
+        return clusterDao.releaseUser(userId, nodeId);
+    }
+
+    @Override
+    public String ownerOf(String userId) {
+        String owner = clusterDao.findOwner(userId, nodeTimeoutSeconds);
+        return owner != null && !owner.equals(nodeId) ? owner : null;
+    }
+
+    @Override
+    public Set<String> onlineUsers() {
+        return Set.copyOf(clusterDao.findOnlineUsers(nodeTimeoutSeconds));
+    }
+
+    @Override
+    public void send(String targetNode, ClusterMessage message) {
+        if (nodeId.equals(targetNode)) {
+            listener.accept(message);
+            return;
+        }
+        clusterDao.insert(nodeId, targetNode, message.kind().name(), message.target(), message.payload());
+    }
+
+    @Override
+    public void broadcast(ClusterMessage message) {
+        clusterDao.insert(nodeId, null, message.kind().name(), message.target(), message.payload());
+    }
+
+    /**
+     * 查詢並處理其他節點送來的新訊息 (由輪詢執行緒定期呼叫)
+     *
+     * @return 處理的訊息數
+     */
+    public synchronized int poll() {
+        long now = System.nanoTime();
+        int delivered = 0;
+
+        // 1. cursor 與 highest 之間有空號時，補收較晚提交的訊息
+        if (highest - cursor > seen.size()) {
+            for (OutboxRow row : clusterDao.findBetween(cursor, highest, nodeId)) {
+                if (seen.putIfAbsent(row.id(), now) == null) {
+                    delivered += deliver(row);
+                }
+            }
+        }
+
+        // 2. 新訊息，一次最多 batchSize 筆，積壓時連續查詢
+        int fetched;
+        do {
+            var rows = clusterDao.findAfter(highest, nodeId, batchSize);
+            for (OutboxRow row : rows) {
+                seen.put(row.id(), now);
+                highest = row.id();
+                delivered += deliver(row);
+            }
+            fetched = rows.size();
+        } while (fetched == batchSize);
+
+        // 3. 游標前進到「由小到大連續都已看到超過 settle 時間」的最大ID
+        long settled = cursor;
+        for (Map.Entry<Long, Long> entry : seen.entrySet()) {
+            if (now - entry.getValue() < settleNanos) {
+                break;
+            }
+            settled = entry.getKey();
+        }
+        seen.headMap(settled, true).clear();
+        cursor = settled;
+        return delivered;
+    }
+
+    private int deliver(OutboxRow row) {
+        if (!row.deliverable()) {
+            return 0;
+        }
+        try {
+            listener.accept(new ClusterMessage(ClusterMessage.Kind.valueOf(row.kind()), row.target(), row.payload()));
+        } catch (RuntimeException e) {
+            log.warn("處理叢集訊息 {} 失敗: {}", row.id(), e.getMessage());
+        }
+        return 1;
+    }
+
+    /**
+     * 更新心跳，移除當機節點的在線用戶，清理過期訊息
+     */
+    void housekeeping() {
+        clusterDao.heartbeat(nodeId);
+        int dead = clusterDao.reapDeadNodes(nodeTimeoutSeconds);
+        if (dead > 0) {
+            log.info("移除 {} 個心跳逾時的 WebSocket 節點", dead);
+        }
+        clusterDao.purgeOutbox(outboxRetentionSeconds);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (executor != null) return;
+        // 同一 node-id 重新啟動時，上次留下的在線用戶已不存在
+        clusterDao.removeNode(nodeId);
+        clusterDao.heartbeat(nodeId);
+        cursor = highest = clusterDao.maxOutboxId();
+
+        executor = Executors.newSingleThreadScheduledExecutor(
+                runnable -> Thread.ofPlatform().name("websocket-cluster-bus").daemon().unstarted(runnable));
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                poll();
+            } catch (RuntimeException e) {
+                log.warn("輪詢 websocket_outbox 失敗: {}", e.getMessage());
+            }
+        }, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+        long heartbeatSeconds = Math.max(1, nodeTimeoutSeconds / 3);
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                housekeeping();
+            } catch (RuntimeException e) {
+                log.warn("更新 WebSocket 節點心跳失敗: {}", e.getMessage());
+            }
+        }, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+        log.info("WebSocket 叢集節點 {} 已啟動", nodeId);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (executor == null) return;
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        executor = null;
+        try {
+            clusterDao.removeNode(nodeId);
+        } catch (RuntimeException e) {
+            // 資料庫沒有回應時，由其他節點在心跳逾時後移除
+            log.warn("移除 WebSocket 節點 {} 失敗: {}", nodeId, e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return executor != null;
+    }
+
+    /**
+     * 比 Web 伺服器早啟動、晚停止：開始接受連線前已登記節點，停止接受連線後才移除
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 3072;
+    }
+}
@@ -0,0 +1,53 @@
+package com.project.employeeuser.cluster;
+
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * 單一節點的叢集匯流排 (websocket.cluster.mode=local，預設)
+ * 沒有其他節點，所有訊息都在本節點處理。
+ */
+@Component
+@ConditionalOnProperty(name = "websocket.cluster.mode", havingValue = "local", matchIfMissing = true)
+public class LocalClusterBus implements ClusterBus {
+
+    @Override
+    public String nodeId() {
+        return "local";
+    }
+
+    @Override
+    public void onMessage(Consumer<ClusterMessage> listener) {
+    }
+
+    @Override
+    public String claim(String userId) {
+        return null;
+    }
+
+    @Override
+    public boolean release(String userId) {
+        return true;
+    }
+
+    @Override
+    public String ownerOf(String userId) {
+        return null;
+    }
+
+    @Override
+    public Set<String> onlineUsers() {
+        return Set.of();
+    }
+
+    @Override
+    public void send(String nodeId, ClusterMessage message) {
+    }
+
+    @Override
+    public void broadcast(ClusterMessage message) {
+    }
+}
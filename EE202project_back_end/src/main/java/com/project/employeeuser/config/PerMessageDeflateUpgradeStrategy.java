@@ -0,0 +1,61 @@
+package com.project.employeeuser.config;
+
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.server.standard.StandardWebSocketUpgradeStrategy;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.websocket.WebSocketContainer;
+import jakarta.websocket.server.ServerEndpointConfig;
+
+/**
+ * 明確控制 permessage-deflate (RFC 7692) 的協商
+ *
+ * Tomcat 回報給 Spring 的已安裝擴充為空，Spring 不知道有壓縮可用，實際是否壓縮完全由 Tomcat 依瀏覽器的請求決定。
+ * 開啟時向 Spring 宣告支援 permessage-deflate (WebSocketSession.getExtensions() 可看到協商結果)；
+ * 關閉時在交給 Tomcat 升級前移除請求中的 Sec-WebSocket-Extensions，讓 Tomcat 不協商任何擴充。
+ */
+public class PerMessageDeflateUpgradeStrategy extends StandardWebSocketUpgradeStrategy {
+
+    static final String PERMESSAGE_DEFLATE = "permessage-deflate";
+    private static final String EXTENSIONS_HEADER = "Sec-WebSocket-Extensions";
+
+    private final boolean enabled;
+
+    public PerMessageDeflateUpgradeStrategy(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    protected List<WebSocketExtension> getInstalledExtensions(WebSocketContainer container) {
+        return enabled ? List.of(new WebSocketExtension(PERMESSAGE_DEFLATE)) : List.of();
+    }
+
+    @Override
+    protected void upgradeHttpToWebSocket(HttpServletRequest request, HttpServletResponse response,
+            ServerEndpointConfig endpointConfig, Map<String, String> pathParams) throws Exception {
+        super.upgradeHttpToWebSocket(enabled ? request : withoutExtensions(request), response, endpointConfig,
+                pathParams);
+    }
+
+    private static HttpServletRequest withoutExtensions(HttpServletRequest request) {
+        return new HttpServletRequestWrapper(request) {
+            @Override
+            public String getHeader(String name) {
+                return EXTENSIONS_HEADER.equalsIgnoreCase(name) ? null : super.getHeader(name);
+            }
+
+            @Override
+            public Enumeration<String> getHeaders(String name) {
+                return EXTENSIONS_HEADER.equalsIgnoreCase(name) ? Collections.emptyEnumeration()
+                        : super.getHeaders(name);
+            }
+        };
+    }
+}
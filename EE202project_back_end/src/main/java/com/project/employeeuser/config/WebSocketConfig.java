@@ -2,10 +2,12 @@ package com.project.employeeuser.config;
 
 import com.project.employeeuser.handler.SimpleWebSocketHandler;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.socket.config.annotation.EnableWebSocket;
 import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
 import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+import org.springframework.web.socket.server.support.DefaultHandshakeHandler;
 
 /**
  * WebSocket 配置類別 - 原生版本
@@ -27,6 +29,10 @@ public class WebSocketConfig implements WebSocketConfigurer {
     @Autowired
     private SimpleWebSocketHandler simpleWebSocketHandler;
 
+    // 瀏覽器要求時是否協商 permessage-deflate 壓縮
+    @Value("${websocket.compression.enabled:true}")
+    private boolean compressionEnabled;
+
     /**
      * 註冊 WebSocket 處理器
      * 
@@ -39,6 +45,9 @@ public class WebSocketConfig implements WebSocketConfigurer {
         // 註冊原生 WebSocket 端點 "/websocket"
         // 使用自定義的 SimpleWebSocketHandler 處理所有 WebSocket 通訊
         registry.addHandler(simpleWebSocketHandler, "/websocket")
+                // 依設定協商 permessage-deflate (弱網路下的平板可減少傳輸量)
+                .setHandshakeHandler(new DefaultHandshakeHandler(
+                        new PerMessageDeflateUpgradeStrategy(compressionEnabled)))
                 // 允許跨域請求，前端可以從不同域名連接
                 .setAllowedOrigins("http://localhost:5173", "http://172.22.34.82:5173");
         
@@ -114,6 +123,17 @@ public class WebSocketConfig implements WebSocketConfigurer {
    }
    ```
 
+   二進位編碼 (弱網路的平板可用)：identify 時帶 "encoding": "cbor" 或 "smile"，
+   之後伺服器送出的訊息改為二進位框架 (欄位相同)，用戶端的請求仍為 JSON 文字：
+   ```javascript
+   websocket.binaryType = 'arraybuffer';
+   websocket.send(JSON.stringify({ action: 'identify', userId: 'user001', encoding: 'cbor' }));
+   websocket.onmessage = (event) => {
+       const message = typeof event.data === 'string' ? JSON.parse(event.data) : CBOR.decode(new Uint8Array(event.data));
+   };
+   ```
+   permessage-deflate 由瀏覽器自動要求，websocket.compression.enabled=false 可關閉。
+
 6. 功能特色：
    - 用戶身份識別和會話管理
    - 實時廣播通知
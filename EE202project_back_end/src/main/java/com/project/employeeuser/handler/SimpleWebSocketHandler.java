@@ -1,14 +1,33 @@
 package com.project.employeeuser.handler;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.employeeuser.cluster.ClusterBus;
+import com.project.employeeuser.cluster.ClusterMessage;
+
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.*;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import lombok.extern.slf4j.Slf4j;
 
 /**
  * 原生 WebSocket 處理器
@@ -20,12 +39,30 @@ import java.util.concurrent.ConcurrentSkipListSet;
  * 3. 系統廣播通知
  * 4. 私人訊息路由
  * 5. 用戶狀態同步
+ *
+ * 每個連線以 ConcurrentWebSocketSessionDecorator 包裝後才送出：多執行緒同時送出是安全的，
+ * 連線忙碌時訊息先放入該連線自己的緩衝區，超過送出時間或緩衝區上限的慢速連線會被關閉 (前端會重新連線)。
+ * 廣播時訊息只序列化一次，再以虛擬執行緒平行送給每個連線，呼叫端不必等待任何一個連線。
+ *
+ * 用戶端可在 identify 時以 "encoding" 選擇 cbor 或 smile 二進位編碼 ({@link WireEncoding})；
+ * 送給多個連線的訊息每種編碼只序列化一次。傳輸層的壓縮由 permessage-deflate 負責 (見 WebSocketConfig)。
+ *
+ * 伺服器主動心跳：連線閒置超過 heartbeat.interval-ms 時送出 ping 框架，再過 heartbeat.timeout-ms 仍沒有收到
+ * pong 或任何訊息即視為斷線 (未送出關閉框架就消失的連線)，清除會話並廣播一次下線。
+ * 每個連線在 DelayQueue 中只有一筆「下次檢查時間」，心跳執行緒只處理到期的連線，不必定期走訪所有連線。
+ *
+ * 多個節點部署時，本類別只持有連在本節點的連線；在線狀態與跨節點的訊息經由 {@link ClusterBus} 處理：
+ * 廣播與主題訊息轉送給其他所有節點，私人訊息只轉送給持有目標用戶連線的節點。
  */
+@Slf4j
 @Component
 public class SimpleWebSocketHandler implements WebSocketHandler {
     // 創建 JSON 處理器-用來把訊息物件 ⇆ JSON 格式轉換
     private final ObjectMapper objectMapper = new ObjectMapper();
 
+    // 可訂閱主題的前綴
+    public static final String TOPIC_PREFIX = "/topic/";
+
     // 存儲所有活躍的 WebSocket 會話(WebSocketSession 就是 Spring WebSocket 幫你維護的連線)
     private final Map<String, WebSocketSession> userSessions = new ConcurrentHashMap<>();
 
@@ -35,6 +72,57 @@ public class SimpleWebSocketHandler implements WebSocketHandler {
     // 存儲在線用戶列表
     private final Set<String> onlineUsers = new ConcurrentSkipListSet<>();
 
+    // 會話ID到送出用裝飾會話的映射 (所有送出都經過裝飾會話)
+    private final Map<String, WebSocketSession> outboundSessions = new ConcurrentHashMap<>();
+
+    // 主題 -> 訂閱的會話；以 "/**" 結尾的萬用訂閱以去掉 "**" 的前綴為鍵 (例如 "/topic/machines/")
+    // 訂閱變動遠少於發布，集合使用 CopyOnWriteArraySet，發布時走訪不需加鎖
+    private final Map<String, Set<WebSocketSession>> topicSubscribers = new ConcurrentHashMap<>();
+
+    // 會話ID -> 送出訊息使用的編碼 (identify 時選擇，未選擇為 JSON)
+    private final Map<String, WireEncoding> sessionEncodings = new ConcurrentHashMap<>();
+
+    // 會話ID -> 已訂閱的主題 (斷線時清除訂閱)
+    private final Map<String, Set<String>> sessionTopics = new ConcurrentHashMap<>();
+
+    // 廣播用的虛擬執行緒 (每個連線一個工作)
+    private final ExecutorService broadcastExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    // 單次送出的時間上限 (毫秒) 與每個連線緩衝區的上限 (位元組)
+    private final int sendTimeLimitMs;
+    private final int sendBufferSizeLimit;
+
+    // 閒置多久送出 ping，送出後多久沒有回應視為斷線
+    private final long heartbeatIntervalNanos;
+    private final long heartbeatTimeoutNanos;
+
+    // 會話ID -> 最後一次收到訊息 (含 pong) 的時間 (System.nanoTime)
+    private final Map<String, Long> lastSeen = new ConcurrentHashMap<>();
+
+    // 每個連線一筆下次檢查時間；連線關閉後留下的項目到期時直接略過
+    private final DelayQueue<HeartbeatCheck> heartbeatChecks = new DelayQueue<>();
+
+    private final Thread heartbeatThread;
+
+    // 叢集匯流排 (在線狀態與跨節點訊息)
+    private final ClusterBus clusterBus;
+
+    public SimpleWebSocketHandler(@Value("${websocket.send-time-limit-ms:10000}") int sendTimeLimitMs,
+            @Value("${websocket.send-buffer-size-limit:524288}") int sendBufferSizeLimit,
+            @Value("${websocket.heartbeat.interval-ms:25000}") long heartbeatIntervalMs,
+            @Value("${websocket.heartbeat.timeout-ms:10000}") long heartbeatTimeoutMs, ClusterBus clusterBus) {
+        if (heartbeatIntervalMs < 1 || heartbeatTimeoutMs < 1) {
+            throw new IllegalArgumentException("websocket.heartbeat.interval-ms 與 timeout-ms 必須大於 0");
+        }
+        this.sendTimeLimitMs = sendTimeLimitMs;
+        this.sendBufferSizeLimit = sendBufferSizeLimit;
+        this.heartbeatIntervalNanos = TimeUnit.MILLISECONDS.toNanos(heartbeatIntervalMs);
+        this.heartbeatTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(heartbeatTimeoutMs);
+        this.clusterBus = clusterBus;
+        clusterBus.onMessage(this::onClusterMessage);
+        this.heartbeatThread = Thread.ofPlatform().name("websocket-heartbeat").daemon().start(this::runHeartbeat);
+    }
+
     /**
      * WebSocket 連接建立"後"調用 "沒用到"
      * 當客戶端成功建立 WebSocket 連接時調用
@@ -43,7 +131,11 @@ public class SimpleWebSocketHandler implements WebSocketHandler {
     @Override
     public void afterConnectionEstablished(WebSocketSession session) throws Exception {
         String sessionId = session.getId();// 取得會話 ID 並記錄
-        System.out.println("新的 WebSocket 連接建立: " + sessionId);
+        System.out.println("新的 WebSocket 連接建立: " + sessionId + " 擴充: " + session.getExtensions());
+        outbound(session);// 建立此連線的送出裝飾會話
+        long now = System.nanoTime();
+        lastSeen.put(sessionId, now);
+        heartbeatChecks.add(new HeartbeatCheck(sessionId, now + heartbeatIntervalNanos));
 
         // 發送歡迎訊息
         CustomWebSocketMessage welcomeMessage = new CustomWebSocketMessage(
@@ -60,6 +152,11 @@ public class SimpleWebSocketHandler implements WebSocketHandler {
      */
     @Override
     public void handleMessage(WebSocketSession session, WebSocketMessage<?> message) throws Exception {
+        // 收到任何訊息都代表連線仍然存活；已清除的會話不再加回
+        lastSeen.replace(session.getId(), System.nanoTime());
+        if (!(message instanceof TextMessage)) {
+            return;// pong 等非文字訊息只更新心跳時間
+        }
         try {
             String payload = (String) message.getPayload();// 取得訊息內容（JSON 字串）
             JsonNode messageNode = objectMapper.readTree(payload);// 將 JSON 字串解析為 JsonNode 物件
@@ -72,10 +169,14 @@ public class SimpleWebSocketHandler implements WebSocketHandler {
                     handleIdentify(session, messageNode);
                     break;
 
-                case "subscribe":// 沒用到
+                case "subscribe":// 訂閱主題
                     handleSubscribe(session, messageNode);
                     break;
 
+                case "unsubscribe":// 取消訂閱主題
+                    handleUnsubscribe(session, messageNode);
+                    break;
+
                 case "send":// 處理廣播訊息發送
                     handleSend(session, messageNode);
                     break;
@@ -120,7 +221,19 @@ public class SimpleWebSocketHandler implements WebSocketHandler {
     private void handleIdentify(WebSocketSession session, JsonNode messageNode) throws IOException {
         String userId = messageNode.path("userId").asText();
 
+        WireEncoding encoding;
+        try {
+            encoding = WireEncoding.of(messageNode.path("encoding").asText());
+        } catch (IllegalArgumentException e) {
+            sendMessage(session, new CustomWebSocketMessage("system", "error", e.getMessage(),
+                    System.currentTimeMillis()));
+            return;
+        }
+
         if (userId != null && !userId.isEmpty()) {
+            // 之後 (含識別成功回應) 都以選擇的編碼送出
+            sessionEncodings.put(session.getId(), encoding);
+
             // 如果用戶已經在線，斷開舊連接
             if (userSessions.containsKey(userId)) {
                 WebSocketSession oldSession = userSessions.get(userId);
@@ -130,9 +243,10 @@ public class SimpleWebSocketHandler implements WebSocketHandler {
             }
 
             // 註冊新的用戶會話 "沒用到"
-            userSessions.put(userId, session);
+            userSessions.put(userId, outbound(session));
             sessionToUser.put(session.getId(), userId);
             onlineUsers.add(userId);
+            claimInCluster(userId);
 
             System.out.println("用戶 " + userId + " 已識別，當前在線用戶數: " + onlineUsers.size());
 
@@ -149,7 +263,7 @@ public class SimpleWebSocketHandler implements WebSocketHandler {
             broadcastToAll("user-status", statusMessage);
 
             // 發送當前在線用戶列表
-            OnlineUsersMessage onlineUsersMessage = new OnlineUsersMessage(onlineUsers);
+            OnlineUsersMessage onlineUsersMessage = new OnlineUsersMessage(getOnlineUsers());
             sendMessage(session, new CustomWebSocketMessage("system", "online-users", onlineUsersMessage,
                     System.currentTimeMillis()));
 
@@ -164,10 +278,24 @@ public class SimpleWebSocketHandler implements WebSocketHandler {
     }
 
     /**
-     * 處理訂閱請求 "沒用到"
+     * 處理訂閱請求
+     * topic 須以 "/topic/" 開頭；以 "/**" 結尾時訂閱該前綴底下所有主題 (例如 "/topic/machines/**")
      */
     private void handleSubscribe(WebSocketSession session, JsonNode messageNode) throws IOException {
         String topic = messageNode.path("topic").asText();
+        if (!checkTopicRequest(session, topic)) {
+            return;
+        }
+
+        String key = subscriptionKey(topic);
+        WebSocketSession outbound = outbound(session);
+        // 在 compute 內加入，避免與取消訂閱移除空集合同時發生時加到已移除的集合
+        topicSubscribers.compute(key, (k, sessions) -> {
+            Set<WebSocketSession> subscribers = sessions != null ? sessions : new CopyOnWriteArraySet<>();
+            subscribers.add(outbound);
+            return subscribers;
+        });
+        sessionTopics.computeIfAbsent(session.getId(), id -> ConcurrentHashMap.newKeySet()).add(key);
 
         CustomWebSocketMessage response = new CustomWebSocketMessage(
                 "system",
@@ -177,6 +305,60 @@ public class SimpleWebSocketHandler implements WebSocketHandler {
         sendMessage(session, response);
     }
 
+    /**
+     * 處理取消訂閱請求
+     */
+    private void handleUnsubscribe(WebSocketSession session, JsonNode messageNode) throws IOException {
+        String topic = messageNode.path("topic").asText();
+        if (!checkTopicRequest(session, topic)) {
+            return;
+        }
+
+        String key = subscriptionKey(topic);
+        removeSubscription(key, outbound(session));
+        Set<String> topics = sessionTopics.get(session.getId());
+        if (topics != null) {
+            topics.remove(key);
+        }
+
+        CustomWebSocketMessage response = new CustomWebSocketMessage(
+                "system",
+                "unsubscribed",
+                "已取消訂閱主題: " + topic,
+                System.currentTimeMillis());
+        sendMessage(session, response);
+    }
+
+    /**
+     * 訂閱前檢查身份與主題格式，不符合時回傳錯誤訊息
+     */
+    private boolean checkTopicRequest(WebSocketSession session, String topic) throws IOException {
+        String error = null;
+        if (sessionToUser.get(session.getId()) == null) {
+            error = "請先進行身份驗證";
+        } else if (!topic.startsWith(TOPIC_PREFIX) || topic.length() == TOPIC_PREFIX.length()
+                || (topic.indexOf('*') >= 0 && !(topic.endsWith("/**") && topic.indexOf('*') == topic.length() - 2))) {
+            error = "無效的主題: " + topic;
+        }
+        if (error != null) {
+            sendMessage(session, new CustomWebSocketMessage("system", "error", error, System.currentTimeMillis()));
+            return false;
+        }
+        return true;
+    }
+
+    // 萬用訂閱 "/topic/machines/**" 以 "/topic/machines/" 為鍵，一般訂閱以主題本身為鍵
+    private static String subscriptionKey(String topic) {
+        return topic.endsWith("/**") ? topic.substring(0, topic.length() - 2) : topic;
+    }
+
+    private void removeSubscription(String key, WebSocketSession session) {
+        topicSubscribers.computeIfPresent(key, (k, sessions) -> {
+            sessions.remove(session);
+            return sessions.isEmpty() ? null : sessions;
+        });
+    }
+
     /**
      * 處理發送訊息
      */
@@ -221,17 +403,23 @@ public class SimpleWebSocketHandler implements WebSocketHandler {
         // 提取目標用戶 ID 和訊息內容
         String toUserId = messageNode.path("toUserId").asText();
         String messageContent = messageNode.path("message").asText();
-        // 檢查目標用戶是否在線
-        if (userSessions.containsKey(toUserId)) {
+        // 檢查目標用戶是否在線 (本節點，或其他節點)
+        WebSocketSession targetSession = userSessions.get(toUserId);
+        String ownerNode = targetSession == null ? ownerInCluster(toUserId) : null;
+        if (targetSession != null || ownerNode != null) {
             PrivateMessage privateMessage = new PrivateMessage(fromUserId, messageContent);
-            WebSocketSession targetSession = userSessions.get(toUserId);
             // 發送私人訊息
             CustomWebSocketMessage message = new CustomWebSocketMessage(
                     "private",
                     "message",
                     privateMessage,
                     System.currentTimeMillis());
-            sendMessage(targetSession, message);
+            if (targetSession != null) {
+                sendMessage(targetSession, message);
+            } else {
+                // 直接轉送給持有目標用戶連線的節點
+                clusterBus.send(ownerNode, ClusterMessage.user(toUserId, objectMapper.writeValueAsString(message)));
+            }
 
             // 發送確認給發送者
             CustomWebSocketMessage confirmation = new CustomWebSocketMessage(
@@ -253,7 +441,7 @@ public class SimpleWebSocketHandler implements WebSocketHandler {
     }
 
     /**
-     * 處理 Ping 請求"沒用到"
+     * 處理客戶端的 Ping 請求 (應用層心跳；伺服器另以 ping 框架主動檢查連線)
      */
     private void handlePing(WebSocketSession session) throws IOException {
         CustomWebSocketMessage pongMessage = new CustomWebSocketMessage(
@@ -281,7 +469,7 @@ public class SimpleWebSocketHandler implements WebSocketHandler {
         }
 
         // 發送在線用戶列表
-        OnlineUsersMessage onlineUsersMessage = new OnlineUsersMessage(onlineUsers);
+        OnlineUsersMessage onlineUsersMessage = new OnlineUsersMessage(getOnlineUsers());
         CustomWebSocketMessage response = new CustomWebSocketMessage(
                 "system",
                 "online-users",
@@ -307,22 +495,103 @@ public class SimpleWebSocketHandler implements WebSocketHandler {
     @Override
     public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
         String sessionId = session.getId();
-        String userId = sessionToUser.get(sessionId);
+        cleanup(sessionId);
 
-        if (userId != null) {
-            // 清理用戶會話
-            userSessions.remove(userId);
-            sessionToUser.remove(sessionId);
+        System.out.println("WebSocket 連接已關閉 - Session: " + sessionId + ", Status: " + closeStatus);
+    }
+
+    /**
+     * 清除會話的所有狀態；心跳逾時移除後容器仍會呼叫 afterConnectionClosed，重複呼叫不會再廣播下線
+     */
+    private void cleanup(String sessionId) {
+        lastSeen.remove(sessionId);
+        sessionEncodings.remove(sessionId);
+        // 清理用戶會話
+        String userId = sessionToUser.remove(sessionId);
+        WebSocketSession outbound = outboundSessions.remove(sessionId);
+        Set<String> topics = sessionTopics.remove(sessionId);
+        if (topics != null && outbound != null) {
+            topics.forEach(key -> removeSubscription(key, outbound));
+        }
+
+        // 同一用戶已從其他地方重新登入時，舊連線關閉不可移除新的會話
+        if (userId != null && outbound != null && userSessions.remove(userId, outbound)) {
             onlineUsers.remove(userId);
 
             System.out.println("用戶 " + userId + " 已斷線，當前在線用戶數: " + onlineUsers.size());
 
-            // 廣播用戶下線通知
-            UserStatusMessage statusMessage = new UserStatusMessage(userId, "offline");
-            broadcastToAll("user-status", statusMessage);
+            // 已在其他節點重新登入時不廣播下線
+            if (releaseInCluster(userId)) {
+                UserStatusMessage statusMessage = new UserStatusMessage(userId, "offline");
+                broadcastToAll("user-status", statusMessage);
+            }
         }
+    }
 
-        System.out.println("WebSocket 連接已關閉 - Session: " + sessionId + ", Status: " + closeStatus);
+    /**
+     * 心跳執行緒：等待下一個到期的連線並檢查
+     */
+    private void runHeartbeat() {
+        while (true) {
+            HeartbeatCheck check;
+            try {
+                check = heartbeatChecks.take();
+            } catch (InterruptedException e) {
+                return;// 應用程式關閉
+            }
+            try {
+                checkHeartbeat(check.sessionId());
+            } catch (RuntimeException e) {
+                log.warn("心跳檢查失敗 - Session: {}", check.sessionId(), e);
+            }
+        }
+    }
+
+    /**
+     * 檢查到期的連線：最近有訊息則延後檢查，閒置則送出 ping，ping 後逾時仍無回應則移除
+     */
+    private void checkHeartbeat(String sessionId) {
+        Long seen = lastSeen.get(sessionId);
+        WebSocketSession outbound = outboundSessions.get(sessionId);
+        if (seen == null || outbound == null) {
+            return;// 連線已關閉
+        }
+        long idle = System.nanoTime() - seen;
+        if (idle >= heartbeatIntervalNanos + heartbeatTimeoutNanos) {
+            evict(sessionId, outbound);
+        } else if (idle >= heartbeatIntervalNanos) {
+            // 送出可能因網路卡住，交給虛擬執行緒，心跳執行緒不等待
+            broadcastExecutor.execute(() -> ping(outbound));
+            heartbeatChecks.add(new HeartbeatCheck(sessionId, seen + heartbeatIntervalNanos + heartbeatTimeoutNanos));
+        } else {
+            heartbeatChecks.add(new HeartbeatCheck(sessionId, seen + heartbeatIntervalNanos));
+        }
+    }
+
+    private void ping(WebSocketSession outbound) {
+        try {
+            if (outbound.isOpen()) {
+                outbound.sendMessage(new PingMessage(ByteBuffer.allocate(0)));
+            }
+        } catch (IOException | RuntimeException e) {
+            // 送出失敗的連線不會回應，逾時後移除
+            log.warn("送出 ping 失敗 - Session: {}", outbound.getId(), e);
+        }
+    }
+
+    /**
+     * 移除心跳逾時的連線：先清除會話 (之後的廣播不再送給它)，再嘗試關閉
+     */
+    private void evict(String sessionId, WebSocketSession outbound) {
+        log.info("WebSocket 連接心跳逾時，移除 - Session: {}", sessionId);
+        cleanup(sessionId);
+        broadcastExecutor.execute(() -> {
+            try {
+                outbound.close(CloseStatus.SESSION_NOT_RELIABLE);
+            } catch (IOException | RuntimeException e) {
+                // 對方已不存在，關閉失敗可忽略
+            }
+        });
     }
 
     @Override
@@ -331,43 +600,294 @@ public class SimpleWebSocketHandler implements WebSocketHandler {
     }
 
     /**
-     * 發送訊息給特定會話
+     * 取得會話的送出裝飾會話 (第一次呼叫時建立)
+     */
+    private WebSocketSession outbound(WebSocketSession session) {
+        return outboundSessions.computeIfAbsent(session.getId(),
+                id -> new ConcurrentWebSocketSessionDecorator(session, sendTimeLimitMs, sendBufferSizeLimit,
+                        ConcurrentWebSocketSessionDecorator.OverflowStrategy.TERMINATE));
+    }
+
+    /**
+     * 發送訊息給特定會話 (以該會話選擇的編碼序列化)
      */
     private void sendMessage(WebSocketSession session, CustomWebSocketMessage message) throws IOException {
-        if (session.isOpen()) {// 檢查連接是否仍然開啟
-            String jsonMessage = objectMapper.writeValueAsString(message);// 將訊息物件序列化為 JSON 字串
-            session.sendMessage(new TextMessage(jsonMessage));// 通過 WebSocket 發送文字訊息
+        send(session, encodingOf(session).encode(message));
+    }
+
+    private WireEncoding encodingOf(WebSocketSession session) {
+        return sessionEncodings.getOrDefault(session.getId(), WireEncoding.JSON);
+    }
+
+    /**
+     * 經由裝飾會話送出已序列化的訊息；連線忙碌時只放入該連線的緩衝區，不會等待
+     */
+    private void send(WebSocketSession session, WebSocketMessage<?> message) throws IOException {
+        // userSessions 中已是裝飾會話；連線關閉後不可再為它建立新的裝飾會話
+        WebSocketSession outbound = session instanceof ConcurrentWebSocketSessionDecorator ? session
+                : outbound(session);
+        if (outbound.isOpen()) {// 檢查連接是否仍然開啟
+            outbound.sendMessage(message);// 通過 WebSocket 發送訊息
         }
     }
 
     /**
-     * 廣播訊息給所有在線用戶
+     * 廣播訊息給所有在線用戶 (含其他節點)
      */
     private void broadcastToAll(String type, Object data) {
         CustomWebSocketMessage message = new CustomWebSocketMessage("broadcast", type, data,
                 System.currentTimeMillis());
+        String json;
+        try {
+            // 只序列化一次，所有連線共用同一個 TextMessage (二進位編碼的連線共用各自編碼的框架)
+            json = objectMapper.writeValueAsString(message);
+        } catch (JsonProcessingException e) {
+            log.error("廣播訊息序列化失敗", e);
+            return;
+        }
+
+        fanOut(userSessions.values(), new Frame(message, json));
+        relay(ClusterMessage.broadcast(json));
+    }
 
-        userSessions.values().forEach(session -> {
+    /**
+     * 發布訊息到主題，只送給訂閱該主題 (或其上層萬用主題) 的連線 (供外部調用)
+     * 查找次數只與主題的層數有關，送出次數等於訂閱者數，與在線連線總數無關。
+     * 其他節點收到轉送後，同樣只送給其本身的訂閱者。
+     *
+     * @param topic 主題，例如 "/topic/machines/12/status"
+     * @param type  訊息類型
+     * @param data  訊息內容
+     * @return 本節點收到訊息的連線數
+     */
+    public int publish(String topic, String type, Object data) {
+        CustomWebSocketMessage message = new CustomWebSocketMessage(topic, type, data, System.currentTimeMillis());
+        String json;
+        try {
+            // 只序列化一次，所有訂閱者共用同一個 TextMessage；source 為主題
+            json = objectMapper.writeValueAsString(message);
+        } catch (JsonProcessingException e) {
+            log.error("主題訊息序列化失敗", e);
+            return 0;
+        }
+        relay(ClusterMessage.topic(topic, json));
+        Set<WebSocketSession> recipients = subscribersOf(topic);
+        if (!recipients.isEmpty()) {
+            fanOut(recipients, new Frame(message, json));
+        }
+        return recipients.size();
+    }
+
+    /**
+     * 本節點訂閱主題 (含上層萬用主題) 的連線
+     */
+    private Set<WebSocketSession> subscribersOf(String topic) {
+        Set<WebSocketSession> recipients = new HashSet<>();
+        Set<WebSocketSession> exact = topicSubscribers.get(topic);
+        if (exact != null) {
+            recipients.addAll(exact);
+        }
+        // 依序檢查每一層前綴的萬用訂閱："/topic/"、"/topic/machines/"、"/topic/machines/12/"
+        for (int slash = topic.indexOf('/', 1); slash >= 0; slash = topic.indexOf('/', slash + 1)) {
+            Set<WebSocketSession> wildcard = topicSubscribers.get(topic.substring(0, slash + 1));
+            if (wildcard != null) {
+                recipients.addAll(wildcard);
+            }
+        }
+        return recipients;
+    }
+
+    /**
+     * 主題的訂閱連線數 (不含萬用訂閱)
+     */
+    public int getSubscriberCount(String topic) {
+        Set<WebSocketSession> sessions = topicSubscribers.get(subscriptionKey(topic));
+        return sessions == null ? 0 : sessions.size();
+    }
+
+    /**
+     * 以虛擬執行緒平行送出同一個已序列化的訊息
+     */
+    private void fanOut(Iterable<WebSocketSession> sessions, Frame frame) {
+        sessions.forEach(session -> broadcastExecutor.execute(() -> {
             try {
-                sendMessage(session, message);
-            } catch (IOException e) {
-                System.err.println("廣播訊息失敗: " + e.getMessage());
+                send(session, frame.encode(encodingOf(session)));
+            } catch (IOException | RuntimeException e) {
+                // 超過送出時間或緩衝區上限 (SessionLimitExceededException) 時裝飾會話已關閉該連線
+                log.warn("廣播訊息失敗 - Session: {}", session.getId(), e);
             }
-        });
+        }));
+    }
+
+    /**
+     * 處理其他節點轉送來的訊息 (內容已序列化，只送給本節點的連線，不再轉送)
+     */
+    private void onClusterMessage(ClusterMessage message) {
+        switch (message.kind()) {
+            case USER -> {
+                WebSocketSession session = userSessions.get(message.target());
+                if (session != null) {
+                    fanOut(List.of(session), new Frame(null, message.payload()));
+                }
+            }
+            case BROADCAST -> fanOut(userSessions.values(), new Frame(null, message.payload()));
+            case TOPIC -> fanOut(subscribersOf(message.target()), new Frame(null, message.payload()));
+            case KICK -> {
+                WebSocketSession session = userSessions.get(message.target());
+                if (session != null && session.isOpen()) {
+                    try {
+                        session.close(CloseStatus.NORMAL.withReason("用戶在其他地方登入"));
+                    } catch (IOException e) {
+                        log.warn("關閉用戶 {} 的舊連線失敗", message.target(), e);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 轉送給其他節點；資料庫等無法使用時只影響其他節點，本節點照常送出
+     */
+    private void relay(ClusterMessage message) {
+        try {
+            clusterBus.broadcast(message);
+        } catch (RuntimeException e) {
+            log.warn("轉送訊息到其他節點失敗", e);
+        }
+    }
+
+    /**
+     * 登記用戶連線在本節點；用戶原本連在其他節點時，通知該節點關閉舊連線
+     */
+    private void claimInCluster(String userId) {
+        try {
+            String previousNode = clusterBus.claim(userId);
+            if (previousNode != null) {
+                clusterBus.send(previousNode, ClusterMessage.kick(userId));
+            }
+        } catch (RuntimeException e) {
+            log.warn("登記用戶 {} 在線狀態失敗", userId, e);
+        }
+    }
+
+    private boolean releaseInCluster(String userId) {
+        try {
+            return clusterBus.release(userId);
+        } catch (RuntimeException e) {
+            log.warn("移除用戶 {} 在線狀態失敗", userId, e);
+            return true;
+        }
+    }
+
+    private String ownerInCluster(String userId) {
+        try {
+            return clusterBus.ownerOf(userId);
+        } catch (RuntimeException e) {
+            log.warn("查詢用戶 {} 所在節點失敗", userId, e);
+            return null;
+        }
     }
 
     /**
-     * 獲取在線用戶列表
+     * 應用程式關閉時停止心跳與廣播執行緒
+     */
+    @PreDestroy
+    public void shutdown() {
+        heartbeatThread.interrupt();
+        broadcastExecutor.shutdown();
+    }
+
+    /**
+     * 送給多個連線的同一則訊息：JSON 已序列化，其他編碼在第一個使用該編碼的連線送出時才序列化，之後共用
+     */
+    private final class Frame {
+        private final Object message;// 原本的訊息物件；其他節點轉送來的訊息只有 JSON (null)
+        private final String json;
+        private final Map<WireEncoding, WebSocketMessage<?>> encoded = new ConcurrentHashMap<>(4);
+
+        Frame(Object message, String json) {
+            this.message = message;
+            this.json = json;
+        }
+
+        WebSocketMessage<?> encode(WireEncoding encoding) {
+            return encoded.computeIfAbsent(encoding, e -> {
+                if (e == WireEncoding.JSON) {
+                    return new TextMessage(json);
+                }
+                try {
+                    return e.encode(message != null ? message : objectMapper.readTree(json));
+                } catch (JsonProcessingException ex) {
+                    throw new IllegalStateException("訊息轉換編碼失敗", ex);
+                }
+            });
+        }
+    }
+
+    /**
+     * 連線的下次心跳檢查時間
+     */
+    private record HeartbeatCheck(String sessionId, long dueNanos) implements Delayed {
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(dueNanos, ((HeartbeatCheck) other).dueNanos);
+        }
+    }
+
+    /**
+     * 獲取在線用戶列表 (所有節點)
      */
     public Set<String> getOnlineUsers() {
-        return new ConcurrentSkipListSet<>(onlineUsers);
+        Set<String> users = new ConcurrentSkipListSet<>(onlineUsers);
+        try {
+            users.addAll(clusterBus.onlineUsers());
+        } catch (RuntimeException e) {
+            log.warn("查詢其他節點在線用戶失敗", e);
+        }
+        return users;
     }
 
     /**
-     * 獲取在線用戶數量 "沒用到"
+     * 獲取在線用戶數量 (所有節點)
      */
     public int getOnlineUserCount() {
-        return onlineUsers.size();
+        return getOnlineUsers().size();
+    }
+
+    /**
+     * 發送訊息給指定用戶（供外部調用）
+     *
+     * @param userId 用戶ID (identify 時送出的 userId，即登入帳號)
+     * @param type   訊息類型
+     * @param data   訊息內容
+     * @return 用戶不在線 (所有節點) 或發送失敗時回傳 false
+     */
+    public boolean sendToUser(String userId, String type, Object data) {
+        WebSocketSession session = userSessions.get(userId);
+        String ownerNode = session == null ? ownerInCluster(userId) : null;
+        if ((session == null || !session.isOpen()) && ownerNode == null) {
+            return false;
+        }
+        try {
+            CustomWebSocketMessage message = new CustomWebSocketMessage("system", type, data,
+                    System.currentTimeMillis());
+            if (session != null) {
+                sendMessage(session, message);
+            } else {
+                // 用戶連在其他節點，直接轉送給該節點
+                clusterBus.send(ownerNode, ClusterMessage.user(userId, objectMapper.writeValueAsString(message)));
+            }
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.warn("發送訊息給用戶 {} 失敗", userId, e);
+            return false;
+        }
     }
 
     /**
@@ -611,6 +1131,7 @@ class OnlineUsersMessage {
  * 3. 連接關閉流程
  * 
  * 連接斷開 → afterConnectionClosed → 清理會話 → 廣播下線通知
+ * 心跳逾時 → 清理會話 → 廣播下線通知 → 關閉連線 (之後的 afterConnectionClosed 不會重複廣播)
  * 
  * 訊息接收和廣播機制
  * 
@@ -647,22 +1168,30 @@ class OnlineUsersMessage {
  * - 檢測到重複登入時自動斷開舊連接
  * - 確保一個用戶只有一個活躍會話
  * 
+ * 4. 多節點部署 (websocket.cluster.mode=db)
+ * 
+ * - websocket_presence：用戶 ID → 連線所在節點，在線用戶列表合併所有存活節點
+ * - 廣播、主題訊息：本節點送出後寫入 websocket_outbox，其他節點輪詢後送給各自的連線
+ * - 私人訊息：目標用戶不在本節點時，只寫給持有該連線的節點
+ * - 在其他節點重新登入：通知原節點關閉舊連線 (KICK)，不廣播下線
+ * 
  * 自定義 JSON 通訊協議格式
  * 
  * 1. 客戶端請求格式
  * 
  * {
- * "action": "identify|subscribe|send|private|get_online_users|ping",
+ * "action": "identify|subscribe|unsubscribe|send|private|get_online_users|ping",
  * "userId": "user001",
  * "toUserId": "user002", // 私人訊息使用
- * "topic": "/topic/notifications", // 廣播訊息使用
- * "message": "content"
+ * "topic": "/topic/notifications", // 廣播訊息、訂閱使用 (訂閱可用 "/topic/machines/**" 萬用前綴)
+ * "message": "content",
+ * "encoding": "json|cbor|smile" // identify 使用，之後伺服器送出的訊息編碼 (cbor、smile 為二進位框架)
  * }
  * 
- * 2. 服務端回應格式
+ * 2. 服務端回應格式 (encoding 為 cbor、smile 時欄位相同)
  * 
  * {
- * "source": "system|broadcast|private",
+ * "source": "system|broadcast|private|主題 (例如 /topic/machines/12/status)",
  * "type": "connection|identified|notification|message|error|user-status",
  * "data": { ... },
  * "timestamp": 1234567890
@@ -0,0 +1,70 @@
+package com.project.employeeuser.handler;
+
+import java.io.UncheckedIOException;
+
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+
+/**
+ * 伺服器送給連線的訊息編碼，由用戶端在 identify 時以 "encoding" 選擇 (預設 json)
+ *
+ * json  文字框架，與原本相同
+ * cbor  二進位框架 (RFC 8949)，欄位與 JSON 相同，瀏覽器可用 cbor-x 等套件解碼
+ * smile 二進位框架 (Jackson Smile)，重複的欄位名稱與短字串以反向參照表示，列表類訊息較小
+ *
+ * 用戶端送出的請求仍為 JSON 文字。
+ */
+public enum WireEncoding {
+
+    JSON(new ObjectMapper()),
+    CBOR(new CBORMapper()),
+    SMILE(new SmileMapper());
+
+    private final ObjectMapper mapper;
+
+    WireEncoding(ObjectMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    /**
+     * 依名稱取得編碼 (不分大小寫)，空白時為 JSON
+     *
+     * @throws IllegalArgumentException 不支援的編碼
+     */
+    public static WireEncoding of(String name) {
+        if (name == null || name.isBlank()) {
+            return JSON;
+        }
+        for (WireEncoding encoding : values()) {
+            if (encoding.name().equalsIgnoreCase(name.trim())) {
+                return encoding;
+            }
+        }
+        throw new IllegalArgumentException("不支援的編碼: " + name);
+    }
+
+    /**
+     * 此編碼使用的 ObjectMapper (JSON 以外為二進位格式)
+     */
+    public ObjectMapper mapper() {
+        return mapper;
+    }
+
+    /**
+     * 把訊息序列化為 WebSocket 框架：JSON 為文字框架，其他為二進位框架
+     */
+    public WebSocketMessage<?> encode(Object message) {
+        try {
+            return this == JSON ? new TextMessage(mapper.writeValueAsString(message))
+                    : new BinaryMessage(mapper.writeValueAsBytes(message));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
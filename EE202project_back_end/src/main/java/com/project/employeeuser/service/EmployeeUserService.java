@@ -1,9 +1,11 @@
 package com.project.employeeuser.service;
 
+import com.project.core.security.PrincipalChangedEvent;
 import com.project.employeeuser.dao.EmployeeUserDAO;
 import com.project.employeeuser.model.EmployeeUser;
 import com.project.employeeuser.model.EmployeeType;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -22,6 +24,9 @@ public class EmployeeUserService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public List<EmployeeUser> getAllEmployeeUsers() {
         return employeeUserDAO.findAll();
     }
@@ -44,6 +49,7 @@ public class EmployeeUserService {
     public EmployeeUser updateEmployeeUser(Long id, EmployeeUser employeeUserDetails) {
         EmployeeUser employeeUser = employeeUserDAO.findById(id)
                 .orElseThrow(() -> new RuntimeException("EmployeeUser not found with id " + id));
+        eventPublisher.publishEvent(new PrincipalChangedEvent(employeeUser.getUsername()));
 
         employeeUser.setEmployeeNumber(employeeUserDetails.getEmployeeNumber());
         employeeUser.setFirstName(employeeUserDetails.getFirstName());
@@ -75,6 +81,7 @@ public class EmployeeUserService {
         EmployeeUser employeeUser = employeeUserDAO.findById(id)
                 .orElseThrow(() -> new RuntimeException("EmployeeUser not found with id " + id));
         employeeUserDAO.delete(employeeUser);
+        eventPublisher.publishEvent(new PrincipalChangedEvent(employeeUser.getUsername()));
     }
 
     public boolean existsByUsername(String username) {
@@ -111,6 +118,8 @@ public class EmployeeUserService {
         EmployeeUser employeeUser = employeeUserDAO.findById(id)
                 .orElseThrow(() -> new RuntimeException("EmployeeUser not found with id " + id));
 
+        eventPublisher.publishEvent(new PrincipalChangedEvent(employeeUser.getUsername()));
+
         // 只更新允許的個人資料欄位
         if (email != null) {
             employeeUser.setEmail(email);
@@ -144,6 +153,8 @@ public class EmployeeUserService {
         employeeUser.setPasswordHash(passwordEncoder.encode(newPassword));
         employeeUser.setUpdatedAt(LocalDateTime.now());
         employeeUserDAO.save(employeeUser);
+        // 密碼已變更，清除登入快取
+        eventPublisher.publishEvent(new PrincipalChangedEvent(employeeUser.getUsername()));
     }
 
     /**
@@ -165,5 +176,7 @@ public class EmployeeUserService {
         employeeUser.setPasswordHash(passwordEncoder.encode(newPassword));
         employeeUser.setUpdatedAt(LocalDateTime.now());
         employeeUserDAO.save(employeeUser);
+        // 密碼已變更，清除登入快取
+        eventPublisher.publishEvent(new PrincipalChangedEvent(employeeUser.getUsername()));
     }
 }
@@ -10,13 +10,19 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 
 @SuppressWarnings("serial")
 @Entity
-@Table(name = "machines")
+@Table(name = "machines", indexes = {
+        // 出廠編號前綴查詢 (serial_number LIKE 'SN10%') 走索引搜尋
+        @Index(name = "ix_machines_serial_number", columnList = "serial_number"),
+        // 狀態篩選 + 依機台ID排序分頁
+        @Index(name = "ix_machines_mstatus", columnList = "mstatus, machine_id")
+})
 public class MachinesBean implements Serializable {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
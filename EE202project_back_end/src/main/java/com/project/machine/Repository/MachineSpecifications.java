@@ -0,0 +1,75 @@
+package com.project.machine.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.project.machine.Bean.MachinesBean;
+
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+
+/**
+ * 機台查詢條件 (下推至 SQL 的 WHERE 子句)
+ */
+public final class MachineSpecifications {
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    private MachineSpecifications() {
+    }
+
+    /**
+     * 依狀態與關鍵字查詢機台，兩者皆可為空 (空值表示不篩選)
+     * 關鍵字比對: 機台名稱包含關鍵字、出廠編號以關鍵字開頭 (可走 serial_number 索引)、或機台ID完全相同
+     */
+    public static Specification<MachinesBean> search(String status, String keyword) {
+        return (root, query, cb) -> {
+            // 非 count 查詢時一併載入狀態，避免逐筆延遲載入 (N+1)
+            if (query.getResultType() != Long.class && query.getResultType() != long.class) {
+                root.fetch("statusCode", JoinType.LEFT);
+            }
+
+            List<Predicate> predicates = new ArrayList<>();
+            if (status != null && !status.isBlank()) {
+                predicates.add(cb.equal(root.get("statusCode").get("statusCode"), status.trim()));
+            }
+            if (keyword != null && !keyword.isBlank()) {
+                String escaped = escapeLike(keyword.trim());
+                List<Predicate> keywordPredicates = new ArrayList<>();
+                keywordPredicates.add(cb.like(root.get("machineName"), "%" + escaped + "%", LIKE_ESCAPE));
+                keywordPredicates.add(cb.like(root.get("serialNumber"), escaped + "%", LIKE_ESCAPE));
+                Integer machineId = parseId(keyword.trim());
+                if (machineId != null) {
+                    keywordPredicates.add(cb.equal(root.get("machineId"), machineId));
+                }
+                predicates.add(cb.or(keywordPredicates.toArray(new Predicate[0])));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    /**
+     * 跳脫 LIKE 萬用字元，讓使用者輸入的 % _ 以字面比對
+     */
+    static String escapeLike(String value) {
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '%' || c == '_' || c == '[' || c == LIKE_ESCAPE) {
+                sb.append(LIKE_ESCAPE);
+            }
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    private static Integer parseId(String value) {
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.project.machine.Repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -11,11 +12,15 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface MachinesRepository extends JpaRepository<MachinesBean, Integer> {
+public interface MachinesRepository extends JpaRepository<MachinesBean, Integer>, JpaSpecificationExecutor<MachinesBean> {
 
         // 依狀態查詢機器
         List<MachinesBean> findByStatusCode_StatusCode(String statusCode);
 
+        // 各狀態的機台數 [狀態代碼, 數量]，只在載入 MachineStatusUsage 時使用
+        @Query("SELECT m.statusCode.statusCode, COUNT(m) FROM MachinesBean m WHERE m.statusCode IS NOT NULL GROUP BY m.statusCode.statusCode")
+        List<Object[]> countByStatusCode();
+
         // 依出廠編號查詢（唯一）
         Optional<MachinesBean> findBySerialNumber(String serialNumber);
 
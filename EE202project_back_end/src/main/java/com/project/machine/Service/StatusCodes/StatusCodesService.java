@@ -1,19 +1,27 @@
 package com.project.machine.Service.StatusCodes;
 
+import com.project.core.cache.ReferenceDataCache;
 import com.project.machine.Bean.StatusCodesBean;
-import com.project.machine.Repository.StatusCodesRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
 
 @Service
 public class StatusCodesService {
 
     @Autowired
-    private StatusCodesRepository statusCodesRepository;
+    private ReferenceDataCache<String, StatusCodesBean> statusCodesCache;
 
+    // 依類型取得狀態代碼（由快取取得，不查詢資料庫）
     public List<StatusCodesBean> getStatusCodesByType(String type) {
-        return statusCodesRepository.findByStatusType(type);
+        List<StatusCodesBean> result = new ArrayList<>();
+        for (StatusCodesBean status : statusCodesCache.values()) {
+            if (type.equals(status.getStatusType())) {
+                result.add(status);
+            }
+        }
+        return result;
     }
 }
@@ -0,0 +1,13 @@
+package com.project.machine.Service.machine;
+
+/**
+ * 機台狀態已變更 (交易提交後推播給訂閱機台狀態的看板)
+ *
+ * @param machineId   機台ID
+ * @param machineName 機台名稱
+ * @param statusCode  新的狀態代碼 (例如 RUN、STOP)
+ * @param previousStatusCode 變更前的狀態代碼 (可能為 null)
+ */
+public record MachineStatusChangedEvent(int machineId, String machineName, String statusCode,
+                                        String previousStatusCode) {
+}
@@ -0,0 +1,92 @@
+package com.project.machine.Service.machine;
+
+import com.project.core.cache.ReferenceDataCache;
+import com.project.machine.Bean.StatusCodesBean;
+import com.project.machine.Repository.MachinesRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 各狀態目前使用中的機台數 (GET /api/machines/status-options 用)
+ * 啟動後第一次查詢時以 GROUP BY 載入一次，之後由本節點的新增、刪除與 {@link MachineStatusChangedEvent} 增減；
+ * 查詢時只走訪已預熱的狀態代碼快取 (k 個代碼)，不再掃描 machines 資料表。
+ * 其他節點或直接以 SQL 修改的機台不會即時反映，每隔 machine.status-usage.refresh-ms (預設 5 分鐘) 重新載入一次校正。
+ */
+@Component
+public class MachineStatusUsage {
+
+    private final MachinesRepository machinesRepository;
+    private final ReferenceDataCache<String, StatusCodesBean> statusCodesCache;
+
+    private volatile Map<String, Integer> counts;
+
+    public MachineStatusUsage(MachinesRepository machinesRepository,
+                              ReferenceDataCache<String, StatusCodesBean> statusCodesCache) {
+        this.machinesRepository = machinesRepository;
+        this.statusCodesCache = statusCodesCache;
+    }
+
+    /**
+     * 目前有機台使用的狀態代碼 (依代碼排序)
+     */
+    public List<String> statusOptions() {
+        Map<String, Integer> current = current();
+        return statusCodesCache.values().stream()
+                .map(StatusCodesBean::getStatusCode)
+                .filter(code -> current.getOrDefault(code, 0) > 0)
+                .sorted()
+                .toList();
+    }
+
+    /**
+     * 重新從資料庫載入各狀態的機台數
+     */
+    @Scheduled(fixedDelayString = "${machine.status-usage.refresh-ms:300000}",
+            initialDelayString = "${machine.status-usage.refresh-ms:300000}")
+    public void refresh() {
+        Map<String, Integer> loaded = new ConcurrentHashMap<>();
+        for (Object[] row : machinesRepository.countByStatusCode()) {
+            loaded.put((String) row[0], ((Number) row[1]).intValue());
+        }
+        counts = loaded;
+    }
+
+    // 新增機台後 (狀態為 null 的不列入)
+    void added(String statusCode) {
+        adjust(statusCode, 1);
+    }
+
+    // 刪除機台後
+    void removed(String statusCode) {
+        adjust(statusCode, -1);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMachineStatusChanged(MachineStatusChangedEvent event) {
+        adjust(event.previousStatusCode(), -1);
+        adjust(event.statusCode(), 1);
+    }
+
+    private void adjust(String statusCode, int delta) {
+        if (statusCode == null) return;
+        current().compute(statusCode, (code, count) -> Math.max(0, (count == null ? 0 : count) + delta));
+    }
+
+    private Map<String, Integer> current() {
+        Map<String, Integer> current = counts;
+        if (current == null) {
+            synchronized (this) {
+                if (counts == null) {
+                    refresh();
+                }
+                current = counts;
+            }
+        }
+        return current;
+    }
+}
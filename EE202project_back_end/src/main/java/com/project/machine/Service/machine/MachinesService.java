@@ -1,25 +1,41 @@
 package com.project.machine.Service.machine;
 
+import com.project.core.cache.ReferenceDataCache;
 import com.project.machine.Bean.MachinesBean;
 import com.project.machine.Bean.StatusCodesBean;
+import com.project.machine.Repository.MachineSpecifications;
 import com.project.machine.Repository.MachinesRepository;
-import com.project.machine.Repository.StatusCodesRepository;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class MachinesService {
 
+    // 允許排序的欄位 (避免任意欄位名稱造成查詢錯誤)
+    public static final Set<String> SORTABLE_FIELDS = Set.of(
+            "machineId", "machineName", "serialNumber", "machineLocation", "machinePurchaseDate");
+
     @Autowired
     private MachinesRepository machinesRepository;
 
     @Autowired
-    private StatusCodesRepository statusCodesRepository;
+    private ReferenceDataCache<String, StatusCodesBean> statusCodesCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private MachineStatusUsage machineStatusUsage;
 
     // 查詢所有機台
     public List<MachinesBean> findAllMachines() {
@@ -43,12 +59,13 @@ public class MachinesService {
 
         // Set a default status for the new machine
         if (machine.getStatusCode() == null) {
-            StatusCodesBean defaultStatus = statusCodesRepository.findById("STOP")
+            StatusCodesBean defaultStatus = statusCodesCache.get("STOP")
                     .orElseThrow(() -> new IllegalStateException("Default status 'STOP' not found in database"));
             machine.setStatusCode(defaultStatus);
         }
 
         machinesRepository.save(machine);
+        machineStatusUsage.added(statusCodeOf(machine));
     }
 
     // 刪除機台
@@ -62,6 +79,7 @@ public class MachinesService {
         }
 
         machinesRepository.deleteById(machineId);
+        machineStatusUsage.removed(statusCodeOf(machine));
     }
 
     // 更新機台
@@ -106,6 +124,7 @@ public class MachinesService {
             existingMachine.setMachineRemark(machine.getMachineRemark());
         }
         // 只有當新的 statusCode 不為 null 時才更新
+        String oldStatus = statusCodeOf(existingMachine);
         if (machine.getStatusCode() != null) {
             existingMachine.setStatusCode(machine.getStatusCode());
         }
@@ -113,6 +132,7 @@ public class MachinesService {
         // 移除 validateMachine(machine); 因為現在是部分更新，且部分欄位可能為空
         // 如果需要對更新後的整體資料進行驗證，可以在這裡添加新的驗證邏輯
         machinesRepository.save(existingMachine);
+        publishStatusChange(existingMachine, oldStatus);
     }
 
     // 依狀態查詢機台
@@ -120,6 +140,11 @@ public class MachinesService {
         return machinesRepository.findByStatusCode_StatusCode(status);
     }
 
+    // 查詢機台目前使用中的狀態（不重複，由記憶體中的使用數判斷，不掃描機台資料表）
+    public List<String> findMachineStatusOptions() {
+        return machineStatusUsage.statusOptions();
+    }
+
     // 依出廠編號查詢機台
     public MachinesBean findMachineBySerialNumber(String serialNumber) {
         return machinesRepository.findBySerialNumber(serialNumber).orElse(null);
@@ -130,6 +155,21 @@ public class MachinesService {
         return machinesRepository.findByMachineNameContainingOrSerialNumberContainingOrderByMachineId(keyword);
     }
 
+    // 依狀態與關鍵字查詢機台（條件於資料庫端篩選，不分頁，依機台ID排序）
+    public List<MachinesBean> findMachines(String status, String keyword) {
+        return machinesRepository.findAll(MachineSpecifications.search(status, keyword), Sort.by("machineId"));
+    }
+
+    // 依狀態與關鍵字分頁查詢機台
+    public Page<MachinesBean> searchMachines(String status, String keyword, Pageable pageable) {
+        for (Sort.Order order : pageable.getSort()) {
+            if (!SORTABLE_FIELDS.contains(order.getProperty())) {
+                throw new IllegalArgumentException("不支援的排序欄位: " + order.getProperty());
+            }
+        }
+        return machinesRepository.findAll(MachineSpecifications.search(status, keyword), pageable);
+    }
+
     // 驗證機台資料
     private void validateMachine(MachinesBean machine) {
         if (machine.getMachineName() == null || machine.getMachineName().trim().isEmpty()) {
@@ -144,10 +184,25 @@ public class MachinesService {
         MachinesBean machine = machinesRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("找不到該機台資料"));
 
-        StatusCodesBean status = statusCodesRepository.findById(newStatus)
+        StatusCodesBean status = statusCodesCache.get(newStatus)
                 .orElseThrow(() -> new EntityNotFoundException("找不到該狀態"));
 
+        String oldStatus = statusCodeOf(machine);
         machine.setStatusCode(status);
         machinesRepository.save(machine);
+        publishStatusChange(machine, oldStatus);
+    }
+
+    private static String statusCodeOf(MachinesBean machine) {
+        return machine.getStatusCode() != null ? machine.getStatusCode().getStatusCode() : null;
+    }
+
+    // 狀態有變更時通知訂閱機台狀態的看板
+    private void publishStatusChange(MachinesBean machine, String oldStatus) {
+        String newStatus = statusCodeOf(machine);
+        if (newStatus != null && !newStatus.equals(oldStatus)) {
+            eventPublisher.publishEvent(new MachineStatusChangedEvent(machine.getMachineId(),
+                    machine.getMachineName(), newStatus, oldStatus));
+        }
     }
 }
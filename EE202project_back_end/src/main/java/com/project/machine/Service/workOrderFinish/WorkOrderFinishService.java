@@ -8,8 +8,10 @@ import com.project.workorder.dao.WorkOrderRepository;
 import com.project.workorder.model.WorkOrder;
 import com.project.depot.dao.InventoryTransactionRepository;
 import com.project.depot.dao.MaterialRepository;
+import com.project.depot.service.StockMutationService;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -22,16 +24,19 @@ public class WorkOrderFinishService {
     private final WorkOrderRepository workOrderRepository;
     private final InventoryTransactionRepository inventoryTransactionRepository;
     private final MaterialRepository materialRepository;
+    private final StockMutationService stockMutationService;
 
     public WorkOrderFinishService(
             WorkOrderFinishRepository finishRepository,
             WorkOrderRepository workOrderRepository,
             InventoryTransactionRepository inventoryTransactionRepository,
-            MaterialRepository materialRepository) {
+            MaterialRepository materialRepository,
+            StockMutationService stockMutationService) {
         this.finishRepository = finishRepository;
         this.workOrderRepository = workOrderRepository;
         this.inventoryTransactionRepository = inventoryTransactionRepository;
         this.materialRepository = materialRepository;
+        this.stockMutationService = stockMutationService;
     }
 
     /**
@@ -41,6 +46,7 @@ public class WorkOrderFinishService {
      * @return 新增成功的回報物件
      * @throws ResourceNotFoundException 工單不存在時拋出
      */
+    @Transactional
     public WorkOderFinishBean createReport(WorkOderFinishBean report) {
         if (report.getWoId() == null) {
             throw new IllegalArgumentException("工單資訊不可為空");
@@ -146,6 +152,11 @@ public class WorkOrderFinishService {
 
     public void createInventoryTransactionForFinish(Long materialId, int successQuantity, Long woId) {
         Material material = materialRepository.findById(materialId).orElseThrow();
+        // 更新成品庫存 (資料庫端原子加總)；失敗時拋出例外，回報與交易紀錄一併回滾
+        if (!stockMutationService.applyDelta(materialId, BigDecimal.valueOf(successQuantity))) {
+            throw new IllegalStateException("成品 " + material.getMaterialName() + " 庫存更新失敗");
+        }
+
         InventoryTransaction transaction = new InventoryTransaction();
         transaction.setMaterial(material); // 關聯物料物件
         transaction.setTransactionType("PRODUCTION_INBOUND"); // 生產入庫
@@ -154,10 +165,6 @@ public class WorkOrderFinishService {
         transaction.setReferenceTable("work_orders");
         transaction.setReferenceId(woId);
         inventoryTransactionRepository.save(transaction);
-
-        // 更新成品庫存
-        material.setStockCurrent(material.getStockCurrent().add(BigDecimal.valueOf(successQuantity)));
-        materialRepository.save(material);
     }
 
 }
@@ -0,0 +1,20 @@
+package com.project.machine.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.project.core.cache.ReferenceDataCache;
+import com.project.machine.Bean.StatusCodesBean;
+import com.project.machine.Repository.StatusCodesRepository;
+
+/**
+ * 狀態代碼快取 (status_codes 為少量且幾乎不變的代碼表)
+ */
+@Configuration
+public class StatusCodesCacheConfig {
+
+    @Bean
+    public ReferenceDataCache<String, StatusCodesBean> statusCodesCache(StatusCodesRepository statusCodesRepository) {
+        return new ReferenceDataCache<>("statusCodes", statusCodesRepository::findAll, StatusCodesBean::getStatusCode);
+    }
+}
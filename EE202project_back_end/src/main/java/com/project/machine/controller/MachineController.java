@@ -2,11 +2,12 @@ package com.project.machine.controller;
 
 import com.project.machine.Bean.MachinesBean;
 import com.project.machine.Service.machine.MachinesService;
+import com.project.machine.utils.PageUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -18,6 +19,8 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 @RequestMapping("/api/machines")
 public class MachineController {
 
+	private static final int MAX_PAGE_SIZE = 200;
+
 	@Autowired
 	private MachinesService machinesService;
 
@@ -31,29 +34,35 @@ public class MachineController {
 			// 搜尋狀態參數(前端會是select一格)
 			@RequestParam(required = false) String statusFilter) {
 
-		List<MachinesBean> machinesList;
-        if (statusFilter != null && !statusFilter.isEmpty()) {
-            machinesList = machinesService.findMachinesByStatus(statusFilter);
-        } else {
-            machinesList = machinesService.findAllMachines();
-        }
-
-		if (search != null && !search.trim().isEmpty()) {
-			String keyword = search.trim().toLowerCase();
-			List<MachinesBean> filteredList = new ArrayList<>();
-			for (MachinesBean m : machinesList) {
-				if (m.getMachineName().toLowerCase().contains(keyword)
-						|| m.getSerialNumber().toLowerCase().contains(keyword)
-						|| String.valueOf(m.getMachineId()).contains(keyword)) {
-					filteredList.add(m);
-				}
-			}
-			machinesList = filteredList;
-		}
+		// 狀態與關鍵字條件皆於資料庫端篩選
+		List<MachinesBean> machinesList = machinesService.findMachines(statusFilter, search);
 
 		return ResponseEntity.ok(machinesList);
 	}
 
+	// 分頁查詢機台（狀態 + 關鍵字，可排序）
+	// GET網址http://localhost:8080/api/machines/search?keyword=SN10&status=RUN&page=0&size=20&sortField=machineName&asc=true
+	@Operation(summary = "分頁查詢機台", description = "依狀態與關鍵字（機台名稱包含、出廠編號開頭、機台ID）分頁查詢機台")
+	@GetMapping("/search")
+	public ResponseEntity<?> searchMachines(
+			@RequestParam(required = false) String status,
+			@RequestParam(required = false) String keyword,
+			@RequestParam(defaultValue = "0") int page,
+			@RequestParam(defaultValue = "20") int size,
+			@RequestParam(defaultValue = "machineId") String sortField,
+			@RequestParam(defaultValue = "true") boolean asc) {
+		if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+			return ResponseEntity.badRequest().body("分頁參數錯誤，每頁筆數需介於 1 到 " + MAX_PAGE_SIZE);
+		}
+		try {
+			Page<MachinesBean> result = machinesService.searchMachines(status, keyword,
+					PageUtil.createPageable(page, size, sortField, asc));
+			return ResponseEntity.ok(result);
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		}
+	}
+
 	// 查詢單筆機台詳細資料
 	// GET網址http://localhost:8080/api/machines/3
 	@GetMapping("/{id}")
@@ -122,17 +131,10 @@ public class MachineController {
 		}
 	}
 
-	// 取得所有機台狀態（不重複）
+	// 取得所有機台狀態（不重複，只含目前有機台使用的狀態）
 	@GetMapping("/status-options")
 	public ResponseEntity<List<String>> getAllStatusOptions() {
-		List<MachinesBean> machinesList = machinesService.findAllMachines();
-		List<String> statusList = new ArrayList<>();
-		for (MachinesBean m : machinesList) {
-			if (m.getStatusCode() != null && m.getStatusCode().getStatusCode() != null && !statusList.contains(m.getStatusCode().getStatusCode())) {
-				statusList.add(m.getStatusCode().getStatusCode());
-			}
-		}
-		return ResponseEntity.ok(statusList);
+		return ResponseEntity.ok(machinesService.findMachineStatusOptions());
 	}
 
 	// 更新機台狀態
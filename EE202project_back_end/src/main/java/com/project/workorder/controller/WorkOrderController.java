@@ -8,6 +8,9 @@ import com.project.workorder.dto.StatusUpdateRequest;
 import com.project.workorder.dto.WorkOrderCreateRequest;
 import com.project.workorder.dto.WorkOrderDto;
 import com.project.workorder.dto.WorkOrderMaterialDto;
+import com.project.workorder.dto.MrpNetRequirementDto;
+import com.project.workorder.dto.MrpRunResponse;
+import com.project.workorder.service.MrpService;
 import com.project.workorder.service.WorkOrderService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,6 +43,9 @@ public class WorkOrderController {
     @Autowired
     private WorkOrderService workOrderService;
 
+    @Autowired
+    private MrpService mrpService;
+
     /**
      * 獲取所有工單列表。
      * 
@@ -51,9 +57,11 @@ public class WorkOrderController {
             @RequestParam(required = false) String woNumber,
             @RequestParam(required = false) String materialName,
             @RequestParam(required = false) String status,
+            @Parameter(description = "是否包含機台資訊 (false 為輕量列表模式)") @RequestParam(defaultValue = "true") boolean includeMachines,
             Pageable pageable) {
         logger.info("請求獲取所有工單列表");
-        Page<WorkOrderDto> workOrders = workOrderService.findAllWorkOrders(woNumber, materialName, status, pageable);
+        Page<WorkOrderDto> workOrders = workOrderService.findAllWorkOrders(woNumber, materialName, status,
+                includeMachines, pageable);
         return ResponseEntity.ok(workOrders);
     }
 
@@ -366,4 +374,31 @@ public class WorkOrderController {
         List<com.project.workorder.dto.WorkOrderMaterialDto> bom = workOrderService.getWorkOrderBOM(id);
         return ResponseEntity.ok(bom);
     }
-}
\ No newline at end of file
+
+    /**
+     * 分頁查詢所有未完工工單的物料淨需求。
+     * 
+     * @param shortageOnly 只查詢淨需求大於 0 的物料
+     * @param pageable     分頁資訊
+     * @return 淨需求分頁結果 (依淨需求遞減排序)
+     */
+    @Operation(summary = "查詢MRP淨需求", description = "依所有未完工工單展開BOM後的毛需求與庫存計算各物料淨需求")
+    @GetMapping("/mrp/net-requirements")
+    public ResponseEntity<Page<MrpNetRequirementDto>> getMrpNetRequirements(
+            @Parameter(description = "只查詢有缺料的物料") @RequestParam(defaultValue = "false") boolean shortageOnly,
+            Pageable pageable) {
+        return ResponseEntity.ok(mrpService.findNetRequirements(shortageOnly, pageable));
+    }
+
+    /**
+     * 立即重新計算全部工單的物料淨需求。
+     * 
+     * @return 計算結果
+     */
+    @Operation(summary = "重新計算MRP", description = "重新展開所有未完工工單並重建淨需求 (排程每晚也會執行一次)")
+    @PostMapping("/mrp/recompute")
+    public ResponseEntity<MrpRunResponse> recomputeMrp() {
+        logger.info("請求重新計算MRP淨需求");
+        return ResponseEntity.ok(mrpService.recomputeAll());
+    }
+}
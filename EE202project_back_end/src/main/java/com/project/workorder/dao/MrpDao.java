@@ -0,0 +1,192 @@
+package com.project.workorder.dao;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.project.core.utils.SqlInClause;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 工單 - MRP 淨需求 DAO
+ * 對應資料表: mrp_work_order_demands、mrp_net_requirements
+ * 每張未完工工單展開後的毛需求存在 mrp_work_order_demands，
+ * 淨需求再以集合式 SQL 從毛需求與 core_materials 的庫存欄位彙總，不經過 JPA 實體。
+ */
+@Repository
+public class MrpDao {
+
+    /**
+     * 計入毛需求的工單狀態 (未執行、進行中)；已完成、已取消的工單不計入
+     */
+    private static final String OPEN_STATUSES = "('PENDING', 'IN_PROGRESS')";
+
+    private static final String OPEN_WORK_ORDERS = "SELECT wo_id, material_id, "
+            + "required_quantity - COALESCE(successful_quantity, 0) AS remaining_quantity "
+            + "FROM outbound_work_orders WHERE status IN " + OPEN_STATUSES + " "
+            + "AND required_quantity - COALESCE(successful_quantity, 0) > 0";
+
+    /**
+     * 可用量 = 現有庫存 - 已保留 + 在途
+     */
+    private static final String AVAILABLE = "COALESCE(m.stock_current, 0) - COALESCE(m.stock_reserved, 0) "
+            + "+ COALESCE(m.stock_in_shipping, 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public MrpDao(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * 未完工且尚有未生產數量的工單
+     *
+     * @param remainingQuantity 需求數量 - 已成功生產數量
+     */
+    public record OpenWorkOrder(Long woId, Long productMaterialId, BigDecimal remainingQuantity) {
+    }
+
+    /**
+     * 某工單對某物料的毛需求
+     */
+    public record Demand(Long woId, Long materialId, BigDecimal grossQuantity) {
+    }
+
+    /**
+     * 某物料的淨需求 (含物料名稱與庫存欄位)
+     */
+    public record NetRequirementRow(Long materialId, String materialName, BigDecimal grossRequirement,
+            BigDecimal availableQuantity, BigDecimal safetyStock, BigDecimal netRequirement,
+            boolean belowReorderLevel, int openWorkOrders, LocalDateTime computedAt) {
+    }
+
+    /**
+     * 查詢所有未完工工單
+     */
+    public List<OpenWorkOrder> findOpenWorkOrders() {
+        return jdbcTemplate.query(OPEN_WORK_ORDERS, (rs, rowNum) -> new OpenWorkOrder(rs.getLong("wo_id"),
+                rs.getLong("material_id"), rs.getBigDecimal("remaining_quantity")));
+    }
+
+    /**
+     * 查詢指定工單中仍未完工的工單 (已完工、已取消或已刪除的工單不會回傳)
+     */
+    public List<OpenWorkOrder> findOpenWorkOrders(Collection<Long> woIds) {
+        List<OpenWorkOrder> rows = new ArrayList<>();
+        for (List<Long> chunk : SqlInClause.chunks(woIds)) {
+            rows.addAll(jdbcTemplate.query(
+                    OPEN_WORK_ORDERS + " AND wo_id IN (" + SqlInClause.placeholders(chunk) + ")",
+                    (rs, rowNum) -> new OpenWorkOrder(rs.getLong("wo_id"), rs.getLong("material_id"),
+                            rs.getBigDecimal("remaining_quantity")),
+                    chunk.toArray()));
+        }
+        return rows;
+    }
+
+    /**
+     * 查詢 BOM 變更會影響的工單: 生產該物料的未完工工單，以及毛需求中含有該物料 (即該物料為其半成品) 的工單
+     */
+    public Set<Long> findWorkOrderIdsAffectedByMaterials(Collection<Long> materialIds) {
+        Set<Long> woIds = new LinkedHashSet<>();
+        for (List<Long> chunk : SqlInClause.chunks(materialIds)) {
+            String in = SqlInClause.placeholders(chunk);
+            Object[] args = new Object[chunk.size() * 2];
+            for (int i = 0; i < chunk.size(); i++) {
+                args[i] = chunk.get(i);
+                args[chunk.size() + i] = chunk.get(i);
+            }
+            woIds.addAll(jdbcTemplate.queryForList("SELECT wo_id FROM outbound_work_orders "
+                    + "WHERE status IN " + OPEN_STATUSES + " AND material_id IN (" + in + ") "
+                    + "UNION SELECT wo_id FROM mrp_work_order_demands WHERE material_id IN (" + in + ")",
+                    Long.class, args));
+        }
+        return woIds;
+    }
+
+    /**
+     * 刪除全部毛需求
+     */
+    public void deleteAllDemands() {
+        jdbcTemplate.update("DELETE FROM mrp_work_order_demands");
+    }
+
+    /**
+     * 刪除指定工單的毛需求
+     */
+    public void deleteDemands(Collection<Long> woIds) {
+        for (List<Long> chunk : SqlInClause.chunks(woIds)) {
+            jdbcTemplate.update("DELETE FROM mrp_work_order_demands WHERE wo_id IN ("
+                    + SqlInClause.placeholders(chunk) + ")", chunk.toArray());
+        }
+    }
+
+    /**
+     * 批次新增毛需求
+     */
+    public void insertDemands(List<Demand> demands, LocalDateTime computedAt) {
+        Timestamp now = Timestamp.valueOf(computedAt);
+        jdbcTemplate.batchUpdate("INSERT INTO mrp_work_order_demands (wo_id, material_id, gross_quantity, "
+                + "computed_at) VALUES (?, ?, ?, ?)", demands, SqlInClause.BATCH_SIZE, (ps, demand) -> {
+                    ps.setLong(1, demand.woId());
+                    ps.setLong(2, demand.materialId());
+                    ps.setBigDecimal(3, demand.grossQuantity());
+                    ps.setTimestamp(4, now);
+                });
+    }
+
+    /**
+     * 由毛需求與目前庫存重建全部淨需求。
+     * 淨需求 = max(0, 毛需求 + 安全庫存 - 可用量)；可用量扣除毛需求後低於再訂購點時標記 below_reorder_level。
+     *
+     * @return 淨需求筆數 (有毛需求的物料數)
+     */
+    public int rebuildNetRequirements(LocalDateTime computedAt) {
+        jdbcTemplate.update("DELETE FROM mrp_net_requirements");
+        return jdbcTemplate.update("INSERT INTO mrp_net_requirements (material_id, gross_requirement, "
+                + "available_quantity, safety_stock, net_requirement, below_reorder_level, open_work_orders, "
+                + "computed_at) "
+                + "SELECT g.material_id, g.gross, " + AVAILABLE + ", COALESCE(m.safety_stock, 0), "
+                + "CASE WHEN g.gross + COALESCE(m.safety_stock, 0) - (" + AVAILABLE + ") > 0 "
+                + "THEN g.gross + COALESCE(m.safety_stock, 0) - (" + AVAILABLE + ") ELSE 0 END, "
+                + "CASE WHEN " + AVAILABLE + " - g.gross < COALESCE(m.reorder_level, 0) THEN 1 ELSE 0 END, "
+                + "g.work_orders, ? "
+                + "FROM (SELECT material_id, SUM(gross_quantity) AS gross, COUNT(*) AS work_orders "
+                + "FROM mrp_work_order_demands GROUP BY material_id) g "
+                + "JOIN core_materials m ON m.material_id = g.material_id",
+                Timestamp.valueOf(computedAt));
+    }
+
+    /**
+     * 分頁查詢淨需求，依淨需求遞減、物料ID遞增排序
+     *
+     * @param shortageOnly 只查詢淨需求大於 0 的物料
+     */
+    public List<NetRequirementRow> findNetRequirements(boolean shortageOnly, long offset, int limit) {
+        return jdbcTemplate.query("SELECT r.*, m.material_name FROM mrp_net_requirements r "
+                + "JOIN core_materials m ON m.material_id = r.material_id"
+                + (shortageOnly ? " WHERE r.net_requirement > 0" : "")
+                + " ORDER BY r.net_requirement DESC, r.material_id OFFSET ? ROWS FETCH NEXT ? ROWS ONLY",
+                (rs, rowNum) -> new NetRequirementRow(rs.getLong("material_id"), rs.getString("material_name"),
+                        rs.getBigDecimal("gross_requirement"), rs.getBigDecimal("available_quantity"),
+                        rs.getBigDecimal("safety_stock"), rs.getBigDecimal("net_requirement"),
+                        rs.getBoolean("below_reorder_level"), rs.getInt("open_work_orders"),
+                        rs.getTimestamp("computed_at").toLocalDateTime()),
+                offset, limit);
+    }
+
+    /**
+     * 淨需求筆數
+     */
+    public long countNetRequirements(boolean shortageOnly) {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM mrp_net_requirements"
+                + (shortageOnly ? " WHERE net_requirement > 0" : ""), Long.class);
+        return count != null ? count : 0L;
+    }
+}
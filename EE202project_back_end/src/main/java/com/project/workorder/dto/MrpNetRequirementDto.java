@@ -0,0 +1,62 @@
+package com.project.workorder.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * MRP 單一物料的淨需求 (DTO)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MrpNetRequirementDto {
+
+    /**
+     * 物料ID
+     */
+    private Long materialId;
+
+    /**
+     * 物料名稱
+     */
+    private String materialName;
+
+    /**
+     * 所有未完工工單展開後的毛需求合計
+     */
+    private BigDecimal grossRequirement;
+
+    /**
+     * 可用量 (現有庫存 - 已保留 + 在途)
+     */
+    private BigDecimal availableQuantity;
+
+    /**
+     * 安全庫存
+     */
+    private BigDecimal safetyStock;
+
+    /**
+     * 淨需求 = max(0, 毛需求 + 安全庫存 - 可用量)
+     */
+    private BigDecimal netRequirement;
+
+    /**
+     * 可用量扣除毛需求後是否低於再訂購點
+     */
+    private boolean belowReorderLevel;
+
+    /**
+     * 需要此物料的未完工工單數
+     */
+    private int openWorkOrders;
+
+    /**
+     * 計算時間
+     */
+    private LocalDateTime computedAt;
+}
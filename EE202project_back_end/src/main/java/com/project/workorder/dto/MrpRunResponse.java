@@ -0,0 +1,49 @@
+package com.project.workorder.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * MRP 重新計算結果 (DTO)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MrpRunResponse {
+
+    /**
+     * 是否為全部重算 (false 為只重算有異動的工單)
+     */
+    private boolean full;
+
+    /**
+     * 本次重新展開的工單數
+     */
+    private int workOrders;
+
+    /**
+     * 本次展開的成品種類數 (相同成品只展開一次)
+     */
+    private int products;
+
+    /**
+     * 因 BOM 循環參照而略過的成品數
+     */
+    private int skippedProducts;
+
+    /**
+     * 寫入的毛需求筆數
+     */
+    private int demandRows;
+
+    /**
+     * 重建後的淨需求物料數
+     */
+    private int materials;
+
+    /**
+     * 耗時 (毫秒)
+     */
+    private long elapsedMillis;
+}
@@ -0,0 +1,38 @@
+package com.project.workorder.service;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import com.project.workorder.dto.MrpNetRequirementDto;
+import com.project.workorder.dto.MrpRunResponse;
+
+/**
+ * MRP 淨需求服務介面
+ * 將所有未完工工單的 BOM 展開為物料毛需求，再依庫存欄位計算各物料的淨需求。
+ */
+public interface MrpService {
+
+    /**
+     * 重新展開所有未完工工單並重建淨需求。
+     *
+     * @return 計算結果
+     */
+    MrpRunResponse recomputeAll();
+
+    /**
+     * 只重新展開上次計算後有異動的工單 (含 BOM 異動影響的工單)，並以目前庫存重建淨需求。
+     * 其他重算正在進行時直接略過，異動留待下次處理。
+     *
+     * @return 計算結果
+     */
+    MrpRunResponse processPendingChanges();
+
+    /**
+     * 分頁查詢淨需求，依淨需求遞減排序。
+     *
+     * @param shortageOnly 只查詢淨需求大於 0 的物料
+     * @param pageable     分頁資訊 (排序欄位不適用)
+     * @return 淨需求分頁結果
+     */
+    Page<MrpNetRequirementDto> findNetRequirements(boolean shortageOnly, Pageable pageable);
+}
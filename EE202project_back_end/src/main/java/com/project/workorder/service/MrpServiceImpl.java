@@ -0,0 +1,267 @@
+package com.project.workorder.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.project.bom.exception.BomCycleException;
+import com.project.bom.service.BomChangedEvent;
+import com.project.bom.service.BomExplosionService;
+import com.project.depot.service.StockChangedEvent;
+import com.project.workorder.dao.MrpDao;
+import com.project.workorder.dao.MrpDao.Demand;
+import com.project.workorder.dao.MrpDao.OpenWorkOrder;
+import com.project.workorder.dto.MrpNetRequirementDto;
+import com.project.workorder.dto.MrpRunResponse;
+
+/**
+ * MRP 淨需求服務實作類別
+ * <p>
+ * 1. 相同成品的工單只展開一次 (每 1 單位的毛需求)，再乘上各工單未生產數量。
+ * 2. 成品分段後以虛擬執行緒平行展開；段數上限 {@link #MAX_PARALLEL_TASKS}，避免同時占用過多資料庫連線。
+ * 3. 工單與 BOM 異動在交易提交後只記錄為待重算，由排程批次處理，連續異動只重算一次；
+ * 展開在交易外進行，只有寫入毛需求與重建淨需求在同一交易內。
+ * 4. 只有庫存異動時不展開，只重建淨需求；沒有任何待處理異動時直接略過。
+ */
+@Service
+public class MrpServiceImpl implements MrpService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MrpServiceImpl.class);
+
+    /**
+     * 同時展開的工作數上限 (需小於資料庫連線池大小)
+     */
+    static final int MAX_PARALLEL_TASKS = 8;
+
+    /**
+     * 每個工作至少展開的成品數
+     */
+    static final int MIN_PRODUCTS_PER_TASK = 20;
+
+    private final MrpDao mrpDao;
+    private final BomExplosionService bomExplosionService;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * 同一時間只允許一個重算寫入毛需求
+     */
+    private final ReentrantLock runLock = new ReentrantLock();
+
+    private final Set<Long> pendingWorkOrders = ConcurrentHashMap.newKeySet();
+    private final Set<Long> pendingBomParents = ConcurrentHashMap.newKeySet();
+    private volatile boolean fullRecomputePending;
+    private volatile boolean stockChangePending;
+
+    private record Explosion(List<Demand> demands, int products, int skippedProducts) {
+    }
+
+    public MrpServiceImpl(MrpDao mrpDao, BomExplosionService bomExplosionService,
+            PlatformTransactionManager transactionManager) {
+        this.mrpDao = mrpDao;
+        this.bomExplosionService = bomExplosionService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public MrpRunResponse recomputeAll() {
+        runLock.lock();
+        try {
+            long start = System.nanoTime();
+            // 在讀取工單前清除待重算記錄，執行期間提交的異動留給下一次增量重算
+            fullRecomputePending = false;
+            stockChangePending = false;
+            pendingWorkOrders.clear();
+            pendingBomParents.clear();
+
+            LocalDateTime now = LocalDateTime.now();
+            List<OpenWorkOrder> workOrders = mrpDao.findOpenWorkOrders();
+            Explosion explosion = explode(workOrders, now);
+            Integer materials = transactionTemplate.execute(status -> {
+                mrpDao.deleteAllDemands();
+                mrpDao.insertDemands(explosion.demands(), now);
+                return mrpDao.rebuildNetRequirements(now);
+            });
+
+            MrpRunResponse response = new MrpRunResponse(true, workOrders.size(), explosion.products(),
+                    explosion.skippedProducts(), explosion.demands().size(), materials != null ? materials : 0,
+                    (System.nanoTime() - start) / 1_000_000);
+            logger.info("MRP 全部重算完成: {}", response);
+            return response;
+        } finally {
+            runLock.unlock();
+        }
+    }
+
+    @Override
+    public MrpRunResponse processPendingChanges() {
+        if (!runLock.tryLock()) {
+            logger.debug("MRP 重算進行中，本次增量重算略過");
+            return new MrpRunResponse(false, 0, 0, 0, 0, 0, 0);
+        }
+        try {
+            if (fullRecomputePending) {
+                return recomputeAll();
+            }
+            long start = System.nanoTime();
+            Set<Long> woIds = drain(pendingWorkOrders);
+            Set<Long> bomParents = drain(pendingBomParents);
+            boolean stockChanged = stockChangePending;
+            if (woIds.isEmpty() && bomParents.isEmpty() && !stockChanged) {
+                return new MrpRunResponse(false, 0, 0, 0, 0, 0, 0);
+            }
+            // 在重建前清除，重建期間提交的庫存異動留給下一次
+            stockChangePending = false;
+            try {
+                if (!bomParents.isEmpty()) {
+                    woIds.addAll(mrpDao.findWorkOrderIdsAffectedByMaterials(bomParents));
+                }
+                LocalDateTime now = LocalDateTime.now();
+                // 已完工或已刪除的工單不會被查出，只刪除其毛需求
+                List<OpenWorkOrder> workOrders = woIds.isEmpty() ? List.of() : mrpDao.findOpenWorkOrders(woIds);
+                Explosion explosion = explode(workOrders, now);
+                // 只有庫存異動時 woIds 為空，不寫入毛需求，只以目前庫存重建淨需求
+                Integer materials = transactionTemplate.execute(status -> {
+                    mrpDao.deleteDemands(woIds);
+                    mrpDao.insertDemands(explosion.demands(), now);
+                    return mrpDao.rebuildNetRequirements(now);
+                });
+
+                MrpRunResponse response = new MrpRunResponse(false, woIds.size(), explosion.products(),
+                        explosion.skippedProducts(), explosion.demands().size(), materials != null ? materials : 0,
+                        (System.nanoTime() - start) / 1_000_000);
+                if (!woIds.isEmpty()) {
+                    logger.info("MRP 增量重算完成: {}", response);
+                }
+                return response;
+            } catch (RuntimeException e) {
+                // 失敗時放回待重算記錄，下次再試
+                pendingWorkOrders.addAll(woIds);
+                pendingBomParents.addAll(bomParents);
+                stockChangePending |= stockChanged;
+                throw e;
+            }
+        } finally {
+            runLock.unlock();
+        }
+    }
+
+    @Override
+    public Page<MrpNetRequirementDto> findNetRequirements(boolean shortageOnly, Pageable pageable) {
+        List<MrpNetRequirementDto> content = mrpDao
+                .findNetRequirements(shortageOnly, pageable.getOffset(), pageable.getPageSize()).stream()
+                .map(row -> new MrpNetRequirementDto(row.materialId(), row.materialName(), row.grossRequirement(),
+                        row.availableQuantity(), row.safetyStock(), row.netRequirement(), row.belowReorderLevel(),
+                        row.openWorkOrders(), row.computedAt()))
+                .toList();
+        return new PageImpl<>(content, pageable, mrpDao.countNetRequirements(shortageOnly));
+    }
+
+    /**
+     * 工單異動交易提交後記錄為待重算
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onWorkOrderChanged(WorkOrderChangedEvent event) {
+        if (event.woId() != null) {
+            pendingWorkOrders.add(event.woId());
+        }
+    }
+
+    /**
+     * BOM 異動交易提交後記錄為待重算，影響的工單於重算時再查詢
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBomChanged(BomChangedEvent event) {
+        if (event.parentMaterialId() == null) {
+            fullRecomputePending = true;
+        } else {
+            pendingBomParents.add(event.parentMaterialId());
+        }
+    }
+
+    /**
+     * 庫存異動交易提交後標記淨需求需重建 (可用量已變動)
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        stockChangePending = true;
+    }
+
+    /**
+     * 平行展開工單中的各成品，並依工單未生產數量換算毛需求
+     */
+    private Explosion explode(List<OpenWorkOrder> workOrders, LocalDateTime asOf) {
+        List<Long> products = new ArrayList<>(new LinkedHashSet<>(
+                workOrders.stream().map(OpenWorkOrder::productMaterialId).toList()));
+        Map<Long, Map<Long, BigDecimal>> perUnit = new ConcurrentHashMap<>();
+        AtomicInteger skipped = new AtomicInteger();
+
+        int chunkSize = Math.max(MIN_PRODUCTS_PER_TASK,
+                (products.size() + MAX_PARALLEL_TASKS - 1) / MAX_PARALLEL_TASKS);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int from = 0; from < products.size(); from += chunkSize) {
+                List<Long> chunk = products.subList(from, Math.min(from + chunkSize, products.size()));
+                futures.add(executor.submit(() -> {
+                    for (Long productId : chunk) {
+                        try {
+                            perUnit.put(productId, bomExplosionService.unitRequirements(productId, asOf));
+                        } catch (BomCycleException e) {
+                            skipped.incrementAndGet();
+                            logger.warn("MRP 略過成品 {}: BOM 循環參照 {}", productId, e.getCycle());
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("MRP 展開被中斷", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("MRP 展開失敗", e.getCause());
+        }
+
+        List<Demand> demands = new ArrayList<>();
+        for (OpenWorkOrder workOrder : workOrders) {
+            Map<Long, BigDecimal> requirements = perUnit.getOrDefault(workOrder.productMaterialId(), Map.of());
+            requirements.forEach((materialId, quantity) -> demands.add(new Demand(workOrder.woId(), materialId,
+                    quantity.multiply(workOrder.remainingQuantity()))));
+        }
+        return new Explosion(demands, products.size(), skipped.get());
+    }
+
+    private static Set<Long> drain(Set<Long> pending) {
+        Set<Long> drained = new LinkedHashSet<>();
+        for (Iterator<Long> it = pending.iterator(); it.hasNext();) {
+            drained.add(it.next());
+            it.remove();
+        }
+        return drained;
+    }
+}
@@ -0,0 +1,9 @@
+package com.project.workorder.service;
+
+/**
+ * 工單已新增、修改、刪除或數量/狀態異動 (於交易提交後標記 MRP 需重算)
+ *
+ * @param woId 工單ID
+ */
+public record WorkOrderChangedEvent(Long woId) {
+}
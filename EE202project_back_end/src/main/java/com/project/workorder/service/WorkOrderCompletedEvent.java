@@ -0,0 +1,14 @@
+package com.project.workorder.service;
+
+import java.math.BigDecimal;
+
+/**
+ * 工單已完工 (交易提交後推播給訂閱工單的看板)
+ *
+ * @param woId               工單ID
+ * @param woNumber           工單號碼
+ * @param materialId         生產的物料ID
+ * @param successfulQuantity 成功數量
+ */
+public record WorkOrderCompletedEvent(Long woId, String woNumber, Long materialId, BigDecimal successfulQuantity) {
+}
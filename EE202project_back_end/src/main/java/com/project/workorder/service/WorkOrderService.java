@@ -26,6 +26,19 @@ public interface WorkOrderService {
      */
     Page<WorkOrderDto> findAllWorkOrders(String woNumber, String materialName, String status, Pageable pageable);
 
+    /**
+     * 分頁查詢工單，整頁工單的機台以單一查詢批次載入。
+     * 
+     * @param woNumber        工單號碼 (模糊查詢)
+     * @param materialName    物料名稱 (模糊查詢)
+     * @param status          工單狀態
+     * @param includeMachines 是否載入機台資訊；false 為輕量列表模式，machines 欄位為 null
+     * @param pageable        分頁資訊
+     * @return 工單分頁結果
+     */
+    Page<WorkOrderDto> findAllWorkOrders(String woNumber, String materialName, String status,
+            boolean includeMachines, Pageable pageable);
+
     /**
      * 根據ID查詢單一工單。
      * 
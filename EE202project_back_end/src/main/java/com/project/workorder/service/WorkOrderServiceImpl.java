@@ -8,9 +8,11 @@ import com.project.workorder.dto.WorkOrderDto;
 import com.project.workorder.dto.WorkOrderMaterialDto;
 import com.project.workorder.service.WorkOrderService;
 import com.project.depot.service.MaterialService;
+import com.project.depot.service.StockMutationService;
 import com.project.machine.Bean.MachinesBean;
 import com.project.bom.service.BomComponentService;
 import com.project.core.dao.EmployeeUserRepository;
+import com.project.core.utils.SqlInClause;
 
 import com.project.depot.dao.InventoryTransactionRepository;
 import com.project.depot.dao.MaterialRepository;
@@ -23,14 +25,22 @@ import com.project.workorder.model.WorkOrder;
 import com.project.workorder.model.WorkOrderMaterial;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.springframework.data.domain.Page;
@@ -53,6 +63,8 @@ public class WorkOrderServiceImpl implements WorkOrderService {
     private final EmployeeUserRepository employeeUserRepository;
     private final MaterialService materialService; // 注入 MaterialService
     private final BomComponentService bomComponentService; // 注入 BomComponentService
+    private final StockMutationService stockMutationService; // 注入 StockMutationService
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
     private org.springframework.jdbc.core.JdbcTemplate jdbcTemplate;
@@ -67,6 +79,8 @@ public class WorkOrderServiceImpl implements WorkOrderService {
      * @param employeeUserRepository         員工使用者資料庫操作介面
      * @param materialService                物料服務
      * @param bomComponentService            BOM 組件服務
+     * @param stockMutationService           庫存異動服務
+     * @param eventPublisher                 事件發布器 (工單異動後通知 MRP 重算)
      */
     public WorkOrderServiceImpl(WorkOrderRepository workOrderRepository,
             WorkOrderMaterialRepository workOrderMaterialRepository,
@@ -74,7 +88,9 @@ public class WorkOrderServiceImpl implements WorkOrderService {
             InventoryTransactionRepository inventoryTransactionRepository,
             EmployeeUserRepository employeeUserRepository,
             MaterialService materialService,
-            BomComponentService bomComponentService) { // Add BomComponentService to constructor
+            BomComponentService bomComponentService, // Add BomComponentService to constructor
+            StockMutationService stockMutationService,
+            ApplicationEventPublisher eventPublisher) {
         this.workOrderRepository = workOrderRepository;
         this.workOrderMaterialRepository = workOrderMaterialRepository;
         this.materialRepository = materialRepository;
@@ -82,10 +98,18 @@ public class WorkOrderServiceImpl implements WorkOrderService {
         this.employeeUserRepository = employeeUserRepository;
         this.materialService = materialService;
         this.bomComponentService = bomComponentService;
+        this.stockMutationService = stockMutationService;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
     public Page<WorkOrderDto> findAllWorkOrders(String woNumber, String materialName, String status, Pageable pageable) {
+        return findAllWorkOrders(woNumber, materialName, status, true, pageable);
+    }
+
+    @Override
+    public Page<WorkOrderDto> findAllWorkOrders(String woNumber, String materialName, String status,
+            boolean includeMachines, Pageable pageable) {
         Specification<WorkOrder> spec = (root, query, cb) -> {
             List<Predicate> predicates = new ArrayList<>();
             if (woNumber != null && !woNumber.isEmpty()) {
@@ -99,7 +123,14 @@ public class WorkOrderServiceImpl implements WorkOrderService {
             }
             return cb.and(predicates.toArray(new Predicate[0]));
         };
-        return workOrderRepository.findAll(spec, pageable).map(this::convertToDto);
+        Page<WorkOrder> page = workOrderRepository.findAll(spec, pageable);
+        if (!includeMachines) {
+            return page.map(workOrder -> convertToDto(workOrder, null));
+        }
+        Map<Long, List<MachinesBean>> machinesByWoId = findMachinesByWorkOrderIds(
+                page.getContent().stream().map(WorkOrder::getWoId).collect(Collectors.toList()));
+        return page.map(workOrder -> convertToDto(workOrder,
+                machinesByWoId.getOrDefault(workOrder.getWoId(), new ArrayList<>())));
     }
 
     /**
@@ -139,6 +170,7 @@ public class WorkOrderServiceImpl implements WorkOrderService {
         workOrder.setIssuedBy(null); // Or fetch a default user
 
         WorkOrder savedWorkOrder = workOrderRepository.save(workOrder);
+        eventPublisher.publishEvent(new WorkOrderChangedEvent(savedWorkOrder.getWoId()));
         return convertToDto(savedWorkOrder);
     }
 
@@ -166,6 +198,10 @@ public class WorkOrderServiceImpl implements WorkOrderService {
         workOrder.setIssuedBy(null); // Or fetch a default user
 
         WorkOrder savedWorkOrder = workOrderRepository.save(workOrder);
+        eventPublisher.publishEvent(new WorkOrderChangedEvent(savedWorkOrder.getWoId()));
+        if ("COMPLETED".equals(savedWorkOrder.getStatus())) {
+            publishCompleted(savedWorkOrder);
+        }
 
         // 2. 減少物料的判斷與轉換型態
         for (com.project.workorder.dto.MaterialDeductionDto deduction : request.getMaterialsToDeduct()) {
@@ -187,8 +223,9 @@ public class WorkOrderServiceImpl implements WorkOrderService {
         }
 
         // 3. Increase finished product stock and record transaction
-        finishedProduct.setStockCurrent(finishedProduct.getStockCurrent().add(request.getRequiredQuantity()));
-        materialRepository.save(finishedProduct);
+        if (!stockMutationService.applyDelta(finishedProduct.getMaterialId(), request.getRequiredQuantity())) {
+            throw new IllegalStateException("成品 " + finishedProduct.getMaterialName() + " 庫存更新失敗");
+        }
 
         InventoryTransaction finishedProductTransaction = new InventoryTransaction();
         finishedProductTransaction.setMaterial(finishedProduct);
@@ -225,6 +262,8 @@ public class WorkOrderServiceImpl implements WorkOrderService {
         existingWorkOrder.setStatus(request.getStatus() != null ? request.getStatus() : existingWorkOrder.getStatus());
 
         WorkOrder updatedWorkOrder = workOrderRepository.save(existingWorkOrder);
+
+        eventPublisher.publishEvent(new WorkOrderChangedEvent(updatedWorkOrder.getWoId()));
         return convertToDto(updatedWorkOrder);
     }
 
@@ -240,6 +279,7 @@ public class WorkOrderServiceImpl implements WorkOrderService {
             throw new EntityNotFoundException("WorkOrder not found with ID: " + id);
         }
         workOrderRepository.deleteById(id);
+        eventPublisher.publishEvent(new WorkOrderChangedEvent(id));
     }
 
     @Override
@@ -261,10 +301,9 @@ public class WorkOrderServiceImpl implements WorkOrderService {
 
                 // 1. Increase stock of the finished product
                 Material finishedProduct = workOrder.getMaterial();
-                BigDecimal currentStock = Optional.ofNullable(finishedProduct.getStockCurrent())
-                        .orElse(BigDecimal.ZERO);
-                finishedProduct.setStockCurrent(currentStock.add(successfulQuantity));
-                materialRepository.save(finishedProduct);
+                if (!stockMutationService.applyDelta(finishedProduct.getMaterialId(), successfulQuantity)) {
+                    throw new IllegalStateException("成品 " + finishedProduct.getMaterialName() + " 庫存更新失敗");
+                }
 
                 // 2. Log the inbound transaction for the finished product
                 InventoryTransaction inboundLog = new InventoryTransaction();
@@ -276,47 +315,95 @@ public class WorkOrderServiceImpl implements WorkOrderService {
                 inboundLog.setReferenceId(workOrder.getWoId());
                 inventoryTransactionRepository.save(inboundLog);
 
-                // 3. Get the BOM for the product to deduct raw materials
+                // 3. Get the BOM effective now for the product to deduct raw materials
                 List<BomComponent> bomComponents = bomComponentService
-                        .getBomComponentsByParentMaterialId(finishedProduct.getMaterialId());
-
-                // 4. Deduct stock for each raw material based on the BOM
-                for (BomComponent component : bomComponents) {
-                    Material rawMaterial = materialRepository.findById(component.getComponentMaterialId())
-                            .orElseThrow(() -> new EntityNotFoundException(
-                                    "Raw material not found with ID: " + component.getComponentMaterialId()));
-
-                    BigDecimal totalDeduction = component.getQuantity().multiply(successfulQuantity);
-                    BigDecimal currentRawStock = Optional.ofNullable(rawMaterial.getStockCurrent())
-                            .orElse(BigDecimal.ZERO);
-
-                    // Check for sufficient stock before deducting
-                    if (currentRawStock.compareTo(totalDeduction) < 0) {
-                        // Handle insufficient stock error - throw an exception
-                        throw new IllegalStateException(
-                                "Insufficient stock for raw material: " + rawMaterial.getMaterialName());
-                    }
-
-                    rawMaterial.setStockCurrent(currentRawStock.subtract(totalDeduction));
-                    materialRepository.save(rawMaterial);
-
-                    // Log the outbound transaction for the raw material
-                    InventoryTransaction outboundLog = new InventoryTransaction();
-                    outboundLog.setMaterial(rawMaterial);
-                    outboundLog.setTransactionType("PRODUCTION_OUTBOUND");
-                    outboundLog.setQuantity(totalDeduction);
-                    outboundLog.setTransactionDate(LocalDateTime.now());
-                    outboundLog.setReferenceTable("work_orders");
-                    outboundLog.setReferenceId(workOrder.getWoId());
-                    inventoryTransactionRepository.save(outboundLog);
-                }
+                        .getEffectiveBomComponents(finishedProduct.getMaterialId(), LocalDateTime.now());
+
+                // 4. Deduct stock for all raw materials in one batch (all-or-nothing)
+                deductBomMaterialsInBatch(workOrder.getWoId(), bomComponents, successfulQuantity);
             }
         }
 
         WorkOrder updatedWorkOrder = workOrderRepository.save(workOrder);
+
+        eventPublisher.publishEvent(new WorkOrderChangedEvent(updatedWorkOrder.getWoId()));
+        if ("COMPLETED".equals(status)) {
+            publishCompleted(updatedWorkOrder);
+        }
         return convertToDto(updatedWorkOrder);
     }
 
+    /**
+     * 通知訂閱工單的看板工單已完工 (交易提交後才推播)
+     */
+    private void publishCompleted(WorkOrder workOrder) {
+        eventPublisher.publishEvent(new WorkOrderCompletedEvent(workOrder.getWoId(), workOrder.getWoNumber(),
+                workOrder.getMaterial() != null ? workOrder.getMaterial().getMaterialId() : null,
+                workOrder.getSuccessfulQuantity()));
+    }
+
+    /**
+     * 工單完工時，依 BOM 批次扣除原物料庫存並寫入出庫交易紀錄。
+     * 以一次 findAllById 載入所有原物料，先在記憶體中檢查全部庫存，
+     * 任一原物料不足即拋出例外且不做任何寫入；檢查通過後再經由 StockMutationService 批次扣除庫存，
+     * 並以 JDBC 批次新增交易紀錄。
+     *
+     * @param woId               工單ID
+     * @param bomComponents      成品的 BOM 組件列表
+     * @param successfulQuantity 成功生產數量
+     */
+    private void deductBomMaterialsInBatch(Long woId, List<BomComponent> bomComponents,
+            BigDecimal successfulQuantity) {
+        if (bomComponents.isEmpty()) {
+            return;
+        }
+
+        // 同一原物料可能出現在多筆 BOM 明細，先彙總各原物料的總扣除量
+        Map<Long, BigDecimal> deductions = new LinkedHashMap<>();
+        for (BomComponent component : bomComponents) {
+            deductions.merge(component.getComponentMaterialId(),
+                    component.getQuantity().multiply(successfulQuantity), BigDecimal::add);
+        }
+
+        Map<Long, Material> rawMaterials = materialRepository.findAllById(deductions.keySet()).stream()
+                .collect(Collectors.toMap(Material::getMaterialId, Function.identity()));
+
+        // Check every component before writing anything
+        for (Map.Entry<Long, BigDecimal> deduction : deductions.entrySet()) {
+            Material rawMaterial = rawMaterials.get(deduction.getKey());
+            if (rawMaterial == null) {
+                throw new EntityNotFoundException("Raw material not found with ID: " + deduction.getKey());
+            }
+            BigDecimal currentRawStock = Optional.ofNullable(rawMaterial.getStockCurrent()).orElse(BigDecimal.ZERO);
+            if (currentRawStock.compareTo(deduction.getValue()) < 0) {
+                throw new IllegalStateException(
+                        "Insufficient stock for raw material: " + rawMaterial.getMaterialName());
+            }
+        }
+
+        // 庫存以原子差量扣除，檢查後被其他交易扣走的原物料會被拒絕
+        Map<Long, BigDecimal> stockDeltas = new LinkedHashMap<>();
+        deductions.forEach((materialId, quantity) -> stockDeltas.put(materialId, quantity.negate()));
+        List<Long> rejected = stockMutationService.applyDeltas(stockDeltas);
+        if (!rejected.isEmpty()) {
+            // 拋出例外讓整個交易回滾，維持全有或全無
+            throw new IllegalStateException(
+                    "Insufficient stock for raw material: " + rawMaterials.get(rejected.get(0)).getMaterialName());
+        }
+
+        List<Map.Entry<Long, BigDecimal>> rows = new ArrayList<>(deductions.entrySet());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO inventory_transactions (material_id, transaction_type, quantity, transaction_date, "
+                        + "reference_table, reference_id) VALUES (?, 'PRODUCTION_OUTBOUND', ?, ?, 'work_orders', ?)",
+                rows, SqlInClause.BATCH_SIZE, (ps, row) -> {
+                    ps.setLong(1, row.getKey());
+                    ps.setBigDecimal(2, row.getValue());
+                    ps.setTimestamp(3, now);
+                    ps.setLong(4, woId);
+                });
+    }
+
     @Override
     @Transactional
     public WorkOrderDto updateWorkOrderProducedQuantity(Long woId, BigDecimal quantityProduced) {
@@ -332,6 +419,7 @@ public class WorkOrderServiceImpl implements WorkOrderService {
         workOrder.setProducedQuantity(newProducedQuantity);
         workOrder.setSuccessfulQuantity(newProducedQuantity);
         WorkOrder updatedWorkOrder = workOrderRepository.save(workOrder);
+        eventPublisher.publishEvent(new WorkOrderChangedEvent(updatedWorkOrder.getWoId()));
         return convertToDto(updatedWorkOrder);
     }
 
@@ -351,16 +439,12 @@ public class WorkOrderServiceImpl implements WorkOrderService {
                 .orElseThrow(
                         () -> new EntityNotFoundException("Material not found with ID: " + request.getMaterialId()));
 
-        // Check if enough material is available in stock
-        if (material.getStockCurrent().compareTo(request.getRequestedQuantity()) < 0) {
+        // Deduct material stock atomically; rejected when not enough material is available
+        if (!stockMutationService.applyDelta(material.getMaterialId(), request.getRequestedQuantity().negate())) {
             throw new IllegalArgumentException(
                     "Not enough material in stock for material ID: " + material.getMaterialId());
         }
 
-        // Update material stock
-        material.setStockCurrent(material.getStockCurrent().subtract(request.getRequestedQuantity()));
-        materialRepository.save(material);
-
         // Create inventory transaction for outbound
         InventoryTransaction transaction = new InventoryTransaction();
         transaction.setMaterial(material);
@@ -453,6 +537,17 @@ public class WorkOrderServiceImpl implements WorkOrderService {
      * @return WorkOrderDto DTO
      */
     private WorkOrderDto convertToDto(WorkOrder workOrder) {
+        return convertToDto(workOrder, findMachinesByWorkOrderId(Long.valueOf(workOrder.getWoId())));
+    }
+
+    /**
+     * 將 WorkOrder 實體轉換為 WorkOrderDto DTO，並使用已查好的機台列表。
+     * 
+     * @param workOrder WorkOrder 實體
+     * @param machines  該工單的機台列表，輕量列表模式時為 null
+     * @return WorkOrderDto DTO
+     */
+    private WorkOrderDto convertToDto(WorkOrder workOrder, List<MachinesBean> machines) {
         WorkOrderDto dto = new WorkOrderDto();
         dto.setWoId(workOrder.getWoId().intValue());
         dto.setWoNumber(workOrder.getWoNumber());
@@ -470,8 +565,7 @@ public class WorkOrderServiceImpl implements WorkOrderService {
         dto.setStatus(workOrder.getStatus());
         dto.setCreatedAt(workOrder.getCreatedAt());
         dto.setUpdatedAt(workOrder.getUpdatedAt());
-        // Populate machines
-        dto.setMachines(findMachinesByWorkOrderId(Long.valueOf(workOrder.getWoId())));
+        dto.setMachines(machines);
         return dto;
     }
 
@@ -512,6 +606,31 @@ public class WorkOrderServiceImpl implements WorkOrderService {
                 woId);
     }
 
+    /**
+     * 以單一 IN (...) 查詢取得多張工單的機台，並在記憶體中依工單ID分組。
+     * 用於列表頁一次組裝整頁工單的機台資訊，避免每列各查一次。
+     * 
+     * @param woIds 工單ID列表
+     * @return 工單ID對應的機台列表
+     */
+    private Map<Long, List<MachinesBean>> findMachinesByWorkOrderIds(List<Long> woIds) {
+        Map<Long, List<MachinesBean>> machinesByWoId = new HashMap<>();
+        if (woIds.isEmpty()) {
+            return machinesByWoId;
+        }
+        BeanPropertyRowMapper<MachinesBean> machineMapper = new BeanPropertyRowMapper<>(MachinesBean.class);
+        // 超大頁面時分段查詢
+        for (List<Long> chunk : SqlInClause.chunks(woIds)) {
+            String sql = "SELECT wm.wo_id AS wm_wo_id, m.* FROM machines m "
+                    + "JOIN workorder_machines wm ON m.machine_id = wm.machine_id WHERE wm.wo_id IN ("
+                    + SqlInClause.placeholders(chunk) + ")";
+            jdbcTemplate.query(sql, (RowCallbackHandler) rs -> machinesByWoId
+                    .computeIfAbsent(rs.getLong("wm_wo_id"), key -> new ArrayList<>())
+                    .add(machineMapper.mapRow(rs, rs.getRow())), chunk.toArray());
+        }
+        return machinesByWoId;
+    }
+
     @Override
     public void removeMachineFromWorkOrder(Long woId, Long machineId) {
         int rowsAffected = jdbcTemplate.update(
@@ -542,6 +661,8 @@ public class WorkOrderServiceImpl implements WorkOrderService {
         workOrder.setFailedQuantity(currentFailed.add(failedQuantity));
 
         WorkOrder updatedWorkOrder = workOrderRepository.save(workOrder);
+
+        eventPublisher.publishEvent(new WorkOrderChangedEvent(updatedWorkOrder.getWoId()));
         return convertToDto(updatedWorkOrder);
     }
 
@@ -562,13 +683,20 @@ public class WorkOrderServiceImpl implements WorkOrderService {
             return List.of(); // Or throw an exception if a product is always expected
         }
 
-        List<com.project.bom.model.BomComponent> bomComponents = bomComponentService.getBomComponentsByParentMaterialId(finishedProduct.getMaterialId());
+        List<com.project.bom.model.BomComponent> bomComponents = bomComponentService
+                .getEffectiveBomComponents(finishedProduct.getMaterialId(), LocalDateTime.now());
+
+        // 一次查出所有組件物料，避免逐筆查詢
+        Map<Long, Material> componentMaterials = materialRepository.findAllById(bomComponents.stream()
+                .map(com.project.bom.model.BomComponent::getComponentMaterialId)
+                .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Material::getMaterialId, material -> material));
 
         // Manually map BomComponent to WorkOrderMaterialDto
         return bomComponents.stream().map(component -> {
             WorkOrderMaterialDto dto = new WorkOrderMaterialDto();
-            Material componentMaterial = materialRepository.findById(component.getComponentMaterialId())
-                    .orElse(null);
+            Material componentMaterial = componentMaterials.get(component.getComponentMaterialId());
             
             if (componentMaterial != null) {
                 dto.setMaterialId(componentMaterial.getMaterialId());
@@ -0,0 +1,140 @@
+package com.bom.service;
+
+import com.project.bom.dao.BomComponentDAO;
+import com.project.bom.dto.BomExplosionDto;
+import com.project.bom.dto.BomRequirementDto;
+import com.project.bom.exception.BomCycleException;
+import com.project.bom.model.BomComponent;
+import com.project.bom.service.BomExplosionServiceImpl;
+import com.project.bom.service.BomVersionCache;
+import com.project.depot.dao.MaterialRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class BomExplosionServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 6, 1, 0, 0);
+
+    private final List<BomComponent> rows = new ArrayList<>();
+    private BomComponentDAO bomComponentDAO;
+    private BomExplosionServiceImpl bomExplosionService;
+
+    @BeforeEach
+    void setUp() {
+        bomComponentDAO = mock(BomComponentDAO.class);
+        when(bomComponentDAO.getBomComponentsByParentMaterialIds(any())).thenAnswer(invocation -> {
+            Collection<Long> parentIds = invocation.getArgument(0);
+            return rows.stream()
+                    .filter(row -> parentIds.contains(row.getParentMaterialId()))
+                    .collect(Collectors.toList());
+        });
+        MaterialRepository materialRepository = mock(MaterialRepository.class);
+        when(materialRepository.findAllById(any())).thenReturn(List.of());
+        bomExplosionService = new BomExplosionServiceImpl(new BomVersionCache(bomComponentDAO, 1000), materialRepository);
+    }
+
+    private void bom(long parent, long component, String quantity) {
+        bom(parent, component, quantity, null, null);
+    }
+
+    private void bom(long parent, long component, String quantity, LocalDateTime start, LocalDateTime end) {
+        BomComponent row = new BomComponent();
+        row.setParentMaterialId(parent);
+        row.setComponentMaterialId(component);
+        row.setQuantity(new BigDecimal(quantity));
+        row.setEffectiveStartDate(start);
+        row.setEffectiveEndDate(end);
+        rows.add(row);
+    }
+
+    private static Map<Long, BomRequirementDto> byMaterial(BomExplosionDto result) {
+        return result.getRequirements().stream()
+                .collect(Collectors.toMap(BomRequirementDto::getMaterialId, requirement -> requirement));
+    }
+
+    @Test
+    void explode_shouldMultiplyQuantitiesAndMergeSharedSubAssemblies() {
+        // 1 = 成品: 2 x 半成品10 + 1 x 半成品20；兩個半成品都用到共用模組30
+        bom(1, 10, "2");
+        bom(1, 20, "1");
+        bom(10, 30, "3");
+        bom(20, 30, "1");
+        bom(20, 40, "0.5");
+        bom(30, 50, "4");
+
+        BomExplosionDto result = bomExplosionService.explode(1L, new BigDecimal("5"), NOW);
+        Map<Long, BomRequirementDto> requirements = byMaterial(result);
+
+        assertEquals(0, new BigDecimal("10").compareTo(requirements.get(10L).getGrossQuantity()));
+        assertEquals(0, new BigDecimal("5").compareTo(requirements.get(20L).getGrossQuantity()));
+        // 30: 5*2*3 + 5*1*1 = 35
+        assertEquals(0, new BigDecimal("35").compareTo(requirements.get(30L).getGrossQuantity()));
+        assertEquals(0, new BigDecimal("2.5").compareTo(requirements.get(40L).getGrossQuantity()));
+        assertEquals(0, new BigDecimal("140").compareTo(requirements.get(50L).getGrossQuantity()));
+
+        assertEquals(2, requirements.get(30L).getLevel());
+        assertEquals(3, requirements.get(50L).getLevel());
+        assertEquals(3, result.getMaxLevel());
+        assertFalse(requirements.get(30L).isLeaf());
+        assertTrue(requirements.get(50L).isLeaf());
+        assertEquals(List.of(10L, 20L, 30L, 40L, 50L),
+                result.getRequirements().stream().map(BomRequirementDto::getMaterialId).toList());
+
+        // 每一層一次批次查詢 (最後一層確認葉節點沒有組件)，共用模組30 只查一次
+        verify(bomComponentDAO, times(4)).getBomComponentsByParentMaterialIds(any());
+
+        // 第二次展開全部由快取取得
+        bomExplosionService.explode(1L, BigDecimal.ONE, NOW);
+        verify(bomComponentDAO, times(4)).getBomComponentsByParentMaterialIds(any());
+    }
+
+    @Test
+    void explode_shouldOnlyUseComponentsEffectiveAtGivenTime() {
+        bom(1, 10, "1", null, LocalDateTime.of(2025, 1, 1, 0, 0));
+        bom(1, 11, "1", LocalDateTime.of(2025, 1, 1, 0, 0), null);
+
+        Map<Long, BomRequirementDto> before = byMaterial(
+                bomExplosionService.explode(1L, BigDecimal.ONE, LocalDateTime.of(2024, 12, 31, 0, 0)));
+        Map<Long, BomRequirementDto> after = byMaterial(bomExplosionService.explode(1L, BigDecimal.ONE, NOW));
+
+        assertEquals(List.of(10L), List.copyOf(before.keySet()));
+        assertEquals(List.of(11L), List.copyOf(after.keySet()));
+    }
+
+    @Test
+    void explode_shouldDetectCycles() {
+        bom(1, 10, "1");
+        bom(10, 20, "1");
+        bom(20, 10, "1");
+
+        BomCycleException e = assertThrows(BomCycleException.class,
+                () -> bomExplosionService.explode(1L, BigDecimal.ONE, NOW));
+        assertEquals(List.of(10L, 20L, 10L), e.getCycle());
+    }
+
+    @Test
+    void explode_shouldReturnEmptyRequirementsForLeafMaterial() {
+        BomExplosionDto result = bomExplosionService.explode(99L, BigDecimal.ONE, NOW);
+
+        assertTrue(result.getRequirements().isEmpty());
+        assertEquals(0, result.getMaxLevel());
+    }
+
+    @Test
+    void explode_shouldRejectNonPositiveQuantity() {
+        assertThrows(IllegalArgumentException.class, () -> bomExplosionService.explode(1L, BigDecimal.ZERO, NOW));
+    }
+}
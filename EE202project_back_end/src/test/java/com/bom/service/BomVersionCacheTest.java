@@ -0,0 +1,139 @@
+package com.bom.service;
+
+import com.project.bom.dao.BomComponentDAO;
+import com.project.bom.model.BomComponent;
+import com.project.bom.service.BomChangedEvent;
+import com.project.bom.service.BomVersion;
+import com.project.bom.service.BomVersionCache;
+import com.project.core.cache.CacheStatistics;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class BomVersionCacheTest {
+
+    private final List<BomComponent> rows = new ArrayList<>();
+    private BomComponentDAO bomComponentDAO;
+
+    @BeforeEach
+    void setUp() {
+        bomComponentDAO = mock(BomComponentDAO.class);
+        when(bomComponentDAO.getBomComponentsByParentMaterialIds(any())).thenAnswer(invocation -> {
+            Collection<Long> parentIds = invocation.getArgument(0);
+            return rows.stream()
+                    .filter(row -> parentIds.contains(row.getParentMaterialId()))
+                    .collect(Collectors.toList());
+        });
+    }
+
+    private BomComponent bom(long id, long parent, long component, LocalDateTime start, LocalDateTime end) {
+        BomComponent row = new BomComponent();
+        row.setBomComponentId(id);
+        row.setParentMaterialId(parent);
+        row.setComponentMaterialId(component);
+        row.setQuantity(BigDecimal.ONE);
+        row.setEffectiveStartDate(start);
+        row.setEffectiveEndDate(end);
+        rows.add(row);
+        return row;
+    }
+
+    @Test
+    void get_shouldLoadOnceAndResolveEffectiveComponents() {
+        LocalDateTime switchover = LocalDateTime.of(2025, 1, 1, 0, 0);
+        bom(1, 100, 10, null, switchover);
+        bom(2, 100, 11, switchover, null);
+        BomVersionCache cache = new BomVersionCache(bomComponentDAO, 10);
+
+        BomVersion bom = cache.get(100L);
+        assertEquals(List.of(10L), bom.resolve(switchover.minusSeconds(1)).stream()
+                .map(BomComponent::getComponentMaterialId).toList());
+        assertEquals(List.of(11L), cache.get(100L).resolve(switchover).stream()
+                .map(BomComponent::getComponentMaterialId).toList());
+        assertEquals(2, cache.get(100L).allComponents().size());
+
+        verify(bomComponentDAO, times(1)).getBomComponentsByParentMaterialIds(any());
+        CacheStatistics stats = cache.statistics();
+        assertEquals(2, stats.hits());
+        assertEquals(1, stats.misses());
+        assertEquals(1, stats.loads());
+        assertTrue(stats.averageLoadMillis() >= 0);
+    }
+
+    @Test
+    void get_shouldReturnCopiesSoCallersCannotChangeCache() {
+        bom(1, 100, 10, null, null);
+        BomVersionCache cache = new BomVersionCache(bomComponentDAO, 10);
+
+        cache.get(100L).allComponents().get(0).setQuantity(new BigDecimal("99"));
+        rows.get(0).setQuantity(new BigDecimal("42"));
+
+        assertEquals(BigDecimal.ONE, cache.get(100L).allComponents().get(0).getQuantity());
+    }
+
+    @Test
+    void getAll_shouldBatchMissesAndCacheEmptyBoms() {
+        bom(1, 100, 10, null, null);
+        BomVersionCache cache = new BomVersionCache(bomComponentDAO, 10);
+
+        assertEquals(3, cache.getAll(List.of(100L, 200L, 300L)).size());
+        assertTrue(cache.get(200L).isEmpty());
+
+        verify(bomComponentDAO, times(1)).getBomComponentsByParentMaterialIds(any());
+    }
+
+    @Test
+    void get_shouldEvictLeastRecentlyUsed() {
+        BomVersionCache cache = new BomVersionCache(bomComponentDAO, 2);
+        cache.get(1L);
+        cache.get(2L);
+        cache.get(1L);
+        cache.get(3L);
+
+        assertEquals(1, cache.statistics().evictions());
+        cache.get(1L);
+        verify(bomComponentDAO, times(3)).getBomComponentsByParentMaterialIds(any());
+        cache.get(2L);
+        verify(bomComponentDAO, times(4)).getBomComponentsByParentMaterialIds(any());
+    }
+
+    @Test
+    void onBomChanged_shouldReloadParent() {
+        bom(1, 100, 10, null, null);
+        BomVersionCache cache = new BomVersionCache(bomComponentDAO, 10);
+        assertEquals(1, cache.get(100L).allComponents().size());
+
+        bom(2, 100, 11, null, null);
+        cache.onBomChanged(new BomChangedEvent(100L));
+
+        assertEquals(2, cache.get(100L).allComponents().size());
+    }
+
+    @Test
+    void get_shouldNotCacheLoadThatRacedWithInvalidation() {
+        bom(1, 100, 10, null, null);
+        BomVersionCache cache = new BomVersionCache(bomComponentDAO, 10);
+        // 模擬載入期間另一個交易提交了 BOM 異動
+        doAnswer(invocation -> {
+            cache.invalidate(100L);
+            return List.copyOf(rows);
+        }).doAnswer(invocation -> List.copyOf(rows))
+                .when(bomComponentDAO).getBomComponentsByParentMaterialIds(any());
+
+        cache.get(100L);
+        assertEquals(0, cache.statistics().size());
+        cache.get(100L);
+        assertEquals(1, cache.statistics().size());
+    }
+}
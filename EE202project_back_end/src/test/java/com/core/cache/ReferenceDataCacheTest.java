@@ -0,0 +1,82 @@
+package com.core.cache;
+
+import com.project.core.cache.CacheStatistics;
+import com.project.core.cache.ReferenceDataCache;
+import com.project.core.cache.ReferenceDataWarmer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReferenceDataCacheTest {
+
+    private record Code(String code, String type) {
+    }
+
+    @Test
+    void get_shouldLoadOnceAndCountHitsAndMisses() {
+        AtomicInteger loads = new AtomicInteger();
+        ReferenceDataCache<String, Code> cache = new ReferenceDataCache<>("codes", () -> {
+            loads.incrementAndGet();
+            return List.of(new Code("RUN", "machine"), new Code("STOP", "machine"));
+        }, Code::code);
+
+        assertEquals("machine", cache.get("RUN").orElseThrow().type());
+        assertTrue(cache.get("STOP").isPresent());
+        assertTrue(cache.get("BROKEN").isEmpty());
+        assertTrue(cache.get(null).isEmpty());
+
+        assertEquals(1, loads.get());
+        CacheStatistics stats = cache.statistics();
+        assertEquals(2, stats.hits());
+        assertEquals(2, stats.misses());
+        assertEquals(2, stats.size());
+    }
+
+    @Test
+    void refresh_shouldReplaceSnapshot() {
+        List<Code> rows = new ArrayList<>(List.of(new Code("RUN", "machine")));
+        ReferenceDataCache<String, Code> cache = new ReferenceDataCache<>("codes", () -> List.copyOf(rows), Code::code);
+        cache.refresh();
+        List<Code> before = cache.values();
+
+        rows.add(new Code("STOP", "machine"));
+        assertTrue(cache.get("STOP").isEmpty());
+        assertEquals(2, cache.refresh());
+
+        assertTrue(cache.get("STOP").isPresent());
+        assertEquals(1, before.size());
+        assertEquals(List.of("RUN", "STOP"), cache.values().stream().map(Code::code).toList());
+        assertEquals(1, cache.statistics().evictions());
+    }
+
+    @Test
+    void find_shouldMatchNonKeyFields() {
+        ReferenceDataCache<String, Code> cache = new ReferenceDataCache<>("codes",
+                () -> List.of(new Code("OPEN", "repair"), new Code("RUN", "machine")), Code::code);
+
+        assertEquals("RUN", cache.find(code -> "machine".equals(code.type())).orElseThrow().code());
+        assertTrue(cache.find(code -> "maintenance".equals(code.type())).isEmpty());
+    }
+
+    @Test
+    void warmer_shouldSurviveFailingLoaderAndRefreshByName() {
+        ReferenceDataCache<String, Code> failing = new ReferenceDataCache<>("failing", () -> {
+            throw new IllegalStateException("db down");
+        }, Code::code);
+        ReferenceDataCache<String, Code> codes = new ReferenceDataCache<>("codes",
+                () -> List.of(new Code("RUN", "machine")), Code::code);
+        ReferenceDataWarmer warmer = new ReferenceDataWarmer(List.of(failing, codes));
+
+        warmer.warmUp();
+
+        assertEquals(1, codes.statistics().size());
+        assertEquals(0, failing.statistics().size());
+        assertEquals(1, warmer.refresh("codes"));
+        assertThrows(IllegalArgumentException.class, () -> warmer.refresh("missing"));
+    }
+}
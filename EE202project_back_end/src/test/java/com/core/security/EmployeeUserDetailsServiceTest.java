@@ -0,0 +1,194 @@
+package com.core.security;
+
+import com.project.core.dao.UserRoleRepository;
+import com.project.core.model.Role;
+import com.project.core.model.RolePermission;
+import com.project.core.model.UserRole;
+import com.project.core.security.EmployeeUserDetailsService;
+import com.project.employeeuser.dao.EmployeeUserDAO;
+import com.project.employeeuser.model.EmployeeUser;
+import com.testsupport.TestDatabase;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.persistenceunit.PersistenceManagedTypes;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class EmployeeUserDetailsServiceTest {
+
+    @Mock
+    private EmployeeUserDAO employeeUserDAO;
+
+    @Mock
+    private UserRoleRepository userRoleRepository;
+
+    @InjectMocks
+    private EmployeeUserDetailsService service;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    private static UserRoleRepository.RolePermissionRow row(Integer roleId, String permissionCode) {
+        return new UserRoleRepository.RolePermissionRow() {
+            @Override
+            public Integer getRoleId() {
+                return roleId;
+            }
+
+            @Override
+            public String getPermissionCode() {
+                return permissionCode;
+            }
+        };
+    }
+
+    private EmployeeUser user(long id, String username) {
+        EmployeeUser user = new EmployeeUser();
+        user.setEmployeeUserId(id);
+        user.setUsername(username);
+        user.setIsActive(true);
+        return user;
+    }
+
+    private static void userRole(EntityManager entityManager, int employeeId, int roleId) {
+        UserRole userRole = new UserRole();
+        userRole.setEmployeeId(employeeId);
+        userRole.setRoleId(roleId);
+        entityManager.persist(userRole);
+    }
+
+    private static void rolePermission(EntityManager entityManager, int roleId, String permissionCode) {
+        RolePermission rolePermission = new RolePermission();
+        rolePermission.setRoleId(roleId);
+        rolePermission.setPermissionCode(permissionCode);
+        entityManager.persist(rolePermission);
+    }
+
+    /**
+     * 以 H2 記憶體資料庫執行實際的 UserRoles ⋈ RolePermissions 查詢
+     */
+    @Test
+    void loadUserByUsername_shouldMapRolesAndSharedPermissionsFromJoinQuery() {
+        JdbcDataSource dataSource = TestDatabase.create("user_roles");
+        LocalContainerEntityManagerFactoryBean factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factoryBean.setManagedTypes(PersistenceManagedTypes.of(
+                UserRole.class.getName(), RolePermission.class.getName(), Role.class.getName()));
+        factoryBean.setJpaPropertyMap(Map.of(
+                "hibernate.hbm2ddl.auto", "create-drop",
+                "hibernate.generate_statistics", "true"));
+        factoryBean.afterPropertiesSet();
+        EntityManagerFactory entityManagerFactory = factoryBean.getObject();
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            entityManager.getTransaction().begin();
+            // 角色 1、2 共用 INVENTORY_VIEW；角色 3 沒有權限；員工 8 的角色 4 不可混入員工 7
+            rolePermission(entityManager, 1, "INVENTORY_VIEW");
+            rolePermission(entityManager, 1, "INVENTORY_MANAGE");
+            rolePermission(entityManager, 2, "INVENTORY_VIEW");
+            rolePermission(entityManager, 2, "WORK_ORDER_VIEW");
+            rolePermission(entityManager, 4, "SYSTEM_LOG_MANAGE");
+            userRole(entityManager, 7, 1);
+            userRole(entityManager, 7, 2);
+            userRole(entityManager, 7, 3);
+            userRole(entityManager, 8, 4);
+            entityManager.getTransaction().commit();
+            entityManager.clear();
+
+            UserRoleRepository repository = new JpaRepositoryFactory(entityManager)
+                    .getRepository(UserRoleRepository.class);
+            EmployeeUserDetailsService realService = new EmployeeUserDetailsService();
+            ReflectionTestUtils.setField(realService, "employeeUserDAO", employeeUserDAO);
+            ReflectionTestUtils.setField(realService, "userRoleRepository", repository);
+            when(employeeUserDAO.findByUsername("alice")).thenReturn(Optional.of(user(7, "alice")));
+            Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+            statistics.clear();
+
+            List<String> authorities = realService.loadUserByUsername("alice").getAuthorities().stream()
+                    .map(GrantedAuthority::getAuthority)
+                    .toList();
+
+            // 權限在前、角色在後，各自去除重複 (資料庫未排序，故以集合比對)
+            assertEquals(6, authorities.size(), authorities.toString());
+            assertEquals(Set.of("INVENTORY_VIEW", "INVENTORY_MANAGE", "WORK_ORDER_VIEW"),
+                    Set.copyOf(authorities.subList(0, 3)));
+            assertEquals(Set.of("ROLE_1", "ROLE_2", "ROLE_3"), Set.copyOf(authorities.subList(3, 6)));
+            assertEquals(1, statistics.getPrepareStatementCount());
+        } finally {
+            entityManager.close();
+            entityManagerFactory.close();
+        }
+    }
+
+    @Test
+    void loadUserByUsername_shouldDeduplicateInFirstSeenOrder() {
+        when(employeeUserDAO.findByUsername("alice")).thenReturn(Optional.of(user(7, "alice")));
+        when(userRoleRepository.findRolePermissionsByEmployeeId(7)).thenReturn(List.of(
+                row(1, "INVENTORY_VIEW"),
+                row(1, "INVENTORY_MANAGE"),
+                row(2, "INVENTORY_VIEW"),
+                row(3, null)));
+
+        UserDetails details = service.loadUserByUsername("alice");
+
+        List<String> authorities = details.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList();
+        assertEquals(List.of("INVENTORY_VIEW", "INVENTORY_MANAGE", "ROLE_1", "ROLE_2", "ROLE_3"), authorities);
+    }
+
+    @Test
+    void loadUserByUsername_shouldShareAuthorityInstancesAcrossUsers() {
+        when(employeeUserDAO.findByUsername("alice")).thenReturn(Optional.of(user(7, "alice")));
+        when(employeeUserDAO.findByUsername("bob")).thenReturn(Optional.of(user(8, "bob")));
+        when(userRoleRepository.findRolePermissionsByEmployeeId(7)).thenReturn(List.of(row(1, "INVENTORY_VIEW")));
+        when(userRoleRepository.findRolePermissionsByEmployeeId(8)).thenReturn(List.of(row(1, "INVENTORY_VIEW")));
+
+        GrantedAuthority fromAlice = service.loadUserByUsername("alice").getAuthorities().iterator().next();
+        GrantedAuthority fromBob = service.loadUserByUsername("bob").getAuthorities().iterator().next();
+
+        assertSame(fromAlice, fromBob);
+    }
+
+    @Test
+    void loadUserByUsername_shouldReturnNoAuthoritiesWhenUserHasNoRoles() {
+        when(employeeUserDAO.findByUsername("carol")).thenReturn(Optional.of(user(9, "carol")));
+        when(userRoleRepository.findRolePermissionsByEmployeeId(9)).thenReturn(List.of());
+
+        assertTrue(service.loadUserByUsername("carol").getAuthorities().isEmpty());
+    }
+
+    @Test
+    void loadUserByUsername_shouldThrowWhenUserMissing() {
+        when(employeeUserDAO.findByUsername("nobody")).thenReturn(Optional.empty());
+
+        assertThrows(UsernameNotFoundException.class, () -> service.loadUserByUsername("nobody"));
+        verifyNoInteractions(userRoleRepository);
+    }
+}
@@ -0,0 +1,141 @@
+package com.core.security;
+
+import com.project.HR.adapter.EmployeeAdapter;
+import com.project.core.security.EmployeeUserDetails;
+import com.project.core.security.PrincipalChangedEvent;
+import com.project.core.security.TokenRevocationService;
+import com.project.core.security.jwt.JwtUtils;
+import com.project.employeeuser.model.EmployeeType;
+import com.project.employeeuser.model.EmployeeUser;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JwtUtilsTest {
+
+    private static final String SECRET = "YS12ZXJ5LXN0cm9uZy1hbmQtbG9uZy1zZWNyZXQta2V5LWZvci1teS1wcm9qZWN0";
+
+    private JwtUtils jwtUtils;
+    private TokenRevocationService tokenRevocationService;
+
+    @BeforeEach
+    void setUp() {
+        tokenRevocationService = new TokenRevocationService();
+        jwtUtils = newJwtUtils(true);
+    }
+
+    private JwtUtils newJwtUtils(boolean stateless) {
+        JwtUtils utils = new JwtUtils();
+        ReflectionTestUtils.setField(utils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(utils, "jwtExpirationMs", 60_000);
+        ReflectionTestUtils.setField(utils, "statelessEnabled", stateless);
+        ReflectionTestUtils.setField(utils, "tokenRevocationService", tokenRevocationService);
+        ReflectionTestUtils.invokeMethod(utils, "init");
+        return utils;
+    }
+
+    private String login(JwtUtils utils) {
+        EmployeeUser user = new EmployeeUser();
+        user.setEmployeeUserId(42L);
+        user.setUsername("alice");
+        user.setIsActive(true);
+        user.setEmployeeNumber("E0042");
+        user.setFirstName("Alice");
+        user.setLastName("Wang");
+        user.setEmail("alice@example.com");
+        user.setEmployeeType(EmployeeType.values()[0]);
+        user.setHireDate(LocalDate.of(2020, 4, 1));
+        user.setEmployeeDepartmentId(7L);
+        user.setEmployeePositionId(3L);
+        user.setManagerEmployeeUserId(9L);
+        List<GrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("INVENTORY_VIEW"),
+                new SimpleGrantedAuthority("ROLE_3"));
+        EmployeeUserDetails details = new EmployeeUserDetails(user, authorities);
+        return utils.generateJwtToken(new UsernamePasswordAuthenticationToken(details, null, authorities));
+    }
+
+    @Test
+    void statelessToken_shouldRebuildPrincipalFromClaims() {
+        Claims claims = jwtUtils.parseValidClaims(login(jwtUtils));
+
+        assertTrue(jwtUtils.isStatelessToken(claims));
+        EmployeeUserDetails details = jwtUtils.getUserDetailsFromClaims(claims);
+        assertEquals(42L, details.getEmployeeUser().getEmployeeUserId());
+        assertEquals("alice", details.getUsername());
+        // 請假服務、權限檢查讀取的欄位
+        EmployeeUser user = details.getEmployeeUser();
+        assertEquals("E0042", user.getEmployeeNumber());
+        assertEquals("Alice", user.getFirstName());
+        assertEquals("Wang", user.getLastName());
+        assertEquals("alice@example.com", user.getEmail());
+        assertEquals(EmployeeType.values()[0], user.getEmployeeType());
+        assertEquals(LocalDate.of(2020, 4, 1), user.getHireDate());
+        assertEquals(9L, user.getManagerEmployeeUserId());
+        assertEquals(3L, user.getEmployeePositionId());
+        assertEquals(7, EmployeeAdapter.toHr(user).getEmployeeDepartmentId());
+        Set<String> names = details.getAuthorities().stream().map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toSet());
+        assertEquals(Set.of("INVENTORY_VIEW", "ROLE_3"), names);
+        assertFalse(tokenRevocationService.isRevoked(claims));
+    }
+
+    @Test
+    void statelessTokenWithoutProfile_shouldFallBackToLookup() {
+        // 舊版無狀態 token 只有權限與使用者ID
+        String token = Jwts.builder().id("old").subject("alice").claim("uid", 42).claim("perms", List.of("INVENTORY_VIEW"))
+                .issuedAt(new Date()).expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET))).compact();
+
+        assertFalse(jwtUtils.isStatelessToken(jwtUtils.parseValidClaims(token)));
+    }
+
+    @Test
+    void defaultMode_shouldNotEmbedAuthorities() {
+        JwtUtils stateful = newJwtUtils(false);
+        Claims claims = stateful.parseValidClaims(login(stateful));
+
+        assertNotNull(claims.getId());
+        assertFalse(stateful.isStatelessToken(claims));
+        assertNull(claims.get("perms"));
+        assertNull(claims.get("emp"));
+    }
+
+    @Test
+    void parseValidClaims_shouldRejectTamperedToken() {
+        String token = login(jwtUtils);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertNull(jwtUtils.parseValidClaims(tampered));
+    }
+
+    @Test
+    void revocation_shouldHonourLogoutAndVersionBump() {
+        Claims first = jwtUtils.parseValidClaims(login(jwtUtils));
+        Claims second = jwtUtils.parseValidClaims(login(jwtUtils));
+
+        tokenRevocationService.revokeToken(first.getId(), first.getExpiration());
+        assertTrue(tokenRevocationService.isRevoked(first));
+        assertFalse(tokenRevocationService.isRevoked(second));
+
+        // 角色異動後舊的無狀態 token 失效，新簽發的 token 仍有效
+        tokenRevocationService.onPrincipalChanged(new PrincipalChangedEvent("alice"));
+        assertTrue(tokenRevocationService.isRevoked(second));
+        assertFalse(tokenRevocationService.isRevoked(jwtUtils.parseValidClaims(login(jwtUtils))));
+    }
+}
@@ -0,0 +1,72 @@
+package com.core.security;
+
+import com.project.core.cache.CacheStatistics;
+import com.project.core.security.PrincipalCache;
+import com.project.core.security.PrincipalChangedEvent;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PrincipalCacheTest {
+
+    private static UserDetails user(String username) {
+        return User.withUsername(username).password("x").authorities("INVENTORY_VIEW").build();
+    }
+
+    @Test
+    void get_shouldCountHitsAndMisses() {
+        PrincipalCache cache = new PrincipalCache(60_000, 100);
+        assertNull(cache.get("alice", "t1"));
+        cache.put("alice", "t1", user("alice"));
+
+        assertEquals("alice", cache.get("alice", "t1").getUsername());
+        assertNull(cache.get("alice", "t2"));
+
+        CacheStatistics stats = cache.statistics();
+        assertEquals(1, stats.hits());
+        assertEquals(2, stats.misses());
+        assertEquals(1, stats.size());
+    }
+
+    @Test
+    void get_shouldExpireEntriesAfterTtl() throws InterruptedException {
+        PrincipalCache cache = new PrincipalCache(20, 100);
+        cache.put("alice", "t1", user("alice"));
+        Thread.sleep(40);
+
+        assertNull(cache.get("alice", "t1"));
+        assertEquals(1, cache.statistics().evictions());
+        assertEquals(0, cache.statistics().size());
+    }
+
+    @Test
+    void put_shouldEvictLeastRecentlyUsedBeyondMaxSize() {
+        PrincipalCache cache = new PrincipalCache(60_000, 2);
+        cache.put("alice", "t1", user("alice"));
+        cache.put("bob", "t1", user("bob"));
+        cache.get("alice", "t1");
+        cache.put("carol", "t1", user("carol"));
+
+        assertNotNull(cache.get("alice", "t1"));
+        assertNull(cache.get("bob", "t1"));
+        assertEquals(2, cache.statistics().size());
+        assertEquals(1, cache.statistics().evictions());
+    }
+
+    @Test
+    void onPrincipalChanged_shouldDropAllTokensOfThatUserOnly() {
+        PrincipalCache cache = new PrincipalCache(60_000, 100);
+        cache.put("alice", "t1", user("alice"));
+        cache.put("alice", "t2", user("alice"));
+        cache.put("alice2", "t1", user("alice2"));
+
+        cache.onPrincipalChanged(new PrincipalChangedEvent("alice"));
+
+        assertNull(cache.get("alice", "t1"));
+        assertNull(cache.get("alice", "t2"));
+        assertNotNull(cache.get("alice2", "t1"));
+    }
+}
@@ -0,0 +1,206 @@
+package com.core.service;
+
+import com.project.core.dao.SystemLogBatchDao;
+import com.project.core.service.AsyncSystemLogWriter;
+import com.project.core.service.AsyncSystemLogWriter.OverflowPolicy;
+import com.project.core.service.SystemLogEvent;
+import com.testsupport.TestDatabase;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 系統日誌非同步寫入器測試 (H2 記憶體資料庫)
+ */
+public class AsyncSystemLogWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private JdbcDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private Path spillFile;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = TestDatabase.create("system_log", "system_logs");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        spillFile = tempDir.resolve("spill/system-log-spill.jsonl");
+    }
+
+    private AsyncSystemLogWriter writer(int capacity, int batchSize, OverflowPolicy policy) {
+        return new AsyncSystemLogWriter(new SystemLogBatchDao(jdbcTemplate),
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)), capacity, batchSize, 20,
+                policy, spillFile, 5000);
+    }
+
+    private static SystemLogEvent event(String operation) {
+        return event(operation, "admin");
+    }
+
+    private static SystemLogEvent event(String operation, String username) {
+        return new SystemLogEvent("AUDIT", operation, 1, username, "EMPLOYEE", "1", "name", null, null,
+                "desc", "127.0.0.1", "junit", "EMPLOYEE_USER", LocalDateTime.now());
+    }
+
+    private List<String> operations() {
+        return jdbcTemplate.queryForList("SELECT operation FROM system_logs ORDER BY id", String.class);
+    }
+
+    @Test
+    void enqueue_shouldWriteInBatchesAndDrainOnStop() {
+        AsyncSystemLogWriter writer = writer(1000, 7, OverflowPolicy.BLOCK);
+        writer.start();
+        for (int i = 0; i < 50; i++) {
+            writer.enqueue(event("OP" + i));
+        }
+        writer.stop();
+
+        assertEquals(50, operations().size());
+        assertEquals(50, writer.stats().written());
+        assertEquals(0, writer.stats().queueSize());
+        assertFalse(writer.isRunning());
+    }
+
+    @Test
+    void enqueue_shouldOnlyWriteAfterCommit() {
+        AsyncSystemLogWriter writer = writer(1000, 10, OverflowPolicy.BLOCK);
+        TransactionTemplate tx = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        tx.executeWithoutResult(status -> {
+            writer.enqueue(event("COMMITTED"));
+            assertEquals(0, writer.stats().queueSize());
+        });
+        tx.executeWithoutResult(status -> {
+            writer.enqueue(event("ROLLED_BACK"));
+            status.setRollbackOnly();
+        });
+        writer.start();
+        writer.stop();
+
+        assertEquals(List.of("COMMITTED"), operations());
+    }
+
+    @Test
+    void enqueue_blockPolicyShouldWaitForSpaceWithoutLosingEvents() throws Exception {
+        AsyncSystemLogWriter writer = writer(2, 1, OverflowPolicy.BLOCK);
+        writer.start();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int thread = t;
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < 25; i++) {
+                    writer.enqueue(event("T" + thread + "-" + i));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+        writer.stop();
+
+        assertEquals(100, operations().size());
+        assertEquals(0, writer.stats().dropped());
+    }
+
+    @Test
+    void enqueue_dropOldestPolicyShouldKeepNewestEvents() {
+        AsyncSystemLogWriter writer = writer(3, 10, OverflowPolicy.DROP_OLDEST);
+        for (int i = 0; i < 5; i++) {
+            writer.enqueue(event("OP" + i));
+        }
+        assertEquals(2, writer.stats().dropped());
+
+        writer.start();
+        writer.stop();
+
+        assertEquals(List.of("OP2", "OP3", "OP4"), operations());
+    }
+
+    @Test
+    void enqueue_spillPolicyShouldWriteOverflowToFileAndReplayOnStart() throws Exception {
+        AsyncSystemLogWriter writer = writer(2, 10, OverflowPolicy.SPILL);
+        for (int i = 0; i < 5; i++) {
+            writer.enqueue(event("OP" + i));
+        }
+        assertEquals(3, writer.stats().spilled());
+        assertEquals(3, Files.readAllLines(spillFile).size());
+
+        writer.start();
+        writer.stop();
+
+        assertEquals(5, operations().size());
+        assertFalse(Files.exists(spillFile));
+    }
+
+    @Test
+    void write_shouldSpillWhenDatabaseFailsAndReplayOnNextStart() {
+        jdbcTemplate.execute("ALTER TABLE system_logs RENAME TO system_logs_offline");
+        AsyncSystemLogWriter writer = writer(100, 10, OverflowPolicy.SPILL);
+        writer.start();
+        writer.enqueue(event("OP1"));
+        writer.enqueue(event("OP2"));
+        writer.stop();
+        assertTrue(writer.stats().failedBatches() > 0);
+        assertTrue(Files.exists(spillFile));
+
+        jdbcTemplate.execute("ALTER TABLE system_logs_offline RENAME TO system_logs");
+        AsyncSystemLogWriter restarted = writer(100, 10, OverflowPolicy.SPILL);
+        restarted.start();
+        restarted.stop();
+
+        assertEquals(List.of("OP1", "OP2"), operations());
+    }
+
+    @Test
+    void replay_shouldStopAtFirstFailedBatchAndWriteRestBackOnce() throws Exception {
+        AsyncSystemLogWriter spilling = writer(1, 10, OverflowPolicy.SPILL);
+        for (int i = 0; i < 26; i++) {
+            spilling.enqueue(event("OP" + i)); // 第一筆留在佇列，其餘 25 筆寫到檔案
+        }
+        List<String> spilledLines = Files.readAllLines(spillFile);
+        assertEquals(25, spilledLines.size());
+
+        jdbcTemplate.execute("ALTER TABLE system_logs RENAME TO system_logs_offline");
+        AsyncSystemLogWriter writer = writer(100, 10, OverflowPolicy.SPILL);
+        writer.start();
+        Thread.sleep(300); // 短於第一次退避時間，期間不應再次補寫
+        writer.stop();
+
+        // 第一批失敗後即停止，三批只嘗試一次，檔案內容與順序不變
+        assertEquals(1, writer.stats().failedBatches());
+        assertEquals(spilledLines, Files.readAllLines(spillFile));
+    }
+
+    @Test
+    void write_shouldDropOnlyInvalidEventsOfBatch() {
+        AsyncSystemLogWriter writer = writer(100, 10, OverflowPolicy.SPILL);
+        writer.enqueue(event("OK1"));
+        writer.enqueue(event("BAD", null));
+        writer.enqueue(event("OK2"));
+        writer.start();
+        writer.stop();
+
+        assertEquals(List.of("OK1", "OK2"), operations());
+        assertEquals(1, writer.stats().dropped());
+        assertFalse(Files.exists(spillFile));
+    }
+}
@@ -0,0 +1,156 @@
+package com.core.service;
+
+import com.project.core.dao.EmployeeRepository;
+import com.project.core.dao.LowStockAlertDao;
+import com.project.core.dao.SchedulerLockDao;
+import com.project.core.dao.UserRoleRepository;
+import com.project.core.dto.response.NotificationPushDto;
+import com.project.core.model.Employee;
+import com.project.core.service.InventoryAlertService;
+import com.project.core.service.NotificationUnreadCounter;
+import com.project.depot.service.StockThresholdCrossedEvent;
+import com.project.employeeuser.handler.SimpleWebSocketHandler;
+import com.testsupport.TestDatabase;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * 低庫存通知測試
+ * 以 H2 記憶體資料庫驗證集合式通知產生、去重與排程鎖。
+ */
+public class InventoryAlertServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private SimpleWebSocketHandler webSocketHandler;
+    private NotificationUnreadCounter unreadCounter;
+    private InventoryAlertService inventoryAlertService;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource dataSource = TestDatabase.create("alert", "core_materials", "notifications",
+                "low_stock_alert_states", "scheduler_locks");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        material(1, "鐵", "7", "50");
+        material(2, "銅", "100", "50");
+        material(3, "鋁", "1", "10");
+
+        UserRoleRepository userRoleRepository = mock(UserRoleRepository.class);
+        when(userRoleRepository.findEmployeeIdsByRoleNames(any())).thenReturn(List.of(11, 12));
+        EmployeeRepository employeeRepository = mock(EmployeeRepository.class);
+        when(employeeRepository.findAllById(any())).thenReturn(List.of(employee(11, "buyer1"), employee(12, "buyer2")));
+        webSocketHandler = mock(SimpleWebSocketHandler.class);
+        unreadCounter = mock(NotificationUnreadCounter.class);
+        inventoryAlertService = new InventoryAlertService(userRoleRepository, employeeRepository,
+                new LowStockAlertDao(jdbcTemplate), new SchedulerLockDao(jdbcTemplate),
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)), webSocketHandler,
+                unreadCounter);
+    }
+
+    private static Employee employee(int id, String username) {
+        Employee employee = new Employee();
+        employee.setEmployeeId(id);
+        employee.setUsername(username);
+        return employee;
+    }
+
+    private void material(long id, String name, String current, String safety) {
+        TestDatabase.insertMaterial(jdbcTemplate, id, name, new BigDecimal(current), new BigDecimal(safety));
+    }
+
+    private void setStock(long id, String current) {
+        jdbcTemplate.update("UPDATE core_materials SET stock_current = ? WHERE material_id = ?",
+                new BigDecimal(current), id);
+    }
+
+    private int countNotifications() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM notifications", Integer.class);
+    }
+
+    @Test
+    void checkAndNotifyLowStock_shouldNotifyEachBuyerOnceAndSkipUnchangedMaterials() {
+        assertEquals(4, inventoryAlertService.checkAndNotifyLowStock());
+        assertEquals(List.of("鐵: 剩餘 7 個 < 安全庫存50"), jdbcTemplate.queryForList(
+                "SELECT DISTINCT message FROM notifications WHERE dedupe_key = 'LOW_STOCK:1'", String.class));
+        verify(unreadCounter).created(List.of(11, 12, 11, 12));
+
+        // 數值沒變，不再處理
+        assertEquals(0, inventoryAlertService.checkAndNotifyLowStock());
+        assertEquals(4, countNotifications());
+    }
+
+    @Test
+    void checkAndNotifyLowStock_changedMaterialShouldRefreshUnreadAndNotifyUsersWhoReadIt() {
+        inventoryAlertService.checkAndNotifyLowStock();
+        jdbcTemplate.update("UPDATE notifications SET is_read = 1 WHERE user_id = 11 AND dedupe_key = 'LOW_STOCK:1'");
+
+        setStock(1, "3");
+        assertEquals(1, inventoryAlertService.checkAndNotifyLowStock());
+
+        assertEquals(5, countNotifications());
+        assertEquals(List.of("鐵: 剩餘 3 個 < 安全庫存50", "鐵: 剩餘 3 個 < 安全庫存50"), jdbcTemplate.queryForList(
+                "SELECT message FROM notifications WHERE dedupe_key = 'LOW_STOCK:1' AND is_read = 0", String.class));
+    }
+
+    @Test
+    void checkAndNotifyLowStock_recoveredMaterialShouldBeNotifiedAgainWhenLow() {
+        inventoryAlertService.checkAndNotifyLowStock();
+        jdbcTemplate.update("UPDATE notifications SET is_read = 1");
+
+        setStock(3, "20");
+        assertEquals(0, inventoryAlertService.checkAndNotifyLowStock());
+        setStock(3, "1");
+        assertEquals(2, inventoryAlertService.checkAndNotifyLowStock());
+    }
+
+    @Test
+    void checkAndNotifyLowStock_shouldSkipWhileAnotherNodeHoldsLock() {
+        jdbcTemplate.update("INSERT INTO scheduler_locks (lock_name, locked_by, locked_at, locked_until) "
+                + "VALUES ('low-stock-alert', 'other-node', CURRENT_TIMESTAMP, "
+                + "DATEADD(MINUTE, 5, CURRENT_TIMESTAMP))");
+        assertEquals(0, inventoryAlertService.checkAndNotifyLowStock());
+        assertEquals(0, countNotifications());
+
+        // 租約到期後可接手
+        jdbcTemplate.update("UPDATE scheduler_locks SET locked_until = DATEADD(MINUTE, -1, CURRENT_TIMESTAMP)");
+        assertEquals(4, inventoryAlertService.checkAndNotifyLowStock());
+        // 執行完畢後釋放
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM scheduler_locks "
+                + "WHERE lock_name = 'low-stock-alert' AND locked_until <= CURRENT_TIMESTAMP", Integer.class));
+    }
+
+    @Test
+    void onStockThresholdCrossed_shouldNotifyAndPushToOnlineBuyersOnly() {
+        when(webSocketHandler.getOnlineUsers()).thenReturn(Set.of("buyer2"));
+
+        inventoryAlertService.onStockThresholdCrossed(new StockThresholdCrossedEvent(List.of(
+                new StockThresholdCrossedEvent.Crossing(1L, "鐵", new BigDecimal("7"), new BigDecimal("50")))));
+
+        assertEquals(2, countNotifications());
+        ArgumentCaptor<Object> push = ArgumentCaptor.forClass(Object.class);
+        verify(webSocketHandler, times(1)).sendToUser(eq("buyer2"), eq("notification"), push.capture());
+        assertEquals("LOW_STOCK:1", ((NotificationPushDto) push.getValue()).getDedupeKey());
+        verify(webSocketHandler, never()).sendToUser(eq("buyer1"), any(), any());
+
+        // 已記錄物料狀態，定時補掃不重複通知
+        assertEquals(2, inventoryAlertService.checkAndNotifyLowStock());
+        assertEquals(4, countNotifications());
+        assertEquals(2, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM notifications WHERE dedupe_key = 'LOW_STOCK:1'", Integer.class));
+    }
+}
@@ -0,0 +1,92 @@
+package com.core.service;
+
+import com.project.core.dao.NotificationRetentionDao;
+import com.project.core.dao.SchedulerLockDao;
+import com.project.core.service.NotificationRetentionService;
+import com.testsupport.TestDatabase;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 通知保留期限測試 (H2 記憶體資料庫)
+ */
+public class NotificationRetentionServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private SchedulerLockDao lockDao;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource dataSource = TestDatabase.create("retention", "notifications", "notifications_archive",
+                "scheduler_locks");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        lockDao = new SchedulerLockDao(jdbcTemplate);
+
+        LocalDateTime now = LocalDateTime.now();
+        for (int id = 1; id <= 7; id++) {
+            notification(id, true, now.minusDays(100 + id));
+        }
+        notification(8, false, now.minusDays(200)); // 未讀不清理
+        notification(9, true, now.minusDays(10)); // 未超過保留天數
+    }
+
+    private void notification(int id, boolean read, LocalDateTime createdAt) {
+        jdbcTemplate.update("INSERT INTO notifications (id, user_id, type, title, message, link, is_read, created_at, "
+                + "dedupe_key) VALUES (?, 11, 'LOW_STOCK', 't', 'm', '/materials', ?, ?, ?)",
+                id, read ? 1 : 0, Timestamp.valueOf(createdAt), "LOW_STOCK:" + id);
+    }
+
+    private NotificationRetentionService service(int batchSize, int maxBatches, boolean archive) {
+        return new NotificationRetentionService(new NotificationRetentionDao(jdbcTemplate), lockDao,
+                transactionTemplate, 90, batchSize, maxBatches, archive);
+    }
+
+    private List<Integer> remainingIds() {
+        return jdbcTemplate.queryForList("SELECT id FROM notifications ORDER BY id", Integer.class);
+    }
+
+    @Test
+    void purgeReadNotifications_shouldArchiveExpiredReadNotificationsInBatches() {
+        assertEquals(7, service(3, 10, true).purgeReadNotifications());
+
+        assertEquals(List.of(8, 9), remainingIds());
+        assertEquals(7, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM notifications_archive", Integer.class));
+        assertEquals("LOW_STOCK:1", jdbcTemplate.queryForObject(
+                "SELECT dedupe_key FROM notifications_archive WHERE id = 1", String.class));
+    }
+
+    @Test
+    void purgeReadNotifications_shouldStopAfterMaxBatchesOldestFirst() {
+        assertEquals(4, service(2, 2, false).purgeReadNotifications());
+
+        // 最舊的 7、6、5、4 先清理
+        assertEquals(List.of(1, 2, 3, 8, 9), remainingIds());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM notifications_archive", Integer.class));
+
+        assertEquals(3, service(2, 2, false).purgeReadNotifications());
+        assertEquals(List.of(8, 9), remainingIds());
+    }
+
+    @Test
+    void purgeReadNotifications_shouldSkipWhileAnotherNodeHoldsLock() {
+        jdbcTemplate.update("INSERT INTO scheduler_locks (lock_name, locked_by, locked_at, locked_until) "
+                + "VALUES ('notification-retention', 'other', "
+                + "CURRENT_TIMESTAMP, DATEADD(SECOND, 60, CURRENT_TIMESTAMP))");
+
+        assertEquals(0, service(3, 10, true).purgeReadNotifications());
+        assertEquals(9, remainingIds().size());
+    }
+}
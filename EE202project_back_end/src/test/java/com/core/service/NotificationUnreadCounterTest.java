@@ -0,0 +1,104 @@
+package com.core.service;
+
+import com.project.core.dao.EmployeeRepository;
+import com.project.core.dao.NotificationRepository;
+import com.project.core.dto.response.UnreadCountDeltaDto;
+import com.project.core.model.Employee;
+import com.project.core.service.NotificationUnreadCounter;
+import com.project.employeeuser.handler.SimpleWebSocketHandler;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class NotificationUnreadCounterTest {
+
+    private NotificationRepository notificationRepository;
+    private EmployeeRepository employeeRepository;
+    private SimpleWebSocketHandler webSocketHandler;
+
+    @BeforeEach
+    void setUp() {
+        notificationRepository = mock(NotificationRepository.class);
+        employeeRepository = mock(EmployeeRepository.class);
+        webSocketHandler = mock(SimpleWebSocketHandler.class);
+        Employee employee = new Employee();
+        employee.setEmployeeId(11);
+        employee.setUsername("buyer1");
+        when(employeeRepository.findByUsername("buyer1")).thenReturn(Optional.of(employee));
+        when(notificationRepository.countByUserIdAndReadFalse(11)).thenReturn(3L);
+    }
+
+    private NotificationUnreadCounter counter(long resyncMs) {
+        return new NotificationUnreadCounter(notificationRepository, employeeRepository, webSocketHandler, resyncMs);
+    }
+
+    @Test
+    void unreadCount_shouldLoadOnceAndServeFromMemory() {
+        NotificationUnreadCounter counter = counter(60_000);
+
+        assertEquals(3, counter.unreadCount("buyer1"));
+        assertEquals(11, counter.userId("buyer1"));
+        assertEquals(3, counter.unreadCount("buyer1"));
+
+        verify(employeeRepository, times(1)).findByUsername("buyer1");
+        verify(notificationRepository, times(1)).countByUserIdAndReadFalse(11);
+        assertEquals(2, counter.statistics().hits());
+        assertEquals(1, counter.statistics().misses());
+    }
+
+    @Test
+    void adjust_shouldUpdateCountAndPushDelta() {
+        NotificationUnreadCounter counter = counter(60_000);
+        counter.unreadCount("buyer1");
+
+        counter.created(List.of(11, 11));
+        counter.adjust(11, -1);
+        counter.adjust(11, -10);
+
+        assertEquals(0, counter.unreadCount("buyer1"));
+        ArgumentCaptor<Object> pushes = ArgumentCaptor.forClass(Object.class);
+        verify(webSocketHandler, times(3)).sendToUser(eq("buyer1"), eq("unread-count"), pushes.capture());
+        List<UnreadCountDeltaDto> deltas = pushes.getAllValues().stream().map(UnreadCountDeltaDto.class::cast)
+                .toList();
+        assertEquals(List.of(2L, -1L, -10L), deltas.stream().map(UnreadCountDeltaDto::getDelta).toList());
+        assertEquals(List.of(5L, 4L, 0L), deltas.stream().map(UnreadCountDeltaDto::getUnreadCount).toList());
+    }
+
+    @Test
+    void adjust_shouldSkipUsersNotLoadedYet() {
+        NotificationUnreadCounter counter = counter(60_000);
+
+        counter.created(List.of(11));
+
+        verify(webSocketHandler, never()).sendToUser(anyString(), anyString(), any());
+        // 之後查詢時由資料庫載入，已包含新增的通知
+        assertEquals(3, counter.unreadCount("buyer1"));
+    }
+
+    @Test
+    void unreadCount_shouldReloadAfterResyncInterval() {
+        NotificationUnreadCounter counter = counter(0);
+        counter.unreadCount("buyer1");
+        when(notificationRepository.countByUserIdAndReadFalse(11)).thenReturn(7L);
+
+        assertEquals(7, counter.unreadCount("buyer1"));
+        assertEquals(1, counter.statistics().evictions());
+    }
+
+    @Test
+    void userId_shouldRejectUnknownUser() {
+        when(employeeRepository.findByUsername("ghost")).thenReturn(Optional.empty());
+
+        assertThrows(IllegalStateException.class, () -> counter(60_000).userId("ghost"));
+    }
+}
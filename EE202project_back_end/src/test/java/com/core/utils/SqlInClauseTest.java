@@ -0,0 +1,34 @@
+package com.core.utils;
+
+import com.project.core.utils.SqlInClause;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * IN (...) 分段工具測試
+ */
+public class SqlInClauseTest {
+
+    @Test
+    void chunks_shouldSplitAtLimitAndKeepOrder() {
+        List<Long> ids = LongStream.rangeClosed(1, SqlInClause.LIMIT * 2L + 1).boxed().toList();
+
+        List<List<Long>> chunks = SqlInClause.chunks(new LinkedHashSet<>(ids));
+
+        assertEquals(List.of(SqlInClause.LIMIT, SqlInClause.LIMIT, 1), chunks.stream().map(List::size).toList());
+        assertEquals(ids, chunks.stream().flatMap(List::stream).toList());
+        assertTrue(SqlInClause.chunks(List.of()).isEmpty());
+    }
+
+    @Test
+    void placeholders_shouldMatchValueCount() {
+        assertEquals("?", SqlInClause.placeholders(List.of(1L)));
+        assertEquals("?, ?, ?", SqlInClause.placeholders(List.of("a", "b", "c")));
+    }
+}
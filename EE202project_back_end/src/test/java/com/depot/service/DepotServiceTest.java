@@ -12,6 +12,7 @@ import com.project.depot.model.InboundReceiptItem;
 import com.project.depot.model.InventoryTransaction;
 import com.project.depot.model.Material;
 import com.project.depot.service.DepotServiceImpl;
+import com.project.depot.service.StockMutationService;
 import com.project.employeeuser.model.EmployeeUser;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -28,7 +29,6 @@ import java.util.List; // 引入 List
 import java.util.Optional;
 import java.util.Set;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -50,6 +50,9 @@ public class DepotServiceTest {
     @Mock
     private EmployeeUserRepository employeeUserRepository;
 
+    @Mock
+    private StockMutationService stockMutationService;
+
     @InjectMocks
     private DepotServiceImpl depotService;
 
@@ -100,6 +103,8 @@ public class DepotServiceTest {
         });
         // 當根據ID尋找物料時，返回我們準備的物料
         when(materialRepository.findById(1L)).thenReturn(Optional.of(material));
+        // 庫存由 StockMutationService 以原子差量更新
+        when(stockMutationService.applyDelta(1L, new BigDecimal("50.00"))).thenReturn(true);
 
         // --- 執行測試 --- //
         InboundReceiptCreateRequest inboundReceiptCreateRequest = new InboundReceiptCreateRequest();
@@ -119,10 +124,10 @@ public class DepotServiceTest {
         depotService.createInboundReceipt(inboundReceiptCreateRequest);
 
         // --- 驗證 --- //
-        // 1. 驗證物料庫存是否正確更新 (100 + 50 = 150)
-        assertEquals(new BigDecimal("150.00"), material.getStockCurrent());
-        // 2. 驗證 materialRepository.save() 是否被呼叫一次
-        verify(materialRepository, times(1)).save(material);
+        // 1. 驗證物料庫存以差量 +50 更新，而非讀取後寫回
+        verify(stockMutationService, times(1)).applyDelta(1L, new BigDecimal("50.00"));
+        // 2. 驗證不再透過 materialRepository.save() 寫回整筆物料
+        verify(materialRepository, never()).save(material);
         // 3. 驗證 inventoryTransactionRepository.save() 是否被呼叫一次
         verify(inventoryTransactionRepository, times(1)).save(any(InventoryTransaction.class));
     }
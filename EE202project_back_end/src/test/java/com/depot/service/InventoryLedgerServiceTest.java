@@ -0,0 +1,112 @@
+package com.depot.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.project.depot.dao.InventoryLedgerDao;
+import com.project.depot.dto.request.InventoryTransactionFilter;
+import com.project.depot.dto.response.InventoryTransactionPageResponse;
+import com.project.depot.dto.response.InventoryTransactionResponse;
+import com.project.depot.service.InventoryLedgerServiceImpl;
+import com.testsupport.TestDatabase;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 庫存交易流水帳服務測試
+ * 以 H2 記憶體資料庫驗證 keyset 分頁不重複、不遺漏，以及串流匯出的內容。
+ */
+public class InventoryLedgerServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private InventoryLedgerServiceImpl inventoryLedgerService;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource dataSource = TestDatabase.create("ledger", "core_materials", "inventory_transactions");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        TestDatabase.insertMaterial(jdbcTemplate, 1L, "Bolt, M6", BigDecimal.ZERO, null);
+        TestDatabase.insertMaterial(jdbcTemplate, 2L, "Nut", BigDecimal.ZERO, null);
+
+        // 每三筆共用同一個交易時間，確認游標在相同時間下仍以交易ID區分
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 8, 0);
+        for (long id = 1; id <= 25; id++) {
+            jdbcTemplate.update("INSERT INTO inventory_transactions (transaction_id, material_id, transaction_type, "
+                    + "quantity, transaction_date, reference_table, reference_id, notes) VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                    id, id % 2 == 0 ? 2L : 1L, "PURCHASE_INBOUND", id, Timestamp.valueOf(base.plusMinutes(id / 3)),
+                    "inbound_receipts", id, id == 1 ? "say \"hi\"" : null);
+        }
+
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        inventoryLedgerService = new InventoryLedgerServiceImpl(new InventoryLedgerDao(dataSource), objectMapper);
+    }
+
+    @Test
+    void findPage_shouldWalkAllRowsWithoutGapsOrDuplicates() {
+        List<Long> seen = new ArrayList<>();
+        LocalDateTime afterDate = null;
+        Long afterId = null;
+        int pages = 0;
+        InventoryTransactionPageResponse page;
+        do {
+            page = inventoryLedgerService.findPage(new InventoryTransactionFilter(), afterDate, afterId, 7);
+            page.getItems().forEach(item -> seen.add(item.getTransactionId()));
+            afterDate = page.getNextAfterDate();
+            afterId = page.getNextAfterId();
+            pages++;
+        } while (page.isHasMore());
+
+        assertEquals(4, pages);
+        assertEquals(25, seen.size());
+        for (int i = 0; i < seen.size(); i++) {
+            assertEquals(25L - i, seen.get(i));
+        }
+        assertNull(page.getNextAfterId());
+    }
+
+    @Test
+    void findPage_shouldApplyFilter() {
+        InventoryTransactionPageResponse page = inventoryLedgerService
+                .findPage(new InventoryTransactionFilter(2L, null, null), null, null, 100);
+
+        assertEquals(12, page.getItems().size());
+        assertFalse(page.isHasMore());
+        assertTrue(page.getItems().stream().map(InventoryTransactionResponse::getMaterialName).allMatch("Nut"::equals));
+    }
+
+    @Test
+    void export_csv_shouldStreamInChronologicalOrderWithEscaping() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        inventoryLedgerService.export(new InventoryTransactionFilter(1L, null, null), "csv", out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(14, lines.length);
+        assertTrue(lines[0].startsWith("transaction_id,"));
+        assertTrue(lines[1].startsWith("1,1,\"Bolt, M6\",PURCHASE_INBOUND,1.0000,"));
+        assertTrue(lines[1].endsWith(",\"say \"\"hi\"\"\""));
+        assertTrue(lines[13].startsWith("25,"));
+    }
+
+    @Test
+    void export_ndjson_shouldWriteOneObjectPerLine() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        inventoryLedgerService.export(null, "ndjson", out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(25, lines.length);
+        assertTrue(lines[0].contains("\"transactionId\":1"));
+        assertTrue(lines[24].contains("\"transactionId\":25"));
+    }
+}
@@ -0,0 +1,180 @@
+package com.depot.service;
+
+import com.project.depot.service.StockChangedEvent;
+import com.project.depot.service.StockMutationServiceImpl;
+import com.project.depot.service.StockThresholdCrossedEvent;
+import com.testsupport.TestDatabase;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * 庫存異動服務併發測試
+ * 以 H2 記憶體資料庫模擬多名人員同時異動同一物料，確認沒有遺失更新。
+ */
+public class StockMutationServiceConcurrencyTest {
+
+    private static final int WRITERS = 32;
+    private static final int OPERATIONS_PER_WRITER = 200;
+
+    private JdbcTemplate jdbcTemplate;
+    private ApplicationEventPublisher eventPublisher;
+    private StockMutationServiceImpl stockMutationService;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(TestDatabase.create("stock", "core_materials"));
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        stockMutationService = new StockMutationServiceImpl(jdbcTemplate, eventPublisher);
+    }
+
+    @Test
+    void concurrentInbound_shouldNotLoseUpdates() throws Exception {
+        material(1L, 0, null, "M1");
+
+        List<Integer> applied = runWriters(() -> {
+            int count = 0;
+            for (int i = 0; i < OPERATIONS_PER_WRITER; i++) {
+                if (stockMutationService.applyDelta(1L, BigDecimal.ONE)) {
+                    count++;
+                }
+            }
+            return count;
+        });
+
+        assertEquals(WRITERS * OPERATIONS_PER_WRITER, applied.stream().mapToInt(Integer::intValue).sum());
+        assertEquals(0, BigDecimal.valueOf(WRITERS * OPERATIONS_PER_WRITER).compareTo(stock(1L)));
+    }
+
+    @Test
+    void concurrentPicking_shouldNeverOversell() throws Exception {
+        int initialStock = WRITERS * OPERATIONS_PER_WRITER / 2;
+        material(1L, initialStock, null, "M1");
+
+        List<Integer> applied = runWriters(() -> {
+            int count = 0;
+            for (int i = 0; i < OPERATIONS_PER_WRITER; i++) {
+                if (stockMutationService.applyDelta(1L, BigDecimal.ONE.negate())) {
+                    count++;
+                }
+            }
+            return count;
+        });
+
+        // 恰好扣到 0，不多扣也不少扣
+        assertEquals(initialStock, applied.stream().mapToInt(Integer::intValue).sum());
+        assertEquals(0, BigDecimal.ZERO.compareTo(stock(1L)));
+    }
+
+    @Test
+    void concurrentMixedDeltas_shouldMatchSumOfAppliedDeltas() throws Exception {
+        material(1L, 100, null, "M1");
+        material(2L, 100, null, "M2");
+
+        List<Integer> applied = runWriters(() -> {
+            int net = 0;
+            for (int i = 0; i < OPERATIONS_PER_WRITER; i++) {
+                Map<Long, BigDecimal> deltas = new LinkedHashMap<>();
+                int delta = (i % 3 == 0) ? -2 : 1;
+                deltas.put(1L, BigDecimal.valueOf(delta));
+                deltas.put(2L, BigDecimal.valueOf(delta));
+                List<Long> rejected = stockMutationService.applyDeltas(deltas);
+                if (!rejected.contains(1L)) {
+                    net += delta;
+                }
+            }
+            return net;
+        });
+
+        int expected = 100 + applied.stream().mapToInt(Integer::intValue).sum();
+        assertEquals(0, BigDecimal.valueOf(expected).compareTo(stock(1L)));
+        assertTrue(stock(2L).signum() >= 0);
+    }
+
+    @Test
+    void applyDelta_shouldRejectWhenResultWouldBeNegative() {
+        material(1L, 5, null, "M1");
+
+        assertFalse(stockMutationService.applyDelta(1L, BigDecimal.valueOf(-6)));
+        assertTrue(stockMutationService.applyDelta(1L, BigDecimal.valueOf(-5)));
+        assertEquals(0, BigDecimal.ZERO.compareTo(stock(1L)));
+    }
+
+    @Test
+    void applyDeltas_shouldPublishEventOnlyOnDownwardCrossing() {
+        material(1L, 12, 10, "鐵");
+        material(2L, 5, 10, "銅");
+        material(3L, 50, 10, "鋁");
+
+        Map<Long, BigDecimal> deltas = new LinkedHashMap<>();
+        deltas.put(1L, BigDecimal.valueOf(-3)); // 12 -> 9：往下穿越
+        deltas.put(2L, BigDecimal.valueOf(-1)); // 5 -> 4：原本就低於安全庫存
+        deltas.put(3L, BigDecimal.valueOf(-1)); // 50 -> 49：仍高於安全庫存
+        stockMutationService.applyDeltas(deltas);
+
+        ArgumentCaptor<Object> event = ArgumentCaptor.forClass(Object.class);
+        verify(eventPublisher, times(2)).publishEvent(event.capture());
+        StockThresholdCrossedEvent crossed = (StockThresholdCrossedEvent) event.getAllValues().get(0);
+        assertEquals(List.of(1L), crossed.materials().stream().map(StockThresholdCrossedEvent.Crossing::materialId)
+                .toList());
+        assertEquals(0, BigDecimal.valueOf(9).compareTo(crossed.materials().get(0).stockCurrent()));
+        assertEquals(new StockChangedEvent(List.of(1L, 2L, 3L)), event.getAllValues().get(1));
+
+        // 已低於安全庫存後再扣減或入庫都不再發布
+        stockMutationService.applyDelta(1L, BigDecimal.valueOf(-1));
+        stockMutationService.applyDelta(1L, BigDecimal.valueOf(5));
+        verify(eventPublisher, times(1)).publishEvent(any(StockThresholdCrossedEvent.class));
+        verify(eventPublisher, times(3)).publishEvent(any(StockChangedEvent.class));
+    }
+
+    private void material(Long materialId, int stock, Integer safetyStock, String name) {
+        TestDatabase.insertMaterial(jdbcTemplate, materialId, name, BigDecimal.valueOf(stock),
+                safetyStock != null ? BigDecimal.valueOf(safetyStock) : null);
+    }
+
+    private List<Integer> runWriters(Callable<Integer> writer) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < WRITERS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return writer.call();
+                }));
+            }
+            start.countDown();
+            List<Integer> results = new ArrayList<>();
+            for (Future<Integer> future : futures) {
+                results.add(future.get(60, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private BigDecimal stock(Long materialId) {
+        return jdbcTemplate.queryForObject("SELECT stock_current FROM core_materials WHERE material_id = ?",
+                BigDecimal.class, materialId);
+    }
+}
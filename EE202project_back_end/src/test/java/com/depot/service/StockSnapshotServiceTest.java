@@ -0,0 +1,163 @@
+package com.depot.service;
+
+import com.project.depot.dao.StockSnapshotDao;
+import com.project.depot.dto.response.StockAtResponse;
+import com.project.depot.dto.response.StockSnapshotRefreshResponse;
+import com.project.depot.service.StockSnapshotServiceImpl;
+import com.testsupport.TestDatabase;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 每日庫存快照服務測試
+ * 以 H2 記憶體資料庫比對「快照 + 補算」與逐筆累計交易的結果。
+ * 交易列的格式與 DepotServiceImpl、WorkOrderServiceImpl 寫入的相同：出庫也以正數記錄，由交易類型區分；
+ * 寫入交易時同步異動 stock_current，物料建立時的期初庫存則沒有交易紀錄。
+ */
+public class StockSnapshotServiceTest {
+
+    private static final LocalDate DAY1 = LocalDate.of(2025, 3, 1);
+
+    private JdbcTemplate jdbcTemplate;
+    private StockSnapshotServiceImpl stockSnapshotService;
+    private long nextTransactionId = 1;
+    // 逐筆記錄的預期異動 (出庫為負)，用來獨立計算預期庫存
+    private final List<Object[]> expected = new ArrayList<>();
+    private final Map<Long, BigDecimal> openingStock = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(TestDatabase.create("snapshot", "core_materials", "inventory_transactions",
+                "inventory_stock_snapshots"));
+        stockSnapshotService = new StockSnapshotServiceImpl(new StockSnapshotDao(jdbcTemplate));
+        ReflectionTestUtils.setField(stockSnapshotService, "settleLagSeconds", 0L);
+        for (long materialId = 1; materialId <= 3; materialId++) {
+            createMaterial(materialId, "0");
+        }
+    }
+
+    @Test
+    void getStockAt_shouldIncludeOpeningStockWithoutLedgerRows() {
+        createMaterial(4L, "100");
+        assertEquals(0, new BigDecimal("100").compareTo(stockSnapshotService.getStockAt(4L, DAY1).getStock()));
+
+        addTransaction(4L, DAY1, "PURCHASE_INBOUND", "20");
+        addTransaction(4L, DAY1.plusDays(2), "SHIPMENT_OUTBOUND", "50");
+        stockSnapshotService.refreshSnapshots();
+        addTransaction(4L, DAY1.plusDays(3), "PRODUCTION_OUTBOUND", "5");
+
+        assertEquals(0, new BigDecimal("100").compareTo(stockSnapshotService.getStockAt(4L, DAY1.minusDays(1)).getStock()));
+        assertEquals(0, new BigDecimal("120").compareTo(stockSnapshotService.getStockAt(4L, DAY1.plusDays(1)).getStock()));
+        assertEquals(0, new BigDecimal("70").compareTo(stockSnapshotService.getStockAt(4L, DAY1.plusDays(2)).getStock()));
+        assertEquals(0, new BigDecimal("65").compareTo(stockSnapshotService.getStockAt(4L, DAY1.plusDays(3)).getStock()));
+    }
+
+    @Test
+    void refreshSnapshots_shouldOnlyProcessTransactionsAfterWatermark() {
+        addTransaction(1L, DAY1, "PURCHASE_INBOUND", "10");
+        addTransaction(1L, DAY1.plusDays(1), "PRODUCTION_OUTBOUND", "3");
+
+        StockSnapshotRefreshResponse first = stockSnapshotService.refreshSnapshots();
+        assertEquals(0L, first.getFromTransactionId());
+        assertEquals(2L, first.getToTransactionId());
+        assertEquals(2, first.getAffectedDays());
+
+        addTransaction(1L, DAY1.plusDays(2), "PRODUCTION_INBOUND", "5");
+        StockSnapshotRefreshResponse second = stockSnapshotService.refreshSnapshots();
+        assertEquals(2L, second.getFromTransactionId());
+        assertEquals(3L, second.getToTransactionId());
+        assertEquals(1, second.getAffectedDays());
+
+        assertEquals(0, new BigDecimal("7").compareTo(closingBalance(1L, DAY1.plusDays(1))));
+        assertEquals(0, new BigDecimal("12").compareTo(closingBalance(1L, DAY1.plusDays(2))));
+        assertEquals(0, stockSnapshotService.refreshSnapshots().getAffectedDays());
+    }
+
+    @Test
+    void refreshSnapshots_backdatedTransactionShouldAdjustLaterSnapshots() {
+        addTransaction(1L, DAY1, "PURCHASE_INBOUND", "10");
+        addTransaction(1L, DAY1.plusDays(5), "PURCHASE_INBOUND", "10");
+        stockSnapshotService.refreshSnapshots();
+
+        addTransaction(1L, DAY1.plusDays(2), "PRODUCTION_OUTBOUND", "4");
+        stockSnapshotService.refreshSnapshots();
+
+        assertEquals(0, new BigDecimal("10").compareTo(closingBalance(1L, DAY1)));
+        assertEquals(0, new BigDecimal("6").compareTo(closingBalance(1L, DAY1.plusDays(2))));
+        assertEquals(0, new BigDecimal("16").compareTo(closingBalance(1L, DAY1.plusDays(5))));
+    }
+
+    @Test
+    void getStockAt_shouldMatchLedgerSumWithPendingTransactions() {
+        createMaterial(2L, "50");
+        createMaterial(3L, "120");
+        String[] types = { "PURCHASE_INBOUND", "PRODUCTION_INBOUND", "PRODUCTION_OUTBOUND", "SHIPMENT_OUTBOUND" };
+        Random random = new Random(42);
+        for (int i = 0; i < 300; i++) {
+            addTransaction(1L + random.nextInt(3), DAY1.plusDays(random.nextInt(30)),
+                    types[random.nextInt(types.length)], String.valueOf(1 + random.nextInt(10)));
+            if (i % 70 == 0) {
+                stockSnapshotService.refreshSnapshots();
+            }
+        }
+
+        for (long materialId = 1; materialId <= 3; materialId++) {
+            for (int day = -1; day <= 31; day++) {
+                LocalDate date = DAY1.plusDays(day);
+                StockAtResponse response = stockSnapshotService.getStockAt(materialId, date);
+                assertEquals(0, expectedStock(materialId, date).compareTo(response.getStock()),
+                        "material " + materialId + " on " + date);
+            }
+        }
+    }
+
+    // 建立物料 (期初庫存沒有交易紀錄)；已存在時改寫期初庫存
+    private void createMaterial(Long materialId, String stock) {
+        if (openingStock.containsKey(materialId)) {
+            jdbcTemplate.update("UPDATE core_materials SET stock_current = ? WHERE material_id = ?",
+                    new BigDecimal(stock), materialId);
+        } else {
+            TestDatabase.insertMaterial(jdbcTemplate, materialId, "M" + materialId, new BigDecimal(stock), null);
+        }
+        openingStock.put(materialId, new BigDecimal(stock));
+    }
+
+    private void addTransaction(Long materialId, LocalDate date, String type, String quantity) {
+        jdbcTemplate.update("INSERT INTO inventory_transactions (transaction_id, material_id, transaction_type, "
+                + "quantity, transaction_date) VALUES (?, ?, ?, ?, ?)", nextTransactionId++,
+                materialId, type, new BigDecimal(quantity), Timestamp.valueOf(date.atTime(12, 0)));
+        BigDecimal signed = type.contains("OUTBOUND") ? new BigDecimal(quantity).negate() : new BigDecimal(quantity);
+        jdbcTemplate.update("UPDATE core_materials SET stock_current = stock_current + ? WHERE material_id = ?",
+                signed, materialId);
+        expected.add(new Object[] { materialId, date, signed });
+    }
+
+    private BigDecimal closingBalance(Long materialId, LocalDate date) {
+        return jdbcTemplate.queryForObject("SELECT closing_balance FROM inventory_stock_snapshots "
+                + "WHERE material_id = ? AND snapshot_date = ?", BigDecimal.class, materialId, date);
+    }
+
+    private BigDecimal expectedStock(Long materialId, LocalDate date) {
+        BigDecimal stock = openingStock.get(materialId);
+        for (Object[] row : expected) {
+            if (row[0].equals(materialId) && !((LocalDate) row[1]).isAfter(date)) {
+                stock = stock.add((BigDecimal) row[2]);
+            }
+        }
+        return stock;
+    }
+}
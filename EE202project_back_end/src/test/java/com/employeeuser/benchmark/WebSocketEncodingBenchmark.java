@@ -0,0 +1,131 @@
+package com.employeeuser.benchmark;
+
+import com.project.employeeuser.handler.WireEncoding;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+
+/**
+ * WebSocket 訊息編碼比較：JSON / CBOR / Smile 的序列化時間，以及加上 permessage-deflate 壓縮的時間。
+ * 訊息大小 (位元組) 在 main 執行 JMH 前列印。
+ * 酬載與 SimpleWebSocketHandler 的 online-users、notification 訊息欄位相同 (原類別為套件私有，這裡以 record 重建)。
+ * 執行方式 (先 mvn test-compile):
+ * java -cp target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout) com.employeeuser.benchmark.WebSocketEncodingBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WebSocketEncodingBenchmark {
+
+    record Envelope(String source, String type, Object data, long timestamp) {
+    }
+
+    record OnlineUsers(Set<String> users, int count, long timestamp) {
+    }
+
+    record Notification(String fromUserId, String message, long timestamp) {
+    }
+
+    @Param({ "JSON", "CBOR", "SMILE" })
+    public WireEncoding encoding;
+
+    @Param({ "online-users-10", "online-users-200", "notification" })
+    public String payload;
+
+    private ObjectMapper mapper;
+    private Envelope message;
+    private Deflater deflater;
+    private final byte[] buffer = new byte[64 * 1024];
+
+    @Setup
+    public void setUp() {
+        mapper = encoding.mapper();
+        message = message(payload);
+        // permessage-deflate：raw deflate，每則訊息 SYNC_FLUSH 結尾 (RFC 7692)
+        deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        deflater.end();
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(message);
+    }
+
+    @Benchmark
+    public int serializeAndDeflate() throws JsonProcessingException {
+        return deflate(deflater, mapper.writeValueAsBytes(message), buffer);
+    }
+
+    static Envelope message(String payload) {
+        long now = 1_750_000_000_000L;
+        if (payload.startsWith("online-users-")) {
+            int count = Integer.parseInt(payload.substring("online-users-".length()));
+            Set<String> users = new TreeSet<>();
+            for (int i = 1; i <= count; i++) {
+                users.add(String.format("EMP%05d", i));
+            }
+            return new Envelope("system", "online-users", new OnlineUsers(users, count, now), now);
+        }
+        return new Envelope("system", "notification",
+                new Notification("system", "工單 WO-20250612-0042 已完工，請至倉儲確認入庫數量", now), now);
+    }
+
+    // 每則訊息獨立壓縮 (no_context_takeover)，回傳壓縮後位元組數
+    static int deflate(Deflater deflater, byte[] input, byte[] buffer) {
+        deflater.reset();
+        deflater.setInput(input);
+        int length = 0;
+        int written;
+        do {
+            written = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+            length += written;
+        } while (written == buffer.length);
+        // RFC 7692：去掉結尾的 00 00 FF FF
+        return length - 4;
+    }
+
+    public static void main(String[] args) throws RunnerException, JsonProcessingException {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        byte[] buffer = new byte[64 * 1024];
+        System.out.printf("%-18s %-6s %8s %10s%n", "payload", "enc", "bytes", "deflated");
+        for (String payload : new String[] { "online-users-10", "online-users-200", "notification" }) {
+            for (WireEncoding encoding : WireEncoding.values()) {
+                byte[] bytes = encoding.mapper().writeValueAsBytes(message(payload));
+                System.out.printf("%-18s %-6s %8d %10d%n", payload, encoding, bytes.length,
+                        deflate(deflater, bytes, buffer));
+            }
+        }
+        deflater.end();
+
+        new Runner(new OptionsBuilder().include(WebSocketEncodingBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,202 @@
+package com.employeeuser.cluster;
+
+import com.project.core.dao.WebSocketClusterDao;
+import com.project.employeeuser.cluster.ClusterMessage;
+import com.project.employeeuser.cluster.DbOutboxClusterBus;
+import com.project.employeeuser.handler.SimpleWebSocketHandler;
+import com.testsupport.TestDatabase;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * 兩個節點共用同一個資料庫 (H2 記憶體資料庫) 的叢集匯流排測試
+ */
+public class DbOutboxClusterBusTest {
+
+    private JdbcDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private final List<DbOutboxClusterBus> buses = new ArrayList<>();
+    private final List<SimpleWebSocketHandler> handlers = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        dataSource = TestDatabase.create("websocket_cluster", "websocket_cluster");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @AfterEach
+    void tearDown() {
+        handlers.forEach(SimpleWebSocketHandler::shutdown);
+        buses.forEach(DbOutboxClusterBus::stop);
+    }
+
+    private DbOutboxClusterBus bus(String nodeId) {
+        DbOutboxClusterBus bus = new DbOutboxClusterBus(new WebSocketClusterDao(jdbcTemplate), nodeId, 20, 100, 30,
+                300, 2000);
+        buses.add(bus);
+        return bus;
+    }
+
+    private SimpleWebSocketHandler node(String nodeId) {
+        DbOutboxClusterBus bus = bus(nodeId);
+        SimpleWebSocketHandler handler = new SimpleWebSocketHandler(10_000, 512 * 1024, 25_000, 10_000, bus);
+        bus.start();
+        handlers.add(handler);
+        return handler;
+    }
+
+    private static WebSocketSession connect(SimpleWebSocketHandler handler, String sessionId, String userId)
+            throws Exception {
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn(sessionId);
+        when(session.isOpen()).thenReturn(true);
+        handler.afterConnectionEstablished(session);
+        handler.handleMessage(session, new TextMessage("{\"action\":\"identify\",\"userId\":\"" + userId + "\"}"));
+        return session;
+    }
+
+    private static List<String> payloads(WebSocketSession session, String type) throws Exception {
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<WebSocketMessage<?>> captor = ArgumentCaptor.forClass(WebSocketMessage.class);
+        verify(session, atLeastOnce()).sendMessage(captor.capture());
+        return captor.getAllValues().stream()
+                .map(message -> ((TextMessage) message).getPayload())
+                .filter(payload -> payload.contains("\"type\":\"" + type + "\""))
+                .toList();
+    }
+
+    // 等待其他節點輪詢後送達
+    private static List<String> await(WebSocketSession session, String type, int count) throws Exception {
+        long deadline = System.currentTimeMillis() + 2000;
+        List<String> payloads = payloads(session, type);
+        while (payloads.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            payloads = payloads(session, type);
+        }
+        return payloads;
+    }
+
+    @Test
+    void privateMessage_shouldRouteOnlyToNodeOwningSession() throws Exception {
+        SimpleWebSocketHandler nodeA = node("node-a");
+        SimpleWebSocketHandler nodeB = node("node-b");
+        SimpleWebSocketHandler nodeC = node("node-c");
+        WebSocketSession alice = connect(nodeA, "a1", "alice");
+        WebSocketSession bob = connect(nodeB, "b1", "bob");
+
+        nodeA.handleMessage(alice, new TextMessage("{\"action\":\"private\",\"toUserId\":\"bob\",\"message\":\"hi\"}"));
+
+        List<String> toBob = await(bob, "message", 1);
+        assertEquals(1, toBob.size());
+        assertTrue(toBob.get(0).contains("\"fromUserId\":\"alice\""));
+        assertEquals(1, payloads(alice, "sent").size());
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM websocket_outbox WHERE kind = 'USER' AND target_node = 'node-b'", Integer.class));
+        assertEquals(Set.of("alice", "bob"), nodeC.getOnlineUsers());
+    }
+
+    @Test
+    void sendToUser_shouldReachUserOnOtherNode() throws Exception {
+        SimpleWebSocketHandler nodeA = node("node-a");
+        SimpleWebSocketHandler nodeB = node("node-b");
+        WebSocketSession buyer = connect(nodeB, "b1", "buyer1");
+
+        assertTrue(nodeA.sendToUser("buyer1", "notification", "低庫存"));
+        assertFalse(nodeA.sendToUser("ghost", "notification", "x"));
+
+        assertTrue(await(buyer, "notification", 1).get(0).contains("低庫存"));
+    }
+
+    @Test
+    void broadcastAndTopic_shouldReachOtherNodesOnce() throws Exception {
+        SimpleWebSocketHandler nodeA = node("node-a");
+        SimpleWebSocketHandler nodeB = node("node-b");
+        WebSocketSession alice = connect(nodeA, "a1", "alice");
+        WebSocketSession bob = connect(nodeB, "b1", "bob");
+        nodeB.handleMessage(bob, new TextMessage("{\"action\":\"subscribe\",\"topic\":\"/topic/machines/**\"}"));
+
+        nodeA.sendSystemNotification("系統維護");
+        assertEquals(0, nodeA.publish("/topic/machines/3/status", "machine-status", "RUN"));
+
+        await(bob, "notification", 1);
+        await(bob, "machine-status", 1);
+        Thread.sleep(200); // 多等幾次輪詢，確認不會重複送出
+        assertEquals(1, payloads(bob, "notification").size());
+        assertEquals(1, payloads(bob, "machine-status").size());
+        assertEquals(1, payloads(alice, "notification").size());
+        assertTrue(payloads(alice, "machine-status").isEmpty());
+    }
+
+    @Test
+    void identifyOnOtherNode_shouldCloseOldSessionWithoutOfflineBroadcast() throws Exception {
+        SimpleWebSocketHandler nodeA = node("node-a");
+        SimpleWebSocketHandler nodeB = node("node-b");
+        WebSocketSession old = connect(nodeA, "a1", "alice");
+        WebSocketSession watcher = connect(nodeA, "a2", "carol");
+
+        connect(nodeB, "b1", "alice");
+
+        verify(old, timeout(2000)).close(any(CloseStatus.class));
+        nodeA.afterConnectionClosed(old, CloseStatus.NORMAL);
+        assertEquals("node-b", jdbcTemplate.queryForObject(
+                "SELECT node_id FROM websocket_presence WHERE user_id = 'alice'", String.class));
+        assertEquals(Set.of("alice", "carol"), nodeA.getOnlineUsers());
+        Thread.sleep(200);
+        assertTrue(payloads(watcher, "user-status").stream().noneMatch(payload -> payload.contains("offline")));
+    }
+
+    @Test
+    void stop_shouldRemoveNodePresence() throws Exception {
+        SimpleWebSocketHandler nodeA = node("node-a");
+        SimpleWebSocketHandler nodeB = node("node-b");
+        connect(nodeA, "a1", "alice");
+
+        buses.get(0).stop();
+
+        assertEquals(Set.of(), nodeB.getOnlineUsers());
+        assertFalse(nodeB.sendToUser("alice", "notification", "x"));
+    }
+
+    @Test
+    void poll_shouldPickUpMessageCommittedAfterLaterId() throws Exception {
+        // 不啟動輪詢執行緒，由測試直接呼叫 poll()
+        DbOutboxClusterBus sender = bus("node-a");
+        DbOutboxClusterBus receiver = bus("node-b");
+        List<ClusterMessage> received = new ArrayList<>();
+        receiver.onMessage(received::add);
+
+        TransactionTemplate tx = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        tx.executeWithoutResult(status -> {
+            sender.broadcast(ClusterMessage.broadcast("slow")); // 先取得ID，較晚提交
+            // 其他連線：寫入較晚取得ID但先提交的訊息，並在 slow 提交前輪詢
+            CompletableFuture.runAsync(() -> sender.broadcast(ClusterMessage.broadcast("fast"))).join();
+            CompletableFuture.runAsync(receiver::poll).join();
+            assertEquals(List.of("fast"), received.stream().map(ClusterMessage::payload).toList());
+        });
+        receiver.poll();
+
+        assertEquals(List.of("fast", "slow"), received.stream().map(ClusterMessage::payload).toList());
+        receiver.poll();
+        assertEquals(2, received.size());
+    }
+}
@@ -0,0 +1,95 @@
+package com.employeeuser.config;
+
+import com.project.employeeuser.config.PerMessageDeflateUpgradeStrategy;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.websocket.servlet.WebSocketServletAutoConfiguration;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.springframework.web.socket.server.support.DefaultHandshakeHandler;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 以實際的 Tomcat 握手確認 permessage-deflate 依設定協商
+ */
+public class PerMessageDeflateUpgradeStrategyTest {
+
+    @Configuration
+    @EnableWebSocket
+    @ImportAutoConfiguration({ ServletWebServerFactoryAutoConfiguration.class,
+            DispatcherServletAutoConfiguration.class, WebSocketServletAutoConfiguration.class })
+    static class EchoConfig implements WebSocketConfigurer {
+
+        @Value("${websocket.compression.enabled}")
+        private boolean compressionEnabled;
+
+        @Override
+        public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+            registry.addHandler(new TextWebSocketHandler(), "/websocket")
+                    .setHandshakeHandler(new DefaultHandshakeHandler(
+                            new PerMessageDeflateUpgradeStrategy(compressionEnabled)));
+        }
+    }
+
+    // 送出瀏覽器的握手請求，回傳伺服器回應的標頭
+    private static String handshake(boolean compressionEnabled) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplication(EchoConfig.class).run(
+                "--server.port=0", "--spring.main.banner-mode=off",
+                "--websocket.compression.enabled=" + compressionEnabled)) {
+            int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+            try (Socket socket = new Socket("localhost", port)) {
+                OutputStream out = socket.getOutputStream();
+                out.write(("GET /websocket HTTP/1.1\r\n"
+                        + "Host: localhost:" + port + "\r\n"
+                        + "Upgrade: websocket\r\n"
+                        + "Connection: Upgrade\r\n"
+                        + "Sec-WebSocket-Key: dGhlIHNhbXBsZSBub25jZQ==\r\n"
+                        + "Sec-WebSocket-Version: 13\r\n"
+                        + "Sec-WebSocket-Extensions: permessage-deflate; client_max_window_bits\r\n"
+                        + "\r\n").getBytes(StandardCharsets.US_ASCII));
+                out.flush();
+
+                BufferedReader in = new BufferedReader(
+                        new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+                StringBuilder headers = new StringBuilder();
+                for (String line = in.readLine(); line != null && !line.isEmpty(); line = in.readLine()) {
+                    headers.append(line).append('\n');
+                }
+                return headers.toString();
+            }
+        }
+    }
+
+    @Test
+    void enabled_shouldNegotiatePermessageDeflate() throws Exception {
+        String headers = handshake(true);
+
+        assertTrue(headers.startsWith("HTTP/1.1 101"), headers);
+        assertTrue(headers.toLowerCase().contains("sec-websocket-extensions: permessage-deflate"), headers);
+    }
+
+    @Test
+    void disabled_shouldUpgradeWithoutExtensions() throws Exception {
+        String headers = handshake(false);
+
+        assertTrue(headers.startsWith("HTTP/1.1 101"), headers);
+        assertFalse(headers.toLowerCase().contains("sec-websocket-extensions"), headers);
+    }
+}
@@ -0,0 +1,293 @@
+package com.employeeuser.handler;
+
+import com.project.employeeuser.cluster.LocalClusterBus;
+import com.project.employeeuser.handler.SimpleWebSocketHandler;
+import com.project.employeeuser.handler.WireEncoding;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatcher;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.PingMessage;
+import org.springframework.web.socket.PongMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+public class SimpleWebSocketHandlerTest {
+
+    private SimpleWebSocketHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        handler = new SimpleWebSocketHandler(10_000, 512 * 1024, 25_000, 10_000, new LocalClusterBus());
+    }
+
+    @AfterEach
+    void tearDown() {
+        handler.shutdown();
+    }
+
+    private WebSocketSession connect(String sessionId, String userId) throws Exception {
+        return connect(handler, session(sessionId), userId);
+    }
+
+    private static WebSocketSession session(String sessionId) {
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn(sessionId);
+        when(session.isOpen()).thenReturn(true);
+        return session;
+    }
+
+    private static WebSocketSession connect(SimpleWebSocketHandler handler, WebSocketSession session, String userId)
+            throws Exception {
+        handler.afterConnectionEstablished(session);
+        handler.handleMessage(session, new TextMessage("{\"action\":\"identify\",\"userId\":\"" + userId + "\"}"));
+        return session;
+    }
+
+    private static List<TextMessage> sent(WebSocketSession session, String type) throws Exception {
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<WebSocketMessage<?>> captor = ArgumentCaptor.forClass(WebSocketMessage.class);
+        verify(session, atLeastOnce()).sendMessage(captor.capture());
+        return captor.getAllValues().stream()
+                .filter(TextMessage.class::isInstance)
+                .map(TextMessage.class::cast)
+                .filter(message -> message.getPayload().contains("\"type\":\"" + type + "\""))
+                .toList();
+    }
+
+    private static ArgumentMatcher<WebSocketMessage<?>> ofType(String type) {
+        return message -> message instanceof TextMessage text
+                && text.getPayload().contains("\"type\":\"" + type + "\"");
+    }
+
+    @Test
+    void sendSystemNotification_shouldSerializeOnceAndShareMessage() throws Exception {
+        WebSocketSession alice = connect("s1", "alice");
+        WebSocketSession bob = connect("s2", "bob");
+
+        handler.sendSystemNotification("系統維護");
+
+        verify(alice, timeout(2000)).sendMessage(argThat(ofType("notification")));
+        verify(bob, timeout(2000)).sendMessage(argThat(ofType("notification")));
+        TextMessage toAlice = sent(alice, "notification").get(0);
+        TextMessage toBob = sent(bob, "notification").get(0);
+        assertSame(toAlice, toBob);
+        assertTrue(toAlice.getPayload().contains("系統維護"));
+    }
+
+    @Test
+    void broadcast_slowSessionShouldNotDelayOthers() throws Exception {
+        // 先設定好再連線，避免廣播執行緒同時呼叫尚在設定中的 mock
+        CountDownLatch release = new CountDownLatch(1);
+        WebSocketSession slow = session("s1");
+        doAnswer(invocation -> {
+            if (ofType("notification").matches(invocation.getArgument(0))) {
+                release.await(5, TimeUnit.SECONDS);
+            }
+            return null;
+        }).when(slow).sendMessage(any());
+        connect(handler, slow, "slow");
+        WebSocketSession fast = connect("s2", "fast");
+
+        long start = System.nanoTime();
+        handler.sendSystemNotification("first");
+        handler.sendSystemNotification("second");
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(elapsedMillis < 1000, "廣播不應等待慢速連線: " + elapsedMillis + " ms");
+        // connection、identified、user-status、online-users 加上兩則廣播
+        verify(fast, timeout(2000).atLeast(6)).sendMessage(any());
+        assertEquals(2, sent(fast, "notification").size());
+
+        // 慢速連線的訊息在自己的緩衝區排隊，釋放後依序送出
+        release.countDown();
+        verify(slow, timeout(2000).atLeast(7)).sendMessage(any());
+        assertEquals(2, sent(slow, "notification").size());
+    }
+
+    @Test
+    void afterConnectionClosed_oldSessionShouldNotRemoveNewLogin() throws Exception {
+        WebSocketSession first = connect("s1", "alice");
+        connect("s2", "alice");
+
+        handler.afterConnectionClosed(first, CloseStatus.NORMAL);
+
+        assertEquals(1, handler.getOnlineUserCount());
+        assertTrue(handler.sendToUser("alice", "ping", "x"));
+    }
+
+    private void subscribe(WebSocketSession session, String action, String topic) throws Exception {
+        handler.handleMessage(session, new TextMessage("{\"action\":\"" + action + "\",\"topic\":\"" + topic + "\"}"));
+    }
+
+    @Test
+    void publish_shouldReachOnlyExactAndWildcardSubscribers() throws Exception {
+        WebSocketSession exact = connect("s1", "alice");
+        WebSocketSession wildcard = connect("s2", "bob");
+        WebSocketSession other = connect("s3", "carol");
+        subscribe(exact, "subscribe", "/topic/machines/12/status");
+        subscribe(wildcard, "subscribe", "/topic/machines/**");
+        subscribe(other, "subscribe", "/topic/machines/13/status");
+
+        assertEquals(2, handler.publish("/topic/machines/12/status", "machine-status", "RUN"));
+
+        verify(exact, timeout(2000)).sendMessage(argThat(ofType("machine-status")));
+        verify(wildcard, timeout(2000)).sendMessage(argThat(ofType("machine-status")));
+        TextMessage toExact = sent(exact, "machine-status").get(0);
+        assertSame(toExact, sent(wildcard, "machine-status").get(0));
+        assertTrue(toExact.getPayload().contains("\"source\":\"/topic/machines/12/status\""));
+        assertTrue(sent(other, "machine-status").isEmpty());
+        assertEquals(0, handler.publish("/topic/workorders/1/completed", "work-order-completed", "x"));
+    }
+
+    @Test
+    void unsubscribeAndClose_shouldRemoveSubscriptions() throws Exception {
+        WebSocketSession alice = connect("s1", "alice");
+        WebSocketSession bob = connect("s2", "bob");
+        subscribe(alice, "subscribe", "/topic/inventory/low-stock/**");
+        subscribe(bob, "subscribe", "/topic/inventory/low-stock/**");
+        assertEquals(2, handler.getSubscriberCount("/topic/inventory/low-stock/**"));
+
+        subscribe(alice, "unsubscribe", "/topic/inventory/low-stock/**");
+        assertEquals(1, handler.getSubscriberCount("/topic/inventory/low-stock/**"));
+
+        handler.afterConnectionClosed(bob, CloseStatus.NORMAL);
+        assertEquals(0, handler.getSubscriberCount("/topic/inventory/low-stock/**"));
+        assertEquals(0, handler.publish("/topic/inventory/low-stock/5", "low-stock", "x"));
+    }
+
+    @Test
+    void subscribe_shouldRejectUnidentifiedSessionAndInvalidTopic() throws Exception {
+        WebSocketSession anonymous = mock(WebSocketSession.class);
+        when(anonymous.getId()).thenReturn("s0");
+        when(anonymous.isOpen()).thenReturn(true);
+        handler.afterConnectionEstablished(anonymous);
+        subscribe(anonymous, "subscribe", "/topic/machines/**");
+
+        WebSocketSession alice = connect("s1", "alice");
+        subscribe(alice, "subscribe", "/queue/machines");
+        subscribe(alice, "subscribe", "/topic/machines/*/status");
+
+        assertEquals(1, sent(anonymous, "error").size());
+        assertEquals(2, sent(alice, "error").size());
+        assertEquals(0, handler.getSubscriberCount("/topic/machines/**"));
+    }
+
+    @Test
+    void heartbeat_shouldEvictSilentSessionAndBroadcastOfflineOnce() throws Exception {
+        SimpleWebSocketHandler heartbeat = new SimpleWebSocketHandler(10_000, 512 * 1024, 100, 100,
+                new LocalClusterBus());
+        try {
+            // alive 收到 ping 就回 pong，dead 不回應
+            WebSocketSession alive = session("s1");
+            doAnswer(invocation -> {
+                if (invocation.getArgument(0) instanceof PingMessage) {
+                    heartbeat.handleMessage(alive, new PongMessage());
+                }
+                return null;
+            }).when(alive).sendMessage(any());
+            connect(heartbeat, alive, "alive");
+            WebSocketSession dead = connect(heartbeat, session("s2"), "dead");
+
+            verify(dead, timeout(2000)).sendMessage(any(PingMessage.class));
+            verify(dead, timeout(2000)).close(CloseStatus.SESSION_NOT_RELIABLE);
+            assertEquals(Set.of("alive"), heartbeat.getOnlineUsers());
+
+            // 容器之後仍會通知連線關閉，不可重複廣播下線
+            heartbeat.afterConnectionClosed(dead, CloseStatus.SESSION_NOT_RELIABLE);
+            Thread.sleep(300);
+            long offline = sent(alive, "user-status").stream()
+                    .filter(message -> message.getPayload().contains("\"status\":\"offline\"")).count();
+            assertEquals(1, offline);
+            verify(alive, atLeast(2)).sendMessage(any(PingMessage.class));
+            verify(alive, never()).close(any());
+            assertTrue(sent(alive, "error").isEmpty());
+        } finally {
+            heartbeat.shutdown();
+        }
+    }
+
+    private static List<BinaryMessage> binary(WebSocketSession session) throws Exception {
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<WebSocketMessage<?>> captor = ArgumentCaptor.forClass(WebSocketMessage.class);
+        verify(session, atLeastOnce()).sendMessage(captor.capture());
+        return captor.getAllValues().stream()
+                .filter(BinaryMessage.class::isInstance)
+                .map(BinaryMessage.class::cast)
+                .toList();
+    }
+
+    private static JsonNode decode(WireEncoding encoding, BinaryMessage message) throws Exception {
+        return encoding.mapper().readTree(message.getPayload().duplicate().array());
+    }
+
+    @Test
+    void identify_binaryEncodingShouldApplyToSessionOnly() throws Exception {
+        WebSocketSession text = connect("s1", "alice");
+        WebSocketSession cbor = session("s2");
+        handler.afterConnectionEstablished(cbor);
+        handler.handleMessage(cbor, new TextMessage("{\"action\":\"identify\",\"userId\":\"bob\",\"encoding\":\"cbor\"}"));
+        WebSocketSession smile = session("s3");
+        handler.afterConnectionEstablished(smile);
+        handler.handleMessage(smile, new TextMessage("{\"action\":\"identify\",\"userId\":\"carol\",\"encoding\":\"SMILE\"}"));
+
+        handler.sendSystemNotification("系統維護");
+
+        verify(text, timeout(2000)).sendMessage(argThat(ofType("notification")));
+        verify(cbor, timeout(2000).atLeast(4)).sendMessage(any(BinaryMessage.class));
+        verify(smile, timeout(2000).atLeast(4)).sendMessage(any(BinaryMessage.class));
+        // 歡迎訊息在 identify 前送出，仍為 JSON；之後全部為二進位
+        assertEquals(1, sent(cbor, "connection").size());
+        assertTrue(sent(cbor, "identified").isEmpty());
+
+        List<JsonNode> toBob = binary(cbor).stream().map(m -> {
+            try {
+                return decode(WireEncoding.CBOR, m);
+            } catch (Exception e) {
+                throw new AssertionError(e);
+            }
+        }).toList();
+        assertTrue(toBob.stream().anyMatch(n -> n.path("type").asText().equals("identified")));
+        assertTrue(toBob.stream().anyMatch(n -> n.path("type").asText().equals("notification")
+                && n.path("data").path("message").asText().equals("系統維護")));
+        assertTrue(toBob.stream().anyMatch(n -> n.path("type").asText().equals("online-users")
+                && n.path("data").path("users").size() == 2));
+        assertTrue(binary(smile).stream().anyMatch(m -> {
+            try {
+                return decode(WireEncoding.SMILE, m).path("data").path("message").asText().equals("系統維護");
+            } catch (Exception e) {
+                throw new AssertionError(e);
+            }
+        }));
+    }
+
+    @Test
+    void identify_shouldRejectUnknownEncoding() throws Exception {
+        WebSocketSession session = session("s1");
+        handler.afterConnectionEstablished(session);
+        handler.handleMessage(session,
+                new TextMessage("{\"action\":\"identify\",\"userId\":\"alice\",\"encoding\":\"xml\"}"));
+
+        assertEquals(1, sent(session, "error").size());
+        assertTrue(sent(session, "error").get(0).getPayload().contains("xml"));
+        assertTrue(sent(session, "identified").isEmpty());
+        assertEquals(Set.of(), handler.getOnlineUsers());
+    }
+}
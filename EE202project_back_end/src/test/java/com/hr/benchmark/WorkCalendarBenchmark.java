@@ -0,0 +1,135 @@
+package com.hr.benchmark;
+
+import com.project.HR.model.NationalHoliday;
+import com.project.HR.repository.NationalHolidayRepository;
+import com.project.HR.service.HolidayCalendar;
+import com.project.HR.service.WorkCalendar;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 請假工時計算效能比較：WorkCalendar (逐日封閉式計算) vs 原本的逐分鐘迴圈。
+ * 執行方式 (先 mvn test-compile):
+ * java -cp target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout) com.hr.benchmark.WorkCalendarBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorkCalendarBenchmark {
+
+    @Param({ "1D", "2W", "1Y" })
+    public String range;
+
+    private WorkCalendar workCalendar;
+    private Set<LocalDate> holidayDates;
+    private Set<LocalDate> makeupWorkdays;
+    private LocalDateTime start;
+    private LocalDateTime end;
+
+    @Setup
+    public void setUp() {
+        holidayDates = Set.of(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 2, 28), LocalDate.of(2025, 10, 10));
+        makeupWorkdays = Set.of(LocalDate.of(2025, 2, 8));
+        NationalHolidayRepository repository = mock(NationalHolidayRepository.class);
+        List<NationalHoliday> holidays = new ArrayList<>();
+        holidayDates.forEach(d -> holidays.add(holiday(d, "NATIONAL_HOLIDAY")));
+        makeupWorkdays.forEach(d -> holidays.add(holiday(d, "MAKEUP_WORKDAY")));
+        when(repository.findByDateBetween(any(), any())).thenReturn(holidays);
+        workCalendar = new WorkCalendar(new HolidayCalendar(repository));
+
+        start = LocalDateTime.of(2025, 3, 3, 9, 0);
+        end = switch (range) {
+            case "1D" -> start.withHour(18);
+            case "2W" -> start.plusDays(11).withHour(18);
+            default -> start.plusYears(1);
+        };
+        // 預先載入年度日曆，只量測計算本身
+        workCalendar.workingMinutes(start, end);
+    }
+
+    @Benchmark
+    public long workCalendar() {
+        return workCalendar.workingMinutes(start, end);
+    }
+
+    @Benchmark
+    public double minuteLoop() {
+        return legacyCalculateWorkHours(start, end, holidayDates, makeupWorkdays);
+    }
+
+    /**
+     * 原 LeaveRecordServiceImpl.calculateWorkHours 的逐分鐘迴圈 (假日已預先查好)。
+     */
+    static double legacyCalculateWorkHours(LocalDateTime start, LocalDateTime end, Set<LocalDate> holidayDates,
+            Set<LocalDate> makeupWorkdays) {
+        double totalMinutes = 0;
+        LocalDateTime loopDateTime = start;
+        while (loopDateTime.isBefore(end)) {
+            LocalDate loopDate = loopDateTime.toLocalDate();
+            DayOfWeek dayOfWeek = loopDate.getDayOfWeek();
+            boolean isWorkingDay = makeupWorkdays.contains(loopDate) ||
+                    (dayOfWeek != DayOfWeek.SATURDAY && dayOfWeek != DayOfWeek.SUNDAY
+                            && !holidayDates.contains(loopDate));
+            if (isWorkingDay) {
+                LocalDateTime workDayStart = loopDate.atTime(9, 0);
+                LocalDateTime workDayEnd = loopDate.atTime(18, 0);
+                LocalDateTime lunchStart = loopDate.atTime(12, 0);
+                LocalDateTime lunchEnd = loopDate.atTime(13, 0);
+                LocalDateTime nextMinute = loopDateTime.plusMinutes(1);
+                LocalDateTime effectiveEnd = nextMinute.isAfter(end) ? end : nextMinute;
+                if (loopDateTime.isBefore(workDayStart))
+                    loopDateTime = workDayStart;
+                if (effectiveEnd.isAfter(workDayEnd))
+                    effectiveEnd = workDayEnd;
+                if (!(loopDateTime.isBefore(lunchEnd) && effectiveEnd.isAfter(lunchStart))) {
+                    if (loopDateTime.isBefore(effectiveEnd)) {
+                        totalMinutes += Duration.between(loopDateTime, effectiveEnd).toMinutes();
+                    }
+                }
+            }
+            loopDateTime = loopDateTime.plusMinutes(1);
+        }
+        double totalHours = totalMinutes / 60.0;
+        return Math.round(totalHours * 2) / 2.0;
+    }
+
+    private static NationalHoliday holiday(LocalDate date, String type) {
+        NationalHoliday holiday = new NationalHoliday();
+        holiday.setDate(date);
+        holiday.setType(type);
+        return holiday;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(WorkCalendarBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,110 @@
+package com.hr.service;
+
+import com.project.HR.model.NationalHoliday;
+import com.project.HR.repository.NationalHolidayRepository;
+import com.project.HR.service.HolidayService;
+import com.project.HR.service.HolidaysChangedEvent;
+import com.project.HR.service.WorkCalendar;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class HolidayServiceTest {
+
+    private static final String ICS = String.join("\r\n",
+            "BEGIN:VCALENDAR",
+            "VERSION:2.0",
+            "BEGIN:VEVENT",
+            "DTSTART;VALUE=DATE:20250128",
+            "DTEND;VALUE=DATE:20250201",
+            "SUMMARY:春節",
+            "END:VEVENT",
+            "BEGIN:VEVENT",
+            "DTSTART;VALUE=DATE:20250208",
+            "DTEND;VALUE=DATE:20250209",
+            "SUMMARY:補行上",
+            " 班",
+            "END:VEVENT",
+            "BEGIN:VEVENT",
+            "DTSTART;VALUE=DATE:20251010",
+            "SUMMARY:國慶日",
+            "END:VEVENT",
+            "BEGIN:VEVENT",
+            "DTSTART;VALUE=DATE:20260101",
+            "SUMMARY:開國紀念日",
+            "END:VEVENT",
+            "END:VCALENDAR");
+
+    @Mock
+    private NationalHolidayRepository holidayRepository;
+    @Mock
+    private WorkCalendar workCalendar;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @TempDir
+    Path importDir;
+
+    private HolidayService holidayService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        holidayService = new HolidayService(holidayRepository, workCalendar, eventPublisher);
+        ReflectionTestUtils.setField(holidayService, "icsImportDir", importDir.toString());
+        Files.writeString(importDir.resolve("taiwan.ics"), ICS, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importHolidaysFromIcs_shouldReplaceYearAndInvalidateCalendar() {
+        NationalHoliday manual = new NationalHoliday();
+        manual.setDate(LocalDate.of(2025, 10, 10));
+        manual.setType("NATIONAL_HOLIDAY");
+        when(holidayRepository.findByDateBetween(any(), any())).thenReturn(List.of(manual));
+
+        int imported = holidayService.importHolidaysFromIcs("taiwan.ics", 2025, "admin");
+
+        ArgumentCaptor<List<NationalHoliday>> captor = ArgumentCaptor.forClass(List.class);
+        verify(holidayRepository).deleteBySourceAndYear("ICS", 2025);
+        verify(holidayRepository).saveAll(captor.capture());
+        List<NationalHoliday> saved = captor.getValue();
+
+        // 春節 4 天 + 補班 1 天；國慶日已有手動資料、2026 年不在範圍內
+        assertEquals(5, imported);
+        assertEquals(5, saved.size());
+        assertEquals(LocalDate.of(2025, 1, 28), saved.get(0).getDate());
+        assertEquals(LocalDate.of(2025, 1, 31), saved.get(3).getDate());
+        assertEquals("MAKEUP_WORKDAY", saved.get(4).getType());
+        assertEquals("補行上班", saved.get(4).getName());
+        assertTrue(saved.stream().allMatch(h -> "ICS".equals(h.getSource()) && h.getSourceYear() == 2025
+                && "admin".equals(h.getCreatedBy()) && h.getSourceVersion().length() == 64));
+        verify(eventPublisher).publishEvent(new HolidaysChangedEvent(2025));
+    }
+
+    @Test
+    void importHolidaysFromIcs_shouldRejectFilesOutsideImportDir() {
+        assertThrows(IllegalArgumentException.class,
+                () -> holidayService.importHolidaysFromIcs("../secret.ics", 2025, "admin"));
+        assertThrows(IllegalArgumentException.class,
+                () -> holidayService.importHolidaysFromIcs("https://example.com/holidays.ics", 2025, "admin"));
+        verifyNoInteractions(holidayRepository, eventPublisher);
+    }
+}
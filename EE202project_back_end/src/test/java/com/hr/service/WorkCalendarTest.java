@@ -0,0 +1,114 @@
+package com.hr.service;
+
+import com.project.HR.model.NationalHoliday;
+import com.project.HR.repository.NationalHolidayRepository;
+import com.project.HR.service.HolidayCalendar;
+import com.project.HR.service.WorkCalendar;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class WorkCalendarTest {
+
+    // 2025-10-10 (Fri) 國慶日, 2025-10-11 (Sat) 補班
+    private static final LocalDate HOLIDAY = LocalDate.of(2025, 10, 10);
+    private static final LocalDate MAKEUP = LocalDate.of(2025, 10, 11);
+
+    @Mock
+    private NationalHolidayRepository holidayRepository;
+
+    private HolidayCalendar holidayCalendar;
+    private WorkCalendar workCalendar;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(holidayRepository.findByDateBetween(any(), any())).thenAnswer(invocation -> {
+            LocalDate from = invocation.getArgument(0);
+            LocalDate to = invocation.getArgument(1);
+            return List.of(holiday(HOLIDAY, "NATIONAL_HOLIDAY"), holiday(MAKEUP, "MAKEUP_WORKDAY")).stream()
+                    .filter(h -> !h.getDate().isBefore(from) && !h.getDate().isAfter(to))
+                    .toList();
+        });
+        holidayCalendar = new HolidayCalendar(holidayRepository);
+        workCalendar = new WorkCalendar(holidayCalendar);
+    }
+
+    @Test
+    void isWorkingDay_shouldHonourHolidaysAndMakeupDays() {
+        assertFalse(workCalendar.isWorkingDay(HOLIDAY));
+        assertTrue(workCalendar.isWorkingDay(MAKEUP));
+        assertFalse(workCalendar.isWorkingDay(LocalDate.of(2025, 10, 12)));
+        assertTrue(workCalendar.isWorkingDay(LocalDate.of(2025, 10, 13)));
+    }
+
+    @Test
+    void workingMinutes_shouldClipWorkingWindowsAndLunch() {
+        LocalDate monday = LocalDate.of(2025, 10, 13);
+        assertEquals(480, workCalendar.workingMinutes(monday.atTime(8, 0), monday.atTime(19, 0)));
+        assertEquals(150, workCalendar.workingMinutes(monday.atTime(11, 30), monday.atTime(15, 0)));
+        assertEquals(0, workCalendar.workingMinutes(monday.atTime(12, 10), monday.atTime(12, 50)));
+        // 兩週 (10 個工作日)
+        assertEquals(4800, workCalendar.workingMinutes(monday.atTime(9, 0), monday.plusDays(11).atTime(18, 0)));
+    }
+
+    @Test
+    void workingMinutes_shouldMatchMinuteByMinuteReferenceAcrossYearBoundary() {
+        Random random = new Random(7);
+        LocalDateTime origin = LocalDate.of(2024, 12, 1).atStartOfDay();
+        for (int i = 0; i < 300; i++) {
+            LocalDateTime start = origin.plusMinutes(random.nextInt(60 * 24 * 120));
+            LocalDateTime end = start.plusMinutes(random.nextInt(60 * 24 * 20));
+            assertEquals(reference(start, end), workCalendar.workingMinutes(start, end), start + " -> " + end);
+        }
+        // 每年只查一次資料庫
+        verify(holidayRepository, times(2)).findByDateBetween(any(), any());
+    }
+
+    @Test
+    void invalidate_shouldReloadCalendar() {
+        workCalendar.isWorkingDay(HOLIDAY);
+        workCalendar.isWorkingDay(MAKEUP);
+        holidayCalendar.invalidate(2025);
+        workCalendar.isWorkingDay(HOLIDAY);
+
+        verify(holidayRepository, times(2)).findByDateBetween(any(), any());
+    }
+
+    private long reference(LocalDateTime start, LocalDateTime end) {
+        long minutes = 0;
+        for (LocalDateTime t = start; t.isBefore(end); t = t.plusMinutes(1)) {
+            LocalDate date = t.toLocalDate();
+            boolean workingDay = date.equals(MAKEUP) || (!date.equals(HOLIDAY)
+                    && date.getDayOfWeek() != DayOfWeek.SATURDAY && date.getDayOfWeek() != DayOfWeek.SUNDAY);
+            LocalTime time = t.toLocalTime();
+            boolean workingTime = (!time.isBefore(LocalTime.of(9, 0)) && time.isBefore(LocalTime.of(12, 0)))
+                    || (!time.isBefore(LocalTime.of(13, 0)) && time.isBefore(LocalTime.of(18, 0)));
+            if (workingDay && workingTime) {
+                minutes++;
+            }
+        }
+        return minutes;
+    }
+
+    private NationalHoliday holiday(LocalDate date, String type) {
+        NationalHoliday holiday = new NationalHoliday();
+        holiday.setDate(date);
+        holiday.setType(type);
+        return holiday;
+    }
+}
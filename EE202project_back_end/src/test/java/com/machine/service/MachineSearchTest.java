@@ -0,0 +1,157 @@
+package com.machine.service;
+
+import com.project.machine.Bean.MachinesBean;
+import com.project.machine.Bean.StatusCodesBean;
+import com.project.machine.Repository.MachineSpecifications;
+import com.project.machine.Repository.MachinesRepository;
+import com.project.machine.utils.PageUtil;
+import com.testsupport.TestDatabase;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.persistenceunit.PersistenceManagedTypes;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 機台查詢條件測試
+ * 以 H2 記憶體資料庫驗證狀態、關鍵字條件與分頁皆在資料庫端完成。
+ */
+public class MachineSearchTest {
+
+    private EntityManagerFactory entityManagerFactory;
+    private EntityManager entityManager;
+    private MachinesRepository machinesRepository;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource dataSource = TestDatabase.create("machines");
+
+        LocalContainerEntityManagerFactoryBean factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factoryBean.setManagedTypes(PersistenceManagedTypes.of(
+                MachinesBean.class.getName(), StatusCodesBean.class.getName()));
+        factoryBean.setJpaPropertyMap(Map.of(
+                "hibernate.hbm2ddl.auto", "create-drop",
+                "hibernate.generate_statistics", "true"));
+        factoryBean.afterPropertiesSet();
+        entityManagerFactory = factoryBean.getObject();
+        entityManager = entityManagerFactory.createEntityManager();
+        machinesRepository = new JpaRepositoryFactory(entityManager).getRepository(MachinesRepository.class);
+
+        entityManager.getTransaction().begin();
+        StatusCodesBean run = status("RUN");
+        StatusCodesBean stop = status("STOP");
+        for (int i = 1; i <= 30; i++) {
+            MachinesBean machine = new MachinesBean(i % 3 == 0 ? "焊接機" : "切割機",
+                    String.format("SN%05d", 10000 + i), "一樓");
+            machine.setStatusCode(i % 2 == 0 ? run : stop);
+            entityManager.persist(machine);
+        }
+        MachinesBean wildcard = new MachinesBean("100%_測試機", "XX-1", "二樓");
+        wildcard.setStatusCode(stop);
+        entityManager.persist(wildcard);
+        entityManager.getTransaction().commit();
+        entityManager.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        entityManager.close();
+        entityManagerFactory.close();
+    }
+
+    private StatusCodesBean status(String code) {
+        StatusCodesBean status = new StatusCodesBean();
+        status.setStatusCode(code);
+        status.setStatusLabel(code);
+        status.setStatusType("machine");
+        entityManager.persist(status);
+        return status;
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+
+    @Test
+    void search_shouldCombineStatusAndKeyword() {
+        List<MachinesBean> result = machinesRepository.findAll(
+                MachineSpecifications.search("RUN", "焊接"), PageUtil.createPageable(0, 50).getSort());
+
+        // 焊接機為 3 的倍數，RUN 為偶數 -> 6, 12, 18, 24, 30
+        assertEquals(List.of(6, 12, 18, 24, 30), result.stream().map(MachinesBean::getMachineId).toList());
+    }
+
+    @Test
+    void search_shouldMatchSerialPrefixAndMachineId() {
+        List<Integer> bySerial = machinesRepository.findAll(MachineSpecifications.search(null, "SN1002"))
+                .stream().map(MachinesBean::getMachineId).sorted().toList();
+        assertEquals(List.of(20, 21, 22, 23, 24, 25, 26, 27, 28, 29), bySerial);
+
+        // 出廠編號只比對開頭，不比對中段
+        assertTrue(machinesRepository.findAll(MachineSpecifications.search(null, "1002")).isEmpty());
+
+        List<MachinesBean> byId = machinesRepository.findAll(MachineSpecifications.search(null, "7"));
+        assertEquals(List.of(7), byId.stream().map(MachinesBean::getMachineId).toList());
+    }
+
+    @Test
+    void search_shouldTreatLikeWildcardsLiterally() {
+        List<MachinesBean> result = machinesRepository.findAll(MachineSpecifications.search(null, "100%_"));
+
+        assertEquals(1, result.size());
+        assertEquals("XX-1", result.get(0).getSerialNumber());
+        // 若 _ 被當成萬用字元會比對到「切割機」
+        assertTrue(machinesRepository.findAll(MachineSpecifications.search(null, "切_機")).isEmpty());
+    }
+
+    @Test
+    void countByStatusCode_shouldGroupInDatabase() {
+        entityManager.getTransaction().begin();
+        status("IDLE");
+        entityManager.getTransaction().commit();
+        Statistics statistics = statistics();
+
+        // IDLE 沒有機台使用，不列入
+        Map<String, Long> counts = machinesRepository.countByStatusCode().stream()
+                .collect(Collectors.toMap(row -> (String) row[0], row -> ((Number) row[1]).longValue()));
+        assertEquals(Map.of("RUN", 15L, "STOP", 16L), counts);
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void search_shouldPageInDatabaseAndFetchStatusInSameQuery() {
+        Statistics statistics = statistics();
+
+        Page<MachinesBean> page = machinesRepository.findAll(MachineSpecifications.search("STOP", null),
+                PageUtil.createPageable(1, 5, "serialNumber", false));
+
+        assertEquals(16, page.getTotalElements());
+        assertEquals(4, page.getTotalPages());
+        assertEquals(List.of("SN10021", "SN10019", "SN10017", "SN10015", "SN10013"),
+                page.getContent().stream().map(MachinesBean::getSerialNumber).toList());
+        page.getContent().forEach(machine -> assertEquals("STOP", machine.getStatusCode().getStatusLabel()));
+
+        // 一次查詢資料 (含狀態)，一次計算總筆數
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,80 @@
+package com.machine.service;
+
+import com.project.core.cache.ReferenceDataCache;
+import com.project.machine.Bean.StatusCodesBean;
+import com.project.machine.Repository.MachinesRepository;
+import com.project.machine.Service.machine.MachineStatusChangedEvent;
+import com.project.machine.Service.machine.MachineStatusUsage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 機台狀態使用數測試
+ * 狀態選項由狀態代碼快取與記憶體中的使用數產生，只在載入時查詢資料庫。
+ */
+public class MachineStatusUsageTest {
+
+    private MachinesRepository machinesRepository;
+    private MachineStatusUsage usage;
+
+    @BeforeEach
+    void setUp() {
+        machinesRepository = mock(MachinesRepository.class);
+        when(machinesRepository.countByStatusCode()).thenReturn(rows(new Object[] { "RUN", 2L },
+                new Object[] { "STOP", 1L }));
+        List<StatusCodesBean> codes = Stream.of("IDLE", "RUN", "STOP").map(MachineStatusUsageTest::status).toList();
+        usage = new MachineStatusUsage(machinesRepository,
+                new ReferenceDataCache<>("statusCodes", () -> codes, StatusCodesBean::getStatusCode));
+    }
+
+    private static List<Object[]> rows(Object[]... rows) {
+        return new ArrayList<>(List.of(rows));
+    }
+
+    private static StatusCodesBean status(String code) {
+        StatusCodesBean status = new StatusCodesBean();
+        status.setStatusCode(code);
+        status.setStatusLabel(code);
+        status.setStatusType("machine");
+        return status;
+    }
+
+    @Test
+    void statusOptions_shouldListOnlyStatusesInUseAndLoadOnce() {
+        assertEquals(List.of("RUN", "STOP"), usage.statusOptions());
+        assertEquals(List.of("RUN", "STOP"), usage.statusOptions());
+
+        verify(machinesRepository, times(1)).countByStatusCode();
+    }
+
+    @Test
+    void onMachineStatusChanged_shouldMoveMachineBetweenStatuses() {
+        usage.statusOptions();
+
+        usage.onMachineStatusChanged(new MachineStatusChangedEvent(1, "切割機", "IDLE", "STOP"));
+        assertEquals(List.of("IDLE", "RUN"), usage.statusOptions());
+
+        usage.onMachineStatusChanged(new MachineStatusChangedEvent(2, "焊接機", "STOP", "RUN"));
+        usage.onMachineStatusChanged(new MachineStatusChangedEvent(3, "焊接機", "STOP", "RUN"));
+        assertEquals(List.of("IDLE", "STOP"), usage.statusOptions());
+        verify(machinesRepository, times(1)).countByStatusCode();
+    }
+
+    @Test
+    void refresh_shouldReplaceCountsFromDatabase() {
+        usage.statusOptions();
+        when(machinesRepository.countByStatusCode()).thenReturn(rows(new Object[] { "IDLE", 4L }));
+
+        usage.refresh();
+
+        assertEquals(List.of("IDLE"), usage.statusOptions());
+    }
+}
@@ -0,0 +1,50 @@
+package com.testsupport;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.math.BigDecimal;
+
+/**
+ * 測試用 H2 記憶體資料庫
+ * 以 SQL Server 相容模式 (BIT 可與 0/1 比較、IDENTITY、NVARCHAR(MAX)) 建立，
+ * 資料表結構放在 src/test/resources/schema/*.sql，與各模組 .md 記載的 DDL 相同；
+ * H2 不支援篩選索引與 INCLUDE，這類索引在腳本中省略。
+ */
+public final class TestDatabase {
+
+    private TestDatabase() {
+    }
+
+    /**
+     * 建立獨立的記憶體資料庫並依序執行 schema/&lt;name&gt;.sql
+     *
+     * @param name    資料庫名稱前綴 (實際名稱加上 nanoTime，測試之間互不影響)
+     * @param schemas 要建立的結構腳本名稱，例如 "core_materials"
+     */
+    public static JdbcDataSource create(String name, String... schemas) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + "_" + System.nanoTime()
+                + ";MODE=MSSQLServer;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000");
+        if (schemas.length > 0) {
+            ResourceDatabasePopulator populator = new ResourceDatabasePopulator();
+            for (String schema : schemas) {
+                populator.addScript(new ClassPathResource("schema/" + schema + ".sql"));
+            }
+            populator.execute(dataSource);
+        }
+        return dataSource;
+    }
+
+    /**
+     * 新增物料 (只填必要欄位與庫存相關欄位)
+     */
+    public static void insertMaterial(JdbcTemplate jdbcTemplate, long materialId, String name,
+            BigDecimal stockCurrent, BigDecimal safetyStock) {
+        jdbcTemplate.update("INSERT INTO core_materials (material_id, material_name, material_type, unit, "
+                + "stock_current, safety_stock) VALUES (?, ?, '原料', '個', ?, ?)",
+                materialId, name, stockCurrent, safetyStock);
+    }
+}
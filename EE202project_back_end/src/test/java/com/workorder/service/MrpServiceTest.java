@@ -0,0 +1,211 @@
+package com.workorder.service;
+
+import com.project.bom.exception.BomCycleException;
+import com.project.bom.service.BomChangedEvent;
+import com.project.bom.service.BomExplosionService;
+import com.project.depot.service.StockChangedEvent;
+import com.project.workorder.dao.MrpDao;
+import com.project.workorder.dto.MrpNetRequirementDto;
+import com.project.workorder.dto.MrpRunResponse;
+import com.project.workorder.service.MrpServiceImpl;
+import com.project.workorder.service.WorkOrderChangedEvent;
+import com.testsupport.TestDatabase;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * MRP 淨需求服務測試
+ * 以 H2 記憶體資料庫驗證集合式淨需求計算，BOM 展開以 mock 回傳每單位毛需求。
+ */
+public class MrpServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private BomExplosionService bomExplosionService;
+    private MrpServiceImpl mrpService;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource dataSource = TestDatabase.create("mrp", "core_materials", "outbound_work_orders", "mrp");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        // 成品 1 = 2 x 半成品 10；半成品 10 = 3 x 原料 20 (每單位成品需要 2 個 10、6 個 20)
+        // 成品 2 = 1 x 原料 20；成品 3 的 BOM 由個別測試設定
+        material(1, "0", "0", "0", 0, 0);
+        material(2, "0", "0", "0", 0, 0);
+        material(3, "0", "0", "0", 0, 0);
+        material(10, "5", "1", "0", 0, 0);
+        material(20, "30", "0", "10", 5, 15);
+        bomExplosionService = mock(BomExplosionService.class);
+        when(bomExplosionService.unitRequirements(eq(1L), any()))
+                .thenReturn(Map.of(10L, new BigDecimal("2"), 20L, new BigDecimal("6")));
+        when(bomExplosionService.unitRequirements(eq(2L), any()))
+                .thenReturn(Map.of(20L, BigDecimal.ONE));
+
+        mrpService = new MrpServiceImpl(new MrpDao(jdbcTemplate), bomExplosionService,
+                new DataSourceTransactionManager(dataSource));
+    }
+
+    private void material(long id, String current, String reserved, String inShipping, int safety, int reorder) {
+        TestDatabase.insertMaterial(jdbcTemplate, id, "M" + id, new BigDecimal(current), BigDecimal.valueOf(safety));
+        jdbcTemplate.update("UPDATE core_materials SET stock_reserved = ?, stock_in_shipping = ?, reorder_level = ? "
+                + "WHERE material_id = ?", new BigDecimal(reserved), new BigDecimal(inShipping), reorder, id);
+    }
+
+    private void workOrder(long woId, long product, String required, String successful, String status) {
+        jdbcTemplate.update("INSERT INTO outbound_work_orders (wo_id, wo_number, material_id, required_quantity, "
+                + "successful_quantity, status, created_at, updated_at) "
+                + "VALUES (?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)", woId, "WO-" + woId, product,
+                new BigDecimal(required), successful == null ? null : new BigDecimal(successful), status);
+    }
+
+    private Map<Long, MrpNetRequirementDto> netRequirements() {
+        return mrpService.findNetRequirements(false, PageRequest.of(0, 100)).getContent().stream()
+                .collect(Collectors.toMap(MrpNetRequirementDto::getMaterialId, dto -> dto));
+    }
+
+    @Test
+    void recomputeAll_shouldExplodeEachProductOnceAndComputeNetRequirements() {
+        workOrder(100, 1, "5", null, "PENDING");
+        workOrder(101, 1, "5", "2", "IN_PROGRESS"); // 剩 3
+        workOrder(102, 2, "4", null, "PENDING");
+        workOrder(103, 1, "50", null, "COMPLETED");
+
+        MrpRunResponse response = mrpService.recomputeAll();
+
+        assertEquals(3, response.getWorkOrders());
+        assertEquals(2, response.getProducts());
+        assertEquals(5, response.getDemandRows());
+        assertEquals(2, response.getMaterials());
+        verify(bomExplosionService, times(1)).unitRequirements(eq(1L), any());
+
+        Map<Long, MrpNetRequirementDto> net = netRequirements();
+        // 10: 毛需求 (5 + 3) x 2 = 16，可用 5 - 1 = 4 -> 淨需求 12
+        assertEquals(0, new BigDecimal("16").compareTo(net.get(10L).getGrossRequirement()));
+        assertEquals(0, new BigDecimal("12").compareTo(net.get(10L).getNetRequirement()));
+        assertEquals(2, net.get(10L).getOpenWorkOrders());
+        // 20: 毛需求 8 x 6 + 4 = 52，可用 30 + 10 = 40，安全庫存 5 -> 淨需求 17，且低於再訂購點
+        assertEquals(0, new BigDecimal("52").compareTo(net.get(20L).getGrossRequirement()));
+        assertEquals(0, new BigDecimal("17").compareTo(net.get(20L).getNetRequirement()));
+        assertTrue(net.get(20L).isBelowReorderLevel());
+        assertEquals(3, net.get(20L).getOpenWorkOrders());
+    }
+
+    @Test
+    void recomputeAll_shouldSkipProductsWithCyclicBom() {
+        workOrder(100, 1, "1", null, "PENDING");
+        workOrder(102, 2, "4", null, "PENDING");
+        when(bomExplosionService.unitRequirements(eq(1L), any()))
+                .thenThrow(new BomCycleException(List.of(10L, 11L, 10L)));
+
+        MrpRunResponse response = mrpService.recomputeAll();
+
+        assertEquals(1, response.getSkippedProducts());
+        assertEquals(List.of(20L), List.copyOf(netRequirements().keySet()));
+    }
+
+    @Test
+    void processPendingChanges_shouldOnlyReexplodeChangedWorkOrders() {
+        workOrder(100, 1, "5", null, "PENDING");
+        workOrder(102, 2, "4", null, "PENDING");
+        mrpService.recomputeAll();
+
+        jdbcTemplate.update("UPDATE outbound_work_orders SET required_quantity = 10 WHERE wo_id = 102");
+        mrpService.onWorkOrderChanged(new WorkOrderChangedEvent(102L));
+        MrpRunResponse response = mrpService.processPendingChanges();
+
+        assertEquals(1, response.getWorkOrders());
+        verify(bomExplosionService, times(1)).unitRequirements(eq(1L), any());
+        verify(bomExplosionService, times(2)).unitRequirements(eq(2L), any());
+        // 20: 5 x 6 + 10 = 40
+        assertEquals(0, new BigDecimal("40").compareTo(netRequirements().get(20L).getGrossRequirement()));
+
+        // 完工的工單移除毛需求
+        jdbcTemplate.update("UPDATE outbound_work_orders SET status = 'COMPLETED' WHERE wo_id = 100");
+        mrpService.onWorkOrderChanged(new WorkOrderChangedEvent(100L));
+        mrpService.processPendingChanges();
+        assertFalse(netRequirements().containsKey(10L));
+
+        // 沒有任何異動時略過，不重建淨需求
+        jdbcTemplate.update("UPDATE core_materials SET stock_current = 0 WHERE material_id = 20");
+        assertEquals(0, mrpService.processPendingChanges().getMaterials());
+        assertEquals(0, BigDecimal.ZERO.compareTo(netRequirements().get(20L).getNetRequirement()));
+
+        // 只有庫存異動時不展開，只以目前庫存重建淨需求
+        mrpService.onStockChanged(new StockChangedEvent(List.of(20L)));
+        MrpRunResponse stockOnly = mrpService.processPendingChanges();
+        assertEquals(0, stockOnly.getWorkOrders());
+        assertEquals(1, stockOnly.getMaterials());
+        verify(bomExplosionService, times(2)).unitRequirements(eq(2L), any());
+        // 20: 毛需求 10，可用 0 + 10，安全庫存 5 -> 淨需求 5
+        assertEquals(0, new BigDecimal("5").compareTo(netRequirements().get(20L).getNetRequirement()));
+    }
+
+    @Test
+    void recomputeAll_shouldExcludeCancelledWorkOrders() {
+        workOrder(100, 1, "5", null, "PENDING");
+        workOrder(102, 2, "4", null, "CANCELLED");
+
+        MrpRunResponse response = mrpService.recomputeAll();
+
+        assertEquals(1, response.getWorkOrders());
+        verify(bomExplosionService, never()).unitRequirements(eq(2L), any());
+        // 20: 只有工單 100 的 5 x 6 = 30
+        assertEquals(0, new BigDecimal("30").compareTo(netRequirements().get(20L).getGrossRequirement()));
+
+        // 取消既有工單時移除其毛需求
+        jdbcTemplate.update("UPDATE outbound_work_orders SET status = 'CANCELLED' WHERE wo_id = 100");
+        mrpService.onWorkOrderChanged(new WorkOrderChangedEvent(100L));
+        mrpService.processPendingChanges();
+        assertTrue(netRequirements().isEmpty());
+    }
+
+    @Test
+    void processPendingChanges_bomChangeShouldReexplodeWorkOrdersUsingSubAssembly() {
+        workOrder(100, 1, "5", null, "PENDING");
+        workOrder(102, 2, "4", null, "PENDING");
+        mrpService.recomputeAll();
+
+        // 半成品 10 的 BOM 改為 4 x 原料 20
+        when(bomExplosionService.unitRequirements(eq(1L), any()))
+                .thenReturn(Map.of(10L, new BigDecimal("2"), 20L, new BigDecimal("8")));
+        mrpService.onBomChanged(new BomChangedEvent(10L));
+        MrpRunResponse response = mrpService.processPendingChanges();
+
+        assertEquals(1, response.getWorkOrders());
+        verify(bomExplosionService, times(1)).unitRequirements(eq(2L), any());
+        // 20: 5 x 8 + 4 = 44
+        assertEquals(0, new BigDecimal("44").compareTo(netRequirements().get(20L).getGrossRequirement()));
+    }
+
+    @Test
+    void findNetRequirements_shortageOnlyShouldSortByNetRequirement() {
+        material(30, "0", "0", "0", 0, 0);
+        when(bomExplosionService.unitRequirements(eq(3L), any())).thenReturn(Map.of(30L, BigDecimal.ONE));
+        workOrder(100, 1, "5", null, "PENDING");
+        workOrder(104, 3, "1", null, "PENDING");
+        mrpService.recomputeAll();
+
+        Page<MrpNetRequirementDto> page = mrpService.findNetRequirements(true, PageRequest.of(0, 1));
+
+        assertEquals(2, page.getTotalElements());
+        // 10: 淨需求 10 - 4 = 6；30: 淨需求 1；20 可用量足夠不列入
+        assertEquals(10L, page.getContent().get(0).getMaterialId());
+        assertEquals("M10", page.getContent().get(0).getMaterialName());
+    }
+}
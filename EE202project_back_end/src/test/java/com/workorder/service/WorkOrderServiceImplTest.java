@@ -1,14 +1,18 @@
 package com.workorder.service;
 
+import com.project.bom.model.BomComponent;
+import com.project.bom.service.BomComponentService;
 import com.project.core.dao.EmployeeUserRepository;
 import com.project.depot.dao.InventoryTransactionRepository;
 import com.project.depot.dao.MaterialRepository;
 import com.project.depot.model.InventoryTransaction;
 import com.project.depot.model.Material;
+import com.project.depot.service.StockMutationService;
 import com.project.workorder.dao.WorkOrderMaterialRepository;
 import com.project.workorder.dao.WorkOrderRepository;
 import com.project.workorder.model.WorkOrder;
 import com.project.workorder.model.WorkOrderMaterial;
+import com.project.workorder.service.WorkOrderChangedEvent;
 import com.project.workorder.service.WorkOrderServiceImpl;
 import com.project.workorder.dto.PickingRequest;
 import com.project.workorder.dto.WorkOrderDto;
@@ -21,11 +25,17 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -47,12 +57,26 @@ class WorkOrderServiceImplTest {
     @Mock
     private EmployeeUserRepository employeeUserRepository;
 
+    @Mock
+    private BomComponentService bomComponentService;
+
+    @Mock
+    private StockMutationService stockMutationService;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private WorkOrderServiceImpl workOrderService; // Change to implementation class
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        // JdbcTemplate is field-injected, so constructor injection does not pick it up
+        ReflectionTestUtils.setField(workOrderService, "jdbcTemplate", jdbcTemplate);
     }
 
     @Test
@@ -83,6 +107,50 @@ class WorkOrderServiceImplTest {
                 any(PageRequest.class));
     }
 
+    @Test
+    void findAllWorkOrders_shouldLoadMachinesForWholePageInOneQuery() {
+        // Arrange
+        WorkOrder wo1 = new WorkOrder();
+        wo1.setWoId(1L);
+        wo1.setMaterial(new Material());
+        WorkOrder wo2 = new WorkOrder();
+        wo2.setWoId(2L);
+        wo2.setMaterial(new Material());
+
+        when(workOrderRepository.findAll(any(org.springframework.data.jpa.domain.Specification.class),
+                any(PageRequest.class))).thenReturn(new PageImpl<>(Arrays.asList(wo1, wo2)));
+
+        // Act
+        List<WorkOrderDto> result = workOrderService.findAllWorkOrders(null, null, null, PageRequest.of(0, 10))
+                .getContent();
+
+        // Assert
+        assertEquals(2, result.size());
+        assertNotNull(result.get(0).getMachines());
+        verify(jdbcTemplate, times(1)).query(contains("IN (?, ?)"), any(RowCallbackHandler.class),
+                any(Object[].class));
+    }
+
+    @Test
+    void findAllWorkOrders_shouldSkipMachines_inLightweightMode() {
+        // Arrange
+        WorkOrder wo1 = new WorkOrder();
+        wo1.setWoId(1L);
+        wo1.setMaterial(new Material());
+
+        when(workOrderRepository.findAll(any(org.springframework.data.jpa.domain.Specification.class),
+                any(PageRequest.class))).thenReturn(new PageImpl<>(Arrays.asList(wo1)));
+
+        // Act
+        List<WorkOrderDto> result = workOrderService
+                .findAllWorkOrders(null, null, null, false, PageRequest.of(0, 10)).getContent();
+
+        // Assert
+        assertEquals(1, result.size());
+        assertNull(result.get(0).getMachines());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
     @Test
     void findWorkOrderById_shouldReturnWorkOrder_whenFound() {
         // Arrange
@@ -157,6 +225,7 @@ class WorkOrderServiceImplTest {
 
         // Assert
         verify(workOrderRepository, times(1)).deleteById(1L);
+        verify(eventPublisher).publishEvent(new WorkOrderChangedEvent(1L));
     }
 
     @Test
@@ -177,7 +246,7 @@ class WorkOrderServiceImplTest {
 
         when(workOrderRepository.findById(1L)).thenReturn(Optional.of(workOrder));
         when(materialRepository.findById(1L)).thenReturn(Optional.of(material));
-        when(materialRepository.save(any(Material.class))).thenReturn(material);
+        when(stockMutationService.applyDelta(1L, BigDecimal.valueOf(-10))).thenReturn(true);
         when(inventoryTransactionRepository.save(any(InventoryTransaction.class)))
                 .thenReturn(new InventoryTransaction());
         when(workOrderMaterialRepository.findByWorkOrder_WoId(anyLong())).thenReturn(Arrays.asList()); // No existing
@@ -202,10 +271,10 @@ class WorkOrderServiceImplTest {
 
         // Assert
         assertNotNull(result);
-        assertEquals(BigDecimal.valueOf(90), material.getStockCurrent());
         verify(workOrderRepository, times(1)).findById(1L);
         verify(materialRepository, times(1)).findById(1L);
-        verify(materialRepository, times(1)).save(material);
+        verify(stockMutationService, times(1)).applyDelta(1L, BigDecimal.valueOf(-10));
+        verify(materialRepository, never()).save(any(Material.class));
         verify(inventoryTransactionRepository, times(1)).save(any(InventoryTransaction.class));
         verify(workOrderMaterialRepository, times(1)).save(any(WorkOrderMaterial.class));
     }
@@ -228,6 +297,7 @@ class WorkOrderServiceImplTest {
 
         when(workOrderRepository.findById(1L)).thenReturn(Optional.of(workOrder));
         when(materialRepository.findById(1L)).thenReturn(Optional.of(material));
+        when(stockMutationService.applyDelta(1L, BigDecimal.valueOf(-10))).thenReturn(false);
 
         // Act & Assert
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
@@ -336,4 +406,115 @@ class WorkOrderServiceImplTest {
         verify(workOrderRepository, times(1)).findById(1L);
         verify(workOrderRepository, times(1)).save(any(WorkOrder.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void updateWorkOrderStatus_completed_shouldLoadComponentsOnceAndWriteInBatch() {
+        // Arrange
+        Material product = new Material();
+        product.setMaterialId(100L);
+        product.setStockCurrent(BigDecimal.ZERO);
+
+        WorkOrder workOrder = new WorkOrder();
+        workOrder.setWoId(1L);
+        workOrder.setMaterial(product);
+        workOrder.setSuccessfulQuantity(BigDecimal.valueOf(2));
+
+        Material raw1 = new Material();
+        raw1.setMaterialId(1L);
+        raw1.setStockCurrent(BigDecimal.valueOf(10));
+        Material raw2 = new Material();
+        raw2.setMaterialId(2L);
+        raw2.setStockCurrent(BigDecimal.valueOf(10));
+
+        BomComponent c1 = new BomComponent();
+        c1.setComponentMaterialId(1L);
+        c1.setQuantity(BigDecimal.valueOf(3));
+        BomComponent c2 = new BomComponent();
+        c2.setComponentMaterialId(2L);
+        c2.setQuantity(BigDecimal.valueOf(4));
+
+        when(workOrderRepository.findById(1L)).thenReturn(Optional.of(workOrder));
+        when(workOrderRepository.save(any(WorkOrder.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(bomComponentService.getEffectiveBomComponents(eq(100L), any(LocalDateTime.class))).thenReturn(Arrays.asList(c1, c2));
+        when(materialRepository.findAllById(any())).thenReturn(Arrays.asList(raw1, raw2));
+        when(stockMutationService.applyDelta(100L, BigDecimal.valueOf(2))).thenReturn(true);
+        when(stockMutationService.applyDeltas(anyMap())).thenReturn(List.of());
+
+        // Act
+        workOrderService.updateWorkOrderStatus(1L, "COMPLETED");
+
+        // Assert
+        verify(materialRepository, times(1)).findAllById(any());
+        verify(materialRepository, never()).findById(anyLong());
+        verify(stockMutationService, times(1)).applyDelta(100L, BigDecimal.valueOf(2));
+        verify(stockMutationService, times(1)).applyDeltas(anyMap());
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void updateWorkOrderStatus_completed_shouldWriteNothing_whenAnyComponentShort() {
+        // Arrange
+        Material product = new Material();
+        product.setMaterialId(100L);
+
+        WorkOrder workOrder = new WorkOrder();
+        workOrder.setWoId(1L);
+        workOrder.setMaterial(product);
+        workOrder.setSuccessfulQuantity(BigDecimal.valueOf(2));
+
+        Material raw1 = new Material();
+        raw1.setMaterialId(1L);
+        raw1.setStockCurrent(BigDecimal.valueOf(10));
+        Material raw2 = new Material();
+        raw2.setMaterialId(2L);
+        raw2.setMaterialName("Short Material");
+        raw2.setStockCurrent(BigDecimal.valueOf(5));
+
+        BomComponent c1 = new BomComponent();
+        c1.setComponentMaterialId(1L);
+        c1.setQuantity(BigDecimal.valueOf(3));
+        BomComponent c2 = new BomComponent();
+        c2.setComponentMaterialId(2L);
+        c2.setQuantity(BigDecimal.valueOf(4));
+
+        when(workOrderRepository.findById(1L)).thenReturn(Optional.of(workOrder));
+        when(bomComponentService.getEffectiveBomComponents(eq(100L), any(LocalDateTime.class))).thenReturn(Arrays.asList(c1, c2));
+        when(materialRepository.findAllById(any())).thenReturn(Arrays.asList(raw1, raw2));
+        when(stockMutationService.applyDelta(100L, BigDecimal.valueOf(2))).thenReturn(true);
+
+        // Act & Assert
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> workOrderService.updateWorkOrderStatus(1L, "COMPLETED"));
+        assertTrue(exception.getMessage().contains("Short Material"));
+        verify(stockMutationService, never()).applyDeltas(anyMap());
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        verify(workOrderRepository, never()).save(any(WorkOrder.class));
+    }
+
+    @Test
+    void updateWorkOrderStatus_completed_shouldFail_whenProductStockNotUpdated() {
+        // Arrange
+        Material product = new Material();
+        product.setMaterialId(100L);
+        product.setMaterialName("Finished Product");
+
+        WorkOrder workOrder = new WorkOrder();
+        workOrder.setWoId(1L);
+        workOrder.setMaterial(product);
+        workOrder.setSuccessfulQuantity(BigDecimal.valueOf(2));
+
+        when(workOrderRepository.findById(1L)).thenReturn(Optional.of(workOrder));
+        when(stockMutationService.applyDelta(100L, BigDecimal.valueOf(2))).thenReturn(false);
+
+        // Act & Assert
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> workOrderService.updateWorkOrderStatus(1L, "COMPLETED"));
+        assertTrue(exception.getMessage().contains("Finished Product"));
+        verify(inventoryTransactionRepository, never()).save(any(InventoryTransaction.class));
+        verify(workOrderRepository, never()).save(any(WorkOrder.class));
+    }
+}
@@ -0,0 +1,17 @@
+-- core_materials：依 JPA 實體 Material (depot/model/Material.java) 的欄位
+CREATE TABLE core_materials (
+    material_id          BIGINT IDENTITY PRIMARY KEY,
+    material_name        NVARCHAR(100) NOT NULL,
+    price                DECIMAL(18, 4) NULL,
+    category             NVARCHAR(255) NULL,
+    material_type        NVARCHAR(20) NOT NULL,
+    unit                 NVARCHAR(20) NOT NULL,
+    material_description NVARCHAR(200) NULL,
+    location             NVARCHAR(50) NULL,
+    stock_current        DECIMAL(18, 4) NULL,
+    stock_reserved       DECIMAL(18, 4) NULL,
+    stock_in_shipping    DECIMAL(18, 4) NULL,
+    safety_stock         DECIMAL(18, 4) NULL,
+    reorder_level        DECIMAL(18, 4) NULL,
+    active               BIT NOT NULL DEFAULT 1
+);
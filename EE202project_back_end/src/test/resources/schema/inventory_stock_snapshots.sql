@@ -0,0 +1,14 @@
+-- 同 depot/inventory_transaction.md
+CREATE TABLE inventory_stock_snapshots (
+    snapshot_id     BIGINT IDENTITY PRIMARY KEY,
+    material_id     BIGINT NOT NULL REFERENCES core_materials(material_id),
+    snapshot_date   DATE NOT NULL,
+    closing_balance DECIMAL(18, 4) NOT NULL,
+    CONSTRAINT uq_inventory_stock_snapshots_material_date UNIQUE (material_id, snapshot_date)
+);
+
+CREATE TABLE inventory_snapshot_watermarks (
+    watermark_name      NVARCHAR(50) PRIMARY KEY,
+    last_transaction_id BIGINT NOT NULL,
+    updated_at          DATETIME2
+);
@@ -0,0 +1,16 @@
+-- inventory_transactions：依 JPA 實體 InventoryTransaction 的欄位，索引同 depot/inventory_transaction.md
+CREATE TABLE inventory_transactions (
+    transaction_id     BIGINT IDENTITY PRIMARY KEY,
+    material_id        BIGINT NOT NULL REFERENCES core_materials(material_id),
+    transaction_type   NVARCHAR(50) NOT NULL,
+    quantity           DECIMAL(18, 4) NOT NULL,
+    transaction_date   DATETIME2 NOT NULL,
+    reference_table    NVARCHAR(100) NULL,
+    reference_id       BIGINT NULL,
+    created_by_user_id BIGINT NULL,
+    notes              NVARCHAR(MAX) NULL
+);
+CREATE INDEX ix_inventory_transactions_date_id
+    ON inventory_transactions (transaction_date, transaction_id);
+CREATE INDEX ix_inventory_transactions_material_date_id
+    ON inventory_transactions (material_id, transaction_date, transaction_id);
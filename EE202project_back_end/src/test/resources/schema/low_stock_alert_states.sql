@@ -0,0 +1,7 @@
+-- 同 core/notification.md
+CREATE TABLE low_stock_alert_states (
+    material_id   BIGINT PRIMARY KEY REFERENCES core_materials(material_id),
+    stock_current DECIMAL(18, 4) NOT NULL,
+    safety_stock  DECIMAL(18, 4) NOT NULL,
+    notified_at   DATETIME2 NOT NULL
+);
@@ -0,0 +1,21 @@
+-- 同 workorder/work_order.md (H2 不支援索引的 INCLUDE，省略)
+CREATE TABLE mrp_work_order_demands (
+    wo_id          BIGINT NOT NULL,
+    material_id    BIGINT NOT NULL,
+    gross_quantity DECIMAL(18, 4) NOT NULL,
+    computed_at    DATETIME2 NOT NULL,
+    CONSTRAINT pk_mrp_work_order_demands PRIMARY KEY (wo_id, material_id)
+);
+CREATE INDEX ix_mrp_work_order_demands_material ON mrp_work_order_demands (material_id);
+
+CREATE TABLE mrp_net_requirements (
+    material_id         BIGINT PRIMARY KEY REFERENCES core_materials(material_id),
+    gross_requirement   DECIMAL(18, 4) NOT NULL,
+    available_quantity  DECIMAL(18, 4) NOT NULL,
+    safety_stock        DECIMAL(18, 4) NOT NULL,
+    net_requirement     DECIMAL(18, 4) NOT NULL,
+    below_reorder_level BIT NOT NULL,
+    open_work_orders    INT NOT NULL,
+    computed_at         DATETIME2 NOT NULL
+);
+CREATE INDEX ix_mrp_net_requirements_net ON mrp_net_requirements (net_requirement DESC, material_id);
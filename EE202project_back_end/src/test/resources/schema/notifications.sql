@@ -0,0 +1,13 @@
+-- notifications：依 JPA 實體 Notification 的欄位加上 core/notification.md 的 dedupe_key
+-- (H2 不支援篩選索引與 INCLUDE，ux_notifications_unread_dedupe 等索引省略)
+CREATE TABLE notifications (
+    id         INT IDENTITY PRIMARY KEY,
+    user_id    INT NOT NULL,
+    type       NVARCHAR(255) NOT NULL,
+    title      NVARCHAR(255) NOT NULL,
+    message    NVARCHAR(255) NOT NULL,
+    link       NVARCHAR(255) NULL,
+    is_read    BIT NOT NULL,
+    created_at DATETIME2 NULL,
+    dedupe_key NVARCHAR(100) NULL
+);
@@ -0,0 +1,12 @@
+-- 同 core/notification.md
+CREATE TABLE notifications_archive (
+    id          INT PRIMARY KEY,
+    user_id     INT NOT NULL,
+    type        NVARCHAR(255) NOT NULL,
+    title       NVARCHAR(255) NOT NULL,
+    message     NVARCHAR(255) NOT NULL,
+    link        NVARCHAR(255) NULL,
+    created_at  DATETIME2 NULL,
+    dedupe_key  NVARCHAR(100) NULL,
+    archived_at DATETIME2 NOT NULL
+);
@@ -0,0 +1,15 @@
+-- outbound_work_orders：依 JPA 實體 WorkOrder (workorder/model/WorkOrder.java) 的欄位
+CREATE TABLE outbound_work_orders (
+    wo_id                BIGINT IDENTITY PRIMARY KEY,
+    wo_number            NVARCHAR(100) NOT NULL UNIQUE,
+    material_id          BIGINT NOT NULL REFERENCES core_materials(material_id),
+    required_quantity    DECIMAL(18, 4) NOT NULL,
+    produced_quantity    DECIMAL(18, 4) NULL,
+    status               NVARCHAR(50) NOT NULL,
+    requested_by_user_id BIGINT NULL,
+    issued_by_user_id    BIGINT NULL,
+    created_at           DATETIME2 NOT NULL,
+    updated_at           DATETIME2 NOT NULL,
+    failed_quantity      DECIMAL(18, 4) NULL,
+    successful_quantity  DECIMAL(18, 4) NULL
+);
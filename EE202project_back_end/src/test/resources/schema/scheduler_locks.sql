@@ -0,0 +1,7 @@
+-- 同 core/notification.md
+CREATE TABLE scheduler_locks (
+    lock_name    NVARCHAR(100) PRIMARY KEY,
+    locked_by    NVARCHAR(200) NOT NULL,
+    locked_at    DATETIME2 NOT NULL,
+    locked_until DATETIME2 NOT NULL
+);
@@ -0,0 +1,18 @@
+-- system_logs：依 JPA 實體 SystemLog (core/model/SystemLog.java) 的欄位
+CREATE TABLE system_logs (
+    id                   INT IDENTITY PRIMARY KEY,
+    log_type             NVARCHAR(50) NOT NULL,
+    operation            NVARCHAR(100) NOT NULL,
+    operator_employee_id INT NULL,
+    operator_username    NVARCHAR(50) NOT NULL,
+    target_type          NVARCHAR(50) NULL,
+    target_id            NVARCHAR(50) NULL,
+    target_name          NVARCHAR(100) NULL,
+    old_value            NVARCHAR(MAX) NULL,
+    new_value            NVARCHAR(MAX) NULL,
+    description          NVARCHAR(MAX) NULL,
+    ip_address           NVARCHAR(45) NULL,
+    user_agent           NVARCHAR(500) NULL,
+    created_at           DATETIME2 NOT NULL,
+    module               NVARCHAR(50) NULL
+);
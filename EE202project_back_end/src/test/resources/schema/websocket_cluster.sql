@@ -0,0 +1,23 @@
+-- 同 employeeuser/websocket_cluster.md
+CREATE TABLE websocket_outbox (
+    id          BIGINT IDENTITY PRIMARY KEY,
+    source_node NVARCHAR(200) NOT NULL,
+    target_node NVARCHAR(200) NULL,
+    kind        VARCHAR(20) NOT NULL,
+    target      NVARCHAR(200) NULL,
+    payload     NVARCHAR(MAX) NOT NULL,
+    created_at  DATETIME2 NOT NULL
+);
+CREATE INDEX ix_websocket_outbox_created ON websocket_outbox (created_at);
+
+CREATE TABLE websocket_nodes (
+    node_id      NVARCHAR(200) PRIMARY KEY,
+    heartbeat_at DATETIME2 NOT NULL
+);
+
+CREATE TABLE websocket_presence (
+    user_id      NVARCHAR(100) PRIMARY KEY,
+    node_id      NVARCHAR(200) NOT NULL,
+    connected_at DATETIME2 NOT NULL
+);
+CREATE INDEX ix_websocket_presence_node ON websocket_presence (node_id);